@@ -10,18 +10,24 @@ export default function AdminCitasPage() {
   const { showToast } = useToast();
   
   const [citas, setCitas] = useState([]);
+  const [siguienteCursor, setSiguienteCursor] = useState(null);
   const [loading, setLoading] = useState(true);
+  const [cargandoMas, setCargandoMas] = useState(false);
   const [filtroEstado, setFiltroEstado] = useState('TODAS');
 
   useEffect(() => {
     loadCitas();
-  }, []);
+  }, [filtroEstado]);
+
+  // El filtrado y la paginación se hacen en el servidor
+  const filtros = () => (filtroEstado === 'TODAS' ? {} : { estado: filtroEstado });
 
   const loadCitas = async () => {
     try {
       setLoading(true);
-      const data = await citaService.obtenerTodasLasCitas();
-      setCitas(data);
+      const pagina = await citaService.buscarCitas(filtros());
+      setCitas(pagina.contenido);
+      setSiguienteCursor(pagina.siguienteCursor);
     } catch (error) {
       console.error('Error al cargar citas:', error);
       showToast('Error al cargar citas', 'error');
@@ -30,6 +36,20 @@ export default function AdminCitasPage() {
     }
   };
 
+  const cargarMas = async () => {
+    try {
+      setCargandoMas(true);
+      const pagina = await citaService.buscarCitas(filtros(), siguienteCursor);
+      setCitas((anteriores) => [...anteriores, ...pagina.contenido]);
+      setSiguienteCursor(pagina.siguienteCursor);
+    } catch (error) {
+      console.error('Error al cargar citas:', error);
+      showToast('Error al cargar citas', 'error');
+    } finally {
+      setCargandoMas(false);
+    }
+  };
+
   const handleEliminar = async (id) => {
     if (!window.confirm('¿Estás seguro de eliminar esta cita? Esta acción no se puede deshacer.')) {
       return;
@@ -66,10 +86,6 @@ export default function AdminCitasPage() {
     return classes[estado] || 'bg-gray-100 text-gray-800';
   };
 
-  const citasFiltradas = filtroEstado === 'TODAS' 
-    ? citas 
-    : citas.filter(cita => cita.estado === filtroEstado);
-
   if (loading) {
     return (
       <div className="min-h-screen bg-gray-50">
@@ -155,14 +171,14 @@ export default function AdminCitasPage() {
                 </tr>
               </thead>
               <tbody className="bg-white divide-y divide-gray-200">
-                {citasFiltradas.length === 0 ? (
+                {citas.length === 0 ? (
                   <tr>
                     <td colSpan="7" className="px-6 py-4 text-center text-gray-500">
                       No se encontraron citas
                     </td>
                   </tr>
                 ) : (
-                  citasFiltradas.map((cita) => (
+                  citas.map((cita) => (
                     <tr key={cita.id} className="hover:bg-gray-50">
                       <td className="px-6 py-4 whitespace-nowrap text-sm text-gray-900">
                         {cita.id}
@@ -207,8 +223,17 @@ export default function AdminCitasPage() {
             </table>
           </div>
 
-          <div className="mt-4 text-sm text-gray-600">
-            Total de citas: {citasFiltradas.length}
+          <div className="mt-4 flex justify-between items-center text-sm text-gray-600">
+            <span>Citas mostradas: {citas.length}</span>
+            {siguienteCursor && (
+              <button
+                onClick={cargarMas}
+                disabled={cargandoMas}
+                className="bg-cyan-600 text-white px-4 py-2 rounded-md hover:bg-cyan-700 transition-colors disabled:opacity-50"
+              >
+                {cargandoMas ? 'Cargando...' : 'Cargar más'}
+              </button>
+            )}
           </div>
         </motion.div>
       </div>
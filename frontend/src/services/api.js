@@ -23,11 +23,26 @@ api.interceptors.request.use(
 // Interceptor para manejar errores de autenticación
 api.interceptors.response.use(
   (response) => response,
-  (error) => {
-    // Si el error es de autenticación, NO redirigir automáticamente
-    // Solo si es un 401 real (no 403)
+  async (error) => {
+    const original = error.config;
+
+    // Un 401 suele ser el token de acceso vencido (dura 15 minutos): se refresca y se reintenta una vez
+    if (error.response?.status === 401 && original && !original._reintento) {
+      original._reintento = true;
+      try {
+        const token = await authService.refresh();
+        original.headers.Authorization = `Bearer ${token}`;
+        return api(original);
+      } catch {
+        authService.clearSession();
+        window.location.href = '/login';
+        return Promise.reject(error);
+      }
+    }
+
+    // Si el reintento también da 401, la sesión ya no es válida
     if (error.response?.status === 401) {
-      authService.logout();
+      authService.clearSession();
       window.location.href = '/login';
     }
     
@@ -2,6 +2,9 @@ import axios from 'axios';
 
 const API_URL = 'http://localhost:8088/auth';
 
+// Refresco en curso: las peticiones que fallan a la vez con 401 esperan al mismo
+let refrescoEnCurso = null;
+
 export const authService = {
   async login(email, password) {
     const response = await axios.post(`${API_URL}/login`, {
@@ -21,7 +24,37 @@ export const authService = {
     return response.data;
   },
 
+  // Cambia el refreshToken por un token de acceso nuevo; cada refreshToken solo sirve una vez
+  refresh() {
+    if (!refrescoEnCurso) {
+      const refreshToken = this.getRefreshToken();
+      refrescoEnCurso = (refreshToken
+        ? axios.post(`${API_URL}/refresh`, { refreshToken }).then((response) => {
+            localStorage.setItem('user', JSON.stringify(response.data));
+            return response.data.token;
+          })
+        : Promise.reject(new Error('Sin token de refresco'))
+      ).finally(() => {
+        refrescoEnCurso = null;
+      });
+    }
+    return refrescoEnCurso;
+  },
+
   logout() {
+    const user = this.getCurrentUser();
+    if (user?.refreshToken) {
+      // Revoca la sesión en el servidor sin esperar la respuesta
+      axios.post(
+        `${API_URL}/logout`,
+        { refreshToken: user.refreshToken },
+        { headers: user.token ? { Authorization: `Bearer ${user.token}` } : {} }
+      ).catch(() => {});
+    }
+    this.clearSession();
+  },
+
+  clearSession() {
     localStorage.removeItem('user');
   },
 
@@ -43,5 +76,10 @@ export const authService = {
   getToken() {
     const user = this.getCurrentUser();
     return user?.token;
+  },
+
+  getRefreshToken() {
+    const user = this.getCurrentUser();
+    return user?.refreshToken;
   }
 };
\ No newline at end of file
@@ -6,6 +6,15 @@ export const citaService = {
     return response.data;
   },
 
+  async buscarCitas(filtros = {}, cursor = null, tamano = 20) {
+    const params = { ...filtros, tamano };
+    if (cursor) {
+      params.cursor = cursor;
+    }
+    const response = await api.get('/api/citas/buscar', { params });
+    return response.data;
+  },
+
   async obtenerCitaPorId(id) {
     const response = await api.get(`/api/citas/${id}`);
     return response.data;
@@ -16,6 +25,21 @@ export const citaService = {
     return response.data;
   },
 
+  async retenerHorario(citaData) {
+    const response = await api.post('/api/citas/retenciones', citaData);
+    return response.data;
+  },
+
+  async confirmarRetencion(retencionId) {
+    const response = await api.post(`/api/citas/retenciones/${retencionId}/confirmar`);
+    return response.data;
+  },
+
+  async liberarRetencion(retencionId) {
+    const response = await api.delete(`/api/citas/retenciones/${retencionId}`);
+    return response.data;
+  },
+
   async actualizarCita(id, citaData) {
     const response = await api.put(`/api/citas/${id}`, citaData);
     return response.data;
@@ -6,10 +6,12 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.core.env.Environment;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EntityScan("com.andrey.sistema_citas") // Asegura que escanee tus entidades
 @EnableJpaRepositories("com.andrey.sistema_citas.repository") // Asegura que encuentre tus repositorios
+@EnableScheduling
 public class SistemaCitasApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,76 @@
+package com.andrey.sistema_citas.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Cuenta las entidades que se cargan más de una vez dentro de la misma petición HTTP. Con open-in-view
+ * desactivado, cada transacción tiene su propio contexto de persistencia, así que una segunda carga de la
+ * misma entidad es otra consulta a la base de datos. Se publica como la métrica hibernate.cargas.repetidas,
+ * etiquetada por entidad. Las cargas fuera de una petición (tareas programadas, arranque) no se cuentan.
+ */
+@Component
+public class ContadorCargasRepetidas implements PostLoadEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ContadorCargasRepetidas.class);
+
+    static final String METRICA = "hibernate.cargas.repetidas";
+    private static final String ATRIBUTO = ContadorCargasRepetidas.class.getName() + ".cargadas";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final MeterRegistry meterRegistry;
+
+    public ContadorCargasRepetidas(EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void registrar() {
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .requireService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_LOAD, this);
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        RequestAttributes peticion = RequestContextHolder.getRequestAttributes();
+        if (peticion == null) {
+            return;
+        }
+
+        String entidad = event.getPersister().getEntityName();
+        @SuppressWarnings("unchecked")
+        Set<String> cargadas = (Set<String>) peticion.getAttribute(ATRIBUTO, RequestAttributes.SCOPE_REQUEST);
+        if (cargadas == null) {
+            cargadas = new HashSet<>();
+            peticion.setAttribute(ATRIBUTO, cargadas, RequestAttributes.SCOPE_REQUEST);
+        }
+
+        if (!cargadas.add(entidad + "#" + event.getId())) {
+            String nombre = entidad.substring(entidad.lastIndexOf('.') + 1);
+            Counter.builder(METRICA)
+                    .description("Entidades cargadas más de una vez en la misma petición")
+                    .tag("entidad", nombre)
+                    .register(meterRegistry)
+                    .increment();
+            log.debug("{} con id {} cargada de nuevo en la misma petición", nombre, event.getId());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.andrey.sistema_citas.config;
+
+import com.andrey.sistema_citas.exception.ApiError;
+import com.andrey.sistema_citas.service.IdempotenciaService;
+import com.andrey.sistema_citas.service.ResumenSha256;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * Hace idempotentes las peticiones que modifican datos en /api/ cuando traen la cabecera Idempotency-Key.
+ * La primera petición se procesa normalmente y su respuesta (si no es un error 5xx) se guarda;
+ * los reintentos con la misma clave reciben esa respuesta sin volver a ejecutar el controlador.
+ * Se ejecuta después de la cadena de Spring Security, así que el usuario ya está autenticado.
+ */
+@Component
+public class IdempotenciaFilter extends OncePerRequestFilter {
+
+    public static final String CABECERA = "Idempotency-Key";
+    public static final String CABECERA_REPETIDA = "Idempotent-Replayed";
+
+    private static final Set<String> METODOS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    private static final int LONGITUD_MAXIMA_CLAVE = 255;
+
+    private final IdempotenciaService idempotenciaService;
+    private final ObjectMapper objectMapper;
+
+    public IdempotenciaFilter(IdempotenciaService idempotenciaService, ObjectMapper objectMapper) {
+        this.idempotenciaService = idempotenciaService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getHeader(CABECERA) == null
+                || !METODOS.contains(request.getMethod())
+                || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        String claveCliente = request.getHeader(CABECERA);
+        if (claveCliente.isBlank() || claveCliente.length() > LONGITUD_MAXIMA_CLAVE) {
+            escribirError(request, response, HttpStatus.BAD_REQUEST,
+                    "La cabecera " + CABECERA + " debe tener entre 1 y " + LONGITUD_MAXIMA_CLAVE + " caracteres");
+            return;
+        }
+
+        Authentication autenticacion = SecurityContextHolder.getContext().getAuthentication();
+        String usuario = autenticacion != null ? autenticacion.getName() : "anonimo";
+        String clave = IdempotenciaService.clave(usuario, claveCliente);
+
+        // La reclamación es atómica en la base de datos: un reintento, llegue a la instancia que llegue,
+        // ve la fila pendiente o la respuesta guardada y nunca vuelve a ejecutar la petición
+        IdempotenciaService.Reclamo reclamo = idempotenciaService.reclamar(clave);
+        switch (reclamo.estado()) {
+            case GUARDADA -> {
+                IdempotenciaService.Respuesta previa = reclamo.respuesta();
+                if (!previa.huella().equals(huella(request, request.getInputStream().readAllBytes()))) {
+                    escribirError(request, response, HttpStatus.UNPROCESSABLE_ENTITY,
+                            "La clave de idempotencia ya se usó con una petición distinta");
+                    return;
+                }
+                reproducir(previa, response);
+                return;
+            }
+            case EN_CURSO -> {
+                escribirError(request, response, HttpStatus.CONFLICT,
+                        "Ya hay una petición en curso con la misma clave de idempotencia");
+                return;
+            }
+            case RECLAMADA -> {
+                // Continúa abajo
+            }
+        }
+
+        ContentCachingRequestWrapper peticion = new ContentCachingRequestWrapper(request);
+        ContentCachingResponseWrapper respuesta = new ContentCachingResponseWrapper(response);
+        boolean guardada = false;
+        try {
+            filterChain.doFilter(peticion, respuesta);
+            if (respuesta.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+                idempotenciaService.guardar(clave, huella(request, peticion.getContentAsByteArray()),
+                        respuesta.getStatus(), respuesta.getContentType(), respuesta.getContentAsByteArray());
+                guardada = true;
+            }
+        } finally {
+            if (!guardada) {
+                idempotenciaService.liberar(clave);
+            }
+            respuesta.copyBodyToResponse();
+        }
+    }
+
+    private static void reproducir(IdempotenciaService.Respuesta previa, HttpServletResponse response) throws IOException {
+        response.setStatus(previa.estado());
+        response.setHeader(CABECERA_REPETIDA, "true");
+        if (previa.tipoContenido() != null) {
+            response.setContentType(previa.tipoContenido());
+        }
+        if (previa.cuerpo() != null) {
+            response.setContentLength(previa.cuerpo().length);
+            response.getOutputStream().write(previa.cuerpo());
+        }
+    }
+
+    /**
+     * Identifica la petición original (método, ruta, parámetros y cuerpo) para detectar claves reutilizadas.
+     */
+    private static String huella(HttpServletRequest request, byte[] cuerpo) throws IOException {
+        ByteArrayOutputStream datos = new ByteArrayOutputStream();
+        datos.write((request.getMethod() + " " + request.getRequestURI() + "?"
+                + (request.getQueryString() != null ? request.getQueryString() : "") + "\n").getBytes(StandardCharsets.UTF_8));
+        datos.write(cuerpo);
+        return ResumenSha256.de(datos.toByteArray());
+    }
+
+    private void escribirError(HttpServletRequest request, HttpServletResponse response,
+                               HttpStatus estado, String mensaje) throws IOException {
+        response.setStatus(estado.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ApiError(estado.value(), mensaje, request.getRequestURI()));
+    }
+}
@@ -1,5 +1,8 @@
 package com.andrey.sistema_citas.config;
 
+import com.andrey.sistema_citas.service.RevocacionTokensService;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -19,9 +22,11 @@ import java.util.stream.Collectors;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
+    private final RevocacionTokensService revocacionTokensService;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, RevocacionTokensService revocacionTokensService) {
         this.jwtUtil = jwtUtil;
+        this.revocacionTokensService = revocacionTokensService;
     }
 
     @Override
@@ -31,41 +36,47 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         // Ignorar rutas públicas
         String path = request.getRequestURI();
-        if (path.equals("/auth/login") || path.equals("/auth/register")) {
+        if (path.equals("/auth/login") || path.equals("/auth/register") || path.equals("/auth/refresh")) {
             filterChain.doFilter(request, response);
             return;
         }
         
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String email = null;
-        String jwt = null;
+        TokenVerificado token = null;
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
+            String jwt = authorizationHeader.substring(7);
             try {
-                email = jwtUtil.extractEmail(jwt);
-            } catch (Exception e) {
-                logger.error("Error al extraer email del token JWT", e);
+                // Una sola verificación por token; las repeticiones salen de la caché de JwtUtil
+                token = jwtUtil.verificar(jwt);
+            } catch (ExpiredJwtException e) {
+                // Caso habitual al caducar la sesión: el cliente lo resuelve con /auth/refresh
+                logger.debug("Token JWT vencido");
+            } catch (JwtException | IllegalArgumentException e) {
+                logger.warn("Token JWT no válido: " + e.getMessage());
             }
         }
 
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            if (jwtUtil.validateToken(jwt, email)) {
-                
-                @SuppressWarnings("unchecked")
-                List<String> roles = jwtUtil.extractClaim(jwt, claims -> claims.get("roles", List.class));
-                
-                List<SimpleGrantedAuthority> authorities = roles.stream()
-                        .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
-                        .collect(Collectors.toList());
+        // Revocado al cerrar sesión: el filtro de Bloom lo descarta en memoria salvo que de verdad esté revocado
+        if (token != null && revocacionTokensService.estaRevocado(token.jti())) {
+            logger.debug("Token JWT revocado");
+            token = null;
+        }
 
-                UsernamePasswordAuthenticationToken authToken = 
-                        new UsernamePasswordAuthenticationToken(email, null, authorities);
-                
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+        if (token != null && token.email() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            List<SimpleGrantedAuthority> authorities = token.roles().stream()
+                    .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+                    .collect(Collectors.toList());
+
+            UsernamePasswordAuthenticationToken authToken =
+                    new UsernamePasswordAuthenticationToken(
+                            new UsuarioAutenticado(token.email(), token.usuarioId(), token.profesionalId(),
+                                    token.jti(), token.expira()),
+                            null, authorities);
+
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
 
         filterChain.doFilter(request, response);
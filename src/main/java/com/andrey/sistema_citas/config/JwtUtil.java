@@ -1,36 +1,61 @@
 package com.andrey.sistema_citas.config;
 
+import com.andrey.sistema_citas.service.ResumenSha256;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
+/**
+ * Genera y verifica los tokens JWT. La clave y el parser se construyen una sola vez; los tokens ya
+ * verificados se guardan en una caché concurrente, indexada por el SHA-256 del token, hasta que vencen,
+ * así que las peticiones que repiten token no vuelven a comprobar la firma ni toman ningún candado.
+ * La caché se limpia periódicamente de tokens vencidos; si aun así está llena, los tokens nuevos se
+ * verifican igual pero no se guardan hasta la siguiente limpieza.
+ */
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret:miClaveSecretaSuperSeguraParaJWTQueDebeSerMuyLargaYCompleja123456789}")
-    private String secret;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final Long expiration;
 
-    @Value("${jwt.expiration:86400000}") // 24 horas por defecto
-    private Long expiration;
+    private final int capacidad;
+    private final Map<String, TokenVerificado> verificados = new ConcurrentHashMap<>();
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public JwtUtil(@Value("${jwt.secret:miClaveSecretaSuperSeguraParaJWTQueDebeSerMuyLargaYCompleja123456789}") String secret,
+                   @Value("${jwt.expiration:900000}") Long expiration, // 15 minutos por defecto
+                   @Value("${jwt.cache.capacidad:10000}") int capacidad) {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.expiration = expiration;
+        this.capacidad = capacidad;
     }
 
-    public String generateToken(String email, Set<String> roles) {
+    public String generateToken(String email, Set<String> roles, Long usuarioId, Long profesionalId) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("roles", roles);
+        claims.put("usuarioId", usuarioId);
+        if (profesionalId != null) {
+            claims.put("profesionalId", profesionalId);
+        }
         return createToken(claims, email);
     }
 
@@ -39,20 +64,66 @@ public class JwtUtil {
         Date expirationDate = new Date(now.getTime() + expiration);
 
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .claims(claims)
                 .subject(subject)
                 .issuedAt(now)
                 .expiration(expirationDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
+    /**
+     * Comprueba firma y vigencia una sola vez por token y devuelve sus datos. Lanza JwtException si el
+     * token no es válido o ya venció; los tokens rechazados no se guardan.
+     */
+    public TokenVerificado verificar(String token) {
+        String clave = ResumenSha256.de(token);
+        Instant ahora = Instant.now();
+
+        TokenVerificado verificado = verificados.get(clave);
+        if (verificado != null) {
+            if (verificado.vigente(ahora)) {
+                return verificado;
+            }
+            verificados.remove(clave, verificado);
+        }
+
+        Claims claims = extractAllClaims(token);
+        if (claims.getExpiration() == null) {
+            throw new JwtException("El token no tiene fecha de expiración");
+        }
+        @SuppressWarnings("unchecked")
+        List<String> roles = claims.get("roles", List.class);
+        verificado = new TokenVerificado(claims.getId(), claims.getSubject(),
+                claims.get("usuarioId", Long.class), claims.get("profesionalId", Long.class),
+                roles != null ? List.copyOf(roles) : List.of(), claims.getExpiration().toInstant());
+        // El parser ya rechaza los vencidos, pero pueden vencer entre el parseo y este punto
+        if (!verificado.vigente(ahora)) {
+            throw new ExpiredJwtException(null, claims, "El token ha expirado");
+        }
+        if (verificados.size() < capacidad) {
+            verificados.put(clave, verificado);
+        }
+        return verificado;
+    }
+
+    /**
+     * Quita de la caché los tokens vencidos. Las consultas ya los descartan al leerlos; esto libera memoria
+     * y hace sitio para los tokens nuevos.
+     */
+    @Scheduled(fixedDelayString = "${jwt.cache.limpieza:PT5M}")
+    public void eliminarVencidos() {
+        Instant ahora = Instant.now();
+        verificados.values().removeIf(verificado -> !verificado.vigente(ahora));
+    }
+
     public String extractEmail(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verificar(token).email();
     }
 
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return Date.from(verificar(token).expira());
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -61,19 +132,14 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public Boolean validateToken(String token, String email) {
-        final String extractedEmail = extractEmail(token);
-        return (extractedEmail.equals(email) && !isTokenExpired(token));
+        try {
+            return verificar(token).email().equals(email);
+        } catch (JwtException e) {
+            return false;
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,11 @@
 package com.andrey.sistema_citas.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -10,6 +13,7 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -37,13 +41,25 @@ public class SecurityConfigDev {
             .sessionManagement(session -> session
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             )
+            // Sin token válido (ausente, vencido o revocado) se responde 401 para que el cliente refresque la sesión;
+            // el 403 queda para usuarios autenticados sin permiso
+            .exceptionHandling(e -> e
+                .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
+            )
             .authorizeHttpRequests(auth -> auth
                 // Endpoints públicos
-                .requestMatchers("/auth/login", "/auth/register").permitAll()
+                .requestMatchers("/auth/login", "/auth/register", "/auth/refresh", "/auth/logout").permitAll()
+
+                // Actuator: salud pública, métricas solo para ADMIN
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 
                 // Endpoints de Usuario - requieren autenticación
                 .requestMatchers("/api/usuarios/**").authenticated()
                 
+                // Horario y horarios disponibles de un profesional - cualquier usuario autenticado (para agendar)
+                .requestMatchers(HttpMethod.GET, "/api/profesionales/*/slots", "/api/profesionales/*/horario").authenticated()
+
                 // Endpoints de Profesional - solo ADMIN y PROFESSIONAL
                 .requestMatchers("/api/profesionales/**").hasAnyRole("ADMIN", "PROFESSIONAL")
                 
@@ -75,7 +91,8 @@ public class SecurityConfigDev {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${seguridad.bcrypt.fuerza:10}") int fuerza) {
+        // Los hashes con un factor de trabajo menor se rehacen al iniciar sesión (AuthService.login)
+        return new BCryptPasswordEncoder(fuerza);
     }
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.andrey.sistema_citas.config;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Datos de un token JWT cuya firma y vigencia ya se comprobaron.
+ */
+public record TokenVerificado(String jti, String email, Long usuarioId, Long profesionalId, List<String> roles,
+                              Instant expira) {
+
+    public boolean vigente(Instant ahora) {
+        return expira.isAfter(ahora);
+    }
+}
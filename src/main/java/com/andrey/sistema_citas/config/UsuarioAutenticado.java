@@ -0,0 +1,20 @@
+package com.andrey.sistema_citas.config;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+import java.time.Instant;
+
+/**
+ * Principal de las peticiones autenticadas con JWT. Lleva los ids que el token trae como claims, de modo que
+ * las comprobaciones de autorización no tengan que buscar al usuario por email. Los tokens emitidos antes de
+ * existir esos claims dejan los ids en null; profesionalId también es null si el usuario no es profesional.
+ * El jti y la expiración del token permiten revocarlo al cerrar sesión.
+ */
+public record UsuarioAutenticado(String email, Long usuarioId, Long profesionalId, String jti, Instant expira)
+        implements AuthenticatedPrincipal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
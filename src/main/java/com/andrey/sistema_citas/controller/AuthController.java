@@ -2,13 +2,16 @@ package com.andrey.sistema_citas.controller;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import com.andrey.sistema_citas.config.UsuarioAutenticado;
 import com.andrey.sistema_citas.dto.LoginRequest;
 import com.andrey.sistema_citas.dto.LoginResponse;
+import com.andrey.sistema_citas.dto.RefrescoTokenRequest;
 import com.andrey.sistema_citas.service.AuthService;
 import com.andrey.sistema_citas.service.UsuarioService;
 
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
 import com.andrey.sistema_citas.dto.UsuarioCreateDTO;
 import com.andrey.sistema_citas.dto.UsuarioResponseDTO;
 
@@ -37,4 +40,20 @@ public class AuthController {
         UsuarioResponseDTO nuevoUsuario = usuarioService.crearUsuario(usuarioDTO);
         return ResponseEntity.status(HttpStatus.CREATED).body(nuevoUsuario);
     }
-}
\ No newline at end of file
+
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponse> refresh(@Valid @RequestBody RefrescoTokenRequest request) {
+        LoginResponse response = authService.refrescar(request.getRefreshToken());
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestBody(required = false) RefrescoTokenRequest request,
+                                       Authentication authentication) {
+        // El token de acceso puede faltar o haber vencido; en ese caso solo se revoca el de refresco
+        UsuarioAutenticado usuario = authentication != null
+                && authentication.getPrincipal() instanceof UsuarioAutenticado principal ? principal : null;
+        authService.cerrarSesion(request != null ? request.getRefreshToken() : null, usuario);
+        return ResponseEntity.noContent().build();
+    }
+}
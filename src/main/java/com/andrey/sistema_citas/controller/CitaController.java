@@ -1,15 +1,25 @@
 package com.andrey.sistema_citas.controller;
 
+import com.andrey.sistema_citas.dto.CitaBusquedaDTO;
 import com.andrey.sistema_citas.dto.CitaCreateDTO;
+import com.andrey.sistema_citas.dto.CitaLoteDTO;
+import com.andrey.sistema_citas.dto.CitaLoteResultadoDTO;
 import com.andrey.sistema_citas.dto.CitaResponseDTO;
 import com.andrey.sistema_citas.dto.CitaUpdateDTO;
+import com.andrey.sistema_citas.dto.PaginaCursorDTO;
+import com.andrey.sistema_citas.dto.RetencionDTO;
 import com.andrey.sistema_citas.entity.EstadoCita;
+import com.andrey.sistema_citas.exception.BusinessRuleException;
 import com.andrey.sistema_citas.service.CitaService;
+import com.andrey.sistema_citas.service.ExportacionCitasService;
+import com.andrey.sistema_citas.service.RetencionService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -19,9 +29,14 @@ import java.util.List;
 public class CitaController {
 
     private final CitaService citaService;
+    private final RetencionService retencionService;
+    private final ExportacionCitasService exportacionCitasService;
 
-    public CitaController(CitaService citaService) {
+    public CitaController(CitaService citaService, RetencionService retencionService,
+                          ExportacionCitasService exportacionCitasService) {
         this.citaService = citaService;
+        this.retencionService = retencionService;
+        this.exportacionCitasService = exportacionCitasService;
     }
 
     @GetMapping
@@ -31,6 +46,23 @@ public class CitaController {
         return ResponseEntity.ok(citas);
     }
 
+    @GetMapping("/pagina")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PaginaCursorDTO<CitaResponseDTO>> obtenerPaginaCitas(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamano) {
+        return ResponseEntity.ok(citaService.obtenerPaginaCitas(cursor, tamano));
+    }
+
+    @GetMapping("/buscar")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PaginaCursorDTO<CitaResponseDTO>> buscarCitas(
+            @ModelAttribute CitaBusquedaDTO filtro,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamano) {
+        return ResponseEntity.ok(citaService.buscarCitas(filtro, cursor, tamano));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or @authz.esPropietarioCita(#id, authentication)")
     public ResponseEntity<CitaResponseDTO> obtenerCitaPorId(@PathVariable Long id) {
@@ -44,6 +76,40 @@ public class CitaController {
         return ResponseEntity.status(HttpStatus.CREATED).body(cita);
     }
 
+    @PostMapping("/batch")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PROFESSIONAL')")
+    public ResponseEntity<CitaLoteResultadoDTO> agendarCitasEnLote(@Valid @RequestBody CitaLoteDTO request) {
+        CitaLoteResultadoDTO resultado = citaService.agendarCitasEnLote(request.getCitas());
+        return ResponseEntity.ok(resultado);
+    }
+
+    @PostMapping("/retenciones")
+    public ResponseEntity<RetencionDTO> retenerHorario(@Valid @RequestBody CitaCreateDTO request) {
+        RetencionDTO retencion = retencionService.retener(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(retencion);
+    }
+
+    @GetMapping("/retenciones/{id}")
+    @PreAuthorize("hasRole('ADMIN') or @authz.esPropietarioRetencion(#id, authentication)")
+    public ResponseEntity<RetencionDTO> obtenerRetencion(@PathVariable String id) {
+        RetencionDTO retencion = retencionService.obtenerRetencion(id);
+        return ResponseEntity.ok(retencion);
+    }
+
+    @PostMapping("/retenciones/{id}/confirmar")
+    @PreAuthorize("hasRole('ADMIN') or @authz.esPropietarioRetencion(#id, authentication)")
+    public ResponseEntity<CitaResponseDTO> confirmarRetencion(@PathVariable String id) {
+        CitaResponseDTO cita = retencionService.confirmar(id);
+        return ResponseEntity.status(HttpStatus.CREATED).body(cita);
+    }
+
+    @DeleteMapping("/retenciones/{id}")
+    @PreAuthorize("hasRole('ADMIN') or @authz.esPropietarioRetencion(#id, authentication)")
+    public ResponseEntity<Void> liberarRetencion(@PathVariable String id) {
+        retencionService.liberar(id);
+        return ResponseEntity.noContent().build();
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or @authz.puedeModificarCita(#id, authentication)")
     public ResponseEntity<CitaResponseDTO> actualizarCita(
@@ -78,6 +144,30 @@ public class CitaController {
         return ResponseEntity.ok(citas);
     }
 
+    @GetMapping("/usuario/{usuarioId}/pagina")
+    public ResponseEntity<PaginaCursorDTO<CitaResponseDTO>> obtenerPaginaCitasPorUsuario(
+            @PathVariable Long usuarioId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamano) {
+        return ResponseEntity.ok(citaService.obtenerPaginaCitasPorUsuario(usuarioId, cursor, tamano));
+    }
+
+    @GetMapping("/profesional/{profesionalId}/pagina")
+    public ResponseEntity<PaginaCursorDTO<CitaResponseDTO>> obtenerPaginaCitasPorProfesional(
+            @PathVariable Long profesionalId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamano) {
+        return ResponseEntity.ok(citaService.obtenerPaginaCitasPorProfesional(profesionalId, cursor, tamano));
+    }
+
+    @GetMapping("/estado/{estado}/pagina")
+    public ResponseEntity<PaginaCursorDTO<CitaResponseDTO>> obtenerPaginaCitasPorEstado(
+            @PathVariable EstadoCita estado,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamano) {
+        return ResponseEntity.ok(citaService.obtenerPaginaCitasPorEstado(estado, cursor, tamano));
+    }
+
     @PatchMapping("/{id}/confirmar")
     @PreAuthorize("hasRole('ADMIN') or hasRole('PROFESSIONAL')")
     public ResponseEntity<CitaResponseDTO> confirmarCita(@PathVariable Long id) {
@@ -107,6 +197,26 @@ public class CitaController {
         return ResponseEntity.ok(citas);
     }
 
+    /**
+     * Exportación de las citas de un rango en NDJSON o CSV, escrita en la respuesta a medida que se lee.
+     */
+    @GetMapping("/exportar")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportarCitasEnRango(
+            @RequestParam LocalDateTime inicio,
+            @RequestParam LocalDateTime fin,
+            @RequestParam(defaultValue = "ndjson") String formato) {
+        if (fin.isBefore(inicio)) {
+            throw new BusinessRuleException("La fecha de fin debe ser posterior a la de inicio");
+        }
+        ExportacionCitasService.Formato tipo = ExportacionCitasService.Formato.desde(formato);
+        StreamingResponseBody cuerpo = salida -> exportacionCitasService.exportarEnRango(inicio, fin, tipo, salida);
+        return ResponseEntity.ok()
+                .contentType(tipo.getTipo())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"citas." + tipo.getExtension() + "\"")
+                .body(cuerpo);
+    }
+
     @GetMapping("/estadisticas")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<List<Object[]>> obtenerEstadisticasCitasPorEstado() {
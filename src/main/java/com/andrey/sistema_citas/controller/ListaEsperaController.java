@@ -0,0 +1,58 @@
+package com.andrey.sistema_citas.controller;
+
+import com.andrey.sistema_citas.dto.ListaEsperaCreateDTO;
+import com.andrey.sistema_citas.dto.ListaEsperaResponseDTO;
+import com.andrey.sistema_citas.service.ListaEsperaService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/lista-espera")
+public class ListaEsperaController {
+
+    private final ListaEsperaService listaEsperaService;
+
+    public ListaEsperaController(ListaEsperaService listaEsperaService) {
+        this.listaEsperaService = listaEsperaService;
+    }
+
+    @PostMapping
+    public ResponseEntity<ListaEsperaResponseDTO> inscribir(@Valid @RequestBody ListaEsperaCreateDTO request) {
+        ListaEsperaResponseDTO solicitud = listaEsperaService.inscribir(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(solicitud);
+    }
+
+    @GetMapping("/usuario/{usuarioId}")
+    public ResponseEntity<List<ListaEsperaResponseDTO>> obtenerPorUsuario(@PathVariable Long usuarioId) {
+        List<ListaEsperaResponseDTO> solicitudes = listaEsperaService.obtenerPorUsuario(usuarioId);
+        return ResponseEntity.ok(solicitudes);
+    }
+
+    @GetMapping("/profesional/{profesionalId}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PROFESSIONAL')")
+    public ResponseEntity<List<ListaEsperaResponseDTO>> obtenerCola(
+            @PathVariable Long profesionalId,
+            @RequestParam Long servicioId) {
+        List<ListaEsperaResponseDTO> cola = listaEsperaService.obtenerCola(profesionalId, servicioId);
+        return ResponseEntity.ok(cola);
+    }
+
+    @PatchMapping("/{id}/prioridad")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ListaEsperaResponseDTO> cambiarPrioridad(@PathVariable Long id, @RequestParam int valor) {
+        ListaEsperaResponseDTO solicitud = listaEsperaService.cambiarPrioridad(id, valor);
+        return ResponseEntity.ok(solicitud);
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN') or @authz.esPropietarioListaEspera(#id, authentication)")
+    public ResponseEntity<Void> cancelar(@PathVariable Long id) {
+        listaEsperaService.cancelar(id);
+        return ResponseEntity.noContent().build();
+    }
+}
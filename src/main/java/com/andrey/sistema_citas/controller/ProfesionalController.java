@@ -1,15 +1,20 @@
 package com.andrey.sistema_citas.controller;
 
+import com.andrey.sistema_citas.dto.DisponibilidadDTO;
+import com.andrey.sistema_citas.dto.HorarioProfesionalDTO;
 import com.andrey.sistema_citas.dto.ProfesionalCreateDTO;
 import com.andrey.sistema_citas.dto.ProfesionalResponseDTO;
 import com.andrey.sistema_citas.dto.ProfesionalUpdateDTO;
+import com.andrey.sistema_citas.service.DisponibilidadService;
 import com.andrey.sistema_citas.service.ProfesionalService;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -17,9 +22,11 @@ import java.util.List;
 public class ProfesionalController {
 
     private final ProfesionalService profesionalService;
+    private final DisponibilidadService disponibilidadService;
 
-    public ProfesionalController(ProfesionalService profesionalService) {
+    public ProfesionalController(ProfesionalService profesionalService, DisponibilidadService disponibilidadService) {
         this.profesionalService = profesionalService;
+        this.disponibilidadService = disponibilidadService;
     }
 
     @PostMapping
@@ -62,6 +69,34 @@ public class ProfesionalController {
         return ResponseEntity.ok(profesional);
     }
 
+    @GetMapping("/{id}/slots")
+    public ResponseEntity<DisponibilidadDTO> obtenerHorariosDisponibles(
+            @PathVariable Long id,
+            @RequestParam Long servicioId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "15") int paso) {
+        LocalDate inicio = desde != null ? desde : LocalDate.now();
+        LocalDate fin = hasta != null ? hasta : inicio.plusDays(6);
+        DisponibilidadDTO disponibilidad = disponibilidadService.buscarHorariosDisponibles(id, servicioId, inicio, fin, paso);
+        return ResponseEntity.ok(disponibilidad);
+    }
+
+    @GetMapping("/{id}/horario")
+    public ResponseEntity<HorarioProfesionalDTO> obtenerHorario(@PathVariable Long id) {
+        HorarioProfesionalDTO horario = profesionalService.obtenerHorario(id);
+        return ResponseEntity.ok(horario);
+    }
+
+    @PutMapping("/{id}/horario")
+    @PreAuthorize("hasRole('ADMIN') or @authz.puedeModificarProfesional(#id, authentication)")
+    public ResponseEntity<HorarioProfesionalDTO> actualizarHorario(
+            @PathVariable Long id,
+            @Valid @RequestBody HorarioProfesionalDTO dto) {
+        HorarioProfesionalDTO actualizado = profesionalService.actualizarHorario(id, dto);
+        return ResponseEntity.ok(actualizado);
+    }
+
     // --- Endpoints de disponibilidad comentados ---
     // Estos endpoints han sido deshabilitados porque los métodos de servicio correspondientes
     // dependían de consultas a la base de datos poco fiables (comparación de String con LocalDateTime).
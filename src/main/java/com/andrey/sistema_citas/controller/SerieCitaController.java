@@ -0,0 +1,51 @@
+package com.andrey.sistema_citas.controller;
+
+import com.andrey.sistema_citas.dto.SerieCitaCreateDTO;
+import com.andrey.sistema_citas.dto.SerieCitaResultadoDTO;
+import com.andrey.sistema_citas.dto.SerieReprogramarDTO;
+import com.andrey.sistema_citas.service.SerieCitaService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/citas/series")
+public class SerieCitaController {
+
+    private final SerieCitaService serieCitaService;
+
+    public SerieCitaController(SerieCitaService serieCitaService) {
+        this.serieCitaService = serieCitaService;
+    }
+
+    @PostMapping
+    public ResponseEntity<SerieCitaResultadoDTO> agendarSerie(@Valid @RequestBody SerieCitaCreateDTO request) {
+        SerieCitaResultadoDTO resultado = serieCitaService.agendarSerie(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(resultado);
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PROFESSIONAL') or @authz.esPropietarioSerie(#id, authentication)")
+    public ResponseEntity<SerieCitaResultadoDTO> obtenerSerie(@PathVariable Long id) {
+        SerieCitaResultadoDTO serie = serieCitaService.obtenerSerie(id);
+        return ResponseEntity.ok(serie);
+    }
+
+    @PatchMapping("/{id}/cancelar")
+    @PreAuthorize("hasRole('ADMIN') or @authz.esPropietarioSerie(#id, authentication)")
+    public ResponseEntity<SerieCitaResultadoDTO> cancelarSerie(@PathVariable Long id) {
+        SerieCitaResultadoDTO resultado = serieCitaService.cancelarSerie(id);
+        return ResponseEntity.ok(resultado);
+    }
+
+    @PutMapping("/{id}/reprogramar")
+    @PreAuthorize("hasRole('ADMIN') or @authz.esPropietarioSerie(#id, authentication)")
+    public ResponseEntity<SerieCitaResultadoDTO> reprogramarSerie(
+            @PathVariable Long id,
+            @Valid @RequestBody SerieReprogramarDTO dto) {
+        SerieCitaResultadoDTO resultado = serieCitaService.reprogramarSerie(id, dto.getNuevaFechaHora());
+        return ResponseEntity.ok(resultado);
+    }
+}
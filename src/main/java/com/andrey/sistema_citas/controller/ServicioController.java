@@ -1,8 +1,10 @@
 package com.andrey.sistema_citas.controller;
 
+import com.andrey.sistema_citas.dto.HorarioDisponibleDTO;
 import com.andrey.sistema_citas.dto.ServicioCreateDTO;
 import com.andrey.sistema_citas.dto.ServicioResponseDTO;
 import com.andrey.sistema_citas.dto.ServicioUpdateDTO;
+import com.andrey.sistema_citas.service.DisponibilidadService;
 import com.andrey.sistema_citas.service.ServicioService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
@@ -19,9 +21,11 @@ import java.util.List;
 public class ServicioController {
 
     private final ServicioService servicioService;
+    private final DisponibilidadService disponibilidadService;
 
-    public ServicioController(ServicioService servicioService) {
+    public ServicioController(ServicioService servicioService, DisponibilidadService disponibilidadService) {
         this.servicioService = servicioService;
+        this.disponibilidadService = disponibilidadService;
     }
 
     @PostMapping
@@ -67,6 +71,26 @@ public class ServicioController {
         return ResponseEntity.ok(servicios);
     }
 
+    @GetMapping("/rango-duracion")
+    public ResponseEntity<List<ServicioResponseDTO>> buscarPorRangoDuracion(
+            @RequestParam Integer min,
+            @RequestParam Integer max
+    ) {
+        List<ServicioResponseDTO> servicios = servicioService.buscarServiciosPorRangoDeDuracion(min, max);
+        return ResponseEntity.ok(servicios);
+    }
+
+    @GetMapping("/{id}/primer-disponible")
+    public ResponseEntity<List<HorarioDisponibleDTO>> buscarPrimerDisponible(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "5") int cantidad,
+            @RequestParam(defaultValue = "14") int dias,
+            @RequestParam(defaultValue = "15") int paso
+    ) {
+        List<HorarioDisponibleDTO> horarios = disponibilidadService.buscarPrimerosDisponibles(id, cantidad, dias, paso);
+        return ResponseEntity.ok(horarios);
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or @authz.puedeModificarServicio(#id, authentication)")
     public ResponseEntity<ServicioResponseDTO> actualizarServicio(
@@ -1,5 +1,6 @@
 package com.andrey.sistema_citas.controller;
 
+import com.andrey.sistema_citas.dto.PaginaCursorDTO;
 import com.andrey.sistema_citas.dto.UsuarioCreateDTO;
 import com.andrey.sistema_citas.dto.UsuarioResponseDTO;
 import com.andrey.sistema_citas.dto.UsuarioUpdateDTO;
@@ -32,6 +33,14 @@ public class UsuarioController {
         return ResponseEntity.ok(usuarios);
     }
 
+    @GetMapping("/pagina")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PaginaCursorDTO<UsuarioResponseDTO>> obtenerPaginaUsuarios(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamano) {
+        return ResponseEntity.ok(usuarioService.obtenerPaginaUsuarios(cursor, tamano));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or @authz.puedeModificarUsuario(#id, authentication)")
     public ResponseEntity<UsuarioResponseDTO> obtenerUsuarioPorId(@PathVariable Long id) {
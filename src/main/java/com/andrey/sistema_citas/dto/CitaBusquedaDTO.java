@@ -0,0 +1,69 @@
+package com.andrey.sistema_citas.dto;
+
+import com.andrey.sistema_citas.entity.EstadoCita;
+
+import java.time.LocalDateTime;
+
+/**
+ * Criterios de búsqueda de citas. Todos son opcionales y se combinan entre sí; el rango incluye ambos extremos.
+ */
+public class CitaBusquedaDTO {
+
+    private Long usuarioId;
+    private Long profesionalId;
+    private Long servicioId;
+    private EstadoCita estado;
+    private LocalDateTime desde;
+    private LocalDateTime hasta;
+
+    public CitaBusquedaDTO() {}
+
+    // Getters y Setters
+    public Long getUsuarioId() {
+        return usuarioId;
+    }
+
+    public void setUsuarioId(Long usuarioId) {
+        this.usuarioId = usuarioId;
+    }
+
+    public Long getProfesionalId() {
+        return profesionalId;
+    }
+
+    public void setProfesionalId(Long profesionalId) {
+        this.profesionalId = profesionalId;
+    }
+
+    public Long getServicioId() {
+        return servicioId;
+    }
+
+    public void setServicioId(Long servicioId) {
+        this.servicioId = servicioId;
+    }
+
+    public EstadoCita getEstado() {
+        return estado;
+    }
+
+    public void setEstado(EstadoCita estado) {
+        this.estado = estado;
+    }
+
+    public LocalDateTime getDesde() {
+        return desde;
+    }
+
+    public void setDesde(LocalDateTime desde) {
+        this.desde = desde;
+    }
+
+    public LocalDateTime getHasta() {
+        return hasta;
+    }
+
+    public void setHasta(LocalDateTime hasta) {
+        this.hasta = hasta;
+    }
+}
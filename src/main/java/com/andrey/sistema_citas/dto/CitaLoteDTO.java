@@ -0,0 +1,24 @@
+package com.andrey.sistema_citas.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public class CitaLoteDTO {
+
+    @NotEmpty(message = "El lote debe contener al menos una cita")
+    @Size(max = 100, message = "El lote no puede contener más de 100 citas")
+    private List<@Valid CitaCreateDTO> citas;
+
+    public CitaLoteDTO() {}
+
+    // Getters y Setters
+    public List<CitaCreateDTO> getCitas() {
+        return citas;
+    }
+
+    public void setCitas(List<CitaCreateDTO> citas) {
+        this.citas = citas;
+    }
+}
@@ -0,0 +1,69 @@
+package com.andrey.sistema_citas.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CitaLoteResultadoDTO {
+
+    private List<CitaResponseDTO> creadas = new ArrayList<>();
+    private List<Error> fallidas = new ArrayList<>();
+
+    public CitaLoteResultadoDTO() {}
+
+    public void agregarCreada(CitaResponseDTO cita) {
+        creadas.add(cita);
+    }
+
+    public void agregarFallida(int indice, String mensaje) {
+        fallidas.add(new Error(indice, mensaje));
+    }
+
+    // Getters y Setters
+    public List<CitaResponseDTO> getCreadas() {
+        return creadas;
+    }
+
+    public void setCreadas(List<CitaResponseDTO> creadas) {
+        this.creadas = creadas;
+    }
+
+    public List<Error> getFallidas() {
+        return fallidas;
+    }
+
+    public void setFallidas(List<Error> fallidas) {
+        this.fallidas = fallidas;
+    }
+
+    /**
+     * Cita del lote que no se pudo agendar: su posición en la petición y el motivo.
+     */
+    public static class Error {
+
+        private int indice;
+        private String mensaje;
+
+        public Error() {}
+
+        public Error(int indice, String mensaje) {
+            this.indice = indice;
+            this.mensaje = mensaje;
+        }
+
+        public int getIndice() {
+            return indice;
+        }
+
+        public void setIndice(int indice) {
+            this.indice = indice;
+        }
+
+        public String getMensaje() {
+            return mensaje;
+        }
+
+        public void setMensaje(String mensaje) {
+            this.mensaje = mensaje;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.andrey.sistema_citas.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class DisponibilidadDTO {
+
+    private Long profesionalId;
+    private Long servicioId;
+    private Integer duracionMinutos;
+    private List<LocalDateTime> inicios;
+
+    public DisponibilidadDTO() {}
+
+    public DisponibilidadDTO(Long profesionalId, Long servicioId, Integer duracionMinutos, List<LocalDateTime> inicios) {
+        this.profesionalId = profesionalId;
+        this.servicioId = servicioId;
+        this.duracionMinutos = duracionMinutos;
+        this.inicios = inicios;
+    }
+
+    // Getters y Setters
+    public Long getProfesionalId() {
+        return profesionalId;
+    }
+
+    public void setProfesionalId(Long profesionalId) {
+        this.profesionalId = profesionalId;
+    }
+
+    public Long getServicioId() {
+        return servicioId;
+    }
+
+    public void setServicioId(Long servicioId) {
+        this.servicioId = servicioId;
+    }
+
+    public Integer getDuracionMinutos() {
+        return duracionMinutos;
+    }
+
+    public void setDuracionMinutos(Integer duracionMinutos) {
+        this.duracionMinutos = duracionMinutos;
+    }
+
+    public List<LocalDateTime> getInicios() {
+        return inicios;
+    }
+
+    public void setInicios(List<LocalDateTime> inicios) {
+        this.inicios = inicios;
+    }
+}
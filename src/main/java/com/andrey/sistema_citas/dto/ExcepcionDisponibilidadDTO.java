@@ -0,0 +1,60 @@
+package com.andrey.sistema_citas.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public class ExcepcionDisponibilidadDTO {
+
+    @NotNull(message = "La fecha es obligatoria")
+    private LocalDate fecha;
+
+    // Sin horas, la excepción afecta al día completo (solo válido si disponible = false)
+    private LocalTime horaInicio;
+    private LocalTime horaFin;
+
+    private boolean disponible;
+
+    public ExcepcionDisponibilidadDTO() {}
+
+    public ExcepcionDisponibilidadDTO(LocalDate fecha, LocalTime horaInicio, LocalTime horaFin, boolean disponible) {
+        this.fecha = fecha;
+        this.horaInicio = horaInicio;
+        this.horaFin = horaFin;
+        this.disponible = disponible;
+    }
+
+    // Getters y Setters
+    public LocalDate getFecha() {
+        return fecha;
+    }
+
+    public void setFecha(LocalDate fecha) {
+        this.fecha = fecha;
+    }
+
+    public LocalTime getHoraInicio() {
+        return horaInicio;
+    }
+
+    public void setHoraInicio(LocalTime horaInicio) {
+        this.horaInicio = horaInicio;
+    }
+
+    public LocalTime getHoraFin() {
+        return horaFin;
+    }
+
+    public void setHoraFin(LocalTime horaFin) {
+        this.horaFin = horaFin;
+    }
+
+    public boolean isDisponible() {
+        return disponible;
+    }
+
+    public void setDisponible(boolean disponible) {
+        this.disponible = disponible;
+    }
+}
@@ -0,0 +1,64 @@
+package com.andrey.sistema_citas.dto;
+
+import java.time.LocalDateTime;
+
+public class HorarioDisponibleDTO {
+
+    private Long profesionalId;
+    private String profesionalNombre;
+    private String profesionalEspecialidad;
+    private LocalDateTime fechaHora;
+    private LocalDateTime fechaFin;
+
+    public HorarioDisponibleDTO() {}
+
+    public HorarioDisponibleDTO(Long profesionalId, String profesionalNombre, String profesionalEspecialidad,
+                                LocalDateTime fechaHora, LocalDateTime fechaFin) {
+        this.profesionalId = profesionalId;
+        this.profesionalNombre = profesionalNombre;
+        this.profesionalEspecialidad = profesionalEspecialidad;
+        this.fechaHora = fechaHora;
+        this.fechaFin = fechaFin;
+    }
+
+    // Getters y Setters
+    public Long getProfesionalId() {
+        return profesionalId;
+    }
+
+    public void setProfesionalId(Long profesionalId) {
+        this.profesionalId = profesionalId;
+    }
+
+    public String getProfesionalNombre() {
+        return profesionalNombre;
+    }
+
+    public void setProfesionalNombre(String profesionalNombre) {
+        this.profesionalNombre = profesionalNombre;
+    }
+
+    public String getProfesionalEspecialidad() {
+        return profesionalEspecialidad;
+    }
+
+    public void setProfesionalEspecialidad(String profesionalEspecialidad) {
+        this.profesionalEspecialidad = profesionalEspecialidad;
+    }
+
+    public LocalDateTime getFechaHora() {
+        return fechaHora;
+    }
+
+    public void setFechaHora(LocalDateTime fechaHora) {
+        this.fechaHora = fechaHora;
+    }
+
+    public LocalDateTime getFechaFin() {
+        return fechaFin;
+    }
+
+    public void setFechaFin(LocalDateTime fechaFin) {
+        this.fechaFin = fechaFin;
+    }
+}
@@ -0,0 +1,50 @@
+package com.andrey.sistema_citas.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class HorarioProfesionalDTO {
+
+    private Long profesionalId;
+
+    @NotNull(message = "El horario semanal es obligatorio")
+    private List<@Valid DisponibilidadSemanalDTO> semanal = new ArrayList<>();
+
+    private List<@Valid ExcepcionDisponibilidadDTO> excepciones = new ArrayList<>();
+
+    public HorarioProfesionalDTO() {}
+
+    public HorarioProfesionalDTO(Long profesionalId, List<DisponibilidadSemanalDTO> semanal, List<ExcepcionDisponibilidadDTO> excepciones) {
+        this.profesionalId = profesionalId;
+        this.semanal = semanal;
+        this.excepciones = excepciones;
+    }
+
+    // Getters y Setters
+    public Long getProfesionalId() {
+        return profesionalId;
+    }
+
+    public void setProfesionalId(Long profesionalId) {
+        this.profesionalId = profesionalId;
+    }
+
+    public List<DisponibilidadSemanalDTO> getSemanal() {
+        return semanal;
+    }
+
+    public void setSemanal(List<DisponibilidadSemanalDTO> semanal) {
+        this.semanal = semanal;
+    }
+
+    public List<ExcepcionDisponibilidadDTO> getExcepciones() {
+        return excepciones;
+    }
+
+    public void setExcepciones(List<ExcepcionDisponibilidadDTO> excepciones) {
+        this.excepciones = excepciones;
+    }
+}
@@ -0,0 +1,67 @@
+package com.andrey.sistema_citas.dto;
+
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+public class ListaEsperaCreateDTO {
+
+    @NotNull(message = "El ID de usuario es obligatorio")
+    private Long usuarioId;
+
+    @NotNull(message = "El ID de profesional es obligatorio")
+    private Long profesionalId;
+
+    @NotNull(message = "El ID de servicio es obligatorio")
+    private Long servicioId;
+
+    // Opcional: si no se indica, desde el momento de la inscripción
+    private LocalDateTime desde;
+
+    @NotNull(message = "La fecha límite es obligatoria")
+    @Future(message = "La fecha límite debe ser futura")
+    private LocalDateTime hasta;
+
+    public ListaEsperaCreateDTO() {}
+
+    // Getters y Setters
+    public Long getUsuarioId() {
+        return usuarioId;
+    }
+
+    public void setUsuarioId(Long usuarioId) {
+        this.usuarioId = usuarioId;
+    }
+
+    public Long getProfesionalId() {
+        return profesionalId;
+    }
+
+    public void setProfesionalId(Long profesionalId) {
+        this.profesionalId = profesionalId;
+    }
+
+    public Long getServicioId() {
+        return servicioId;
+    }
+
+    public void setServicioId(Long servicioId) {
+        this.servicioId = servicioId;
+    }
+
+    public LocalDateTime getDesde() {
+        return desde;
+    }
+
+    public void setDesde(LocalDateTime desde) {
+        this.desde = desde;
+    }
+
+    public LocalDateTime getHasta() {
+        return hasta;
+    }
+
+    public void setHasta(LocalDateTime hasta) {
+        this.hasta = hasta;
+    }
+}
@@ -0,0 +1,114 @@
+package com.andrey.sistema_citas.dto;
+
+import com.andrey.sistema_citas.entity.EstadoListaEspera;
+import java.time.LocalDateTime;
+
+public class ListaEsperaResponseDTO {
+
+    private Long id;
+    private Long usuarioId;
+    private Long profesionalId;
+    private Long servicioId;
+    private LocalDateTime desde;
+    private LocalDateTime hasta;
+    private Integer prioridad;
+    private EstadoListaEspera estado;
+    private LocalDateTime fechaRegistro;
+    private Long citaId;
+
+    public ListaEsperaResponseDTO() {}
+
+    public ListaEsperaResponseDTO(Long id, Long usuarioId, Long profesionalId, Long servicioId, LocalDateTime desde, LocalDateTime hasta, Integer prioridad, EstadoListaEspera estado, LocalDateTime fechaRegistro, Long citaId) {
+        this.id = id;
+        this.usuarioId = usuarioId;
+        this.profesionalId = profesionalId;
+        this.servicioId = servicioId;
+        this.desde = desde;
+        this.hasta = hasta;
+        this.prioridad = prioridad;
+        this.estado = estado;
+        this.fechaRegistro = fechaRegistro;
+        this.citaId = citaId;
+    }
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUsuarioId() {
+        return usuarioId;
+    }
+
+    public void setUsuarioId(Long usuarioId) {
+        this.usuarioId = usuarioId;
+    }
+
+    public Long getProfesionalId() {
+        return profesionalId;
+    }
+
+    public void setProfesionalId(Long profesionalId) {
+        this.profesionalId = profesionalId;
+    }
+
+    public Long getServicioId() {
+        return servicioId;
+    }
+
+    public void setServicioId(Long servicioId) {
+        this.servicioId = servicioId;
+    }
+
+    public LocalDateTime getDesde() {
+        return desde;
+    }
+
+    public void setDesde(LocalDateTime desde) {
+        this.desde = desde;
+    }
+
+    public LocalDateTime getHasta() {
+        return hasta;
+    }
+
+    public void setHasta(LocalDateTime hasta) {
+        this.hasta = hasta;
+    }
+
+    public Integer getPrioridad() {
+        return prioridad;
+    }
+
+    public void setPrioridad(Integer prioridad) {
+        this.prioridad = prioridad;
+    }
+
+    public EstadoListaEspera getEstado() {
+        return estado;
+    }
+
+    public void setEstado(EstadoListaEspera estado) {
+        this.estado = estado;
+    }
+
+    public LocalDateTime getFechaRegistro() {
+        return fechaRegistro;
+    }
+
+    public void setFechaRegistro(LocalDateTime fechaRegistro) {
+        this.fechaRegistro = fechaRegistro;
+    }
+
+    public Long getCitaId() {
+        return citaId;
+    }
+
+    public void setCitaId(Long citaId) {
+        this.citaId = citaId;
+    }
+}
@@ -10,16 +10,18 @@ public class LoginResponse {
     private String email;
     private Set<Role> roles;
     private String token;
+    private String refreshToken;
     private String tokenType = "Bearer";
 
     public LoginResponse() {}
 
-    public LoginResponse(Long id, String nombre, String email, Set<Role> roles, String token) {
+    public LoginResponse(Long id, String nombre, String email, Set<Role> roles, String token, String refreshToken) {
         this.id = id;
         this.nombre = nombre;
         this.email = email;
         this.roles = roles;
         this.token = token;
+        this.refreshToken = refreshToken;
     }
 
     // Getters y Setters
@@ -63,6 +65,14 @@ public class LoginResponse {
         this.token = token;
     }
 
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
     public String getTokenType() {
         return tokenType;
     }
@@ -0,0 +1,41 @@
+package com.andrey.sistema_citas.dto;
+
+import java.util.List;
+
+/**
+ * Página de resultados con paginación por cursor. Para pedir la página siguiente se envía
+ * el valor de siguienteCursor; es null cuando ya no quedan más resultados.
+ */
+public class PaginaCursorDTO<T> {
+
+    private List<T> contenido;
+    private String siguienteCursor;
+
+    public PaginaCursorDTO() {}
+
+    public PaginaCursorDTO(List<T> contenido, String siguienteCursor) {
+        this.contenido = contenido;
+        this.siguienteCursor = siguienteCursor;
+    }
+
+    // Getters y Setters
+    public List<T> getContenido() {
+        return contenido;
+    }
+
+    public void setContenido(List<T> contenido) {
+        this.contenido = contenido;
+    }
+
+    public String getSiguienteCursor() {
+        return siguienteCursor;
+    }
+
+    public void setSiguienteCursor(String siguienteCursor) {
+        this.siguienteCursor = siguienteCursor;
+    }
+
+    public boolean isHayMas() {
+        return siguienteCursor != null;
+    }
+}
@@ -0,0 +1,17 @@
+package com.andrey.sistema_citas.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public class RefrescoTokenRequest {
+
+    @NotBlank(message = "El token de refresco es obligatorio")
+    private String refreshToken;
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
@@ -0,0 +1,83 @@
+package com.andrey.sistema_citas.dto;
+
+import java.time.LocalDateTime;
+
+public class RetencionDTO {
+
+    private String id;
+    private Long usuarioId;
+    private Long servicioId;
+    private Long profesionalId;
+    private LocalDateTime fechaHora;
+    private LocalDateTime fechaFin;
+    private LocalDateTime expira;
+
+    public RetencionDTO() {}
+
+    public RetencionDTO(String id, Long usuarioId, Long servicioId, Long profesionalId, LocalDateTime fechaHora, LocalDateTime fechaFin, LocalDateTime expira) {
+        this.id = id;
+        this.usuarioId = usuarioId;
+        this.servicioId = servicioId;
+        this.profesionalId = profesionalId;
+        this.fechaHora = fechaHora;
+        this.fechaFin = fechaFin;
+        this.expira = expira;
+    }
+
+    // Getters y Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Long getUsuarioId() {
+        return usuarioId;
+    }
+
+    public void setUsuarioId(Long usuarioId) {
+        this.usuarioId = usuarioId;
+    }
+
+    public Long getServicioId() {
+        return servicioId;
+    }
+
+    public void setServicioId(Long servicioId) {
+        this.servicioId = servicioId;
+    }
+
+    public Long getProfesionalId() {
+        return profesionalId;
+    }
+
+    public void setProfesionalId(Long profesionalId) {
+        this.profesionalId = profesionalId;
+    }
+
+    public LocalDateTime getFechaHora() {
+        return fechaHora;
+    }
+
+    public void setFechaHora(LocalDateTime fechaHora) {
+        this.fechaHora = fechaHora;
+    }
+
+    public LocalDateTime getFechaFin() {
+        return fechaFin;
+    }
+
+    public void setFechaFin(LocalDateTime fechaFin) {
+        this.fechaFin = fechaFin;
+    }
+
+    public LocalDateTime getExpira() {
+        return expira;
+    }
+
+    public void setExpira(LocalDateTime expira) {
+        this.expira = expira;
+    }
+}
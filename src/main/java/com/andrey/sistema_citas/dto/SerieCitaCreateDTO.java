@@ -0,0 +1,95 @@
+package com.andrey.sistema_citas.dto;
+
+import com.andrey.sistema_citas.entity.PoliticaSerie;
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+public class SerieCitaCreateDTO {
+
+    @NotNull(message = "El ID de usuario es obligatorio")
+    private Long usuarioId;
+
+    @NotNull(message = "El ID de servicio es obligatorio")
+    private Long servicioId;
+
+    @NotNull(message = "El ID de profesional es obligatorio")
+    private Long profesionalId;
+
+    // Primera sesión; las siguientes se repiten el mismo día de la semana y a la misma hora
+    @NotNull(message = "La fecha y hora es obligatoria")
+    @Future(message = "La fecha debe ser futura")
+    private LocalDateTime fechaHora;
+
+    @NotNull(message = "El número de sesiones es obligatorio")
+    @Min(value = 1, message = "La serie debe tener al menos una sesión")
+    @Max(value = 52, message = "La serie no puede tener más de 52 sesiones")
+    private Integer sesiones;
+
+    @Min(value = 1, message = "El intervalo mínimo es de una semana")
+    @Max(value = 12, message = "El intervalo máximo es de 12 semanas")
+    private Integer intervaloSemanas = 1;
+
+    private PoliticaSerie politica = PoliticaSerie.TODO_O_NADA;
+
+    public SerieCitaCreateDTO() {}
+
+    // Getters y Setters
+    public Long getUsuarioId() {
+        return usuarioId;
+    }
+
+    public void setUsuarioId(Long usuarioId) {
+        this.usuarioId = usuarioId;
+    }
+
+    public Long getServicioId() {
+        return servicioId;
+    }
+
+    public void setServicioId(Long servicioId) {
+        this.servicioId = servicioId;
+    }
+
+    public Long getProfesionalId() {
+        return profesionalId;
+    }
+
+    public void setProfesionalId(Long profesionalId) {
+        this.profesionalId = profesionalId;
+    }
+
+    public LocalDateTime getFechaHora() {
+        return fechaHora;
+    }
+
+    public void setFechaHora(LocalDateTime fechaHora) {
+        this.fechaHora = fechaHora;
+    }
+
+    public Integer getSesiones() {
+        return sesiones;
+    }
+
+    public void setSesiones(Integer sesiones) {
+        this.sesiones = sesiones;
+    }
+
+    public Integer getIntervaloSemanas() {
+        return intervaloSemanas;
+    }
+
+    public void setIntervaloSemanas(Integer intervaloSemanas) {
+        this.intervaloSemanas = intervaloSemanas;
+    }
+
+    public PoliticaSerie getPolitica() {
+        return politica;
+    }
+
+    public void setPolitica(PoliticaSerie politica) {
+        this.politica = politica;
+    }
+}
@@ -0,0 +1,71 @@
+package com.andrey.sistema_citas.dto;
+
+import com.andrey.sistema_citas.entity.PoliticaSerie;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class SerieCitaResultadoDTO {
+
+    private Long serieId;
+    private PoliticaSerie politica;
+    private List<CitaResponseDTO> citas;
+    private List<LocalDateTime> omitidas;
+    // Sesiones pedidas que no se pudieron agendar (ACEPTAR_PARCIAL, u OMITIR_Y_EXTENDER sin fechas libres suficientes)
+    private int sesionesSinAgendar;
+
+    public SerieCitaResultadoDTO() {}
+
+    public SerieCitaResultadoDTO(Long serieId, PoliticaSerie politica, List<CitaResponseDTO> citas, List<LocalDateTime> omitidas) {
+        this.serieId = serieId;
+        this.politica = politica;
+        this.citas = citas;
+        this.omitidas = omitidas;
+    }
+
+    public SerieCitaResultadoDTO(Long serieId, PoliticaSerie politica, List<CitaResponseDTO> citas, List<LocalDateTime> omitidas,
+                                 int sesionesSinAgendar) {
+        this(serieId, politica, citas, omitidas);
+        this.sesionesSinAgendar = sesionesSinAgendar;
+    }
+
+    // Getters y Setters
+    public Long getSerieId() {
+        return serieId;
+    }
+
+    public void setSerieId(Long serieId) {
+        this.serieId = serieId;
+    }
+
+    public PoliticaSerie getPolitica() {
+        return politica;
+    }
+
+    public void setPolitica(PoliticaSerie politica) {
+        this.politica = politica;
+    }
+
+    public List<CitaResponseDTO> getCitas() {
+        return citas;
+    }
+
+    public void setCitas(List<CitaResponseDTO> citas) {
+        this.citas = citas;
+    }
+
+    public List<LocalDateTime> getOmitidas() {
+        return omitidas;
+    }
+
+    public void setOmitidas(List<LocalDateTime> omitidas) {
+        this.omitidas = omitidas;
+    }
+
+    public int getSesionesSinAgendar() {
+        return sesionesSinAgendar;
+    }
+
+    public void setSesionesSinAgendar(int sesionesSinAgendar) {
+        this.sesionesSinAgendar = sesionesSinAgendar;
+    }
+}
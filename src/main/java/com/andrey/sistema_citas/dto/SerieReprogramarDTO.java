@@ -0,0 +1,24 @@
+package com.andrey.sistema_citas.dto;
+
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+public class SerieReprogramarDTO {
+
+    // Nuevo horario de la próxima sesión; las siguientes se desplazan lo mismo
+    @NotNull(message = "La nueva fecha y hora es obligatoria")
+    @Future(message = "La fecha debe ser futura")
+    private LocalDateTime nuevaFechaHora;
+
+    public SerieReprogramarDTO() {}
+
+    // Getters y Setters
+    public LocalDateTime getNuevaFechaHora() {
+        return nuevaFechaHora;
+    }
+
+    public void setNuevaFechaHora(LocalDateTime nuevaFechaHora) {
+        this.nuevaFechaHora = nuevaFechaHora;
+    }
+}
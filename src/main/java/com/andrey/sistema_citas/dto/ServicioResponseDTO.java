@@ -6,6 +6,7 @@ public class ServicioResponseDTO {
     private String nombre;
     private String descripcion;
     private String duracion;
+    private Integer duracionMinutos;
     private Double precio;
     private Long profesionalId;
     private String profesionalNombre;
@@ -62,6 +63,14 @@ public class ServicioResponseDTO {
         this.duracion = duracion;
     }
 
+    public Integer getDuracionMinutos() {
+        return duracionMinutos;
+    }
+
+    public void setDuracionMinutos(Integer duracionMinutos) {
+        this.duracionMinutos = duracionMinutos;
+    }
+
     public Double getPrecio() {
         return precio;
     }
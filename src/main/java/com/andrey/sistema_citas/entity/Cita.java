@@ -9,7 +9,19 @@ import lombok.ToString;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "cita")
+@Table(name = "cita", indexes = {
+        @Index(name = "idx_cita_profesional_horario", columnList = "profesional_id, fecha_hora, fecha_fin, estado"),
+        @Index(name = "idx_cita_usuario_horario", columnList = "usuario_id, fecha_hora, fecha_fin, estado"),
+        @Index(name = "idx_cita_serie", columnList = "serie_id, fecha_hora"),
+        @Index(name = "idx_cita_fecha_fin_estado", columnList = "fecha_fin, estado"),
+        @Index(name = "idx_cita_fecha_hora", columnList = "fecha_hora, id"),
+        // Búsqueda y paginación: la entidad filtrada más selectiva, después el orden (fecha_hora, id) y al final
+        // el resto de criterios, que se evalúan en el índice sin leer la fila
+        @Index(name = "idx_cita_usuario_fecha_hora", columnList = "usuario_id, fecha_hora, id, estado, profesional_id, servicio_id"),
+        @Index(name = "idx_cita_profesional_fecha_hora", columnList = "profesional_id, fecha_hora, id, estado, servicio_id, usuario_id"),
+        @Index(name = "idx_cita_servicio_fecha_hora", columnList = "servicio_id, fecha_hora, id, estado, profesional_id, usuario_id"),
+        @Index(name = "idx_cita_estado_fecha_hora", columnList = "estado, fecha_hora, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -17,12 +29,18 @@ import java.time.LocalDateTime;
 public class Cita {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "cita_id")
+    @TableGenerator(name = "cita_id", table = "id_generador", pkColumnName = "entidad",
+            valueColumnName = "siguiente_valor", pkColumnValue = "cita", allocationSize = 50)
     private Long id;
 
     @Column(name = "fecha_hora", nullable = false)
     private LocalDateTime fechaHora;
 
+    // Fin calculado a partir de la duración del servicio; se persiste para poder detectar solapamientos en la consulta
+    @Column(name = "fecha_fin")
+    private LocalDateTime fechaFin;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "estado", length = 50, nullable = false)
     private EstadoCita estado;
@@ -39,6 +57,11 @@ public class Cita {
     @JoinColumn(name = "profesional_id", nullable = false)
     private Profesional profesional;
 
+    // Serie recurrente a la que pertenece la cita, si se agendó como parte de una
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "serie_id")
+    private SerieCita serie;
+
     public Cita(LocalDateTime fechaHora, EstadoCita estado, Usuario usuario, Servicio servicio, Profesional profesional) {
         this.fechaHora = fechaHora;
         this.estado = estado;
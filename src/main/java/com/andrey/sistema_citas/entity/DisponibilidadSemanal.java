@@ -0,0 +1,52 @@
+package com.andrey.sistema_citas.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * Tramo horario recurrente en el que un profesional atiende: un día de la semana y un rango [horaInicio, horaFin).
+ * Un mismo día puede tener varios tramos (por ejemplo, mañana y tarde).
+ */
+@Entity
+@Table(name = "disponibilidad_semanal", indexes = {
+        @Index(name = "idx_disponibilidad_semanal_profesional", columnList = "profesional_id, dia_semana")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString(exclude = "profesional")
+public class DisponibilidadSemanal {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "disponibilidad_semanal_id")
+    @TableGenerator(name = "disponibilidad_semanal_id", table = "id_generador", pkColumnName = "entidad",
+            valueColumnName = "siguiente_valor", pkColumnValue = "disponibilidad_semanal", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "profesional_id", nullable = false)
+    private Profesional profesional;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "dia_semana", length = 20, nullable = false)
+    private DayOfWeek diaSemana;
+
+    @Column(name = "hora_inicio", nullable = false)
+    private LocalTime horaInicio;
+
+    @Column(name = "hora_fin", nullable = false)
+    private LocalTime horaFin;
+
+    public DisponibilidadSemanal(Profesional profesional, DayOfWeek diaSemana, LocalTime horaInicio, LocalTime horaFin) {
+        this.profesional = profesional;
+        this.diaSemana = diaSemana;
+        this.horaInicio = horaInicio;
+        this.horaFin = horaFin;
+    }
+}
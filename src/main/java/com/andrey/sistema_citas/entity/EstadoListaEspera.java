@@ -0,0 +1,8 @@
+package com.andrey.sistema_citas.entity;
+
+public enum EstadoListaEspera {
+    ESPERANDO,
+    ASIGNADA,
+    CANCELADA,
+    VENCIDA
+}
@@ -0,0 +1,56 @@
+package com.andrey.sistema_citas.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Cambio puntual sobre el horario semanal en una fecha concreta.
+ * Con disponible = false bloquea el rango indicado, o el día entero si no hay horas;
+ * con disponible = true añade el rango como horario de atención extra.
+ */
+@Entity
+@Table(name = "excepcion_disponibilidad", indexes = {
+        @Index(name = "idx_excepcion_disponibilidad_profesional", columnList = "profesional_id, fecha")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString(exclude = "profesional")
+public class ExcepcionDisponibilidad {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "excepcion_disponibilidad_id")
+    @TableGenerator(name = "excepcion_disponibilidad_id", table = "id_generador", pkColumnName = "entidad",
+            valueColumnName = "siguiente_valor", pkColumnValue = "excepcion_disponibilidad", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "profesional_id", nullable = false)
+    private Profesional profesional;
+
+    @Column(nullable = false)
+    private LocalDate fecha;
+
+    @Column(name = "hora_inicio")
+    private LocalTime horaInicio;
+
+    @Column(name = "hora_fin")
+    private LocalTime horaFin;
+
+    @Column(nullable = false)
+    private boolean disponible;
+
+    public ExcepcionDisponibilidad(Profesional profesional, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin, boolean disponible) {
+        this.profesional = profesional;
+        this.fecha = fecha;
+        this.horaInicio = horaInicio;
+        this.horaFin = horaFin;
+        this.disponible = disponible;
+    }
+}
@@ -0,0 +1,74 @@
+package com.andrey.sistema_citas.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Solicitud de un usuario para recibir el primer horario que se libere con un profesional y servicio
+ * dentro de la ventana [desde, hasta). Entre las que esperan, se atiende antes la de mayor prioridad
+ * y, a igual prioridad, la registrada primero.
+ */
+@Entity
+@Table(name = "lista_espera", indexes = {
+        @Index(name = "idx_lista_espera_profesional_servicio", columnList = "profesional_id, servicio_id, estado"),
+        @Index(name = "idx_lista_espera_usuario", columnList = "usuario_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString(exclude = {"usuario", "profesional", "servicio"})
+public class ListaEspera {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "lista_espera_id")
+    @TableGenerator(name = "lista_espera_id", table = "id_generador", pkColumnName = "entidad",
+            valueColumnName = "siguiente_valor", pkColumnValue = "lista_espera", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id", nullable = false)
+    private Usuario usuario;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "profesional_id", nullable = false)
+    private Profesional profesional;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "servicio_id", nullable = false)
+    private Servicio servicio;
+
+    @Column(nullable = false)
+    private LocalDateTime desde;
+
+    @Column(nullable = false)
+    private LocalDateTime hasta;
+
+    @Column(nullable = false)
+    private int prioridad;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private EstadoListaEspera estado = EstadoListaEspera.ESPERANDO;
+
+    @Column(name = "fecha_registro", nullable = false)
+    private LocalDateTime fechaRegistro;
+
+    // Cita creada al asignarle un horario liberado
+    @Column(name = "cita_id")
+    private Long citaId;
+
+    public ListaEspera(Usuario usuario, Profesional profesional, Servicio servicio,
+                       LocalDateTime desde, LocalDateTime hasta, LocalDateTime fechaRegistro) {
+        this.usuario = usuario;
+        this.profesional = profesional;
+        this.servicio = servicio;
+        this.desde = desde;
+        this.hasta = hasta;
+        this.fechaRegistro = fechaRegistro;
+    }
+}
@@ -0,0 +1,14 @@
+package com.andrey.sistema_citas.entity;
+
+/**
+ * Qué hacer con las fechas de una serie de citas que chocan con otra cita.
+ */
+public enum PoliticaSerie {
+    // Si alguna fecha choca, no se agenda ninguna
+    TODO_O_NADA,
+    // Se agendan solo las fechas libres
+    ACEPTAR_PARCIAL,
+    // Se saltan las fechas ocupadas y la serie se alarga hasta completar las sesiones pedidas, probando como mucho
+    // SerieCitaService.FECHAS_EXTRA_MAXIMAS fechas más; si no bastan, la respuesta indica las sesiones sin agendar
+    OMITIR_Y_EXTENDER
+}
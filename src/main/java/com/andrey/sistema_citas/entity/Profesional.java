@@ -11,22 +11,31 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "profesional")
+@Table(name = "profesional", indexes = {
+        @Index(name = "idx_profesional_especialidad", columnList = "especialidad")
+})
 @Getter
 @Setter
 @NoArgsConstructor
-@ToString(exclude = {"usuario", "citas"})
+@ToString(exclude = {"usuario", "citas", "servicios", "disponibilidadSemanal", "excepcionesDisponibilidad"})
 public class Profesional {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "profesional_id")
+    @TableGenerator(name = "profesional_id", table = "id_generador", pkColumnName = "entidad",
+            valueColumnName = "siguiente_valor", pkColumnValue = "profesional", allocationSize = 50)
     private Long id;
     
     @Column(length = 255)
     private String especialidad;
     
+    // Texto libre heredado; el horario que se usa para calcular disponibilidad está en disponibilidadSemanal
     @Column(name = "horario_disponible", length = 500)
     private String horarioDisponible;
+
+    // Se incrementa con ProfesionalRepository.incrementarVersionHorario en cada cambio de horario
+    @Column(name = "version_horario", nullable = false, insertable = false, updatable = false)
+    private long versionHorario;
     
     @OneToOne
     @JoinColumn(name = "usuario_id", referencedColumnName = "id", nullable = false, unique = true)
@@ -39,6 +48,14 @@ public class Profesional {
     @OneToMany(mappedBy = "profesional", cascade = CascadeType.ALL)
     @JsonIgnore
     private List<Servicio> servicios = new ArrayList<>();
+
+    @OneToMany(mappedBy = "profesional", cascade = CascadeType.ALL, orphanRemoval = true)
+    @JsonIgnore
+    private List<DisponibilidadSemanal> disponibilidadSemanal = new ArrayList<>();
+
+    @OneToMany(mappedBy = "profesional", cascade = CascadeType.ALL, orphanRemoval = true)
+    @JsonIgnore
+    private List<ExcepcionDisponibilidad> excepcionesDisponibilidad = new ArrayList<>();
     
     public Profesional(String especialidad, String horarioDisponible, Usuario usuario) {
         this.especialidad = especialidad;
@@ -0,0 +1,91 @@
+package com.andrey.sistema_citas.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Franja de agenda (de MINUTOS_FRANJA minutos) ocupada por una cita de un profesional
+ * o retenida temporalmente mientras se confirma una (retencionId). La clave primaria (profesional_id, inicio_franja) hace que la base de datos rechace de forma
+ * atómica dos reservas de la misma franja, aunque lleguen desde instancias distintas de la aplicación.
+ */
+@Entity
+@Table(name = "reserva_franja", indexes = {
+        @Index(name = "idx_reserva_franja_cita", columnList = "cita_id"),
+        @Index(name = "idx_reserva_franja_retencion", columnList = "retencion_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class ReservaFranja implements Persistable<ReservaFranjaId> {
+
+    public static final int MINUTOS_FRANJA = 5;
+
+    @EmbeddedId
+    private ReservaFranjaId id;
+
+    @Column(name = "cita_id")
+    private Long citaId;
+
+    @Column(name = "retencion_id", length = 36)
+    private String retencionId;
+
+    // Las reservas siempre se insertan; así save() no hace un SELECT previo para decidir entre persist y merge
+    @Transient
+    private boolean nueva = true;
+
+    public ReservaFranja(Long profesionalId, LocalDateTime inicioFranja, Long citaId) {
+        this.id = new ReservaFranjaId(profesionalId, inicioFranja);
+        this.citaId = citaId;
+    }
+
+    public ReservaFranja(Long profesionalId, LocalDateTime inicioFranja, String retencionId) {
+        this.id = new ReservaFranjaId(profesionalId, inicioFranja);
+        this.retencionId = retencionId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return nueva;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarPersistida() {
+        this.nueva = false;
+    }
+
+    /**
+     * Inicios de las franjas que cubren [inicio, fin): desde la franja que contiene el inicio
+     * hasta la última que empieza antes del fin. Un inicio o un fin fuera de la rejilla se redondea hacia fuera,
+     * así que solo es exacto si las citas empiezan en el borde de una franja (ver {@link #alineadaAFranja}):
+     * entonces dos citas seguidas nunca comparten franja, aunque la primera acabe fuera de la rejilla.
+     */
+    public static List<LocalDateTime> franjasEntre(LocalDateTime inicio, LocalDateTime fin) {
+        LocalDateTime franja = inicio.truncatedTo(ChronoUnit.HOURS)
+                .plusMinutes((inicio.getMinute() / MINUTOS_FRANJA) * MINUTOS_FRANJA);
+
+        List<LocalDateTime> franjas = new ArrayList<>();
+        while (franja.isBefore(fin)) {
+            franjas.add(franja);
+            franja = franja.plusMinutes(MINUTOS_FRANJA);
+        }
+        return franjas;
+    }
+
+    /**
+     * Si la hora empieza exactamente en el borde de una franja: minutos múltiplo de MINUTOS_FRANJA y sin segundos.
+     */
+    public static boolean alineadaAFranja(LocalDateTime hora) {
+        return hora.getMinute() % MINUTOS_FRANJA == 0 && hora.getSecond() == 0 && hora.getNano() == 0;
+    }
+}
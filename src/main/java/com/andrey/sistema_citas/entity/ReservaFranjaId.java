@@ -0,0 +1,32 @@
+package com.andrey.sistema_citas.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Embeddable
+@Getter
+@NoArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class ReservaFranjaId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Column(name = "profesional_id", nullable = false)
+    private Long profesionalId;
+
+    @Column(name = "inicio_franja", nullable = false)
+    private LocalDateTime inicioFranja;
+
+    public ReservaFranjaId(Long profesionalId, LocalDateTime inicioFranja) {
+        this.profesionalId = profesionalId;
+        this.inicioFranja = inicioFranja;
+    }
+}
@@ -0,0 +1,61 @@
+package com.andrey.sistema_citas.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Franja de agenda ocupada por una cita (o una retención) de un usuario. Es el equivalente de ReservaFranja
+ * para el lado del paciente: la clave primaria (usuario_id, inicio_franja) impide que el mismo usuario tenga
+ * dos citas a la vez aunque las reserve en instancias distintas de la aplicación.
+ */
+@Entity
+@Table(name = "reserva_franja_usuario", indexes = {
+        @Index(name = "idx_reserva_franja_usuario_cita", columnList = "cita_id"),
+        @Index(name = "idx_reserva_franja_usuario_retencion", columnList = "retencion_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class ReservaFranjaUsuario implements Persistable<ReservaFranjaUsuarioId> {
+
+    @EmbeddedId
+    private ReservaFranjaUsuarioId id;
+
+    @Column(name = "cita_id")
+    private Long citaId;
+
+    @Column(name = "retencion_id", length = 36)
+    private String retencionId;
+
+    // Igual que en ReservaFranja: siempre se insertan, sin SELECT previo
+    @Transient
+    private boolean nueva = true;
+
+    public ReservaFranjaUsuario(Long usuarioId, LocalDateTime inicioFranja, Long citaId) {
+        this.id = new ReservaFranjaUsuarioId(usuarioId, inicioFranja);
+        this.citaId = citaId;
+    }
+
+    public ReservaFranjaUsuario(Long usuarioId, LocalDateTime inicioFranja, String retencionId) {
+        this.id = new ReservaFranjaUsuarioId(usuarioId, inicioFranja);
+        this.retencionId = retencionId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return nueva;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarPersistida() {
+        this.nueva = false;
+    }
+}
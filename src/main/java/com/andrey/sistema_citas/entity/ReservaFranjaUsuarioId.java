@@ -0,0 +1,32 @@
+package com.andrey.sistema_citas.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Embeddable
+@Getter
+@NoArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class ReservaFranjaUsuarioId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(name = "inicio_franja", nullable = false)
+    private LocalDateTime inicioFranja;
+
+    public ReservaFranjaUsuarioId(Long usuarioId, LocalDateTime inicioFranja) {
+        this.usuarioId = usuarioId;
+        this.inicioFranja = inicioFranja;
+    }
+}
@@ -0,0 +1,90 @@
+package com.andrey.sistema_citas.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Respuesta ya enviada a una petición con cabecera Idempotency-Key. Permite responder a los reintentos
+ * con la misma respuesta, también cuando el reintento llega a otra instancia de la aplicación.
+ * Mientras la petición original se procesa, la fila queda pendiente y sin respuesta.
+ */
+@Entity
+@Table(name = "respuesta_idempotente", indexes = {
+        @Index(name = "idx_respuesta_idempotente_expira", columnList = "expira")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString(exclude = "cuerpo")
+public class RespuestaIdempotente implements Persistable<String> {
+
+    // SHA-256 (hex) del usuario y la clave enviada por el cliente
+    @Id
+    @Column(length = 64)
+    private String clave;
+
+    // SHA-256 (hex) del método, la ruta y el cuerpo de la petición original; nula mientras está pendiente
+    @Column(length = 64)
+    private String huella;
+
+    @Column(nullable = false)
+    private int estado;
+
+    @Column(name = "tipo_contenido", length = 255)
+    private String tipoContenido;
+
+    @Lob
+    @Column(columnDefinition = "LONGBLOB")
+    private byte[] cuerpo;
+
+    // Plazo de la respuesta guardada o, si está pendiente, de la reclamación de la petición original
+    @Column(nullable = false)
+    private LocalDateTime expira;
+
+    @Column(nullable = false)
+    private boolean pendiente;
+
+    // Siempre se insertan; así save() no consulta antes si la fila existe
+    @Transient
+    private boolean nueva = true;
+
+    public RespuestaIdempotente(String clave, String huella, int estado, String tipoContenido, byte[] cuerpo, LocalDateTime expira) {
+        this.clave = clave;
+        this.huella = huella;
+        this.estado = estado;
+        this.tipoContenido = tipoContenido;
+        this.cuerpo = cuerpo;
+        this.expira = expira;
+    }
+
+    /**
+     * Reclamación de la clave por la petición original, antes de ejecutarla.
+     */
+    public static RespuestaIdempotente pendiente(String clave, LocalDateTime expira) {
+        RespuestaIdempotente respuesta = new RespuestaIdempotente(clave, null, 0, null, null, expira);
+        respuesta.setPendiente(true);
+        return respuesta;
+    }
+
+    @Override
+    public String getId() {
+        return clave;
+    }
+
+    @Override
+    public boolean isNew() {
+        return nueva;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarPersistida() {
+        this.nueva = false;
+    }
+}
@@ -0,0 +1,75 @@
+package com.andrey.sistema_citas.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Retención temporal de un horario mientras el paciente confirma la cita. Sus franjas se guardan en
+ * reserva_franja con el id de la retención, así que cuentan como ocupadas para el resto de reservas
+ * hasta que se confirma (pasan a la cita), se libera o vence.
+ */
+@Entity
+@Table(name = "retencion_franja", indexes = {
+        @Index(name = "idx_retencion_franja_expira", columnList = "expira")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class RetencionFranja implements Persistable<String> {
+
+    // UUID generado al retener; es el identificador que recibe el cliente
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "profesional_id", nullable = false)
+    private Long profesionalId;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(name = "servicio_id", nullable = false)
+    private Long servicioId;
+
+    @Column(name = "fecha_hora", nullable = false)
+    private LocalDateTime fechaHora;
+
+    @Column(name = "fecha_fin", nullable = false)
+    private LocalDateTime fechaFin;
+
+    @Column(nullable = false)
+    private LocalDateTime expira;
+
+    // Siempre se insertan; así save() no consulta antes si la fila existe
+    @Transient
+    private boolean nueva = true;
+
+    public RetencionFranja(String id, Long profesionalId, Long usuarioId, Long servicioId,
+                           LocalDateTime fechaHora, LocalDateTime fechaFin, LocalDateTime expira) {
+        this.id = id;
+        this.profesionalId = profesionalId;
+        this.usuarioId = usuarioId;
+        this.servicioId = servicioId;
+        this.fechaHora = fechaHora;
+        this.fechaFin = fechaFin;
+        this.expira = expira;
+    }
+
+    @Override
+    public boolean isNew() {
+        return nueva;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarPersistida() {
+        this.nueva = false;
+    }
+}
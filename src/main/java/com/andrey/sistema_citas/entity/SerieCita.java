@@ -0,0 +1,65 @@
+package com.andrey.sistema_citas.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Serie de citas recurrentes (por ejemplo, todos los martes a las 10:00 durante 12 semanas).
+ * Cada sesión es una Cita normal que apunta a su serie, para poder cancelarlas o reprogramarlas juntas.
+ */
+@Entity
+@Table(name = "serie_cita")
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString(exclude = {"usuario", "profesional", "servicio"})
+public class SerieCita {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "serie_cita_id")
+    @TableGenerator(name = "serie_cita_id", table = "id_generador", pkColumnName = "entidad",
+            valueColumnName = "siguiente_valor", pkColumnValue = "serie_cita", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id", nullable = false)
+    private Usuario usuario;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "profesional_id", nullable = false)
+    private Profesional profesional;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "servicio_id", nullable = false)
+    private Servicio servicio;
+
+    @Column(name = "intervalo_semanas", nullable = false)
+    private int intervaloSemanas;
+
+    // Sesiones pedidas; con ACEPTAR_PARCIAL pueden haberse agendado menos
+    @Column(nullable = false)
+    private int sesiones;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 30, nullable = false)
+    private PoliticaSerie politica;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    public SerieCita(Usuario usuario, Profesional profesional, Servicio servicio,
+                     int intervaloSemanas, int sesiones, PoliticaSerie politica, LocalDateTime fechaCreacion) {
+        this.usuario = usuario;
+        this.profesional = profesional;
+        this.servicio = servicio;
+        this.intervaloSemanas = intervaloSemanas;
+        this.sesiones = sesiones;
+        this.politica = politica;
+        this.fechaCreacion = fechaCreacion;
+    }
+}
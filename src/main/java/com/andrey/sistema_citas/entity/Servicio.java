@@ -8,7 +8,11 @@ import lombok.NoArgsConstructor;
 import lombok.ToString;
 
 @Entity
-@Table(name = "servicio")
+@Table(name = "servicio", indexes = {
+        @Index(name = "idx_servicio_precio", columnList = "precio"),
+        @Index(name = "idx_servicio_duracion_minutos", columnList = "duracion_minutos"),
+        @Index(name = "idx_servicio_profesional", columnList = "profesional_id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -16,7 +20,9 @@ import lombok.ToString;
 public class Servicio {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "servicio_id")
+    @TableGenerator(name = "servicio_id", table = "id_generador", pkColumnName = "entidad",
+            valueColumnName = "siguiente_valor", pkColumnValue = "servicio", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 255, unique = true)
@@ -28,6 +34,10 @@ public class Servicio {
     @Column(length = 50)
     private String duracion;
 
+    // Duración normalizada que usa la agenda; ServicioService la calcula a partir de duracion al crear o actualizar
+    @Column(name = "duracion_minutos")
+    private Integer duracionMinutos;
+
     @Column
     private Double precio;
 
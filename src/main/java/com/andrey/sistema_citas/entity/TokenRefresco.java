@@ -0,0 +1,70 @@
+package com.andrey.sistema_citas.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Token de refresco emitido al iniciar sesión. Solo se guarda su SHA-256; cada uso lo revoca y emite otro,
+ * así que volver a presentar uno ya revocado indica que fue robado y revoca todos los del usuario.
+ */
+@Entity
+@Table(name = "token_refresco", indexes = {
+        @Index(name = "idx_token_refresco_usuario", columnList = "usuario_id, revocado"),
+        @Index(name = "idx_token_refresco_expira", columnList = "expira")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class TokenRefresco implements Persistable<String> {
+
+    // SHA-256 (hex) del token entregado al cliente
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(nullable = false)
+    private LocalDateTime expira;
+
+    @Column(nullable = false)
+    private boolean revocado;
+
+    @Column(nullable = false)
+    private LocalDateTime creado;
+
+    // Siempre se insertan; así save() no consulta antes si la fila existe
+    @Transient
+    private boolean nueva = true;
+
+    public TokenRefresco(String hash, Long usuarioId, LocalDateTime expira, LocalDateTime creado) {
+        this.hash = hash;
+        this.usuarioId = usuarioId;
+        this.expira = expira;
+        this.creado = creado;
+    }
+
+    @Override
+    public String getId() {
+        return hash;
+    }
+
+    @Override
+    public boolean isNew() {
+        return nueva;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarPersistida() {
+        this.nueva = false;
+    }
+}
@@ -0,0 +1,62 @@
+package com.andrey.sistema_citas.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Token de acceso revocado antes de vencer (cierre de sesión), identificado por su claim jti.
+ * La fila sobra en cuanto el token vence, porque a partir de ahí JwtUtil ya lo rechaza.
+ */
+@Entity
+@Table(name = "token_revocado", indexes = {
+        @Index(name = "idx_token_revocado_revocado_en", columnList = "revocado_en"),
+        @Index(name = "idx_token_revocado_expira", columnList = "expira")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class TokenRevocado implements Persistable<String> {
+
+    @Id
+    @Column(length = 36)
+    private String jti;
+
+    @Column(nullable = false)
+    private LocalDateTime expira;
+
+    @Column(name = "revocado_en", nullable = false)
+    private LocalDateTime revocadoEn;
+
+    // Siempre se insertan; así save() no consulta antes si la fila existe
+    @Transient
+    private boolean nueva = true;
+
+    public TokenRevocado(String jti, LocalDateTime expira, LocalDateTime revocadoEn) {
+        this.jti = jti;
+        this.expira = expira;
+        this.revocadoEn = revocadoEn;
+    }
+
+    @Override
+    public String getId() {
+        return jti;
+    }
+
+    @Override
+    public boolean isNew() {
+        return nueva;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarPersistida() {
+        this.nueva = false;
+    }
+}
@@ -5,6 +5,7 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -13,7 +14,10 @@ import java.util.Set;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
-@Table(name = "usuario")
+@Table(name = "usuario", indexes = {
+        @Index(name = "idx_usuario_telefono", columnList = "telefono"),
+        @Index(name = "idx_usuario_fecha_registro", columnList = "fecha_registro")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -24,7 +28,9 @@ public class Usuario {
 	@JsonIgnore
 	private Profesional profesional;
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "usuario_id")
+    @TableGenerator(name = "usuario_id", table = "id_generador", pkColumnName = "entidad",
+            valueColumnName = "siguiente_valor", pkColumnValue = "usuario", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false, length = 255)
@@ -42,6 +48,8 @@ public class Usuario {
     @Column(name = "fecha_registro")
     private LocalDateTime fechaRegistro;
     
+    // Los roles de una página de usuarios se cargan en una sola consulta adicional
+    @BatchSize(size = 100)
     @ElementCollection(fetch = FetchType.EAGER)
     @CollectionTable(name = "usuario_roles", joinColumns = @JoinColumn(name = "usuario_id"))
     @Enumerated(EnumType.STRING)
@@ -0,0 +1,17 @@
+package com.andrey.sistema_citas.exception;
+
+/**
+ * El servidor no puede atender la petición ahora por exceso de carga; el cliente puede reintentar en unos segundos.
+ */
+public class ServicioSaturadoException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ServicioSaturadoException(String mensaje) {
+        super(mensaje);
+    }
+
+    public ServicioSaturadoException(String mensaje, Throwable causa) {
+        super(mensaje, causa);
+    }
+}
@@ -34,7 +34,7 @@ public class ServicioMapper {
             }
         }
 
-        return new ServicioResponseDTO(
+        ServicioResponseDTO dto = new ServicioResponseDTO(
                 servicio.getId(),
                 servicio.getNombre(),
                 servicio.getDescripcion(),
@@ -43,6 +43,8 @@ public class ServicioMapper {
                 profesionalId,
                 profesionalNombre
         );
+        dto.setDuracionMinutos(servicio.getDuracionMinutos());
+        return dto;
     }
 
    
@@ -0,0 +1,17 @@
+package com.andrey.sistema_citas.repository;
+
+import com.andrey.sistema_citas.dto.CitaResponseDTO;
+import com.andrey.sistema_citas.entity.Cita;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Consultas de citas construidas en tiempo de ejecución con Criteria. CitaRepository la extiende.
+ */
+public interface CitaBusquedaRepository {
+
+    // Respuestas de las citas que cumplen la especificación, ordenadas por (fecha_hora, id)
+    List<CitaResponseDTO> buscarRespuestas(Specification<Cita> especificacion, Limit limite);
+}
@@ -0,0 +1,55 @@
+package com.andrey.sistema_citas.repository;
+
+import com.andrey.sistema_citas.dto.CitaResponseDTO;
+import com.andrey.sistema_citas.entity.Cita;
+import com.andrey.sistema_citas.entity.Profesional;
+import com.andrey.sistema_citas.entity.Servicio;
+import com.andrey.sistema_citas.entity.Usuario;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+class CitaBusquedaRepositoryImpl implements CitaBusquedaRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Misma proyección que CitaRepository.SELECT_RESPUESTA, con el WHERE generado a partir de la especificación.
+     */
+    @Override
+    public List<CitaResponseDTO> buscarRespuestas(Specification<Cita> especificacion, Limit limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CitaResponseDTO> query = cb.createQuery(CitaResponseDTO.class);
+        Root<Cita> c = query.from(Cita.class);
+        Join<Cita, Usuario> u = c.join("usuario");
+        Join<Cita, Servicio> s = c.join("servicio");
+        Join<Cita, Profesional> p = c.join("profesional");
+        Join<Profesional, Usuario> pu = p.join("usuario", JoinType.LEFT);
+
+        query.select(cb.construct(CitaResponseDTO.class,
+                c.get("id"), c.get("fechaHora"), c.get("estado"),
+                u.get("id"), u.get("nombre"),
+                s.get("id"), s.get("nombre"), s.get("duracion"), s.get("precio"),
+                p.get("id"), pu.get("nombre"), p.get("especialidad")));
+
+        Predicate condicion = especificacion.toPredicate(c, query, cb);
+        if (condicion != null) {
+            query.where(condicion);
+        }
+        query.orderBy(cb.asc(c.get("fechaHora")), cb.asc(c.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limite.max())
+                .getResultList();
+    }
+}
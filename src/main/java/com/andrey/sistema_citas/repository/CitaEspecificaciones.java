@@ -0,0 +1,76 @@
+package com.andrey.sistema_citas.repository;
+
+import com.andrey.sistema_citas.dto.CitaBusquedaDTO;
+import com.andrey.sistema_citas.entity.Cita;
+import com.andrey.sistema_citas.entity.EstadoCita;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Condiciones de búsqueda de citas. Filtran por las columnas de la propia tabla cita (las claves foráneas,
+ * no las tablas relacionadas), de modo que se resuelven con los índices compuestos definidos en Cita.
+ */
+public final class CitaEspecificaciones {
+
+    private CitaEspecificaciones() {}
+
+    public static Specification<Cita> deUsuario(Long usuarioId) {
+        return (c, query, cb) -> cb.equal(c.get("usuario").get("id"), usuarioId);
+    }
+
+    public static Specification<Cita> deProfesional(Long profesionalId) {
+        return (c, query, cb) -> cb.equal(c.get("profesional").get("id"), profesionalId);
+    }
+
+    public static Specification<Cita> deServicio(Long servicioId) {
+        return (c, query, cb) -> cb.equal(c.get("servicio").get("id"), servicioId);
+    }
+
+    public static Specification<Cita> enEstado(EstadoCita estado) {
+        return (c, query, cb) -> cb.equal(c.get("estado"), estado);
+    }
+
+    public static Specification<Cita> desde(LocalDateTime desde) {
+        return (c, query, cb) -> cb.greaterThanOrEqualTo(c.get("fechaHora"), desde);
+    }
+
+    public static Specification<Cita> hasta(LocalDateTime hasta) {
+        return (c, query, cb) -> cb.lessThanOrEqualTo(c.get("fechaHora"), hasta);
+    }
+
+    /**
+     * Citas posteriores a (fechaHora, id) en el orden de la paginación por clave.
+     */
+    public static Specification<Cita> despuesDe(LocalDateTime fechaHora, Long id) {
+        return (c, query, cb) -> cb.or(
+                cb.greaterThan(c.get("fechaHora"), fechaHora),
+                cb.and(cb.equal(c.get("fechaHora"), fechaHora), cb.greaterThan(c.get("id"), id)));
+    }
+
+    /**
+     * Combina los criterios informados en la búsqueda; los que vienen vacíos no filtran.
+     */
+    public static Specification<Cita> segun(CitaBusquedaDTO filtro) {
+        Specification<Cita> spec = Specification.unrestricted();
+        if (filtro.getUsuarioId() != null) {
+            spec = spec.and(deUsuario(filtro.getUsuarioId()));
+        }
+        if (filtro.getProfesionalId() != null) {
+            spec = spec.and(deProfesional(filtro.getProfesionalId()));
+        }
+        if (filtro.getServicioId() != null) {
+            spec = spec.and(deServicio(filtro.getServicioId()));
+        }
+        if (filtro.getEstado() != null) {
+            spec = spec.and(enEstado(filtro.getEstado()));
+        }
+        if (filtro.getDesde() != null) {
+            spec = spec.and(desde(filtro.getDesde()));
+        }
+        if (filtro.getHasta() != null) {
+            spec = spec.and(hasta(filtro.getHasta()));
+        }
+        return spec;
+    }
+}
@@ -1,17 +1,35 @@
 package com.andrey.sistema_citas.repository;
 
+import com.andrey.sistema_citas.dto.CitaResponseDTO;
 import com.andrey.sistema_citas.entity.Cita;
 import com.andrey.sistema_citas.entity.EstadoCita; // Import añadido
 import com.andrey.sistema_citas.entity.Profesional;
 import com.andrey.sistema_citas.entity.Servicio;
 import com.andrey.sistema_citas.entity.Usuario;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface CitaRepository extends JpaRepository<Cita, Long> {
+public interface CitaRepository extends JpaRepository<Cita, Long>, CitaBusquedaRepository {
+
+    // Proyección de CitaResponseDTO en una sola consulta con los joins que necesita la respuesta,
+    // en lugar de cargar cada cita y después su usuario, servicio y profesional por separado
+    String SELECT_RESPUESTA = "SELECT new com.andrey.sistema_citas.dto.CitaResponseDTO(" +
+            "c.id, c.fechaHora, c.estado, u.id, u.nombre, s.id, s.nombre, s.duracion, s.precio, " +
+            "p.id, pu.nombre, p.especialidad) " +
+            "FROM Cita c JOIN c.usuario u JOIN c.servicio s JOIN c.profesional p LEFT JOIN p.usuario pu ";
+
+    // Condición de paginación por clave sobre (fecha_hora, id): citas posteriores a la última de la página anterior
+    String DESPUES_DE = "(c.fechaHora > :fechaHora OR (c.fechaHora = :fechaHora AND c.id > :id)) ";
 
     // Buscar citas por usuario
     List<Cita> findByUsuario(Usuario usuario);
@@ -63,11 +81,184 @@ public interface CitaRepository extends JpaRepository<Cita, Long> {
     // Buscar citas por profesional (ID)
     List<Cita> findByProfesionalId(Long profesionalId);
     
-    // Verificar si existe una cita para un profesional en un rango de fechas
-    boolean existsByProfesionalAndFechaHoraBetween(Profesional profesional, LocalDateTime inicio, LocalDateTime fin);
-    
-    // Verificar si existe una cita para un usuario en un rango de fechas
-    boolean existsByUsuarioAndFechaHoraBetween(Usuario usuario, LocalDateTime inicio, LocalDateTime fin);
+    // Respuesta de una cita por id
+    @Query(SELECT_RESPUESTA + "WHERE c.id = :id")
+    Optional<CitaResponseDTO> findRespuestaById(@Param("id") Long id);
+
+    // Respuestas de todas las citas
+    @Query(SELECT_RESPUESTA + "ORDER BY c.fechaHora, c.id")
+    List<CitaResponseDTO> findRespuestas();
+
+    // Respuestas de las citas de un usuario
+    @Query(SELECT_RESPUESTA + "WHERE u.id = :usuarioId ORDER BY c.fechaHora, c.id")
+    List<CitaResponseDTO> findRespuestasByUsuarioId(@Param("usuarioId") Long usuarioId);
+
+    // Respuestas de las citas de un profesional
+    @Query(SELECT_RESPUESTA + "WHERE p.id = :profesionalId ORDER BY c.fechaHora, c.id")
+    List<CitaResponseDTO> findRespuestasByProfesionalId(@Param("profesionalId") Long profesionalId);
+
+    // Respuestas de las citas en un estado
+    @Query(SELECT_RESPUESTA + "WHERE c.estado = :estado ORDER BY c.fechaHora, c.id")
+    List<CitaResponseDTO> findRespuestasByEstado(@Param("estado") EstadoCita estado);
+
+    // Respuestas de las citas en un rango de fechas y horas (ambos extremos incluidos)
+    @Query(SELECT_RESPUESTA + "WHERE c.fechaHora BETWEEN :inicio AND :fin ORDER BY c.fechaHora, c.id")
+    List<CitaResponseDTO> findRespuestasEnRango(@Param("inicio") LocalDateTime inicio, @Param("fin") LocalDateTime fin);
+
+    // Respuestas de un rango recorridas fila a fila: con fetch size Integer.MIN_VALUE el driver de MySQL
+    // entrega el resultado en streaming en lugar de cargarlo entero. Debe consumirse dentro de una transacción
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query(SELECT_RESPUESTA + "WHERE c.fechaHora BETWEEN :inicio AND :fin ORDER BY c.fechaHora, c.id")
+    Stream<CitaResponseDTO> streamRespuestasEnRango(@Param("inicio") LocalDateTime inicio, @Param("fin") LocalDateTime fin);
+
+    // Página de todas las citas a partir de una posición
+    @Query(SELECT_RESPUESTA + "WHERE " + DESPUES_DE + "ORDER BY c.fechaHora, c.id")
+    List<CitaResponseDTO> findPaginaDespuesDe(@Param("fechaHora") LocalDateTime fechaHora, @Param("id") Long id,
+                                              Limit limite);
+
+    // Página de las citas de un usuario a partir de una posición
+    @Query(SELECT_RESPUESTA + "WHERE u.id = :usuarioId AND " + DESPUES_DE + "ORDER BY c.fechaHora, c.id")
+    List<CitaResponseDTO> findPaginaByUsuarioIdDespuesDe(@Param("usuarioId") Long usuarioId,
+                                                         @Param("fechaHora") LocalDateTime fechaHora,
+                                                         @Param("id") Long id, Limit limite);
+
+    // Página de las citas de un profesional a partir de una posición
+    @Query(SELECT_RESPUESTA + "WHERE p.id = :profesionalId AND " + DESPUES_DE + "ORDER BY c.fechaHora, c.id")
+    List<CitaResponseDTO> findPaginaByProfesionalIdDespuesDe(@Param("profesionalId") Long profesionalId,
+                                                             @Param("fechaHora") LocalDateTime fechaHora,
+                                                             @Param("id") Long id, Limit limite);
+
+    // Página de las citas en un estado a partir de una posición
+    @Query(SELECT_RESPUESTA + "WHERE c.estado = :estado AND " + DESPUES_DE + "ORDER BY c.fechaHora, c.id")
+    List<CitaResponseDTO> findPaginaByEstadoDespuesDe(@Param("estado") EstadoCita estado,
+                                                      @Param("fechaHora") LocalDateTime fechaHora,
+                                                      @Param("id") Long id, Limit limite);
+
+    // Validación de una nueva cita en una sola consulta: existencia de usuario, servicio y profesional,
+    // más los datos que necesita la respuesta. No carga entidades (ni la colección EAGER de roles).
+    @Query(value = "SELECT u.id AS usuarioId, u.nombre AS usuarioNombre, " +
+                   "s.id AS servicioId, s.nombre AS servicioNombre, s.duracion AS servicioDuracion, " +
+                   "s.duracion_minutos AS servicioDuracionMinutos, s.precio AS servicioPrecio, " +
+                   "p.id AS profesionalId, pu.nombre AS profesionalNombre, p.especialidad AS profesionalEspecialidad " +
+                   "FROM (SELECT 1) AS d " +
+                   "LEFT JOIN usuario u ON u.id = :usuarioId " +
+                   "LEFT JOIN servicio s ON s.id = :servicioId " +
+                   "LEFT JOIN profesional p ON p.id = :profesionalId " +
+                   "LEFT JOIN usuario pu ON pu.id = p.usuario_id", nativeQuery = true)
+    DatosValidacionCita findDatosValidacion(@Param("usuarioId") Long usuarioId,
+                                            @Param("servicioId") Long servicioId,
+                                            @Param("profesionalId") Long profesionalId);
+
+    // Intervalos de citas activas que aún no terminan, para precargar el índice de agenda:
+    // [id, profesionalId, usuarioId, fechaHora, fechaFin]
+    @Query("SELECT c.id, c.profesional.id, c.usuario.id, c.fechaHora, c.fechaFin FROM Cita c " +
+           "WHERE c.estado IN :estados AND c.fechaFin > :ahora")
+    List<Object[]> findIntervalosActivosDesde(@Param("estados") List<EstadoCita> estados, @Param("ahora") LocalDateTime ahora);
+
+    // Citas activas que aún no terminan y no tienen franjas reservadas (creadas antes de existir la tabla de reservas):
+    // [id, profesionalId, fechaHora, fechaFin]
+    @Query("SELECT c.id, c.profesional.id, c.fechaHora, c.fechaFin FROM Cita c " +
+           "WHERE c.estado IN :estados AND c.fechaFin > :ahora " +
+           "AND NOT EXISTS (SELECT r FROM ReservaFranja r WHERE r.citaId = c.id)")
+    List<Object[]> findIntervalosActivosSinReservas(@Param("estados") List<EstadoCita> estados, @Param("ahora") LocalDateTime ahora);
+
+    // Lo mismo para las franjas del usuario (citas creadas antes de existir reserva_franja_usuario):
+    // [id, usuarioId, fechaHora, fechaFin]
+    @Query("SELECT c.id, c.usuario.id, c.fechaHora, c.fechaFin FROM Cita c " +
+           "WHERE c.estado IN :estados AND c.fechaFin > :ahora " +
+           "AND NOT EXISTS (SELECT r FROM ReservaFranjaUsuario r WHERE r.citaId = c.id)")
+    List<Object[]> findIntervalosActivosSinReservasUsuario(@Param("estados") List<EstadoCita> estados, @Param("ahora") LocalDateTime ahora);
+
+    // Intervalos de citas activas de un profesional que se cruzan con [inicio, fin): [fechaHora, fechaFin].
+    // Igual que en las comprobaciones de solape, "desde" acota el recorrido del índice por profesional.
+    @Query("SELECT c.fechaHora, c.fechaFin FROM Cita c WHERE c.profesional.id = :profesionalId " +
+           "AND c.fechaHora > :desde AND c.fechaHora < :fin AND c.fechaFin > :inicio " +
+           "AND c.estado IN :estados ORDER BY c.fechaHora")
+    List<Object[]> findIntervalosProfesional(@Param("profesionalId") Long profesionalId,
+                                             @Param("desde") LocalDateTime desde,
+                                             @Param("inicio") LocalDateTime inicio,
+                                             @Param("fin") LocalDateTime fin,
+                                             @Param("estados") List<EstadoCita> estados);
+
+    // Igual que la anterior para varios profesionales a la vez: [profesionalId, fechaHora, fechaFin]
+    @Query("SELECT c.profesional.id, c.fechaHora, c.fechaFin FROM Cita c WHERE c.profesional.id IN :profesionalIds " +
+           "AND c.fechaHora > :desde AND c.fechaHora < :fin AND c.fechaFin > :inicio " +
+           "AND c.estado IN :estados")
+    List<Object[]> findIntervalosProfesionales(@Param("profesionalIds") Collection<Long> profesionalIds,
+                                               @Param("desde") LocalDateTime desde,
+                                               @Param("inicio") LocalDateTime inicio,
+                                               @Param("fin") LocalDateTime fin,
+                                               @Param("estados") List<EstadoCita> estados);
+
+    // Citas activas de un profesional que se cruzan con [inicio, fin), con su id: [id, fechaHora, fechaFin]
+    @Query("SELECT c.id, c.fechaHora, c.fechaFin FROM Cita c WHERE c.profesional.id = :profesionalId " +
+           "AND c.fechaHora > :desde AND c.fechaHora < :fin AND c.fechaFin > :inicio " +
+           "AND c.estado IN :estados ORDER BY c.fechaHora")
+    List<Object[]> findOcupacionesProfesional(@Param("profesionalId") Long profesionalId,
+                                              @Param("desde") LocalDateTime desde,
+                                              @Param("inicio") LocalDateTime inicio,
+                                              @Param("fin") LocalDateTime fin,
+                                              @Param("estados") List<EstadoCita> estados);
+
+    // Lo mismo para las citas activas de un usuario: [id, fechaHora, fechaFin]
+    @Query("SELECT c.id, c.fechaHora, c.fechaFin FROM Cita c WHERE c.usuario.id = :usuarioId " +
+           "AND c.fechaHora > :desde AND c.fechaHora < :fin AND c.fechaFin > :inicio " +
+           "AND c.estado IN :estados ORDER BY c.fechaHora")
+    List<Object[]> findOcupacionesUsuario(@Param("usuarioId") Long usuarioId,
+                                          @Param("desde") LocalDateTime desde,
+                                          @Param("inicio") LocalDateTime inicio,
+                                          @Param("fin") LocalDateTime fin,
+                                          @Param("estados") List<EstadoCita> estados);
+
+    // Cita con las relaciones que usa su respuesta, en una sola consulta, para modificarla
+    @Query("SELECT c FROM Cita c JOIN FETCH c.usuario JOIN FETCH c.servicio JOIN FETCH c.profesional p " +
+           "LEFT JOIN FETCH p.usuario WHERE c.id = :id")
+    Optional<Cita> findConRelacionesById(@Param("id") Long id);
+
+    // Citas de una serie con los datos de la respuesta, en orden cronológico
+    @Query("SELECT c FROM Cita c JOIN FETCH c.usuario JOIN FETCH c.servicio JOIN FETCH c.profesional p " +
+           "LEFT JOIN FETCH p.usuario WHERE c.serie.id = :serieId ORDER BY c.fechaHora")
+    List<Cita> findBySerieId(@Param("serieId") Long serieId);
+
+    // Citas activas de una serie que aún no han empezado, en orden cronológico
+    @Query("SELECT c FROM Cita c JOIN FETCH c.usuario JOIN FETCH c.servicio JOIN FETCH c.profesional p " +
+           "LEFT JOIN FETCH p.usuario WHERE c.serie.id = :serieId AND c.estado IN :estados " +
+           "AND c.fechaHora > :ahora ORDER BY c.fechaHora")
+    List<Cita> findActivasDeSerieDesde(@Param("serieId") Long serieId,
+                                       @Param("estados") List<EstadoCita> estados,
+                                       @Param("ahora") LocalDateTime ahora);
+
+    // Citas sin fecha de fin (creadas antes de persistirla), con su servicio para calcularla
+    @Query("SELECT c FROM Cita c JOIN FETCH c.servicio WHERE c.fechaFin IS NULL")
+    List<Cita> findSinFechaFin();
+
+    // Verificar si la cita es del usuario, sin cargarla
+    @Query("SELECT COUNT(c) > 0 FROM Cita c WHERE c.id = :id AND c.usuario.id = :usuarioId")
+    boolean existsByIdAndUsuarioId(@Param("id") Long id, @Param("usuarioId") Long usuarioId);
+
+    // Verificar si un profesional tiene una cita activa que se solape con [inicio, fin).
+    // El límite inferior "desde" (inicio menos la duración máxima de una cita) acota el recorrido
+    // del índice (profesional_id, fecha_hora, fecha_fin, estado) a un rango pequeño.
+    @Query("SELECT COUNT(c) > 0 FROM Cita c WHERE c.profesional.id = :profesionalId " +
+           "AND c.fechaHora > :desde AND c.fechaHora < :fin AND c.fechaFin > :inicio " +
+           "AND c.estado IN :estados AND (:citaExcluida IS NULL OR c.id <> :citaExcluida)")
+    boolean existsSolapeProfesional(@Param("profesionalId") Long profesionalId,
+                                    @Param("desde") LocalDateTime desde,
+                                    @Param("inicio") LocalDateTime inicio,
+                                    @Param("fin") LocalDateTime fin,
+                                    @Param("estados") List<EstadoCita> estados,
+                                    @Param("citaExcluida") Long citaExcluida);
+
+    // Verificar si un usuario tiene una cita activa que se solape con [inicio, fin)
+    @Query("SELECT COUNT(c) > 0 FROM Cita c WHERE c.usuario.id = :usuarioId " +
+           "AND c.fechaHora > :desde AND c.fechaHora < :fin AND c.fechaFin > :inicio " +
+           "AND c.estado IN :estados AND (:citaExcluida IS NULL OR c.id <> :citaExcluida)")
+    boolean existsSolapeUsuario(@Param("usuarioId") Long usuarioId,
+                                @Param("desde") LocalDateTime desde,
+                                @Param("inicio") LocalDateTime inicio,
+                                @Param("fin") LocalDateTime fin,
+                                @Param("estados") List<EstadoCita> estados,
+                                @Param("citaExcluida") Long citaExcluida);
     
     // --- Métodos reemplazados por versiones más seguras con enums ---
     // Las siguientes consultas @Query son menos seguras que usar métodos derivados con enums.
@@ -0,0 +1,28 @@
+package com.andrey.sistema_citas.repository;
+
+/**
+ * Proyección con todo lo necesario para validar y responder a una nueva cita, obtenida en una sola consulta.
+ * Los ids vienen a null cuando la entidad referenciada no existe.
+ */
+public interface DatosValidacionCita {
+
+    Long getUsuarioId();
+
+    String getUsuarioNombre();
+
+    Long getServicioId();
+
+    String getServicioNombre();
+
+    String getServicioDuracion();
+
+    Integer getServicioDuracionMinutos();
+
+    Double getServicioPrecio();
+
+    Long getProfesionalId();
+
+    String getProfesionalNombre();
+
+    String getProfesionalEspecialidad();
+}
@@ -0,0 +1,20 @@
+package com.andrey.sistema_citas.repository;
+
+import com.andrey.sistema_citas.entity.DisponibilidadSemanal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface DisponibilidadSemanalRepository extends JpaRepository<DisponibilidadSemanal, Long> {
+
+    // Tramos semanales de un profesional, ordenados por día y hora
+    @Query("SELECT d FROM DisponibilidadSemanal d WHERE d.profesional.id = :profesionalId ORDER BY d.diaSemana, d.horaInicio")
+    List<DisponibilidadSemanal> findByProfesionalId(@Param("profesionalId") Long profesionalId);
+
+    // Tramos semanales de varios profesionales en una sola consulta
+    @Query("SELECT d FROM DisponibilidadSemanal d WHERE d.profesional.id IN :profesionalIds")
+    List<DisponibilidadSemanal> findByProfesionalIdIn(@Param("profesionalIds") Collection<Long> profesionalIds);
+}
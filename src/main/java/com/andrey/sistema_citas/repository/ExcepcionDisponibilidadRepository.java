@@ -0,0 +1,21 @@
+package com.andrey.sistema_citas.repository;
+
+import com.andrey.sistema_citas.entity.ExcepcionDisponibilidad;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface ExcepcionDisponibilidadRepository extends JpaRepository<ExcepcionDisponibilidad, Long> {
+
+    // Excepciones de un profesional a partir de una fecha, ordenadas cronológicamente
+    @Query("SELECT e FROM ExcepcionDisponibilidad e WHERE e.profesional.id = :profesionalId AND e.fecha >= :desde ORDER BY e.fecha, e.horaInicio")
+    List<ExcepcionDisponibilidad> findByProfesionalIdDesde(@Param("profesionalId") Long profesionalId, @Param("desde") LocalDate desde);
+
+    // Excepciones de varios profesionales a partir de una fecha
+    @Query("SELECT e FROM ExcepcionDisponibilidad e WHERE e.profesional.id IN :profesionalIds AND e.fecha >= :desde ORDER BY e.fecha, e.horaInicio")
+    List<ExcepcionDisponibilidad> findByProfesionalIdInDesde(@Param("profesionalIds") Collection<Long> profesionalIds, @Param("desde") LocalDate desde);
+}
@@ -0,0 +1,62 @@
+package com.andrey.sistema_citas.repository;
+
+import com.andrey.sistema_citas.entity.EstadoListaEspera;
+import com.andrey.sistema_citas.entity.ListaEspera;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ListaEsperaRepository extends JpaRepository<ListaEspera, Long> {
+
+    // Solicitudes de un usuario, las más recientes primero
+    @Query("SELECT l FROM ListaEspera l WHERE l.usuario.id = :usuarioId ORDER BY l.fechaRegistro DESC")
+    List<ListaEspera> findByUsuarioId(@Param("usuarioId") Long usuarioId);
+
+    // Cola de espera de un profesional y servicio en orden de atención
+    @Query("SELECT l FROM ListaEspera l WHERE l.profesional.id = :profesionalId AND l.servicio.id = :servicioId " +
+           "AND l.estado = :estado ORDER BY l.prioridad DESC, l.fechaRegistro, l.id")
+    List<ListaEspera> findCola(@Param("profesionalId") Long profesionalId,
+                               @Param("servicioId") Long servicioId,
+                               @Param("estado") EstadoListaEspera estado);
+
+    // Verificar si el usuario ya espera por ese profesional y servicio
+    @Query("SELECT COUNT(l) > 0 FROM ListaEspera l WHERE l.usuario.id = :usuarioId AND l.profesional.id = :profesionalId " +
+           "AND l.servicio.id = :servicioId AND l.estado = com.andrey.sistema_citas.entity.EstadoListaEspera.ESPERANDO")
+    boolean existsEsperando(@Param("usuarioId") Long usuarioId,
+                            @Param("profesionalId") Long profesionalId,
+                            @Param("servicioId") Long servicioId);
+
+    // Verificar si la solicitud es del usuario, sin cargarla
+    @Query("SELECT COUNT(l) > 0 FROM ListaEspera l WHERE l.id = :id AND l.usuario.id = :usuarioId")
+    boolean existsByIdAndUsuarioId(@Param("id") Long id, @Param("usuarioId") Long usuarioId);
+
+    // Solicitudes en espera cuya ventana contiene [inicio, fin), en orden de atención: ids de los primeros candidatos
+    // para un horario liberado. Recorre el índice por profesional, servicio y estado.
+    @Query("SELECT l.id FROM ListaEspera l WHERE l.profesional.id = :profesionalId AND l.servicio.id = :servicioId " +
+           "AND l.estado = com.andrey.sistema_citas.entity.EstadoListaEspera.ESPERANDO " +
+           "AND l.desde <= :inicio AND l.hasta >= :fin AND l.hasta > :ahora " +
+           "ORDER BY l.prioridad DESC, l.fechaRegistro, l.id")
+    List<Long> findCandidatos(@Param("profesionalId") Long profesionalId,
+                              @Param("servicioId") Long servicioId,
+                              @Param("inicio") LocalDateTime inicio,
+                              @Param("fin") LocalDateTime fin,
+                              @Param("ahora") LocalDateTime ahora,
+                              Limit limite);
+
+    // Asignar la cita a una solicitud solo si sigue en espera; devuelve 0 si otra instancia ya la atendió
+    @Modifying
+    @Query("UPDATE ListaEspera l SET l.estado = com.andrey.sistema_citas.entity.EstadoListaEspera.ASIGNADA, l.citaId = :citaId " +
+           "WHERE l.id = :id AND l.estado = com.andrey.sistema_citas.entity.EstadoListaEspera.ESPERANDO")
+    int asignar(@Param("id") Long id, @Param("citaId") Long citaId);
+
+    // Marcar como vencidas las solicitudes cuya ventana ya pasó
+    @Modifying
+    @Query("UPDATE ListaEspera l SET l.estado = com.andrey.sistema_citas.entity.EstadoListaEspera.VENCIDA " +
+           "WHERE l.estado = com.andrey.sistema_citas.entity.EstadoListaEspera.ESPERANDO AND l.hasta <= :ahora")
+    int marcarVencidas(@Param("ahora") LocalDateTime ahora);
+}
@@ -3,8 +3,10 @@ package com.andrey.sistema_citas.repository;
 import com.andrey.sistema_citas.entity.Profesional;
 import com.andrey.sistema_citas.entity.Usuario;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,7 +21,41 @@ public interface ProfesionalRepository extends JpaRepository<Profesional, Long>
     // Buscar profesional por ID de usuario
     @Query("SELECT p FROM Profesional p WHERE p.usuario.id = :usuarioId")
     Optional<Profesional> findByUsuarioId(@Param("usuarioId") Long usuarioId);
+
+    // Id del profesional asociado a un usuario, sin cargar entidades
+    @Query("SELECT p.id FROM Profesional p WHERE p.usuario.id = :usuarioId")
+    Optional<Long> findIdByUsuarioId(@Param("usuarioId") Long usuarioId);
     
+    // Datos de reserva de varios profesionales por id, sin cargar entidades: [id, nombre, especialidad]
+    @Query("SELECT p.id, u.nombre, p.especialidad FROM Profesional p JOIN p.usuario u WHERE p.id IN :ids")
+    List<Object[]> findDatosReservaByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Ids de todos los profesionales
+    @Query("SELECT p.id FROM Profesional p")
+    List<Long> findAllIds();
+
+    // Incrementar la versión del horario; el UPDATE bloquea la fila, así que dos cambios a la vez no comparten versión
+    @Modifying
+    @Query("UPDATE Profesional p SET p.versionHorario = p.versionHorario + 1 WHERE p.id = :id")
+    int incrementarVersionHorario(@Param("id") Long id);
+
+    // Versión actual del horario de un profesional
+    @Query("SELECT p.versionHorario FROM Profesional p WHERE p.id = :id")
+    Optional<Long> findVersionHorario(@Param("id") Long id);
+
+    // Versión del horario de varios profesionales: [id, versionHorario]
+    @Query("SELECT p.id, p.versionHorario FROM Profesional p WHERE p.id IN :ids")
+    List<Object[]> findVersionesHorarioByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Versión del horario de todos los profesionales: [id, versionHorario]
+    @Query("SELECT p.id, p.versionHorario FROM Profesional p")
+    List<Object[]> findVersionesHorario();
+
+    // Profesionales con horario en texto libre que aún no tienen horario semanal estructurado
+    @Query("SELECT p FROM Profesional p WHERE p.horarioDisponible IS NOT NULL " +
+           "AND NOT EXISTS (SELECT d FROM DisponibilidadSemanal d WHERE d.profesional = p)")
+    List<Profesional> findConHorarioSinMigrar();
+
     // --- Métodos de disponibilidad comentados ---
     // Estos métodos intentan comparar un String (horarioDisponible) con LocalDateTime.
     // Esto no funcionará de manera fiable. La lógica de disponibilidad se manejará mejor en la capa de Servicio.
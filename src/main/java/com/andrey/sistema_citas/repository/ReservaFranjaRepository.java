@@ -0,0 +1,43 @@
+package com.andrey.sistema_citas.repository;
+
+import com.andrey.sistema_citas.entity.ReservaFranja;
+import com.andrey.sistema_citas.entity.ReservaFranjaId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface ReservaFranjaRepository extends JpaRepository<ReservaFranja, ReservaFranjaId> {
+
+    // Liberar todas las franjas reservadas por una cita
+    @Modifying
+    @Query("DELETE FROM ReservaFranja r WHERE r.citaId = :citaId")
+    int deleteByCitaId(@Param("citaId") Long citaId);
+
+    // Liberar las franjas de varias citas a la vez
+    @Modifying
+    @Query("DELETE FROM ReservaFranja r WHERE r.citaId IN :citaIds")
+    int deleteByCitaIdIn(@Param("citaIds") Collection<Long> citaIds);
+
+    // Liberar las franjas de una retención de horario
+    @Modifying
+    @Query("DELETE FROM ReservaFranja r WHERE r.retencionId = :retencionId")
+    int deleteByRetencionId(@Param("retencionId") String retencionId);
+
+    // Pasar a una cita las franjas de una retención al confirmarla
+    @Modifying
+    @Query("UPDATE ReservaFranja r SET r.citaId = :citaId, r.retencionId = null WHERE r.retencionId = :retencionId")
+    int asignarRetencionACita(@Param("retencionId") String retencionId, @Param("citaId") Long citaId);
+
+    // Reservar una franja ignorando duplicados; solo para completar reservas de citas antiguas al arrancar.
+    // INSERT IGNORE es propio de MySQL/MariaDB: con otra base de datos habría que usar su equivalente (ON CONFLICT DO NOTHING, MERGE)
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO reserva_franja (profesional_id, inicio_franja, cita_id) " +
+                   "VALUES (:profesionalId, :inicioFranja, :citaId)", nativeQuery = true)
+    int insertIgnorandoDuplicados(@Param("profesionalId") Long profesionalId,
+                                  @Param("inicioFranja") LocalDateTime inicioFranja,
+                                  @Param("citaId") Long citaId);
+}
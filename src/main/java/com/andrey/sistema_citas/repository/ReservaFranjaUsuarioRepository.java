@@ -0,0 +1,38 @@
+package com.andrey.sistema_citas.repository;
+
+import com.andrey.sistema_citas.entity.ReservaFranjaUsuario;
+import com.andrey.sistema_citas.entity.ReservaFranjaUsuarioId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface ReservaFranjaUsuarioRepository extends JpaRepository<ReservaFranjaUsuario, ReservaFranjaUsuarioId> {
+
+    // Liberar todas las franjas del usuario reservadas por una cita
+    @Modifying
+    @Query("DELETE FROM ReservaFranjaUsuario r WHERE r.citaId = :citaId")
+    int deleteByCitaId(@Param("citaId") Long citaId);
+
+    // Liberar las franjas de varias citas a la vez
+    @Modifying
+    @Query("DELETE FROM ReservaFranjaUsuario r WHERE r.citaId IN :citaIds")
+    int deleteByCitaIdIn(@Param("citaIds") Collection<Long> citaIds);
+
+    // Liberar las franjas de una retención de horario
+    @Modifying
+    @Query("DELETE FROM ReservaFranjaUsuario r WHERE r.retencionId = :retencionId")
+    int deleteByRetencionId(@Param("retencionId") String retencionId);
+
+    // Reservar una franja ignorando duplicados; solo para completar reservas de citas antiguas al arrancar.
+    // INSERT IGNORE es propio de MySQL/MariaDB, como en ReservaFranjaRepository
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO reserva_franja_usuario (usuario_id, inicio_franja, cita_id) " +
+                   "VALUES (:usuarioId, :inicioFranja, :citaId)", nativeQuery = true)
+    int insertIgnorandoDuplicados(@Param("usuarioId") Long usuarioId,
+                                  @Param("inicioFranja") LocalDateTime inicioFranja,
+                                  @Param("citaId") Long citaId);
+}
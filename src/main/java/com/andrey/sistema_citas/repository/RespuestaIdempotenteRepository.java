@@ -0,0 +1,47 @@
+package com.andrey.sistema_citas.repository;
+
+import com.andrey.sistema_citas.entity.RespuestaIdempotente;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface RespuestaIdempotenteRepository extends JpaRepository<RespuestaIdempotente, String> {
+
+    // Guardar la respuesta de una clave que esta petición reclamó y sigue pendiente
+    @Transactional
+    @Modifying
+    @Query("UPDATE RespuestaIdempotente r SET r.pendiente = false, r.huella = :huella, r.estado = :estado, " +
+           "r.tipoContenido = :tipoContenido, r.cuerpo = :cuerpo, r.expira = :expira " +
+           "WHERE r.clave = :clave AND r.pendiente = true")
+    int completar(@Param("clave") String clave,
+                  @Param("huella") String huella,
+                  @Param("estado") int estado,
+                  @Param("tipoContenido") String tipoContenido,
+                  @Param("cuerpo") byte[] cuerpo,
+                  @Param("expira") LocalDateTime expira);
+
+    // Volver a reclamar una clave cuya respuesta o reclamación anterior ya caducó; solo una petición lo consigue
+    @Transactional
+    @Modifying
+    @Query("UPDATE RespuestaIdempotente r SET r.pendiente = true, r.huella = NULL, r.estado = 0, " +
+           "r.tipoContenido = NULL, r.cuerpo = NULL, r.expira = :expira " +
+           "WHERE r.clave = :clave AND r.expira <= :ahora")
+    int reclamarCaducada(@Param("clave") String clave,
+                         @Param("expira") LocalDateTime expira,
+                         @Param("ahora") LocalDateTime ahora);
+
+    // Soltar la reclamación de una petición que no dejó respuesta (error 5xx o excepción)
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RespuestaIdempotente r WHERE r.clave = :clave AND r.pendiente = true")
+    int liberar(@Param("clave") String clave);
+
+    // Borrar las respuestas guardadas cuyo plazo de reintento ya venció
+    @Modifying
+    @Query("DELETE FROM RespuestaIdempotente r WHERE r.expira < :ahora")
+    int deleteExpiradas(@Param("ahora") LocalDateTime ahora);
+}
@@ -0,0 +1,40 @@
+package com.andrey.sistema_citas.repository;
+
+import com.andrey.sistema_citas.entity.RetencionFranja;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface RetencionFranjaRepository extends JpaRepository<RetencionFranja, String> {
+
+    // Borrar una retención sin cargarla; devuelve 0 si ya se había confirmado, liberado o vencido
+    @Modifying
+    @Query("DELETE FROM RetencionFranja r WHERE r.id = :id")
+    int eliminar(@Param("id") String id);
+
+    // Verificar si la retención la hizo el usuario, sin cargarla
+    @Query("SELECT COUNT(r) > 0 FROM RetencionFranja r WHERE r.id = :id AND r.usuarioId = :usuarioId")
+    boolean existsByIdAndUsuarioId(@Param("id") String id, @Param("usuarioId") Long usuarioId);
+
+    // Retenciones vigentes de un profesional que se cruzan con [inicio, fin): [fechaHora, fechaFin].
+    // Son pocas filas y de vida corta, así que basta con el índice por expira.
+    @Query("SELECT r.fechaHora, r.fechaFin FROM RetencionFranja r WHERE r.profesionalId = :profesionalId " +
+           "AND r.fechaHora < :fin AND r.fechaFin > :inicio AND r.expira > :ahora")
+    List<Object[]> findIntervalosVigentesProfesional(@Param("profesionalId") Long profesionalId,
+                                                     @Param("inicio") LocalDateTime inicio,
+                                                     @Param("fin") LocalDateTime fin,
+                                                     @Param("ahora") LocalDateTime ahora);
+
+    // Igual que la anterior para varios profesionales a la vez: [profesionalId, fechaHora, fechaFin]
+    @Query("SELECT r.profesionalId, r.fechaHora, r.fechaFin FROM RetencionFranja r WHERE r.profesionalId IN :profesionalIds " +
+           "AND r.fechaHora < :fin AND r.fechaFin > :inicio AND r.expira > :ahora")
+    List<Object[]> findIntervalosVigentesProfesionales(@Param("profesionalIds") Collection<Long> profesionalIds,
+                                                       @Param("inicio") LocalDateTime inicio,
+                                                       @Param("fin") LocalDateTime fin,
+                                                       @Param("ahora") LocalDateTime ahora);
+}
@@ -0,0 +1,13 @@
+package com.andrey.sistema_citas.repository;
+
+import com.andrey.sistema_citas.entity.SerieCita;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface SerieCitaRepository extends JpaRepository<SerieCita, Long> {
+
+    // Verificar si la serie es del usuario, sin cargarla
+    @Query("SELECT COUNT(s) > 0 FROM SerieCita s WHERE s.id = :id AND s.usuario.id = :usuarioId")
+    boolean existsByIdAndUsuarioId(@Param("id") Long id, @Param("usuarioId") Long usuarioId);
+}
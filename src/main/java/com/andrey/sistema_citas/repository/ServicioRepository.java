@@ -6,6 +6,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,8 +27,18 @@ public interface ServicioRepository extends JpaRepository<Servicio, Long> {
     // Buscar servicios con precio menor o igual a un valor
     List<Servicio> findByPrecioLessThanEqual(Double precioMax);
 
-    // Buscar servicios por duración
-    List<Servicio> findByDuracion(String duracion);
+    // Buscar servicios por duración en minutos
+    List<Servicio> findByDuracionMinutos(Integer duracionMinutos);
+
+    // Buscar servicios por rango de duración en minutos
+    List<Servicio> findByDuracionMinutosBetween(Integer minimo, Integer maximo);
+
+    // Servicios aún sin duración normalizada (creados antes de existir la columna)
+    List<Servicio> findByDuracionMinutosIsNull();
+
+    // Verificar si el servicio pertenece al profesional, sin cargar entidades
+    @Query("SELECT COUNT(s) > 0 FROM Servicio s WHERE s.id = :id AND s.profesional.id = :profesionalId")
+    boolean existsByIdAndProfesionalId(@Param("id") Long id, @Param("profesionalId") Long profesionalId);
 
     // Consulta personalizada: servicios ordenados por precio (ascendente)
     @Query("SELECT s FROM Servicio s ORDER BY s.precio ASC")
@@ -45,6 +56,10 @@ public interface ServicioRepository extends JpaRepository<Servicio, Long> {
     @Query("SELECT s FROM Servicio s WHERE s.precio > (SELECT AVG(s2.precio) FROM Servicio s2)")
     List<Servicio> findServiciosMasCarosQueElPromedio();
 
+    // Datos de reserva de varios servicios por id, sin cargar entidades: [id, nombre, duracion, precio, duracionMinutos]
+    @Query("SELECT s.id, s.nombre, s.duracion, s.precio, s.duracionMinutos FROM Servicio s WHERE s.id IN :ids")
+    List<Object[]> findDatosReservaByIdIn(@Param("ids") Collection<Long> ids);
+
     // Buscar servicios por profesional
     List<Servicio> findByProfesionalId(Long profesionalId);
 
@@ -0,0 +1,27 @@
+package com.andrey.sistema_citas.repository;
+
+import com.andrey.sistema_citas.entity.TokenRefresco;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface TokenRefrescoRepository extends JpaRepository<TokenRefresco, String> {
+
+    // Revocar un token de refresco; devuelve 0 si ya estaba revocado (otro uso llegó antes)
+    @Modifying
+    @Query("UPDATE TokenRefresco t SET t.revocado = true WHERE t.hash = :hash AND t.revocado = false")
+    int revocar(@Param("hash") String hash);
+
+    // Revocar todos los tokens de refresco vigentes de un usuario
+    @Modifying
+    @Query("UPDATE TokenRefresco t SET t.revocado = true WHERE t.usuarioId = :usuarioId AND t.revocado = false")
+    int revocarDeUsuario(@Param("usuarioId") Long usuarioId);
+
+    // Borrar los tokens de refresco vencidos
+    @Modifying
+    @Query("DELETE FROM TokenRefresco t WHERE t.expira < :ahora")
+    int deleteExpirados(@Param("ahora") LocalDateTime ahora);
+}
@@ -0,0 +1,26 @@
+package com.andrey.sistema_citas.repository;
+
+import com.andrey.sistema_citas.entity.TokenRevocado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TokenRevocadoRepository extends JpaRepository<TokenRevocado, String> {
+
+    // jti de los tokens aún vigentes revocados desde una fecha (lectura incremental del registro de cambios)
+    @Query("SELECT t.jti FROM TokenRevocado t WHERE t.revocadoEn >= :desde AND t.expira > :ahora")
+    List<String> findJtiRevocadosDesde(@Param("desde") LocalDateTime desde, @Param("ahora") LocalDateTime ahora);
+
+    // jti de todos los tokens revocados que aún no han vencido
+    @Query("SELECT t.jti FROM TokenRevocado t WHERE t.expira > :ahora")
+    List<String> findJtiVigentes(@Param("ahora") LocalDateTime ahora);
+
+    // Borrar las revocaciones de tokens ya vencidos
+    @Modifying
+    @Query("DELETE FROM TokenRevocado t WHERE t.expira < :ahora")
+    int deleteExpirados(@Param("ahora") LocalDateTime ahora);
+}
@@ -1,9 +1,13 @@
 package com.andrey.sistema_citas.repository;
 
 import com.andrey.sistema_citas.entity.Usuario;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,7 +15,25 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     
     // Buscar usuario por email (método automático de Spring Data JPA)
     Optional<Usuario> findByEmail(String email);
+
+    // Id del usuario con ese email, sin cargar la entidad ni sus roles
+    @Query("SELECT u.id FROM Usuario u WHERE u.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
+    // Reemplazar el hash de la contraseña sin cargar al usuario (rehash al iniciar sesión)
+    @Transactional
+    @Modifying
+    @Query("UPDATE Usuario u SET u.password = :password WHERE u.id = :id")
+    int actualizarPassword(@Param("id") Long id, @Param("password") String password);
     
+    // Nombres de varios usuarios por id, sin cargar entidades: [id, nombre]
+    @Query("SELECT u.id, u.nombre FROM Usuario u WHERE u.id IN :ids")
+    List<Object[]> findNombresByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Página de usuarios con id mayor que el último de la página anterior
+    @Query("SELECT u FROM Usuario u WHERE u.id > :id ORDER BY u.id")
+    List<Usuario> findPaginaDespuesDe(@Param("id") Long id, Limit limite);
+
     // Buscar usuarios por nombre (contiene el texto)
     List<Usuario> findByNombreContainingIgnoreCase(String nombre);
 
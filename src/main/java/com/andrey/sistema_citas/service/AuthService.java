@@ -1,52 +1,168 @@
 package com.andrey.sistema_citas.service;
 
-import org.springframework.security.crypto.password.PasswordEncoder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import com.andrey.sistema_citas.config.JwtUtil;
+import com.andrey.sistema_citas.config.UsuarioAutenticado;
 import com.andrey.sistema_citas.dto.LoginRequest;
 import com.andrey.sistema_citas.dto.LoginResponse;
+import com.andrey.sistema_citas.entity.TokenRefresco;
 import com.andrey.sistema_citas.entity.Usuario;
 import com.andrey.sistema_citas.exception.UnauthorizedException;
+import com.andrey.sistema_citas.repository.ProfesionalRepository;
+import com.andrey.sistema_citas.repository.TokenRefrescoRepository;
 import com.andrey.sistema_citas.repository.UsuarioRepository;
 
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
 public class AuthService {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthService.class);
+
+    private static final SecureRandom ALEATORIO = new SecureRandom();
+
     private final UsuarioRepository usuarioRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final ProfesionalRepository profesionalRepository;
+    private final TokenRefrescoRepository tokenRefrescoRepository;
+    private final RevocacionTokensService revocacionTokensService;
+    private final CifradoContrasenas cifradoContrasenas;
     private final JwtUtil jwtUtil;
+    private final Duration vigenciaRefresco;
+
+    // Guarda los hashes rehechos; el UPDATE no debe ocupar un hilo del pool de cifrado. Si la cola está llena,
+    // el hash se rehace en el próximo inicio de sesión
+    private final ThreadPoolExecutor guardadoHashes = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(64),
+            tarea -> {
+                Thread hilo = new Thread(tarea, "contrasenas-guardado");
+                hilo.setDaemon(true);
+                return hilo;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
 
     public AuthService(UsuarioRepository usuarioRepository,
-                       PasswordEncoder passwordEncoder,
-                       JwtUtil jwtUtil) {
+                       ProfesionalRepository profesionalRepository,
+                       TokenRefrescoRepository tokenRefrescoRepository,
+                       RevocacionTokensService revocacionTokensService,
+                       CifradoContrasenas cifradoContrasenas,
+                       JwtUtil jwtUtil,
+                       @Value("${jwt.refresco.vigencia:P14D}") Duration vigenciaRefresco) {
         this.usuarioRepository = usuarioRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.profesionalRepository = profesionalRepository;
+        this.tokenRefrescoRepository = tokenRefrescoRepository;
+        this.revocacionTokensService = revocacionTokensService;
+        this.cifradoContrasenas = cifradoContrasenas;
         this.jwtUtil = jwtUtil;
+        this.vigenciaRefresco = vigenciaRefresco;
     }
 
     public LoginResponse login(LoginRequest request) {
         Usuario usuario = usuarioRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new UnauthorizedException("Credenciales inválidas"));
 
-        if (!passwordEncoder.matches(request.getPassword(), usuario.getPassword())) {
+        if (!cifradoContrasenas.verificar(request.getPassword(), usuario.getPassword())) {
             throw new UnauthorizedException("Credenciales inválidas");
         }
 
+        if (cifradoContrasenas.necesitaRehacer(usuario.getPassword())) {
+            rehacerHash(usuario.getId(), request.getPassword());
+        }
+
+        return emitirSesion(usuario);
+    }
+
+    /**
+     * Cambia un token de refresco por un token de acceso nuevo y otro token de refresco (rotación). Presentar
+     * un token ya usado significa que alguien más lo tiene, así que se revocan todas las sesiones del usuario.
+     */
+    @Transactional(noRollbackFor = UnauthorizedException.class)
+    public LoginResponse refrescar(String tokenRefresco) {
+        String hash = ResumenSha256.de(tokenRefresco);
+        TokenRefresco guardado = tokenRefrescoRepository.findById(hash)
+                .filter(t -> t.getExpira().isAfter(LocalDateTime.now()))
+                .orElseThrow(() -> new UnauthorizedException("Token de refresco inválido o vencido"));
+
+        // El UPDATE condicional decide entre dos usos simultáneos del mismo token
+        if (guardado.isRevocado() || tokenRefrescoRepository.revocar(hash) == 0) {
+            int revocados = tokenRefrescoRepository.revocarDeUsuario(guardado.getUsuarioId());
+            log.warn("Token de refresco reutilizado por el usuario {}; {} sesiones revocadas", guardado.getUsuarioId(), revocados);
+            throw new UnauthorizedException("Token de refresco inválido o vencido");
+        }
+
+        Usuario usuario = usuarioRepository.findById(guardado.getUsuarioId())
+                .orElseThrow(() -> new UnauthorizedException("Token de refresco inválido o vencido"));
+        return emitirSesion(usuario);
+    }
+
+    /**
+     * Revoca el token de refresco y, si la petición trae un token de acceso válido, también ese token.
+     */
+    @Transactional
+    public void cerrarSesion(String tokenRefresco, UsuarioAutenticado usuario) {
+        if (tokenRefresco != null && !tokenRefresco.isBlank()) {
+            tokenRefrescoRepository.revocar(ResumenSha256.de(tokenRefresco));
+        }
+        if (usuario != null && usuario.jti() != null) {
+            revocacionTokensService.revocar(usuario.jti(), usuario.expira());
+        }
+    }
+
+    private LoginResponse emitirSesion(Usuario usuario) {
+        // Los ids viajan en el token para que la autorización no tenga que buscar al usuario en cada petición
         String token = jwtUtil.generateToken(
             usuario.getEmail(),
             usuario.getRoles().stream()
                 .map(Enum::name)
-                .collect(Collectors.toSet())
+                .collect(Collectors.toSet()),
+            usuario.getId(),
+            profesionalRepository.findIdByUsuarioId(usuario.getId()).orElse(null)
         );
 
+        byte[] bytes = new byte[32];
+        ALEATORIO.nextBytes(bytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        LocalDateTime ahora = LocalDateTime.now();
+        tokenRefrescoRepository.save(new TokenRefresco(
+                ResumenSha256.de(refreshToken),
+                usuario.getId(), ahora.plus(vigenciaRefresco), ahora));
+
         return new LoginResponse(
             usuario.getId(),
             usuario.getNombre(),
             usuario.getEmail(),
             usuario.getRoles(),
-            token
+            token,
+            refreshToken
         );
     }
-}
\ No newline at end of file
+
+    @PreDestroy
+    void detener() {
+        guardadoHashes.shutdownNow();
+    }
+
+    /**
+     * Guarda la contraseña con el factor de trabajo actual sin retrasar el inicio de sesión: el pool de cifrado
+     * calcula el hash y otro hilo lo guarda. Si alguno de los dos está saturado se deja para el próximo inicio de sesión.
+     */
+    private void rehacerHash(Long usuarioId, String contrasena) {
+        cifradoContrasenas.codificarEnSegundoPlano(contrasena)
+                .thenAcceptAsync(hash -> usuarioRepository.actualizarPassword(usuarioId, hash), guardadoHashes)
+                .exceptionally(e -> {
+                    log.debug("No se pudo rehacer el hash de la contraseña del usuario {}: {}", usuarioId, e.getMessage());
+                    return null;
+                });
+    }
+}
@@ -1,23 +1,23 @@
 package com.andrey.sistema_citas.service;
 
-import com.andrey.sistema_citas.entity.Cita;
-import com.andrey.sistema_citas.entity.Profesional;
+import com.andrey.sistema_citas.config.UsuarioAutenticado;
 import com.andrey.sistema_citas.entity.Role;
-import com.andrey.sistema_citas.entity.Servicio;
-import com.andrey.sistema_citas.entity.Usuario;
 import com.andrey.sistema_citas.repository.CitaRepository;
+import com.andrey.sistema_citas.repository.ListaEsperaRepository;
 import com.andrey.sistema_citas.repository.ProfesionalRepository;
+import com.andrey.sistema_citas.repository.RetencionFranjaRepository;
+import com.andrey.sistema_citas.repository.SerieCitaRepository;
 import com.andrey.sistema_citas.repository.ServicioRepository;
 import com.andrey.sistema_citas.repository.UsuarioRepository;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
 
-import java.util.Optional;
-
 /**
  * Servicio centralizado para validación de autorización y permisos.
  * Nombrado como "authz" para uso en anotaciones @PreAuthorize.
+ * Los ids del usuario y del profesional salen del principal UsuarioAutenticado, así que cada comprobación
+ * de propiedad es a lo sumo una consulta exists por id, sin cargar entidades.
  */
 @Service("authz")
 public class AuthorizationService {
@@ -26,15 +26,24 @@ public class AuthorizationService {
     private final ServicioRepository servicioRepository;
     private final UsuarioRepository usuarioRepository;
     private final ProfesionalRepository profesionalRepository;
+    private final RetencionFranjaRepository retencionFranjaRepository;
+    private final ListaEsperaRepository listaEsperaRepository;
+    private final SerieCitaRepository serieCitaRepository;
 
     public AuthorizationService(CitaRepository citaRepository,
                                 ServicioRepository servicioRepository,
                                 UsuarioRepository usuarioRepository,
-                                ProfesionalRepository profesionalRepository) {
+                                ProfesionalRepository profesionalRepository,
+                                RetencionFranjaRepository retencionFranjaRepository,
+                                ListaEsperaRepository listaEsperaRepository,
+                                SerieCitaRepository serieCitaRepository) {
         this.citaRepository = citaRepository;
         this.servicioRepository = servicioRepository;
         this.usuarioRepository = usuarioRepository;
         this.profesionalRepository = profesionalRepository;
+        this.retencionFranjaRepository = retencionFranjaRepository;
+        this.listaEsperaRepository = listaEsperaRepository;
+        this.serieCitaRepository = serieCitaRepository;
     }
 
     /**
@@ -57,21 +66,7 @@ public class AuthorizationService {
             return true;
         }
 
-        String email = authentication.getName();
-        Optional<Usuario> usuarioOpt = usuarioRepository.findByEmail(email);
-        
-        if (usuarioOpt.isEmpty()) {
-            return false;
-        }
-
-        Optional<Cita> citaOpt = citaRepository.findById(citaId);
-        
-        if (citaOpt.isEmpty()) {
-            return false;
-        }
-
-        // Verificar si el usuario es el propietario de la cita
-        return citaOpt.get().getUsuario().getId().equals(usuarioOpt.get().getId());
+        return esPropietarioCita(citaId, authentication);
     }
 
     /**
@@ -94,28 +89,7 @@ public class AuthorizationService {
             return true;
         }
 
-        String email = authentication.getName();
-        Optional<Usuario> usuarioOpt = usuarioRepository.findByEmail(email);
-        
-        if (usuarioOpt.isEmpty()) {
-            return false;
-        }
-
-        Optional<Servicio> servicioOpt = servicioRepository.findById(servicioId);
-        
-        if (servicioOpt.isEmpty()) {
-            return false;
-        }
-
-        Servicio servicio = servicioOpt.get();
-        
-        // Si el servicio no tiene profesional asignado, solo ADMIN puede modificarlo
-        if (servicio.getProfesional() == null) {
-            return false;
-        }
-
-        // Verificar si el usuario es el profesional propietario del servicio
-        return servicio.getProfesional().getUsuario().getId().equals(usuarioOpt.get().getId());
+        return esPropietarioServicio(servicioId, authentication);
     }
 
     /**
@@ -138,15 +112,9 @@ public class AuthorizationService {
             return true;
         }
 
-        String email = authentication.getName();
-        Optional<Usuario> usuarioOpt = usuarioRepository.findByEmail(email);
-        
-        if (usuarioOpt.isEmpty()) {
-            return false;
-        }
-
         // Verificar si el usuario está modificando su propio perfil
-        return usuarioOpt.get().getId().equals(usuarioId);
+        Long usuarioActualId = obtenerUsuarioIdActual(authentication);
+        return usuarioActualId != null && usuarioActualId.equals(usuarioId);
     }
 
     /**
@@ -174,58 +142,62 @@ public class AuthorizationService {
      * @return true si es propietario, false en caso contrario
      */
     public boolean esPropietarioCita(Long citaId, Authentication authentication) {
-        if (authentication == null) {
-            return false;
-        }
+        Long usuarioId = obtenerUsuarioIdActual(authentication);
 
-        String email = authentication.getName();
-        Optional<Usuario> usuarioOpt = usuarioRepository.findByEmail(email);
-        
-        if (usuarioOpt.isEmpty()) {
-            return false;
-        }
+        return usuarioId != null && citaRepository.existsByIdAndUsuarioId(citaId, usuarioId);
+    }
 
-        Optional<Cita> citaOpt = citaRepository.findById(citaId);
-        
-        if (citaOpt.isEmpty()) {
-            return false;
-        }
+    /**
+     * Verifica si el usuario autenticado es quien hizo una retención de horario.
+     * 
+     * @param retencionId ID de la retención
+     * @param authentication Información de autenticación del usuario
+     * @return true si es propietario, false en caso contrario
+     */
+    public boolean esPropietarioRetencion(String retencionId, Authentication authentication) {
+        Long usuarioId = obtenerUsuarioIdActual(authentication);
 
-        return citaOpt.get().getUsuario().getId().equals(usuarioOpt.get().getId());
+        return usuarioId != null && retencionFranjaRepository.existsByIdAndUsuarioId(retencionId, usuarioId);
     }
 
     /**
-     * Verifica si el usuario autenticado es propietario de un servicio.
+     * Verifica si el usuario autenticado es quien se inscribió en una solicitud de lista de espera.
      * 
-     * @param servicioId ID del servicio
+     * @param solicitudId ID de la solicitud
      * @param authentication Información de autenticación del usuario
      * @return true si es propietario, false en caso contrario
      */
-    public boolean esPropietarioServicio(Long servicioId, Authentication authentication) {
-        if (authentication == null) {
-            return false;
-        }
+    public boolean esPropietarioListaEspera(Long solicitudId, Authentication authentication) {
+        Long usuarioId = obtenerUsuarioIdActual(authentication);
 
-        String email = authentication.getName();
-        Optional<Usuario> usuarioOpt = usuarioRepository.findByEmail(email);
-        
-        if (usuarioOpt.isEmpty()) {
-            return false;
-        }
+        return usuarioId != null && listaEsperaRepository.existsByIdAndUsuarioId(solicitudId, usuarioId);
+    }
 
-        Optional<Servicio> servicioOpt = servicioRepository.findById(servicioId);
-        
-        if (servicioOpt.isEmpty()) {
-            return false;
-        }
+    /**
+     * Verifica si el usuario autenticado es el paciente de una serie de citas.
+     * 
+     * @param serieId ID de la serie
+     * @param authentication Información de autenticación del usuario
+     * @return true si es propietario, false en caso contrario
+     */
+    public boolean esPropietarioSerie(Long serieId, Authentication authentication) {
+        Long usuarioId = obtenerUsuarioIdActual(authentication);
 
-        Servicio servicio = servicioOpt.get();
-        
-        if (servicio.getProfesional() == null) {
-            return false;
-        }
+        return usuarioId != null && serieCitaRepository.existsByIdAndUsuarioId(serieId, usuarioId);
+    }
+
+    /**
+     * Verifica si el usuario autenticado es propietario de un servicio.
+     * 
+     * @param servicioId ID del servicio
+     * @param authentication Información de autenticación del usuario
+     * @return true si es propietario, false en caso contrario
+     */
+    public boolean esPropietarioServicio(Long servicioId, Authentication authentication) {
+        // Un servicio sin profesional asignado no coincide con ninguno, así que solo ADMIN puede modificarlo
+        Long profesionalId = obtenerProfesionalIdActual(authentication);
 
-        return servicio.getProfesional().getUsuario().getId().equals(usuarioOpt.get().getId());
+        return profesionalId != null && servicioRepository.existsByIdAndProfesionalId(servicioId, profesionalId);
     }
 
     /**
@@ -239,10 +211,12 @@ public class AuthorizationService {
             return null;
         }
 
-        String email = authentication.getName();
-        Optional<Usuario> usuarioOpt = usuarioRepository.findByEmail(email);
-        
-        return usuarioOpt.map(Usuario::getId).orElse(null);
+        if (authentication.getPrincipal() instanceof UsuarioAutenticado usuario && usuario.usuarioId() != null) {
+            return usuario.usuarioId();
+        }
+
+        // Tokens emitidos antes de llevar el id: se resuelve por email
+        return usuarioRepository.findIdByEmail(authentication.getName()).orElse(null);
     }
 
     /**
@@ -256,16 +230,16 @@ public class AuthorizationService {
             return null;
         }
 
-        String email = authentication.getName();
-        Optional<Usuario> usuarioOpt = usuarioRepository.findByEmail(email);
-        
-        if (usuarioOpt.isEmpty()) {
-            return null;
+        if (authentication.getPrincipal() instanceof UsuarioAutenticado usuario && usuario.profesionalId() != null) {
+            return usuario.profesionalId();
         }
 
-        Optional<Profesional> profesionalOpt = profesionalRepository.findByUsuarioId(usuarioOpt.get().getId());
-        
-        return profesionalOpt.map(Profesional::getId).orElse(null);
+        // Sin el claim (usuario que no es profesional o que lo es desde después de iniciar sesión) se consulta por id
+        Long usuarioId = obtenerUsuarioIdActual(authentication);
+        if (usuarioId == null) {
+            return null;
+        }
+        return profesionalRepository.findIdByUsuarioId(usuarioId).orElse(null);
     }
 
     /**
@@ -0,0 +1,65 @@
+package com.andrey.sistema_citas.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Bloqueos por franjas (lock striping) para serializar la secuencia "comprobar disponibilidad y reservar".
+ * Cada profesional y cada usuario se asignan a un candado de un arreglo fijo, de modo que dos reservas
+ * solo se esperan entre sí si comparten profesional o usuario (o, raramente, candado).
+ * Los candados se toman siempre en orden ascendente para evitar interbloqueos.
+ */
+@Component
+public class BloqueosAgenda {
+
+    private static final int NUMERO_CANDADOS = 256;
+
+    private final ReentrantLock[] candados = new ReentrantLock[NUMERO_CANDADOS];
+
+    public BloqueosAgenda() {
+        for (int i = 0; i < NUMERO_CANDADOS; i++) {
+            candados[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T ejecutar(Long profesionalId, Long usuarioId, Supplier<T> accion) {
+        return ejecutar(List.of(profesionalId), List.of(usuarioId), accion);
+    }
+
+    public <T> T ejecutar(Collection<Long> profesionalIds, Collection<Long> usuarioIds, Supplier<T> accion) {
+        int[] indices = IntStream.concat(
+                        profesionalIds.stream().mapToInt(id -> indice(id, 0)),
+                        usuarioIds.stream().mapToInt(id -> indice(id, 1)))
+                .distinct()
+                .sorted()
+                .toArray();
+
+        int tomados = 0;
+        try {
+            for (int indice : indices) {
+                candados[indice].lock();
+                tomados++;
+            }
+            return accion.get();
+        } finally {
+            for (int i = tomados - 1; i >= 0; i--) {
+                candados[indices[i]].unlock();
+            }
+        }
+    }
+
+    /**
+     * Los ids de profesional y de usuario se intercalan (pares e impares) para que un profesional
+     * y un usuario con el mismo id no compartan candado.
+     */
+    static int indice(Long id, int tipo) {
+        long clave = id * 2 + tipo;
+        int h = Long.hashCode(clave);
+        return (h ^ (h >>> 16)) & (NUMERO_CANDADOS - 1);
+    }
+}
@@ -0,0 +1,115 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.exception.ServicioSaturadoException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ejecuta el cifrado y la verificación de contraseñas (BCrypt) en un pool propio con un número fijo de hilos
+ * y una cola acotada, para que una avalancha de inicios de sesión no ocupe todos los núcleos ni los hilos de
+ * Tomcat que atienden las reservas. Si la cola está llena, o el trabajo no termina en la espera configurada, se responde
+ * enseguida con ServicioSaturadoException (429) en lugar de seguir acumulando peticiones.
+ */
+@Service
+public class CifradoContrasenas {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Duration espera;
+
+    public CifradoContrasenas(PasswordEncoder passwordEncoder,
+                              @Value("${contrasenas.hilos:0}") int hilos,
+                              @Value("${contrasenas.cola:64}") int cola,
+                              @Value("${contrasenas.espera:PT5S}") Duration espera) {
+        this.passwordEncoder = passwordEncoder;
+        this.espera = espera;
+
+        // Por defecto la mitad de los núcleos: el resto queda libre para el tráfico de reservas
+        int tamano = hilos > 0 ? hilos : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(tamano, tamano, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(cola),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "contrasenas-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public String codificar(String contrasena) {
+        return ejecutar(() -> passwordEncoder.encode(contrasena));
+    }
+
+    public boolean verificar(String contrasena, String hash) {
+        return ejecutar(() -> passwordEncoder.matches(contrasena, hash));
+    }
+
+    /**
+     * Indica si el hash se creó con un factor de trabajo menor que el configurado y conviene rehacerlo.
+     * Los hashes con un factor mayor se mantienen: son más seguros y rehacerlos no aporta nada.
+     */
+    public boolean necesitaRehacer(String hash) {
+        return passwordEncoder.upgradeEncoding(hash);
+    }
+
+    /**
+     * Cifra en segundo plano, sin que el hilo que llama espere. Si el pool está saturado, el futuro falla
+     * con ServicioSaturadoException.
+     */
+    public CompletableFuture<String> codificarEnSegundoPlano(String contrasena) {
+        try {
+            return CompletableFuture.supplyAsync(() -> passwordEncoder.encode(contrasena), executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(saturado(e));
+        }
+    }
+
+    @PreDestroy
+    void detener() {
+        executor.shutdownNow();
+    }
+
+    private <T> T ejecutar(Callable<T> tarea) {
+        Future<T> resultado;
+        try {
+            resultado = executor.submit(tarea);
+        } catch (RejectedExecutionException e) {
+            throw saturado(e);
+        }
+
+        try {
+            return resultado.get(espera.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            resultado.cancel(true);
+            throw saturado(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            resultado.cancel(true);
+            throw saturado(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException("Error al procesar la contraseña", e.getCause());
+        }
+    }
+
+    private static ServicioSaturadoException saturado(Exception causa) {
+        return new ServicioSaturadoException("Demasiadas solicitudes de autenticación, intenta de nuevo en unos segundos", causa);
+    }
+}
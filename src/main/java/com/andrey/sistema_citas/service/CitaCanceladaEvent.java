@@ -0,0 +1,10 @@
+package com.andrey.sistema_citas.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Se publica cuando una cita activa pasa a CANCELADA y su horario [inicio, fin) queda libre.
+ */
+public record CitaCanceladaEvent(Long citaId, Long profesionalId, Long servicioId,
+                                 LocalDateTime inicio, LocalDateTime fin) {
+}
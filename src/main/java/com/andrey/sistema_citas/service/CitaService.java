@@ -1,112 +1,371 @@
 package com.andrey.sistema_citas.service;
 
+import com.andrey.sistema_citas.dto.CitaBusquedaDTO;
 import com.andrey.sistema_citas.dto.CitaCreateDTO;
+import com.andrey.sistema_citas.dto.CitaLoteResultadoDTO;
 import com.andrey.sistema_citas.dto.CitaResponseDTO;
 import com.andrey.sistema_citas.dto.CitaUpdateDTO;
+import com.andrey.sistema_citas.dto.PaginaCursorDTO;
 import com.andrey.sistema_citas.entity.Cita;
 import com.andrey.sistema_citas.entity.EstadoCita;
-import com.andrey.sistema_citas.entity.Usuario;
+import com.andrey.sistema_citas.entity.ReservaFranja;
 import com.andrey.sistema_citas.entity.Servicio;
-import com.andrey.sistema_citas.entity.Profesional;
 import com.andrey.sistema_citas.exception.ResourceNotFoundException;
 import com.andrey.sistema_citas.mapper.CitaMapper;
+import com.andrey.sistema_citas.repository.CitaEspecificaciones;
 import com.andrey.sistema_citas.repository.CitaRepository;
+import com.andrey.sistema_citas.repository.DatosValidacionCita;
 import com.andrey.sistema_citas.repository.UsuarioRepository;
 import com.andrey.sistema_citas.repository.ServicioRepository;
 import com.andrey.sistema_citas.repository.ProfesionalRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import com.andrey.sistema_citas.exception.BusinessRuleException;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class CitaService {
 
+    // Duración máxima admitida para una cita; acota las consultas de solapamiento
+    static final Duration DURACION_MAXIMA = Duration.ofHours(24);
+
     private final CitaRepository citaRepository;
     private final UsuarioRepository usuarioRepository;
     private final ServicioRepository servicioRepository;
     private final ProfesionalRepository profesionalRepository;
+    private final IndiceAgenda indiceAgenda;
+    private final BloqueosAgenda bloqueosAgenda;
+    private final ReservaFranjaService reservaFranjaService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public CitaService(CitaRepository citaRepository, UsuarioRepository usuarioRepository,
-                      ServicioRepository servicioRepository, ProfesionalRepository profesionalRepository) {
+                      ServicioRepository servicioRepository, ProfesionalRepository profesionalRepository,
+                      IndiceAgenda indiceAgenda, BloqueosAgenda bloqueosAgenda,
+                      ReservaFranjaService reservaFranjaService, ApplicationEventPublisher eventPublisher) {
         this.citaRepository = citaRepository;
         this.usuarioRepository = usuarioRepository;
         this.servicioRepository = servicioRepository;
         this.profesionalRepository = profesionalRepository;
+        this.indiceAgenda = indiceAgenda;
+        this.bloqueosAgenda = bloqueosAgenda;
+        this.reservaFranjaService = reservaFranjaService;
+        this.eventPublisher = eventPublisher;
     }
 
     public CitaResponseDTO agendarCita(CitaCreateDTO dto) {
-        Usuario usuario = usuarioRepository.findById(dto.getUsuarioId())
-                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con ID: " + dto.getUsuarioId()));
-        
-        Servicio servicio = servicioRepository.findById(dto.getServicioId())
-                .orElseThrow(() -> new ResourceNotFoundException("Servicio no encontrado con ID: " + dto.getServicioId()));
+        return agendar(dto, null);
+    }
+
+    /**
+     * Agenda la cita de una retención de horario: las franjas retenidas pasan a la cita en lugar de reservarse de nuevo.
+     * RetencionService la quita del índice y cancela su vencimiento cuando se confirma la transacción.
+     */
+    public CitaResponseDTO agendarCitaRetenida(CitaCreateDTO dto, String retencionId) {
+        return agendar(dto, retencionId);
+    }
+
+    private CitaResponseDTO agendar(CitaCreateDTO dto, String retencionId) {
+        Long usuarioId = dto.getUsuarioId();
+        Long servicioId = dto.getServicioId();
+        Long profesionalId = dto.getProfesionalId();
+
+        // Una sola consulta valida las tres referencias y trae los datos de la respuesta
+        DatosValidacionCita datos = citaRepository.findDatosValidacion(usuarioId, servicioId, profesionalId);
+        validarReferencias(datos, dto);
+
+        int duracionMinutos = ServicioService.duracionEnMinutos(datos.getServicioDuracionMinutos(), datos.getServicioDuracion());
+        LocalDateTime inicio = dto.getFechaHora();
+        LocalDateTime fin = inicio.plusMinutes(duracionMinutos);
+
+        // Las referencias son proxies sin inicializar: el INSERT solo necesita sus ids
+        Cita cita = new Cita(inicio, EstadoCita.PENDIENTE,
+                usuarioRepository.getReferenceById(usuarioId),
+                servicioRepository.getReferenceById(servicioId),
+                profesionalRepository.getReferenceById(profesionalId));
+        cita.setFechaFin(fin);
+
+        // Comprobar y reservar bajo el bloqueo del profesional y del usuario: dos peticiones
+        // para el mismo horario no pueden pasar ambas la comprobación
+        // La propia retención no cuenta como conflicto
+        Long excluida = retencionId != null ? IndiceAgenda.claveRetencion(retencionId) : null;
+        Cita guardada = bloqueosAgenda.ejecutar(profesionalId, usuarioId, () -> {
+            verificarDisponibilidad(profesionalId, usuarioId, inicio, fin, excluida);
+            Cita nueva = citaRepository.save(cita);
+            // La reserva de franjas es la comprobación definitiva frente a otras instancias
+            if (retencionId != null) {
+                reservaFranjaService.convertirRetencion(retencionId, usuarioId, nueva.getId(), inicio, fin);
+            } else {
+                reservaFranjaService.reservar(profesionalId, usuarioId, nueva.getId(), inicio, fin);
+            }
+
+            // Se registra en el índice antes de soltar el bloqueo para que las siguientes reservas
+            // vean el horario ocupado aunque el INSERT aún no esté confirmado; si la transacción se revierte,
+            // el registro se deshace.
+            indiceAgenda.registrarEnCurso(nueva.getId(), profesionalId, usuarioId, inicio, fin);
+            return nueva;
+        });
+        Long citaId = guardada.getId();
+        SincronizacionTransaccion.alRevertir(() -> indiceAgenda.eliminar(citaId));
         
-        Profesional profesional = profesionalRepository.findById(dto.getProfesionalId())
-                .orElseThrow(() -> new ResourceNotFoundException("Profesional no encontrado con ID: " + dto.getProfesionalId()));
+        return new CitaResponseDTO(
+                citaId,
+                guardada.getFechaHora(),
+                guardada.getEstado(),
+                datos.getUsuarioId(),
+                datos.getUsuarioNombre(),
+                datos.getServicioId(),
+                datos.getServicioNombre(),
+                datos.getServicioDuracion(),
+                datos.getServicioPrecio(),
+                datos.getProfesionalId(),
+                datos.getProfesionalNombre(),
+                datos.getProfesionalEspecialidad()
+        );
+    }
+
+    /**
+     * Agenda varias citas en una sola transacción. Cada cita se valida contra la agenda existente y contra
+     * las anteriores del mismo lote; las válidas se insertan y las demás se devuelven con su motivo.
+     * Las referencias se cargan con tres consultas en total y las franjas de todas las citas se reservan
+     * en un único flush. Si otra instancia ocupó alguna de esas franjas entretanto, se rechaza el lote entero.
+     */
+    public CitaLoteResultadoDTO agendarCitasEnLote(List<CitaCreateDTO> dtos) {
+        Set<Long> usuarioIds = dtos.stream().map(CitaCreateDTO::getUsuarioId).collect(Collectors.toSet());
+        Set<Long> servicioIds = dtos.stream().map(CitaCreateDTO::getServicioId).collect(Collectors.toSet());
+        Set<Long> profesionalIds = dtos.stream().map(CitaCreateDTO::getProfesionalId).collect(Collectors.toSet());
+
+        Map<Long, Object[]> usuarios = porId(usuarioRepository.findNombresByIdIn(usuarioIds));
+        Map<Long, Object[]> servicios = porId(servicioRepository.findDatosReservaByIdIn(servicioIds));
+        Map<Long, Object[]> profesionales = porId(profesionalRepository.findDatosReservaByIdIn(profesionalIds));
+
+        CitaLoteResultadoDTO resultado = new CitaLoteResultadoDTO();
+        LocalDateTime ahora = LocalDateTime.now();
+
+        bloqueosAgenda.ejecutar(profesionalIds, usuarioIds, () -> {
+            List<Cita> nuevas = new ArrayList<>();
+
+            for (int i = 0; i < dtos.size(); i++) {
+                CitaCreateDTO dto = dtos.get(i);
+                Object[] usuario = usuarios.get(dto.getUsuarioId());
+                Object[] servicio = servicios.get(dto.getServicioId());
+                Object[] profesional = profesionales.get(dto.getProfesionalId());
+
+                try {
+                    if (usuario == null) {
+                        throw new ResourceNotFoundException("Usuario no encontrado con ID: " + dto.getUsuarioId());
+                    }
+                    if (servicio == null) {
+                        throw new ResourceNotFoundException("Servicio no encontrado con ID: " + dto.getServicioId());
+                    }
+                    if (profesional == null) {
+                        throw new ResourceNotFoundException("Profesional no encontrado con ID: " + dto.getProfesionalId());
+                    }
+                    if (dto.getFechaHora().isBefore(ahora)) {
+                        throw new BusinessRuleException("No se pueden agendar citas en fechas pasadas");
+                    }
+                    validarInicioEnFranja(dto.getFechaHora());
+
+                    LocalDateTime inicio = dto.getFechaHora();
+                    LocalDateTime fin = inicio.plusMinutes(ServicioService.duracionEnMinutos((Integer) servicio[4], (String) servicio[2]));
+
+                    // Las citas ya aceptadas del lote están en el índice, así que también cuentan como conflicto
+                    verificarDisponibilidad(dto.getProfesionalId(), dto.getUsuarioId(), inicio, fin, null);
+
+                    Cita cita = new Cita(inicio, EstadoCita.PENDIENTE,
+                            usuarioRepository.getReferenceById(dto.getUsuarioId()),
+                            servicioRepository.getReferenceById(dto.getServicioId()),
+                            profesionalRepository.getReferenceById(dto.getProfesionalId()));
+                    cita.setFechaFin(fin);
+                    Cita nueva = citaRepository.save(cita);
+
+                    Long citaId = nueva.getId();
+                    indiceAgenda.registrarEnCurso(citaId, dto.getProfesionalId(), dto.getUsuarioId(), inicio, fin);
+                    SincronizacionTransaccion.alRevertir(() -> indiceAgenda.eliminar(citaId));
+                    nuevas.add(nueva);
+
+                    resultado.agregarCreada(new CitaResponseDTO(
+                            citaId, inicio, nueva.getEstado(),
+                            dto.getUsuarioId(), (String) usuario[1],
+                            dto.getServicioId(), (String) servicio[1], (String) servicio[2], (Double) servicio[3],
+                            dto.getProfesionalId(), (String) profesional[1], (String) profesional[2]));
+                } catch (ResourceNotFoundException | BusinessRuleException e) {
+                    resultado.agregarFallida(i, e.getMessage());
+                }
+            }
+
+            reservaFranjaService.reservar(nuevas);
+            return nuevas;
+        });
+
+        return resultado;
+    }
+
+    /**
+     * Comprueba que existan el usuario, el servicio y el profesional de la petición y que la fecha no haya pasado.
+     */
+    static void validarReferencias(DatosValidacionCita datos, CitaCreateDTO dto) {
+        if (datos.getUsuarioId() == null) {
+            throw new ResourceNotFoundException("Usuario no encontrado con ID: " + dto.getUsuarioId());
+        }
+        if (datos.getServicioId() == null) {
+            throw new ResourceNotFoundException("Servicio no encontrado con ID: " + dto.getServicioId());
+        }
+        if (datos.getProfesionalId() == null) {
+            throw new ResourceNotFoundException("Profesional no encontrado con ID: " + dto.getProfesionalId());
+        }
 
         if (dto.getFechaHora().isBefore(LocalDateTime.now())) {
             throw new BusinessRuleException("No se pueden agendar citas en fechas pasadas");
         }
+        validarInicioEnFranja(dto.getFechaHora());
+    }
 
-        int duracionMinutos = parsearDuracion(servicio.getDuracion());
-        
-        boolean profesionalOcupado = citaRepository.existsByProfesionalAndFechaHoraBetween(
-                profesional, dto.getFechaHora(), dto.getFechaHora().plusMinutes(duracionMinutos));
-        
-        if (profesionalOcupado) {
-            throw new BusinessRuleException("El profesional no está disponible en ese horario");
+    /**
+     * Las citas empiezan en el borde de una franja de reserva; con horas fuera de la rejilla, dos citas seguidas
+     * compartirían la franja del cambio y las claves de reserva_franja las darían por solapadas.
+     */
+    static void validarInicioEnFranja(LocalDateTime inicio) {
+        if (!ReservaFranja.alineadaAFranja(inicio)) {
+            throw new BusinessRuleException("La hora de inicio debe ser múltiplo de " + ReservaFranja.MINUTOS_FRANJA
+                    + " minutos, sin segundos");
         }
+    }
 
-        boolean usuarioOcupado = citaRepository.existsByUsuarioAndFechaHoraBetween(
-                usuario, dto.getFechaHora(), dto.getFechaHora().plusMinutes(duracionMinutos));
-        
-        if (usuarioOcupado) {
-            throw new BusinessRuleException("Ya tienes una cita programada en ese horario");
+    private static Map<Long, Object[]> porId(List<Object[]> filas) {
+        return filas.stream().collect(Collectors.toMap(fila -> (Long) fila[0], fila -> fila));
+    }
+
+    /**
+     * Comprueba que ni el profesional ni el usuario tengan otra cita activa que se solape con [inicio, fin).
+     * citaExcluida permite ignorar la propia cita al reprogramarla (o la propia retención al confirmarla).
+     * El índice de agenda solo ve los cambios de esta instancia, así que sirve para descartar sin consultas
+     * los horarios libres. Un "ocupado" por una reserva de esta instancia aún sin confirmar se rechaza en el acto:
+     * la base de datos todavía no la ve, y sin el índice dos peticiones seguidas para el mismo horario solo las
+     * separaría la clave de reserva_franja. Cualquier otro "ocupado" puede venir de una cita cancelada en otra
+     * instancia y se confirma en la base de datos. Las citas de otras instancias que el índice no ve las
+     * rechazan las claves únicas de las tablas de franjas al reservar.
+     */
+    public void verificarDisponibilidad(Long profesionalId, Long usuarioId,
+                                         LocalDateTime inicio, LocalDateTime fin, Long citaExcluida) {
+        // Mientras el índice se precarga al arrancar, se consulta directamente la base de datos
+        boolean indiceListo = indiceAgenda.estaListo();
+        LocalDateTime desde = inicio.minus(DURACION_MAXIMA);
+
+        IndiceAgenda.Solape solapeProfesional = indiceListo
+                ? indiceAgenda.solapeProfesional(profesionalId, inicio, fin, citaExcluida)
+                : IndiceAgenda.Solape.A_VERIFICAR;
+        if (ocupado(solapeProfesional, () -> citaRepository.existsSolapeProfesional(
+                profesionalId, desde, inicio, fin, IndiceAgenda.ESTADOS_ACTIVOS, citaExcluida))) {
+            throw new BusinessRuleException(ReservaFranjaService.PROFESIONAL_OCUPADO);
         }
 
-        Cita cita = new Cita(dto.getFechaHora(), EstadoCita.PENDIENTE, usuario, servicio, profesional);
-        Cita guardada = citaRepository.save(cita);
-        
-        return CitaMapper.toResponse(guardada);
+        IndiceAgenda.Solape solapeUsuario = indiceListo
+                ? indiceAgenda.solapeUsuario(usuarioId, inicio, fin, citaExcluida)
+                : IndiceAgenda.Solape.A_VERIFICAR;
+        if (ocupado(solapeUsuario, () -> citaRepository.existsSolapeUsuario(
+                usuarioId, desde, inicio, fin, IndiceAgenda.ESTADOS_ACTIVOS, citaExcluida))) {
+            throw new BusinessRuleException(ReservaFranjaService.USUARIO_OCUPADO);
+        }
+    }
+
+    private static boolean ocupado(IndiceAgenda.Solape solape, BooleanSupplier baseDeDatos) {
+        return switch (solape) {
+            case NINGUNO -> false;
+            case EN_CURSO -> true;
+            case A_VERIFICAR -> baseDeDatos.getAsBoolean();
+        };
     }
 
+    @Transactional(readOnly = true)
     public List<CitaResponseDTO> obtenerTodasLasCitas() {
-        return citaRepository.findAll()
-                .stream()
-                .map(CitaMapper::toResponse)
-                .collect(Collectors.toList());
+        return citaRepository.findRespuestas();
     }
 
+    @Transactional(readOnly = true)
     public CitaResponseDTO obtenerCitaPorId(Long id) {
-        Cita cita = citaRepository.findById(id)
+        return citaRepository.findRespuestaById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Cita no encontrada con ID: " + id));
-        return CitaMapper.toResponse(cita);
     }
 
+    @Transactional(readOnly = true)
     public List<CitaResponseDTO> obtenerCitasPorUsuario(Long usuarioId) {
-        return citaRepository.findByUsuarioId(usuarioId)
-                .stream()
-                .map(CitaMapper::toResponse)
-                .collect(Collectors.toList());
+        return citaRepository.findRespuestasByUsuarioId(usuarioId);
     }
 
+    @Transactional(readOnly = true)
     public List<CitaResponseDTO> obtenerCitasPorProfesional(Long profesionalId) {
-        return citaRepository.findByProfesionalId(profesionalId)
-                .stream()
-                .map(CitaMapper::toResponse)
-                .collect(Collectors.toList());
+        return citaRepository.findRespuestasByProfesionalId(profesionalId);
     }
 
+    @Transactional(readOnly = true)
     public List<CitaResponseDTO> obtenerCitasPorEstado(EstadoCita estado) {
-        return citaRepository.findByEstado(estado)
-                .stream()
-                .map(CitaMapper::toResponse)
-                .collect(Collectors.toList());
+        return citaRepository.findRespuestasByEstado(estado);
+    }
+
+    /**
+     * Páginas de citas ordenadas por (fecha y hora, id). El cursor es el siguienteCursor de la página anterior,
+     * o null para la primera; cada página cuesta lo mismo sin importar cuántas se hayan recorrido.
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<CitaResponseDTO> obtenerPaginaCitas(String cursor, Integer tamano) {
+        CursorPagina.Cita desde = CursorPagina.decodificarCita(cursor);
+        return paginaCitas(citaRepository.findPaginaDespuesDe(
+                desde.fechaHora(), desde.id(), CursorPagina.limite(tamano)), tamano);
+    }
+
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<CitaResponseDTO> obtenerPaginaCitasPorUsuario(Long usuarioId, String cursor, Integer tamano) {
+        CursorPagina.Cita desde = CursorPagina.decodificarCita(cursor);
+        return paginaCitas(citaRepository.findPaginaByUsuarioIdDespuesDe(
+                usuarioId, desde.fechaHora(), desde.id(), CursorPagina.limite(tamano)), tamano);
+    }
+
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<CitaResponseDTO> obtenerPaginaCitasPorProfesional(Long profesionalId, String cursor,
+                                                                             Integer tamano) {
+        CursorPagina.Cita desde = CursorPagina.decodificarCita(cursor);
+        return paginaCitas(citaRepository.findPaginaByProfesionalIdDespuesDe(
+                profesionalId, desde.fechaHora(), desde.id(), CursorPagina.limite(tamano)), tamano);
+    }
+
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<CitaResponseDTO> obtenerPaginaCitasPorEstado(EstadoCita estado, String cursor, Integer tamano) {
+        CursorPagina.Cita desde = CursorPagina.decodificarCita(cursor);
+        return paginaCitas(citaRepository.findPaginaByEstadoDespuesDe(
+                estado, desde.fechaHora(), desde.id(), CursorPagina.limite(tamano)), tamano);
+    }
+
+    /**
+     * Búsqueda por cualquier combinación de usuario, profesional, servicio, estado y rango de fechas,
+     * paginada por cursor igual que los demás listados.
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<CitaResponseDTO> buscarCitas(CitaBusquedaDTO filtro, String cursor, Integer tamano) {
+        if (filtro.getDesde() != null && filtro.getHasta() != null && filtro.getHasta().isBefore(filtro.getDesde())) {
+            throw new BusinessRuleException("La fecha final de la búsqueda debe ser posterior a la inicial");
+        }
+        CursorPagina.Cita desde = CursorPagina.decodificarCita(cursor);
+        Specification<Cita> especificacion = CitaEspecificaciones.segun(filtro)
+                .and(CitaEspecificaciones.despuesDe(desde.fechaHora(), desde.id()));
+        return paginaCitas(citaRepository.buscarRespuestas(especificacion, CursorPagina.limite(tamano)), tamano);
+    }
+
+    private static PaginaCursorDTO<CitaResponseDTO> paginaCitas(List<CitaResponseDTO> citas, Integer tamano) {
+        return CursorPagina.pagina(citas, tamano, cita -> CursorPagina.posicionCita(cita.getFechaHora(), cita.getId()));
     }
 
     public List<CitaResponseDTO> obtenerCitasPendientes() {
@@ -118,23 +377,55 @@ public class CitaService {
     }
 
     public CitaResponseDTO actualizarCita(Long id, CitaUpdateDTO dto) {
-        Cita cita = citaRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Cita no encontrada con ID: " + id));
-        
+        Cita cita = buscarConRelaciones(id);
+        if (dto.getFechaHora() != null) {
+            validarInicioEnFranja(dto.getFechaHora());
+        }
+
+        boolean estabaActiva = IndiceAgenda.ESTADOS_ACTIVOS.contains(cita.getEstado());
+        LocalDateTime inicioAnterior = cita.getFechaHora();
+        LocalDateTime finAnterior = cita.getFechaFin();
+
         CitaMapper.updateEntityFromDto(dto, cita);
-        Cita actualizada = citaRepository.save(cita);
+
+        if (dto.getFechaHora() == null || !IndiceAgenda.ESTADOS_ACTIVOS.contains(cita.getEstado())) {
+            if (dto.getFechaHora() != null) {
+                cita.setFechaFin(cita.getFechaHora().plusMinutes(duracionEnMinutos(cita.getServicio())));
+            }
+            Cita actualizada = citaRepository.save(cita);
+            sincronizarReservas(actualizada, estabaActiva);
+            sincronizarIndice(actualizada);
+            return CitaMapper.toResponse(actualizada);
+        }
+
+        // Reprogramación de una cita activa: el nuevo horario se comprueba y se reserva bajo el bloqueo
+        Long profesionalId = cita.getProfesional().getId();
+        Long usuarioId = cita.getUsuario().getId();
+        LocalDateTime inicio = cita.getFechaHora();
+        LocalDateTime fin = inicio.plusMinutes(duracionEnMinutos(cita.getServicio()));
+        cita.setFechaFin(fin);
+
+        Cita actualizada = bloqueosAgenda.ejecutar(profesionalId, usuarioId, () -> {
+            verificarDisponibilidad(profesionalId, usuarioId, inicio, fin, id);
+            Cita guardada = citaRepository.save(cita);
+            reservaFranjaService.liberar(id);
+            reservaFranjaService.reservar(profesionalId, usuarioId, id, inicio, fin);
+            indiceAgenda.registrarEnCurso(id, profesionalId, usuarioId, inicio, fin);
+            return guardada;
+        });
+        SincronizacionTransaccion.alRevertir(() -> {
+            if (estabaActiva) {
+                indiceAgenda.registrar(id, profesionalId, usuarioId, inicioAnterior, finAnterior);
+            } else {
+                indiceAgenda.eliminar(id);
+            }
+        });
         
         return CitaMapper.toResponse(actualizada);
     }
 
     public CitaResponseDTO cambiarEstadoCita(Long citaId, EstadoCita nuevoEstado) {
-        Cita cita = citaRepository.findById(citaId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cita no encontrada con ID: " + citaId));
-        
-        cita.setEstado(nuevoEstado);
-        Cita actualizada = citaRepository.save(cita);
-        
-        return CitaMapper.toResponse(actualizada);
+        return cambiarEstado(buscarConRelaciones(citaId), nuevoEstado);
     }
 
     public CitaResponseDTO confirmarCita(Long citaId) {
@@ -142,8 +433,7 @@ public class CitaService {
     }
 
     public CitaResponseDTO cancelarCita(Long citaId) {
-        Cita cita = citaRepository.findById(citaId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cita no encontrada con ID: " + citaId));
+        Cita cita = buscarConRelaciones(citaId);
 
         // Validar que la cita no esté ya completada
         if (cita.getEstado() == EstadoCita.COMPLETADA) {
@@ -155,18 +445,16 @@ public class CitaService {
             throw new BusinessRuleException("La cita ya está cancelada");
         }
 
-        return cambiarEstadoCita(citaId, EstadoCita.CANCELADA);
+        return cambiarEstado(cita, EstadoCita.CANCELADA);
     }
 
     public CitaResponseDTO completarCita(Long citaId) {
         return cambiarEstadoCita(citaId, EstadoCita.COMPLETADA);
     }
 
+    @Transactional(readOnly = true)
     public List<CitaResponseDTO> obtenerCitasEnRango(LocalDateTime inicio, LocalDateTime fin) {
-        return citaRepository.findByFechaHoraBetween(inicio, fin)
-                .stream()
-                .map(CitaMapper::toResponse)
-                .collect(Collectors.toList());
+        return citaRepository.findRespuestasEnRango(inicio, fin);
     }
 
     public void eliminarCita(Long id) {
@@ -174,6 +462,8 @@ public class CitaService {
             throw new ResourceNotFoundException("Cita no encontrada con id: " + id);
         }
         citaRepository.deleteById(id);
+        reservaFranjaService.liberar(id);
+        SincronizacionTransaccion.despuesDelCommit(() -> indiceAgenda.eliminar(id));
     }
 
     public long contarCitas() {
@@ -184,25 +474,78 @@ public class CitaService {
         return citaRepository.countCitasByEstado();
     }
 
-    private int parsearDuracion(String duracion) {
-        if (duracion == null || duracion.isEmpty()) {
-            return 60; // Por defecto 60 minutos
+    /**
+     * Calcula la fecha de fin de las citas creadas antes de que se persistiera.
+     * Se ejecuta al arrancar, después de normalizar la duración de los servicios y antes de precargar el índice de agenda.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(1)
+    public void completarFechasFin() {
+        for (Cita cita : citaRepository.findSinFechaFin()) {
+            cita.setFechaFin(cita.getFechaHora().plusMinutes(duracionEnMinutos(cita.getServicio())));
         }
-        
-        duracion = duracion.toLowerCase().trim();
-        
-        try {
-            if (duracion.contains("hora")) {
-                String numero = duracion.replaceAll("[^0-9]", "");
-                return Integer.parseInt(numero) * 60;
-            } else if (duracion.contains("min")) {
-                String numero = duracion.replaceAll("[^0-9]", "");
-                return Integer.parseInt(numero);
-            } else {
-                return Integer.parseInt(duracion);
-            }
-        } catch (NumberFormatException e) {
-            return 60; // Por defecto si no se puede parsear
+    }
+
+    /**
+     * Libera las franjas reservadas cuando la cita deja de estar activa y las vuelve a reservar si se reactiva.
+     */
+    private void sincronizarReservas(Cita cita, boolean estabaActiva) {
+        boolean activa = IndiceAgenda.ESTADOS_ACTIVOS.contains(cita.getEstado());
+
+        if (estabaActiva && !activa) {
+            reservaFranjaService.liberar(cita.getId());
+        } else if (!estabaActiva && activa) {
+            reservaFranjaService.reservar(cita.getProfesional().getId(), cita.getUsuario().getId(), cita.getId(),
+                    cita.getFechaHora(), cita.getFechaFin());
         }
     }
+
+    /**
+     * Refleja en el índice de agenda el estado de la cita una vez confirmada la transacción:
+     * las citas activas se (re)registran con su horario actual y el resto se eliminan.
+     */
+    private void sincronizarIndice(Cita cita) {
+        Long citaId = cita.getId();
+
+        if (!IndiceAgenda.ESTADOS_ACTIVOS.contains(cita.getEstado())) {
+            SincronizacionTransaccion.despuesDelCommit(() -> indiceAgenda.eliminar(citaId));
+            return;
+        }
+
+        Long profesionalId = cita.getProfesional().getId();
+        Long usuarioId = cita.getUsuario().getId();
+        LocalDateTime inicio = cita.getFechaHora();
+        LocalDateTime fin = cita.getFechaFin();
+        SincronizacionTransaccion.despuesDelCommit(() -> indiceAgenda.registrar(citaId, profesionalId, usuarioId, inicio, fin));
+    }
+
+    /**
+     * Carga la cita junto con usuario, servicio y profesional en una sola consulta: las modificaciones
+     * la reciben ya cargada y construyen la respuesta sin más accesos a la base de datos.
+     */
+    private Cita buscarConRelaciones(Long id) {
+        return citaRepository.findConRelacionesById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Cita no encontrada con ID: " + id));
+    }
+
+    private CitaResponseDTO cambiarEstado(Cita cita, EstadoCita nuevoEstado) {
+        Long citaId = cita.getId();
+        boolean estabaActiva = IndiceAgenda.ESTADOS_ACTIVOS.contains(cita.getEstado());
+        cita.setEstado(nuevoEstado);
+        Cita actualizada = citaRepository.save(cita);
+        sincronizarReservas(actualizada, estabaActiva);
+        sincronizarIndice(actualizada);
+
+        // La lista de espera reacciona al evento una vez confirmada la transacción
+        if (estabaActiva && nuevoEstado == EstadoCita.CANCELADA) {
+            eventPublisher.publishEvent(new CitaCanceladaEvent(citaId, actualizada.getProfesional().getId(),
+                    actualizada.getServicio().getId(), actualizada.getFechaHora(), actualizada.getFechaFin()));
+        }
+
+        return CitaMapper.toResponse(actualizada);
+    }
+
+    private static int duracionEnMinutos(Servicio servicio) {
+        return ServicioService.duracionEnMinutos(servicio.getDuracionMinutos(), servicio.getDuracion());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,109 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.PaginaCursorDTO;
+import com.andrey.sistema_citas.exception.BusinessRuleException;
+import org.springframework.data.domain.Limit;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Cursores opacos de la paginación por clave: codifican en Base64 la posición del último elemento
+ * devuelto, de modo que cada página se obtiene con una búsqueda en el índice en lugar de saltar filas.
+ */
+final class CursorPagina {
+
+    static final int TAMANO_POR_DEFECTO = 20;
+    static final int TAMANO_MAXIMO = 100;
+
+    // Posición anterior a cualquier cita: la primera página usa la misma consulta que las siguientes
+    static final Cita INICIO_CITAS = new Cita(LocalDateTime.of(1000, 1, 1, 0, 0), 0L);
+
+    private static final String SEPARADOR = "|";
+
+    private CursorPagina() {}
+
+    /**
+     * Se pide un elemento más que el tamaño de página para saber si hay página siguiente sin contar filas.
+     */
+    static Limit limite(Integer tamano) {
+        return Limit.of(tamanoValido(tamano) + 1);
+    }
+
+    static Cita decodificarCita(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return INICIO_CITAS;
+        }
+        String texto = decodificar(cursor);
+        int separador = texto.lastIndexOf(SEPARADOR);
+        try {
+            return new Cita(LocalDateTime.parse(texto.substring(0, separador)),
+                    Long.parseLong(texto.substring(separador + 1)));
+        } catch (DateTimeParseException | IndexOutOfBoundsException | NumberFormatException e) {
+            throw cursorNoValido();
+        }
+    }
+
+    static Long decodificarId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(decodificar(cursor));
+        } catch (NumberFormatException e) {
+            throw cursorNoValido();
+        }
+    }
+
+    /**
+     * Recorta el elemento de más pedido por limite() y genera el cursor a partir del último elemento de la página.
+     */
+    static <T> PaginaCursorDTO<T> pagina(List<T> resultados, Integer tamano, Function<T, String> posicion) {
+        int tamanoPagina = tamanoValido(tamano);
+        if (resultados.size() <= tamanoPagina) {
+            return new PaginaCursorDTO<>(resultados, null);
+        }
+        List<T> contenido = resultados.subList(0, tamanoPagina);
+        return new PaginaCursorDTO<>(contenido, codificar(posicion.apply(contenido.get(tamanoPagina - 1))));
+    }
+
+    static String posicionCita(LocalDateTime fechaHora, Long id) {
+        return fechaHora + SEPARADOR + id;
+    }
+
+    private static int tamanoValido(Integer tamano) {
+        if (tamano == null) {
+            return TAMANO_POR_DEFECTO;
+        }
+        if (tamano < 1 || tamano > TAMANO_MAXIMO) {
+            throw new BusinessRuleException("El tamaño de página debe estar entre 1 y " + TAMANO_MAXIMO);
+        }
+        return tamano;
+    }
+
+    private static String codificar(String posicion) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(posicion.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodificar(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw cursorNoValido();
+        }
+    }
+
+    private static BusinessRuleException cursorNoValido() {
+        return new BusinessRuleException("El cursor de paginación no es válido");
+    }
+
+    /**
+     * Posición de una cita en el orden (fecha_hora, id).
+     */
+    record Cita(LocalDateTime fechaHora, Long id) {
+    }
+}
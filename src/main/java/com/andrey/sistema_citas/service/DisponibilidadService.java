@@ -0,0 +1,308 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.DisponibilidadDTO;
+import com.andrey.sistema_citas.dto.HorarioDisponibleDTO;
+import com.andrey.sistema_citas.entity.ReservaFranja;
+import com.andrey.sistema_citas.entity.Servicio;
+import com.andrey.sistema_citas.exception.BusinessRuleException;
+import com.andrey.sistema_citas.exception.ResourceNotFoundException;
+import com.andrey.sistema_citas.repository.CitaRepository;
+import com.andrey.sistema_citas.repository.ProfesionalRepository;
+import com.andrey.sistema_citas.repository.RetencionFranjaRepository;
+import com.andrey.sistema_citas.repository.ServicioRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Calcula los horarios en los que se puede agendar una cita con un profesional.
+ * Cada día se representa como un mapa de bits de franjas de ReservaFranja.MINUTOS_FRANJA minutos:
+ * horario del profesional menos franjas ocupadas por citas activas y retenciones vigentes. Los días del rango
+ * se procesan en paralelo.
+ */
+@Service
+@Transactional(readOnly = true)
+public class DisponibilidadService {
+
+    static final int MAXIMO_DIAS = 31;
+    static final int MAXIMO_RESULTADOS = 50;
+
+    private static final Comparator<Candidato> ORDEN_CANDIDATOS = Comparator
+            .comparing(Candidato::inicio)
+            .thenComparing(Candidato::profesionalId);
+
+    private final CitaRepository citaRepository;
+    private final ServicioRepository servicioRepository;
+    private final ProfesionalRepository profesionalRepository;
+    private final RetencionFranjaRepository retencionFranjaRepository;
+    private final ProfesionalService profesionalService;
+
+    public DisponibilidadService(CitaRepository citaRepository,
+                                 ServicioRepository servicioRepository,
+                                 ProfesionalRepository profesionalRepository,
+                                 RetencionFranjaRepository retencionFranjaRepository,
+                                 ProfesionalService profesionalService) {
+        this.citaRepository = citaRepository;
+        this.servicioRepository = servicioRepository;
+        this.profesionalRepository = profesionalRepository;
+        this.retencionFranjaRepository = retencionFranjaRepository;
+        this.profesionalService = profesionalService;
+    }
+
+    /**
+     * Horarios de inicio libres para el servicio entre los días desde y hasta (ambos incluidos),
+     * separados entre sí por paso minutos.
+     */
+    public DisponibilidadDTO buscarHorariosDisponibles(Long profesionalId, Long servicioId,
+                                                       LocalDate desde, LocalDate hasta, int paso) {
+        if (!profesionalRepository.existsById(profesionalId)) {
+            throw new ResourceNotFoundException("Profesional no encontrado con id: " + profesionalId);
+        }
+        Servicio servicio = servicioRepository.findById(servicioId)
+                .orElseThrow(() -> new ResourceNotFoundException("Servicio no encontrado con id: " + servicioId));
+
+        int duracionMinutos = ServicioService.duracionEnMinutos(servicio.getDuracionMinutos(), servicio.getDuracion());
+        List<LocalDateTime> inicios = iniciosDisponibles(profesionalId, duracionMinutos, desde, hasta, paso);
+        return new DisponibilidadDTO(profesionalId, servicioId, duracionMinutos, inicios);
+    }
+
+    List<LocalDateTime> iniciosDisponibles(Long profesionalId, int duracionMinutos,
+                                           LocalDate desde, LocalDate hasta, int paso) {
+        if (hasta.isBefore(desde)) {
+            throw new BusinessRuleException("La fecha final no puede ser anterior a la inicial");
+        }
+        if (ChronoUnit.DAYS.between(desde, hasta) >= MAXIMO_DIAS) {
+            throw new BusinessRuleException("El rango de búsqueda no puede superar " + MAXIMO_DIAS + " días");
+        }
+        validarPaso(paso);
+
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDate primerDia = desde.isBefore(ahora.toLocalDate()) ? ahora.toLocalDate() : desde;
+        if (hasta.isBefore(primerDia)) {
+            return List.of();
+        }
+
+        // Horario, citas y retenciones se leen una sola vez, fuera de los hilos paralelos (la transacción es del hilo actual)
+        HorarioProfesional horario = profesionalService.obtenerHorarioCompilado(profesionalId);
+        Map<LocalDate, List<IndiceAgenda.Ocupacion>> ocupacionesPorDia =
+                ocupaciones(profesionalId, primerDia.atStartOfDay(), hasta.plusDays(1).atStartOfDay());
+
+        int franjasCita = (duracionMinutos + ReservaFranja.MINUTOS_FRANJA - 1) / ReservaFranja.MINUTOS_FRANJA;
+        int franjasPaso = paso / ReservaFranja.MINUTOS_FRANJA;
+
+        return primerDia.datesUntil(hasta.plusDays(1))
+                .toList()
+                .parallelStream()
+                .map(dia -> iniciosDelDia(dia, horario.franjas(dia), ocupacionesPorDia.getOrDefault(dia, List.of()),
+                        franjasCita, franjasPaso, ahora))
+                .flatMap(List::stream)
+                .toList();
+    }
+
+    /**
+     * Los primeros horarios libres para el servicio entre todos sus profesionales (o el suyo, si tiene
+     * uno asignado) en los próximos días. Cada profesional se recorre en paralelo día a día y deja de
+     * buscar en cuanto sus horarios ya no pueden entrar entre los mejores encontrados por el resto.
+     */
+    public List<HorarioDisponibleDTO> buscarPrimerosDisponibles(Long servicioId, int cantidad, int dias, int paso) {
+        if (cantidad <= 0 || cantidad > MAXIMO_RESULTADOS) {
+            throw new BusinessRuleException("La cantidad debe estar entre 1 y " + MAXIMO_RESULTADOS);
+        }
+        if (dias <= 0 || dias > MAXIMO_DIAS) {
+            throw new BusinessRuleException("Los días de búsqueda deben estar entre 1 y " + MAXIMO_DIAS);
+        }
+        validarPaso(paso);
+
+        Servicio servicio = servicioRepository.findById(servicioId)
+                .orElseThrow(() -> new ResourceNotFoundException("Servicio no encontrado con id: " + servicioId));
+        int duracionMinutos = ServicioService.duracionEnMinutos(servicio.getDuracionMinutos(), servicio.getDuracion());
+
+        List<Long> profesionalIds = servicio.getProfesional() != null
+                ? List.of(servicio.getProfesional().getId())
+                : profesionalRepository.findAllIds();
+        if (profesionalIds.isEmpty()) {
+            return List.of();
+        }
+
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDate primerDia = ahora.toLocalDate();
+        LocalDate ultimoDia = primerDia.plusDays(dias - 1);
+
+        // Todo lo que necesita la base de datos se carga aquí; los hilos paralelos solo trabajan en memoria
+        Map<Long, HorarioProfesional> horarios = profesionalService.obtenerHorariosCompilados(profesionalIds);
+        Map<Long, Map<LocalDate, List<IndiceAgenda.Ocupacion>>> ocupadas =
+                ocupaciones(profesionalIds, primerDia.atStartOfDay(), ultimoDia.plusDays(1).atStartOfDay());
+
+        int franjasCita = (duracionMinutos + ReservaFranja.MINUTOS_FRANJA - 1) / ReservaFranja.MINUTOS_FRANJA;
+        int franjasPaso = paso / ReservaFranja.MINUTOS_FRANJA;
+        MejoresInicios mejores = new MejoresInicios(cantidad);
+
+        profesionalIds.parallelStream().forEach(profesionalId -> {
+            HorarioProfesional horario = horarios.get(profesionalId);
+            for (LocalDate dia = primerDia; !dia.isAfter(ultimoDia); dia = dia.plusDays(1)) {
+                if (!mejores.puedeMejorar(dia.atStartOfDay())) {
+                    return;
+                }
+                List<IndiceAgenda.Ocupacion> ocupaciones = ocupadas.getOrDefault(profesionalId, Map.of())
+                        .getOrDefault(dia, List.of());
+                for (LocalDateTime inicio : iniciosDelDia(dia, horario.franjas(dia), ocupaciones, franjasCita, franjasPaso, ahora)) {
+                    // Los inicios llegan en orden: si este no entra, ninguno posterior del profesional lo hará
+                    if (!mejores.ofrecer(new Candidato(profesionalId, inicio))) {
+                        return;
+                    }
+                }
+            }
+        });
+
+        List<Candidato> candidatos = mejores.ordenados();
+        Map<Long, Object[]> datosProfesionales = profesionalRepository.findDatosReservaByIdIn(
+                        candidatos.stream().map(Candidato::profesionalId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(fila -> (Long) fila[0], fila -> fila));
+
+        return candidatos.stream()
+                .map(candidato -> {
+                    Object[] profesional = datosProfesionales.get(candidato.profesionalId());
+                    return new HorarioDisponibleDTO(candidato.profesionalId(),
+                            profesional != null ? (String) profesional[1] : null,
+                            profesional != null ? (String) profesional[2] : null,
+                            candidato.inicio(), candidato.inicio().plusMinutes(duracionMinutos));
+                })
+                .collect(Collectors.toList());
+    }
+
+    private static void validarPaso(int paso) {
+        if (paso <= 0 || paso % ReservaFranja.MINUTOS_FRANJA != 0) {
+            throw new BusinessRuleException("El paso debe ser un múltiplo positivo de " + ReservaFranja.MINUTOS_FRANJA + " minutos");
+        }
+    }
+
+    private List<LocalDateTime> iniciosDelDia(LocalDate dia, MapaFranjasDia libres, List<IndiceAgenda.Ocupacion> ocupaciones,
+                                              int franjasCita, int franjasPaso, LocalDateTime ahora) {
+        if (libres.estaVacio()) {
+            return List.of();
+        }
+
+        LocalDateTime inicioDia = dia.atStartOfDay();
+        for (IndiceAgenda.Ocupacion ocupacion : ocupaciones) {
+            int desde = ocupacion.inicio().isAfter(inicioDia) ? MapaFranjasDia.franjaDe(ocupacion.inicio().toLocalTime()) : 0;
+            int hasta = ocupacion.fin().toLocalDate().isAfter(dia)
+                    ? MapaFranjasDia.FRANJAS_POR_DIA
+                    : MapaFranjasDia.franjaDesde(ocupacion.fin().toLocalTime());
+            libres.desmarcar(desde, hasta);
+        }
+        if (dia.equals(ahora.toLocalDate())) {
+            libres.desmarcar(0, MapaFranjasDia.franjaDesde(ahora.toLocalTime()));
+        }
+
+        List<LocalDateTime> inicios = new ArrayList<>();
+        libres.inicios(franjasCita).paraCada(franja -> {
+            if (franja % franjasPaso == 0) {
+                inicios.add(dia.atTime(MapaFranjasDia.horaDe(franja)));
+            }
+        });
+        return inicios;
+    }
+
+    /**
+     * Citas activas y retenciones vigentes del profesional en [inicio, fin), agrupadas por cada día que tocan.
+     * Se leen siempre de la base de datos, con una consulta para todo el rango: el índice de agenda solo ve
+     * los cambios de esta instancia, así que mostraría ocupados los horarios liberados en otra y libres los
+     * que otra ya reservó.
+     */
+    private Map<LocalDate, List<IndiceAgenda.Ocupacion>> ocupaciones(Long profesionalId,
+                                                                      LocalDateTime inicio, LocalDateTime fin) {
+        List<IndiceAgenda.Ocupacion> ocupaciones = Stream.concat(
+                        citaRepository.findIntervalosProfesional(profesionalId, inicio.minus(CitaService.DURACION_MAXIMA),
+                                inicio, fin, IndiceAgenda.ESTADOS_ACTIVOS).stream(),
+                        retencionFranjaRepository.findIntervalosVigentesProfesional(profesionalId, inicio, fin,
+                                LocalDateTime.now()).stream())
+                .map(fila -> new IndiceAgenda.Ocupacion((LocalDateTime) fila[0], (LocalDateTime) fila[1]))
+                .toList();
+
+        return agruparPorDia(ocupaciones);
+    }
+
+    /**
+     * Citas activas y retenciones vigentes de varios profesionales, leídas de la base de datos con una consulta
+     * de cada tipo para todos ellos y agrupadas por profesional y día. Igual que en la búsqueda de un profesional,
+     * el índice de agenda no sirve aquí porque no ve las reservas ni las cancelaciones de otras instancias.
+     */
+    private Map<Long, Map<LocalDate, List<IndiceAgenda.Ocupacion>>> ocupaciones(
+            List<Long> profesionalIds, LocalDateTime inicio, LocalDateTime fin) {
+        Map<Long, List<IndiceAgenda.Ocupacion>> porProfesional = Stream.concat(
+                        citaRepository.findIntervalosProfesionales(profesionalIds, inicio.minus(CitaService.DURACION_MAXIMA),
+                                inicio, fin, IndiceAgenda.ESTADOS_ACTIVOS).stream(),
+                        retencionFranjaRepository.findIntervalosVigentesProfesionales(profesionalIds, inicio, fin,
+                                LocalDateTime.now()).stream())
+                .collect(Collectors.groupingBy(fila -> (Long) fila[0],
+                        Collectors.mapping(fila -> new IndiceAgenda.Ocupacion((LocalDateTime) fila[1], (LocalDateTime) fila[2]),
+                                Collectors.toList())));
+
+        Map<Long, Map<LocalDate, List<IndiceAgenda.Ocupacion>>> resultado = new HashMap<>();
+        porProfesional.forEach((profesionalId, ocupaciones) -> resultado.put(profesionalId, agruparPorDia(ocupaciones)));
+        return resultado;
+    }
+
+    private static Map<LocalDate, List<IndiceAgenda.Ocupacion>> agruparPorDia(List<IndiceAgenda.Ocupacion> ocupaciones) {
+        return ocupaciones.stream()
+                .flatMap(ocupacion -> ocupacion.inicio().toLocalDate()
+                        .datesUntil(ocupacion.fin().toLocalDate().plusDays(1))
+                        .map(dia -> Map.entry(dia, ocupacion)))
+                .collect(Collectors.groupingBy(Map.Entry::getKey,
+                        Collectors.mapping(Map.Entry::getValue, Collectors.toList())));
+    }
+
+    private record Candidato(Long profesionalId, LocalDateTime inicio) {
+    }
+
+    /**
+     * Los mejores candidatos encontrados hasta ahora, compartidos por todas las búsquedas en paralelo.
+     * El límite (el peor de los mejores, una vez completos) se publica en un campo volatile para que
+     * cada búsqueda pueda descartar días enteros sin tomar el candado.
+     */
+    private static final class MejoresInicios {
+
+        private final int cantidad;
+        private final PriorityQueue<Candidato> mejores = new PriorityQueue<>(ORDEN_CANDIDATOS.reversed());
+        private volatile Candidato limite;
+
+        MejoresInicios(int cantidad) {
+            this.cantidad = cantidad;
+        }
+
+        boolean puedeMejorar(LocalDateTime inicio) {
+            Candidato actual = limite;
+            return actual == null || !inicio.isAfter(actual.inicio());
+        }
+
+        synchronized boolean ofrecer(Candidato candidato) {
+            if (limite != null && ORDEN_CANDIDATOS.compare(candidato, limite) >= 0) {
+                return false;
+            }
+            mejores.add(candidato);
+            if (mejores.size() > cantidad) {
+                mejores.poll();
+            }
+            if (mejores.size() == cantidad) {
+                limite = mejores.peek();
+            }
+            return true;
+        }
+
+        synchronized List<Candidato> ordenados() {
+            return mejores.stream().sorted(ORDEN_CANDIDATOS).toList();
+        }
+    }
+}
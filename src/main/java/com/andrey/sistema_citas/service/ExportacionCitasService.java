@@ -0,0 +1,125 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.CitaResponseDTO;
+import com.andrey.sistema_citas.exception.BusinessRuleException;
+import com.andrey.sistema_citas.repository.CitaRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Exportación de citas escrita directamente en la respuesta a medida que llegan las filas de la base de datos,
+ * sin reunir antes el resultado en una lista. La consulta devuelve proyecciones (no entidades gestionadas),
+ * así que el contexto de persistencia no crece con el tamaño del rango.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ExportacionCitasService {
+
+    private static final String CABECERA_CSV = "id,fechaHora,estado,usuarioId,usuarioNombre,servicioId,servicioNombre," +
+            "servicioDuracion,servicioPrecio,profesionalId,profesionalNombre,profesionalEspecialidad";
+
+    private final CitaRepository citaRepository;
+    private final ObjectMapper objectMapper;
+
+    public ExportacionCitasService(CitaRepository citaRepository, ObjectMapper objectMapper) {
+        this.citaRepository = citaRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Escribe las citas del rango en el formato pedido. La primera fila se envía en cuanto llega;
+     * las siguientes se escriben a través del búfer del escritor.
+     */
+    public void exportarEnRango(LocalDateTime inicio, LocalDateTime fin, Formato formato, OutputStream salida)
+            throws IOException {
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+        if (formato == Formato.CSV) {
+            escritor.write(CABECERA_CSV);
+            escritor.write('\n');
+        }
+
+        try (Stream<CitaResponseDTO> citas = citaRepository.streamRespuestasEnRango(inicio, fin)) {
+            Iterator<CitaResponseDTO> it = citas.iterator();
+            boolean primera = true;
+            while (it.hasNext()) {
+                escritor.write(formato == Formato.CSV ? filaCsv(it.next()) : objectMapper.writeValueAsString(it.next()));
+                escritor.write('\n');
+                if (primera) {
+                    escritor.flush();
+                    primera = false;
+                }
+            }
+        }
+        escritor.flush();
+    }
+
+    static String filaCsv(CitaResponseDTO cita) {
+        return String.join(",",
+                valorCsv(cita.getId()),
+                valorCsv(cita.getFechaHora()),
+                valorCsv(cita.getEstado()),
+                valorCsv(cita.getUsuarioId()),
+                valorCsv(cita.getUsuarioNombre()),
+                valorCsv(cita.getServicioId()),
+                valorCsv(cita.getServicioNombre()),
+                valorCsv(cita.getServicioDuracion()),
+                valorCsv(cita.getServicioPrecio()),
+                valorCsv(cita.getProfesionalId()),
+                valorCsv(cita.getProfesionalNombre()),
+                valorCsv(cita.getProfesionalEspecialidad()));
+    }
+
+    // Comillas solo cuando el valor contiene separadores, comillas o saltos de línea (RFC 4180)
+    private static String valorCsv(Object valor) {
+        if (valor == null) {
+            return "";
+        }
+        String texto = valor.toString();
+        if (texto.contains(",") || texto.contains("\"") || texto.contains("\n") || texto.contains("\r")) {
+            return "\"" + texto.replace("\"", "\"\"") + "\"";
+        }
+        return texto;
+    }
+
+    public enum Formato {
+        NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+        CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv");
+
+        private final MediaType tipo;
+        private final String extension;
+
+        Formato(MediaType tipo, String extension) {
+            this.tipo = tipo;
+            this.extension = extension;
+        }
+
+        public MediaType getTipo() {
+            return tipo;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Formato desde(String valor) {
+            try {
+                return valueOf(valor.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BusinessRuleException("Formato de exportación no soportado: " + valor);
+            }
+        }
+    }
+}
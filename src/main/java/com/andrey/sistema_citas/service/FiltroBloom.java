@@ -0,0 +1,69 @@
+package com.andrey.sistema_citas.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom sobre cadenas: responde "seguro que no está" o "puede que esté" sin guardar los elementos.
+ * El tamaño y el número de funciones hash se calculan para la capacidad y la tasa de falsos positivos pedidas.
+ * Las k posiciones salen de un único hash de 64 bits con doble hashing (h1 + i * h2). Admite lecturas y
+ * escrituras concurrentes sin bloqueos; no permite quitar elementos, así que se reconstruye cuando sobran.
+ */
+final class FiltroBloom {
+
+    private final AtomicLongArray palabras;
+    private final long bits;
+    private final int funciones;
+
+    FiltroBloom(int capacidad, double probabilidadFalsoPositivo) {
+        double n = Math.max(capacidad, 1);
+        long m = (long) Math.ceil(-n * Math.log(probabilidadFalsoPositivo) / (Math.log(2) * Math.log(2)));
+        this.palabras = new AtomicLongArray((int) ((m + 63) / 64));
+        this.bits = palabras.length() * 64L;
+        this.funciones = Math.max(1, (int) Math.round(bits / n * Math.log(2)));
+    }
+
+    void agregar(String valor) {
+        long hash = fnv1a(valor);
+        long h1 = mezclar(hash);
+        long h2 = mezclar(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < funciones; i++) {
+            long posicion = Math.floorMod(h1 + i * h2, bits);
+            int palabra = (int) (posicion >>> 6);
+            long mascara = 1L << posicion;
+            long actual;
+            while (((actual = palabras.get(palabra)) & mascara) == 0
+                    && !palabras.compareAndSet(palabra, actual, actual | mascara)) {
+                // Otro hilo modificó la palabra; se reintenta con su valor nuevo
+            }
+        }
+    }
+
+    boolean puedeContener(String valor) {
+        long hash = fnv1a(valor);
+        long h1 = mezclar(hash);
+        long h2 = mezclar(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < funciones; i++) {
+            long posicion = Math.floorMod(h1 + i * h2, bits);
+            if ((palabras.get((int) (posicion >>> 6)) & (1L << posicion)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long fnv1a(String valor) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < valor.length(); i++) {
+            hash ^= valor.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    // Finalizador de SplitMix64: reparte los bits del hash para que h1 y h2 sean independientes
+    private static long mezclar(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,78 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.entity.DisponibilidadSemanal;
+import com.andrey.sistema_citas.entity.ExcepcionDisponibilidad;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Horario de atención de un profesional compilado en mapas de franjas: uno por día de la semana
+ * y uno por cada fecha con excepciones. Es inmutable; ProfesionalService lo construye una vez y lo guarda en caché.
+ */
+public final class HorarioProfesional {
+
+    private final Map<DayOfWeek, MapaFranjasDia> semanal;
+    private final Map<LocalDate, MapaFranjasDia> excepciones;
+
+    private HorarioProfesional(Map<DayOfWeek, MapaFranjasDia> semanal, Map<LocalDate, MapaFranjasDia> excepciones) {
+        this.semanal = semanal;
+        this.excepciones = excepciones;
+    }
+
+    static HorarioProfesional compilar(Collection<DisponibilidadSemanal> tramos,
+                                       Collection<ExcepcionDisponibilidad> excepciones) {
+        Map<DayOfWeek, MapaFranjasDia> semanal = new EnumMap<>(DayOfWeek.class);
+        for (DayOfWeek dia : DayOfWeek.values()) {
+            semanal.put(dia, MapaFranjasDia.vacio());
+        }
+        for (DisponibilidadSemanal tramo : tramos) {
+            semanal.get(tramo.getDiaSemana()).marcar(
+                    MapaFranjasDia.franjaDesde(tramo.getHoraInicio()), MapaFranjasDia.franjaDe(tramo.getHoraFin()));
+        }
+
+        // Las excepciones se aplican en orden sobre el horario semanal del día al que afectan
+        Map<LocalDate, MapaFranjasDia> porFecha = new HashMap<>();
+        for (ExcepcionDisponibilidad excepcion : excepciones) {
+            MapaFranjasDia mapa = porFecha.computeIfAbsent(excepcion.getFecha(),
+                    fecha -> semanal.get(fecha.getDayOfWeek()).copia());
+            if (excepcion.getHoraInicio() == null) {
+                mapa.desmarcar(0, MapaFranjasDia.FRANJAS_POR_DIA);
+            } else if (excepcion.isDisponible()) {
+                mapa.marcar(MapaFranjasDia.franjaDesde(excepcion.getHoraInicio()), MapaFranjasDia.franjaDe(excepcion.getHoraFin()));
+            } else {
+                mapa.desmarcar(MapaFranjasDia.franjaDe(excepcion.getHoraInicio()), MapaFranjasDia.franjaDesde(excepcion.getHoraFin()));
+            }
+        }
+
+        return new HorarioProfesional(semanal, Map.copyOf(porFecha));
+    }
+
+    /**
+     * Horario igual para todos los días laborables, usado con profesionales sin horario estructurado.
+     */
+    static HorarioProfesional jornadaFija(LocalTime inicio, LocalTime fin, Collection<DayOfWeek> dias) {
+        Map<DayOfWeek, MapaFranjasDia> semanal = new EnumMap<>(DayOfWeek.class);
+        for (DayOfWeek dia : DayOfWeek.values()) {
+            MapaFranjasDia mapa = MapaFranjasDia.vacio();
+            if (dias.contains(dia)) {
+                mapa.marcar(MapaFranjasDia.franjaDesde(inicio), MapaFranjasDia.franjaDe(fin));
+            }
+            semanal.put(dia, mapa);
+        }
+        return new HorarioProfesional(semanal, Map.of());
+    }
+
+    /**
+     * Franjas de atención de la fecha indicada. Devuelve una copia que el llamador puede modificar.
+     */
+    MapaFranjasDia franjas(LocalDate fecha) {
+        MapaFranjasDia excepcion = excepciones.get(fecha);
+        return (excepcion != null ? excepcion : semanal.get(fecha.getDayOfWeek())).copia();
+    }
+}
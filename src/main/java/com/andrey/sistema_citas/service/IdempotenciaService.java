@@ -0,0 +1,164 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.entity.RespuestaIdempotente;
+import com.andrey.sistema_citas.repository.RespuestaIdempotenteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Guarda las respuestas de las peticiones con cabecera Idempotency-Key para devolverlas tal cual a los reintentos.
+ * La petición original reclama su clave insertando una fila pendiente en respuesta_idempotente antes de
+ * ejecutarse; la clave primaria garantiza que, aunque los reintentos lleguen a otras instancias, solo una
+ * petición la ejecuta. Las respuestas más recientes se sirven además desde una caché LRU acotada en memoria.
+ * Ambas caducan tras la vigencia configurada.
+ */
+@Service
+@Transactional
+public class IdempotenciaService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotenciaService.class);
+
+    private final RespuestaIdempotenteRepository respuestaIdempotenteRepository;
+    private final Duration vigencia;
+    private final Duration plazoReclamo;
+
+    private final Map<String, Respuesta> recientes;
+
+    public IdempotenciaService(RespuestaIdempotenteRepository respuestaIdempotenteRepository,
+                               @Value("${idempotencia.vigencia:PT24H}") Duration vigencia,
+                               @Value("${idempotencia.reclamo:PT5M}") Duration plazoReclamo,
+                               @Value("${idempotencia.capacidad:10000}") int capacidad) {
+        this.respuestaIdempotenteRepository = respuestaIdempotenteRepository;
+        this.vigencia = vigencia;
+        this.plazoReclamo = plazoReclamo;
+        this.recientes = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Respuesta> mayor) {
+                return size() > capacidad;
+            }
+        });
+    }
+
+    /**
+     * Reclama la clave para ejecutar la petición. Si ya se reclamó, devuelve la respuesta guardada o, si la
+     * petición original sigue en curso (en esta u otra instancia), un reclamo en curso. Cada paso va en su
+     * propia transacción para que la fila pendiente sea visible a las demás instancias en cuanto se inserta.
+     * Una reclamación cuya petición no terminó dentro del plazo (la instancia cayó) se puede retomar.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Reclamo reclamar(String clave) {
+        LocalDateTime ahora = LocalDateTime.now();
+
+        Respuesta reciente = recientes.get(clave);
+        if (reciente != null) {
+            if (reciente.expira().isAfter(ahora)) {
+                return Reclamo.guardada(reciente);
+            }
+            recientes.remove(clave);
+        }
+
+        LocalDateTime expiraReclamo = ahora.plus(plazoReclamo);
+        try {
+            respuestaIdempotenteRepository.save(RespuestaIdempotente.pendiente(clave, expiraReclamo));
+            return Reclamo.RECLAMADA;
+        } catch (DataIntegrityViolationException e) {
+            log.debug("La clave idempotente {} ya estaba reclamada", clave);
+        }
+
+        // Otra petición la reclamó antes: se vuelve a leer lo que dejó
+        Optional<RespuestaIdempotente> fila = respuestaIdempotenteRepository.findById(clave);
+        if (fila.isPresent() && fila.get().getExpira().isAfter(ahora)) {
+            RespuestaIdempotente guardada = fila.get();
+            if (guardada.isPendiente()) {
+                return Reclamo.EN_CURSO;
+            }
+            Respuesta respuesta = new Respuesta(guardada.getHuella(), guardada.getEstado(),
+                    guardada.getTipoContenido(), guardada.getCuerpo(), guardada.getExpira());
+            recientes.put(clave, respuesta);
+            return Reclamo.guardada(respuesta);
+        }
+
+        // Caducada, o borrada entretanto por la limpieza o por liberar: solo una petición consigue retomarla
+        if (fila.isPresent() && respuestaIdempotenteRepository.reclamarCaducada(clave, expiraReclamo, ahora) == 1) {
+            return Reclamo.RECLAMADA;
+        }
+        if (fila.isEmpty()) {
+            try {
+                respuestaIdempotenteRepository.save(RespuestaIdempotente.pendiente(clave, expiraReclamo));
+                return Reclamo.RECLAMADA;
+            } catch (DataIntegrityViolationException e) {
+                log.debug("La clave idempotente {} se reclamó de nuevo entretanto", clave);
+            }
+        }
+        return Reclamo.EN_CURSO;
+    }
+
+    /**
+     * Guarda la respuesta de una clave reclamada por esta petición y la deja disponible para los reintentos.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void guardar(String clave, String huella, int estado, String tipoContenido, byte[] cuerpo) {
+        LocalDateTime expira = LocalDateTime.now().plus(vigencia);
+        if (respuestaIdempotenteRepository.completar(clave, huella, estado, tipoContenido, cuerpo, expira) == 0) {
+            // La reclamación caducó y otra petición la retomó; se conserva la suya
+            log.warn("La reclamación de la clave idempotente {} caducó antes de guardar la respuesta", clave);
+            return;
+        }
+        recientes.put(clave, new Respuesta(huella, estado, tipoContenido, cuerpo, expira));
+    }
+
+    /**
+     * Suelta la reclamación de una petición que terminó sin respuesta que guardar, para que pueda reintentarse.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void liberar(String clave) {
+        respuestaIdempotenteRepository.liberar(clave);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotencia.limpieza:PT1H}")
+    public void eliminarExpiradas() {
+        int eliminadas = respuestaIdempotenteRepository.deleteExpiradas(LocalDateTime.now());
+        if (eliminadas > 0) {
+            log.info("Eliminadas {} respuestas idempotentes caducadas", eliminadas);
+        }
+    }
+
+    /**
+     * Clave de almacenamiento: la clave del cliente solo es única dentro de cada usuario.
+     */
+    public static String clave(String usuario, String claveCliente) {
+        return ResumenSha256.de(usuario + "\n" + claveCliente);
+    }
+
+    public record Respuesta(String huella, int estado, String tipoContenido, byte[] cuerpo, LocalDateTime expira) {
+    }
+
+    /**
+     * Resultado de reclamar una clave: reclamada para ejecutar la petición, en curso en otra petición,
+     * o con una respuesta ya guardada.
+     */
+    public record Reclamo(Estado estado, Respuesta respuesta) {
+
+        public enum Estado { RECLAMADA, EN_CURSO, GUARDADA }
+
+        static final Reclamo RECLAMADA = new Reclamo(Estado.RECLAMADA, null);
+        static final Reclamo EN_CURSO = new Reclamo(Estado.EN_CURSO, null);
+
+        static Reclamo guardada(Respuesta respuesta) {
+            return new Reclamo(Estado.GUARDADA, respuesta);
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.entity.EstadoCita;
+import com.andrey.sistema_citas.repository.CitaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Índice en memoria de las citas activas (PENDIENTE y CONFIRMADA), agrupadas por profesional y por usuario.
+ * Responde sin consultar la base de datos a las comprobaciones de solapamiento cuyo horario está libre.
+ * Se precarga desde CitaRepository al arrancar y CitaService lo mantiene al día en cada cambio, pero solo
+ * con los cambios de esta instancia: un ocupado se confirma en la base de datos y las reservas de otras
+ * instancias las rechazan las tablas de franjas (ReservaFranjaService). La excepción son las reservas de esta
+ * instancia cuya transacción aún no ha terminado (registrarEnCurso): la base de datos todavía no las ve,
+ * así que el índice es la única fuente fiable para ellas.
+ * Las retenciones de horario se registran igual que las citas, con la clave negativa de claveRetencion.
+ */
+@Component
+public class IndiceAgenda {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceAgenda.class);
+
+    static final List<EstadoCita> ESTADOS_ACTIVOS = List.of(EstadoCita.PENDIENTE, EstadoCita.CONFIRMADA);
+
+    private static final Comparator<Intervalo> ORDEN = Comparator
+            .comparing(Intervalo::inicio)
+            .thenComparing(Intervalo::citaId);
+
+    private final CitaRepository citaRepository;
+
+    private final Map<Long, Calendario> porProfesional = new ConcurrentHashMap<>();
+    private final Map<Long, Calendario> porUsuario = new ConcurrentHashMap<>();
+    private final Map<Long, Registro> porCita = new ConcurrentHashMap<>();
+    // Citas y retenciones registradas por esta instancia cuya transacción aún no ha terminado
+    private final Set<Long> enCurso = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean listo = false;
+
+    public IndiceAgenda(CitaRepository citaRepository) {
+        this.citaRepository = citaRepository;
+    }
+
+    /**
+     * Carga las citas activas que aún no han terminado, incluidas las que están en curso.
+     * Se ejecuta después de que CitaService complete las fechas de fin pendientes.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(3)
+    public void precargar() {
+        List<Object[]> filas = citaRepository.findIntervalosActivosDesde(ESTADOS_ACTIVOS, LocalDateTime.now());
+
+        for (Object[] fila : filas) {
+            registrar((Long) fila[0], (Long) fila[1], (Long) fila[2], (LocalDateTime) fila[3], (LocalDateTime) fila[4]);
+        }
+
+        listo = true;
+        log.info("Índice de agenda precargado con {} citas activas", filas.size());
+    }
+
+    /**
+     * Indica si la precarga terminó. Mientras no lo esté, las comprobaciones deben ir a la base de datos.
+     */
+    public boolean estaListo() {
+        return listo;
+    }
+
+    public boolean profesionalOcupado(Long profesionalId, LocalDateTime inicio, LocalDateTime fin, Long citaExcluida) {
+        return solapeProfesional(profesionalId, inicio, fin, citaExcluida) != Solape.NINGUNO;
+    }
+
+    public boolean usuarioOcupado(Long usuarioId, LocalDateTime inicio, LocalDateTime fin, Long citaExcluida) {
+        return solapeUsuario(usuarioId, inicio, fin, citaExcluida) != Solape.NINGUNO;
+    }
+
+    /**
+     * Qué tipo de cita del profesional se cruza con [inicio, fin): ninguna, una en curso en esta instancia
+     * (segura) o una ya confirmada que quizá otra instancia canceló (hay que verificarla en la base de datos).
+     */
+    public Solape solapeProfesional(Long profesionalId, LocalDateTime inicio, LocalDateTime fin, Long citaExcluida) {
+        Calendario calendario = porProfesional.get(profesionalId);
+        return calendario == null ? Solape.NINGUNO : calendario.solapa(inicio, fin, citaExcluida, enCurso);
+    }
+
+    public Solape solapeUsuario(Long usuarioId, LocalDateTime inicio, LocalDateTime fin, Long citaExcluida) {
+        Calendario calendario = porUsuario.get(usuarioId);
+        return calendario == null ? Solape.NINGUNO : calendario.solapa(inicio, fin, citaExcluida, enCurso);
+    }
+
+    /**
+     * Intervalos ocupados por citas activas del profesional que se cruzan con [desde, hasta), ordenados por inicio.
+     */
+    public List<Ocupacion> ocupacionesProfesional(Long profesionalId, LocalDateTime desde, LocalDateTime hasta) {
+        return ocupacionesProfesional(profesionalId, desde, hasta, Set.of());
+    }
+
+    /**
+     * Igual que la anterior, sin las citas indicadas (por ejemplo, las que se van a reprogramar).
+     */
+    public List<Ocupacion> ocupacionesProfesional(Long profesionalId, LocalDateTime desde, LocalDateTime hasta,
+                                                  Collection<Long> excluidas) {
+        Calendario calendario = porProfesional.get(profesionalId);
+        return calendario == null ? List.of() : calendario.entre(desde, hasta, id -> !excluidas.contains(id));
+    }
+
+    /**
+     * Intervalos ocupados por citas activas del usuario que se cruzan con [desde, hasta), sin las citas excluidas.
+     */
+    public List<Ocupacion> ocupacionesUsuario(Long usuarioId, LocalDateTime desde, LocalDateTime hasta,
+                                              Collection<Long> excluidas) {
+        Calendario calendario = porUsuario.get(usuarioId);
+        return calendario == null ? List.of() : calendario.entre(desde, hasta, id -> !excluidas.contains(id));
+    }
+
+    /**
+     * Intervalos del profesional o del usuario que se cruzan con [desde, hasta) y que esta instancia registró
+     * en una transacción aún sin terminar, sin las citas excluidas. Completa lo que la base de datos todavía no ve.
+     */
+    public List<Ocupacion> ocupacionesEnCurso(Long profesionalId, Long usuarioId, LocalDateTime desde, LocalDateTime hasta,
+                                              Collection<Long> excluidas) {
+        Predicate<Long> incluida = id -> enCurso.contains(id) && !excluidas.contains(id);
+        List<Ocupacion> resultado = new ArrayList<>();
+        for (Calendario calendario : new Calendario[] {porProfesional.get(profesionalId), porUsuario.get(usuarioId)}) {
+            if (calendario != null) {
+                resultado.addAll(calendario.entre(desde, hasta, incluida));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Registra (o reemplaza, si ya existía) el intervalo ocupado por una cita activa.
+     */
+    public void registrar(Long citaId, Long profesionalId, Long usuarioId, LocalDateTime inicio, LocalDateTime fin) {
+        Intervalo intervalo = new Intervalo(citaId, inicio, fin);
+        Registro anterior = porCita.put(citaId, new Registro(profesionalId, usuarioId, intervalo));
+        if (anterior != null) {
+            quitarDeCalendarios(anterior);
+        }
+        porProfesional.computeIfAbsent(profesionalId, id -> new Calendario()).agregar(intervalo);
+        porUsuario.computeIfAbsent(usuarioId, id -> new Calendario()).agregar(intervalo);
+    }
+
+    /**
+     * Registra el intervalo de una cita o retención que se acaba de guardar en la transacción actual.
+     * Hasta que la transacción termine cuenta como conflicto seguro, sin verificarlo en la base de datos.
+     * Debe llamarse bajo el bloqueo de BloqueosAgenda, antes de soltarlo.
+     */
+    public void registrarEnCurso(Long citaId, Long profesionalId, Long usuarioId, LocalDateTime inicio, LocalDateTime fin) {
+        registrar(citaId, profesionalId, usuarioId, inicio, fin);
+        enCurso.add(citaId);
+        SincronizacionTransaccion.alTerminar(() -> enCurso.remove(citaId));
+    }
+
+    /**
+     * Elimina la cita del índice (cancelación o borrado). No hace nada si no estaba registrada.
+     */
+    public void eliminar(Long citaId) {
+        Registro registro = porCita.remove(citaId);
+        if (registro != null) {
+            quitarDeCalendarios(registro);
+        }
+    }
+
+    /**
+     * Quita las citas y retenciones que ya terminaron: ninguna reserva nueva puede chocar con ellas, y las que
+     * nunca pasan a COMPLETADA o CANCELADA harían crecer el índice sin límite.
+     */
+    @Scheduled(fixedDelayString = "${agenda.indice.limpieza:PT15M}")
+    public void eliminarTerminadas() {
+        LocalDateTime ahora = LocalDateTime.now();
+        int eliminadas = 0;
+        for (Map.Entry<Long, Registro> entrada : porCita.entrySet()) {
+            Registro registro = entrada.getValue();
+            // remove(clave, valor) no quita nada si la cita se ha vuelto a registrar entretanto
+            if (registro.intervalo().fin().isAfter(ahora) || enCurso.contains(entrada.getKey())
+                    || !porCita.remove(entrada.getKey(), registro)) {
+                continue;
+            }
+            quitarDeCalendarios(registro);
+            eliminadas++;
+        }
+        if (eliminadas > 0) {
+            log.debug("Eliminadas {} citas terminadas del índice de agenda", eliminadas);
+        }
+    }
+
+    private void quitarDeCalendarios(Registro registro) {
+        Calendario calendarioProfesional = porProfesional.get(registro.profesionalId());
+        if (calendarioProfesional != null) {
+            calendarioProfesional.quitar(registro.intervalo());
+        }
+        Calendario calendarioUsuario = porUsuario.get(registro.usuarioId());
+        if (calendarioUsuario != null) {
+            calendarioUsuario.quitar(registro.intervalo());
+        }
+    }
+
+    /**
+     * Clave con la que se registra una retención: negativa para no coincidir nunca con el id de una cita.
+     */
+    static long claveRetencion(String retencionId) {
+        return -1 - (UUID.fromString(retencionId).getLeastSignificantBits() & Long.MAX_VALUE);
+    }
+
+    public record Ocupacion(LocalDateTime inicio, LocalDateTime fin) {
+    }
+
+    public enum Solape {
+        NINGUNO,
+        // Cita de esta instancia con la transacción en curso: la base de datos aún no la ve
+        EN_CURSO,
+        // Cita precargada o ya confirmada: otra instancia pudo cancelarla o moverla
+        A_VERIFICAR
+    }
+
+    private record Intervalo(Long citaId, LocalDateTime inicio, LocalDateTime fin) {
+    }
+
+    private record Registro(Long profesionalId, Long usuarioId, Intervalo intervalo) {
+    }
+
+    /**
+     * Intervalos de un profesional o usuario ordenados por inicio. Guarda la mayor duración de los intervalos
+     * actuales para que la búsqueda de solapamientos solo recorra los que pueden cruzarse con el consultado;
+     * al quitar el más largo se vuelve a calcular.
+     */
+    private static final class Calendario {
+
+        private final NavigableSet<Intervalo> intervalos = new TreeSet<>(ORDEN);
+        private Duration duracionMaxima = Duration.ZERO;
+
+        synchronized void agregar(Intervalo intervalo) {
+            intervalos.add(intervalo);
+            Duration duracion = duracion(intervalo);
+            if (duracion.compareTo(duracionMaxima) > 0) {
+                duracionMaxima = duracion;
+            }
+        }
+
+        synchronized void quitar(Intervalo intervalo) {
+            if (intervalos.remove(intervalo) && duracion(intervalo).compareTo(duracionMaxima) >= 0) {
+                duracionMaxima = intervalos.stream()
+                        .map(Calendario::duracion)
+                        .max(Comparator.naturalOrder())
+                        .orElse(Duration.ZERO);
+            }
+        }
+
+        synchronized Solape solapa(LocalDateTime inicio, LocalDateTime fin, Long citaExcluida, Set<Long> enCurso) {
+            Solape solape = Solape.NINGUNO;
+            Intervalo desde = new Intervalo(Long.MIN_VALUE, inicio.minus(duracionMaxima), null);
+            for (Intervalo intervalo : intervalos.tailSet(desde, true)) {
+                if (!intervalo.inicio().isBefore(fin)) {
+                    break;
+                }
+                if (intervalo.fin().isAfter(inicio) && !intervalo.citaId().equals(citaExcluida)) {
+                    if (enCurso.contains(intervalo.citaId())) {
+                        return Solape.EN_CURSO;
+                    }
+                    solape = Solape.A_VERIFICAR;
+                }
+            }
+            return solape;
+        }
+
+        synchronized List<Ocupacion> entre(LocalDateTime desde, LocalDateTime hasta, Predicate<Long> incluida) {
+            List<Ocupacion> resultado = new ArrayList<>();
+            Intervalo limite = new Intervalo(Long.MIN_VALUE, desde.minus(duracionMaxima), null);
+            for (Intervalo intervalo : intervalos.tailSet(limite, true)) {
+                if (!intervalo.inicio().isBefore(hasta)) {
+                    break;
+                }
+                if (intervalo.fin().isAfter(desde) && incluida.test(intervalo.citaId())) {
+                    resultado.add(new Ocupacion(intervalo.inicio(), intervalo.fin()));
+                }
+            }
+            return resultado;
+        }
+
+        private static Duration duracion(Intervalo intervalo) {
+            return Duration.between(intervalo.inicio(), intervalo.fin());
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.CitaCreateDTO;
+import com.andrey.sistema_citas.dto.CitaResponseDTO;
+import com.andrey.sistema_citas.dto.ListaEsperaCreateDTO;
+import com.andrey.sistema_citas.dto.ListaEsperaResponseDTO;
+import com.andrey.sistema_citas.entity.EstadoListaEspera;
+import com.andrey.sistema_citas.entity.ListaEspera;
+import com.andrey.sistema_citas.exception.BusinessRuleException;
+import com.andrey.sistema_citas.exception.ResourceNotFoundException;
+import com.andrey.sistema_citas.repository.CitaRepository;
+import com.andrey.sistema_citas.repository.DatosValidacionCita;
+import com.andrey.sistema_citas.repository.ListaEsperaRepository;
+import com.andrey.sistema_citas.repository.ProfesionalRepository;
+import com.andrey.sistema_citas.repository.ServicioRepository;
+import com.andrey.sistema_citas.repository.UsuarioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Lista de espera por profesional y servicio. Cuando se cancela una cita, el horario liberado se asigna
+ * como cita PENDIENTE a la primera solicitud en espera cuya ventana lo contiene y cuyo usuario está libre.
+ * Los candidatos se leen de la base de datos, así que cuentan las solicitudes hechas en cualquier instancia.
+ */
+@Service
+@Transactional
+public class ListaEsperaService {
+
+    private static final Logger log = LoggerFactory.getLogger(ListaEsperaService.class);
+
+    // Solicitudes que se prueban como máximo por cada horario liberado
+    static final int MAXIMO_INTENTOS = 10;
+
+    private final ListaEsperaRepository listaEsperaRepository;
+    private final CitaRepository citaRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final ProfesionalRepository profesionalRepository;
+    private final ServicioRepository servicioRepository;
+    private final CitaService citaService;
+    private final IndiceAgenda indiceAgenda;
+    private final TransactionTemplate nuevaTransaccion;
+
+    public ListaEsperaService(ListaEsperaRepository listaEsperaRepository,
+                              CitaRepository citaRepository,
+                              UsuarioRepository usuarioRepository,
+                              ProfesionalRepository profesionalRepository,
+                              ServicioRepository servicioRepository,
+                              CitaService citaService,
+                              IndiceAgenda indiceAgenda,
+                              PlatformTransactionManager transactionManager) {
+        this.listaEsperaRepository = listaEsperaRepository;
+        this.citaRepository = citaRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.profesionalRepository = profesionalRepository;
+        this.servicioRepository = servicioRepository;
+        this.citaService = citaService;
+        this.indiceAgenda = indiceAgenda;
+        this.nuevaTransaccion = new TransactionTemplate(transactionManager);
+        this.nuevaTransaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public ListaEsperaResponseDTO inscribir(ListaEsperaCreateDTO dto) {
+        Long usuarioId = dto.getUsuarioId();
+        Long profesionalId = dto.getProfesionalId();
+        Long servicioId = dto.getServicioId();
+
+        DatosValidacionCita datos = citaRepository.findDatosValidacion(usuarioId, servicioId, profesionalId);
+        if (datos.getUsuarioId() == null) {
+            throw new ResourceNotFoundException("Usuario no encontrado con ID: " + usuarioId);
+        }
+        if (datos.getServicioId() == null) {
+            throw new ResourceNotFoundException("Servicio no encontrado con ID: " + servicioId);
+        }
+        if (datos.getProfesionalId() == null) {
+            throw new ResourceNotFoundException("Profesional no encontrado con ID: " + profesionalId);
+        }
+
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime desde = dto.getDesde() != null && dto.getDesde().isAfter(ahora) ? dto.getDesde() : ahora;
+        if (!dto.getHasta().isAfter(desde)) {
+            throw new BusinessRuleException("La fecha límite debe ser posterior a la fecha de inicio");
+        }
+        if (listaEsperaRepository.existsEsperando(usuarioId, profesionalId, servicioId)) {
+            throw new BusinessRuleException("Ya estás en la lista de espera de este profesional para este servicio");
+        }
+
+        ListaEspera solicitud = listaEsperaRepository.save(new ListaEspera(
+                usuarioRepository.getReferenceById(usuarioId),
+                profesionalRepository.getReferenceById(profesionalId),
+                servicioRepository.getReferenceById(servicioId),
+                desde, dto.getHasta(), ahora));
+
+        return toResponse(solicitud);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ListaEsperaResponseDTO> obtenerPorUsuario(Long usuarioId) {
+        return listaEsperaRepository.findByUsuarioId(usuarioId)
+                .stream()
+                .map(ListaEsperaService::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Solicitudes en espera para un profesional y servicio, en el orden en que se atenderán.
+     */
+    @Transactional(readOnly = true)
+    public List<ListaEsperaResponseDTO> obtenerCola(Long profesionalId, Long servicioId) {
+        return listaEsperaRepository.findCola(profesionalId, servicioId, EstadoListaEspera.ESPERANDO)
+                .stream()
+                .map(ListaEsperaService::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    public ListaEsperaResponseDTO cambiarPrioridad(Long id, int prioridad) {
+        ListaEspera solicitud = buscarEsperando(id);
+        solicitud.setPrioridad(prioridad);
+        return toResponse(solicitud);
+    }
+
+    public void cancelar(Long id) {
+        ListaEspera solicitud = buscarEsperando(id);
+        solicitud.setEstado(EstadoListaEspera.CANCELADA);
+    }
+
+    /**
+     * Ofrece el horario de una cita cancelada a la lista de espera. Cada intento de asignación va en su propia
+     * transacción: si el usuario ya tiene otra cita a esa hora, solo se revierte ese intento y se pasa al siguiente.
+     * El UPDATE condicional de ListaEsperaRepository.asignar evita que dos instancias atiendan la misma solicitud.
+     * Si el índice de agenda ve el horario ocupado se confirma en la base de datos antes de dejar de intentarlo,
+     * porque puede ser una cita ya cancelada en otra instancia.
+     */
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void alCancelarCita(CitaCanceladaEvent evento) {
+        if (!evento.inicio().isAfter(LocalDateTime.now())) {
+            return;
+        }
+
+        List<Long> candidatos = listaEsperaRepository.findCandidatos(evento.profesionalId(), evento.servicioId(),
+                evento.inicio(), evento.fin(), LocalDateTime.now(), Limit.of(MAXIMO_INTENTOS));
+
+        for (Long candidato : candidatos) {
+            // Si otra reserva ocupó el horario entretanto, ningún candidato podrá tenerlo
+            if (profesionalOcupado(evento)) {
+                return;
+            }
+            try {
+                Long citaId = nuevaTransaccion.execute(estado -> asignar(candidato, evento, estado));
+                if (citaId != null) {
+                    log.info("Horario de la cita cancelada {} asignado a la solicitud de espera {} (cita {})",
+                            evento.citaId(), candidato, citaId);
+                    return;
+                }
+            } catch (BusinessRuleException | ResourceNotFoundException e) {
+                log.debug("La solicitud de espera {} no pudo recibir el horario: {}", candidato, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Marca como vencidas las solicitudes cuya ventana ya pasó. La búsqueda de candidatos ya las descarta por fecha.
+     */
+    @Scheduled(cron = "${lista-espera.limpieza:0 0 * * * *}")
+    public void marcarVencidas() {
+        int vencidas = listaEsperaRepository.marcarVencidas(LocalDateTime.now());
+        if (vencidas > 0) {
+            log.info("{} solicitudes de lista de espera vencidas", vencidas);
+        }
+    }
+
+    private Long asignar(Long solicitudId, CitaCanceladaEvent evento, TransactionStatus estado) {
+        ListaEspera solicitud = listaEsperaRepository.findById(solicitudId).orElse(null);
+        if (solicitud == null || solicitud.getEstado() != EstadoListaEspera.ESPERANDO) {
+            // Cancelada o atendida desde otra instancia
+            return null;
+        }
+
+        CitaCreateDTO dto = new CitaCreateDTO();
+        dto.setUsuarioId(solicitud.getUsuario().getId());
+        dto.setServicioId(evento.servicioId());
+        dto.setProfesionalId(evento.profesionalId());
+        dto.setFechaHora(evento.inicio());
+        CitaResponseDTO cita = citaService.agendarCita(dto);
+
+        if (listaEsperaRepository.asignar(solicitudId, cita.getId()) == 0) {
+            estado.setRollbackOnly();
+            return null;
+        }
+        return cita.getId();
+    }
+
+    private ListaEspera buscarEsperando(Long id) {
+        ListaEspera solicitud = listaEsperaRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Solicitud de lista de espera no encontrada con ID: " + id));
+        if (solicitud.getEstado() != EstadoListaEspera.ESPERANDO) {
+            throw new BusinessRuleException("La solicitud ya no está en espera");
+        }
+        return solicitud;
+    }
+
+    private boolean profesionalOcupado(CitaCanceladaEvent evento) {
+        return indiceAgenda.estaListo()
+                && indiceAgenda.profesionalOcupado(evento.profesionalId(), evento.inicio(), evento.fin(), null)
+                && citaRepository.existsSolapeProfesional(evento.profesionalId(), evento.inicio().minus(CitaService.DURACION_MAXIMA),
+                        evento.inicio(), evento.fin(), IndiceAgenda.ESTADOS_ACTIVOS, null);
+    }
+
+    private static ListaEsperaResponseDTO toResponse(ListaEspera solicitud) {
+        return new ListaEsperaResponseDTO(
+                solicitud.getId(),
+                solicitud.getUsuario().getId(),
+                solicitud.getProfesional().getId(),
+                solicitud.getServicio().getId(),
+                solicitud.getDesde(),
+                solicitud.getHasta(),
+                solicitud.getPrioridad(),
+                solicitud.getEstado(),
+                solicitud.getFechaRegistro(),
+                solicitud.getCitaId()
+        );
+    }
+}
@@ -0,0 +1,124 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.entity.ReservaFranja;
+
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Mapa de bits de las franjas de un día: el bit i representa la franja que empieza
+ * i * MINUTOS_FRANJA minutos después de la medianoche. Un día completo cabe en cinco long.
+ */
+final class MapaFranjasDia {
+
+    static final int FRANJAS_POR_DIA = 24 * 60 / ReservaFranja.MINUTOS_FRANJA;
+
+    private static final int PALABRAS = (FRANJAS_POR_DIA + Long.SIZE - 1) / Long.SIZE;
+
+    private final long[] bits;
+
+    private MapaFranjasDia(long[] bits) {
+        this.bits = bits;
+    }
+
+    static MapaFranjasDia vacio() {
+        return new MapaFranjasDia(new long[PALABRAS]);
+    }
+
+    MapaFranjasDia copia() {
+        return new MapaFranjasDia(Arrays.copyOf(bits, PALABRAS));
+    }
+
+    /**
+     * Franja que contiene la hora indicada.
+     */
+    static int franjaDe(LocalTime hora) {
+        return (hora.getHour() * 60 + hora.getMinute()) / ReservaFranja.MINUTOS_FRANJA;
+    }
+
+    /**
+     * Primera franja que empieza en o después de la hora indicada.
+     */
+    static int franjaDesde(LocalTime hora) {
+        int minutos = hora.getHour() * 60 + hora.getMinute() + (hora.getSecond() > 0 || hora.getNano() > 0 ? 1 : 0);
+        return (minutos + ReservaFranja.MINUTOS_FRANJA - 1) / ReservaFranja.MINUTOS_FRANJA;
+    }
+
+    static LocalTime horaDe(int franja) {
+        return LocalTime.MIN.plusMinutes((long) franja * ReservaFranja.MINUTOS_FRANJA);
+    }
+
+    /**
+     * Activa las franjas [desde, hasta).
+     */
+    void marcar(int desde, int hasta) {
+        for (int i = Math.max(desde, 0); i < Math.min(hasta, FRANJAS_POR_DIA); i++) {
+            bits[i >>> 6] |= 1L << i;
+        }
+    }
+
+    /**
+     * Desactiva las franjas [desde, hasta).
+     */
+    void desmarcar(int desde, int hasta) {
+        for (int i = Math.max(desde, 0); i < Math.min(hasta, FRANJAS_POR_DIA); i++) {
+            bits[i >>> 6] &= ~(1L << i);
+        }
+    }
+
+    boolean estaVacio() {
+        for (long palabra : bits) {
+            if (palabra != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Franjas i tales que i, i+1, ..., i+longitud-1 están todas activas, es decir, los inicios posibles
+     * de un tramo de esa longitud. Se calcula con log2(longitud) desplazamientos del mapa completo.
+     */
+    MapaFranjasDia inicios(int longitud) {
+        long[] resultado = Arrays.copyOf(bits, PALABRAS);
+        int cubiertas = 1;
+        while (cubiertas < longitud) {
+            int paso = Math.min(cubiertas, longitud - cubiertas);
+            long[] desplazado = desplazar(resultado, paso);
+            for (int i = 0; i < PALABRAS; i++) {
+                resultado[i] &= desplazado[i];
+            }
+            cubiertas += paso;
+        }
+        return new MapaFranjasDia(resultado);
+    }
+
+    void paraCada(IntConsumer accion) {
+        for (int i = 0; i < PALABRAS; i++) {
+            long palabra = bits[i];
+            while (palabra != 0) {
+                int bit = Long.numberOfTrailingZeros(palabra);
+                accion.accept(i * Long.SIZE + bit);
+                palabra &= palabra - 1;
+            }
+        }
+    }
+
+    /**
+     * Desplaza el mapa hacia las franjas anteriores: el bit i del resultado es el bit i+n del original.
+     */
+    private static long[] desplazar(long[] origen, int n) {
+        long[] destino = new long[PALABRAS];
+        int palabras = n >>> 6;
+        int bitsSueltos = n & 63;
+        for (int i = 0; i + palabras < PALABRAS; i++) {
+            long valor = origen[i + palabras] >>> bitsSueltos;
+            if (bitsSueltos != 0 && i + palabras + 1 < PALABRAS) {
+                valor |= origen[i + palabras + 1] << (Long.SIZE - bitsSueltos);
+            }
+            destino[i] = valor;
+        }
+        return destino;
+    }
+}
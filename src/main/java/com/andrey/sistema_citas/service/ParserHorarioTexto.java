@@ -0,0 +1,142 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.DisponibilidadSemanalDTO;
+
+import java.text.Normalizer;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Interpreta los horarios escritos como texto libre en Profesional.horarioDisponible, por ejemplo
+ * "Lunes a Viernes 8:00 - 17:00", "Lun, Mié y Vie 9am-1pm; Sábado 9 a 12" o "martes 8-12 y 14-18".
+ * Cada rango de horas se aplica a los días mencionados justo antes (o a los del rango anterior).
+ * Si algún fragmento no se entiende, no se devuelve nada: es preferible no migrar a migrar mal.
+ */
+final class ParserHorarioTexto {
+
+    private static final Pattern RANGO_HORAS = Pattern.compile(
+            "\\b(\\d{1,2})(?:[:.](\\d{2}))?\\s*(am|pm|h|hrs)?\\s*(?:-|–|a|hasta)\\s*(\\d{1,2})(?:[:.](\\d{2}))?\\s*(am|pm|h|hrs)?\\b");
+
+    private static final Pattern PALABRA = Pattern.compile("[a-z]+");
+
+    private static final Map<String, DayOfWeek> DIAS = Map.ofEntries(
+            Map.entry("lunes", DayOfWeek.MONDAY), Map.entry("lun", DayOfWeek.MONDAY),
+            Map.entry("martes", DayOfWeek.TUESDAY), Map.entry("mar", DayOfWeek.TUESDAY),
+            Map.entry("miercoles", DayOfWeek.WEDNESDAY), Map.entry("mie", DayOfWeek.WEDNESDAY),
+            Map.entry("jueves", DayOfWeek.THURSDAY), Map.entry("jue", DayOfWeek.THURSDAY),
+            Map.entry("viernes", DayOfWeek.FRIDAY), Map.entry("vie", DayOfWeek.FRIDAY),
+            Map.entry("sabado", DayOfWeek.SATURDAY), Map.entry("sab", DayOfWeek.SATURDAY),
+            Map.entry("domingo", DayOfWeek.SUNDAY), Map.entry("dom", DayOfWeek.SUNDAY));
+
+    private ParserHorarioTexto() {
+    }
+
+    static Optional<List<DisponibilidadSemanalDTO>> parsear(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return Optional.empty();
+        }
+        String normalizado = Normalizer.normalize(texto, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+
+        List<DisponibilidadSemanalDTO> tramos = new ArrayList<>();
+        Set<DayOfWeek> diasActuales = EnumSet.noneOf(DayOfWeek.class);
+        int posicion = 0;
+
+        Matcher rango = RANGO_HORAS.matcher(normalizado);
+        while (rango.find()) {
+            String antes = normalizado.substring(posicion, rango.start());
+            if (!antes.isBlank()) {
+                Optional<Set<DayOfWeek>> dias = dias(antes);
+                if (dias.isPresent()) {
+                    diasActuales = dias.get();
+                } else if (!esConector(antes)) {
+                    return Optional.empty();
+                }
+            }
+            if (diasActuales.isEmpty()) {
+                return Optional.empty();
+            }
+
+            LocalTime fin = hora(rango.group(4), rango.group(5), rango.group(6));
+            LocalTime inicio = hora(rango.group(1), rango.group(2), rango.group(3));
+            if (rango.group(3) == null && rango.group(6) != null) {
+                // "2-6pm": el sufijo final también vale para el inicio, salvo que lo deje después del fin ("9-1pm")
+                LocalTime conSufijo = hora(rango.group(1), rango.group(2), rango.group(6));
+                if (conSufijo != null && fin != null && conSufijo.isBefore(fin)) {
+                    inicio = conSufijo;
+                }
+            }
+            if (inicio == null || fin == null || !inicio.isBefore(fin)) {
+                return Optional.empty();
+            }
+            for (DayOfWeek dia : diasActuales) {
+                tramos.add(new DisponibilidadSemanalDTO(dia, inicio, fin));
+            }
+            posicion = rango.end();
+        }
+
+        if (tramos.isEmpty() || !normalizado.substring(posicion).replaceAll("[\\s.;,]", "").isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(tramos);
+    }
+
+    /**
+     * Días mencionados en un fragmento: listas ("lunes, miercoles y viernes") y rangos ("lunes a viernes").
+     * Vacío si el fragmento no menciona ningún día o contiene palabras desconocidas.
+     */
+    private static Optional<Set<DayOfWeek>> dias(String fragmento) {
+        Set<DayOfWeek> dias = EnumSet.noneOf(DayOfWeek.class);
+        DayOfWeek anterior = null;
+        boolean enRango = false;
+
+        Matcher palabra = PALABRA.matcher(fragmento.replace("-", " a "));
+        while (palabra.find()) {
+            String token = palabra.group();
+            DayOfWeek dia = DIAS.get(token);
+            if (dia != null) {
+                if (enRango && anterior != null) {
+                    for (int i = anterior.getValue(); i != dia.getValue(); i = i % 7 + 1) {
+                        dias.add(DayOfWeek.of(i));
+                    }
+                }
+                dias.add(dia);
+                anterior = dia;
+                enRango = false;
+            } else if (token.equals("a") || token.equals("al") || token.equals("hasta")) {
+                enRango = anterior != null;
+            } else if (!token.equals("y") && !token.equals("de") && !token.equals("del") && !token.equals("e")) {
+                return Optional.empty();
+            }
+        }
+        return dias.isEmpty() ? Optional.empty() : Optional.of(dias);
+    }
+
+    private static boolean esConector(String fragmento) {
+        return fragmento.replaceAll("[\\s,;.]|\\by\\b|\\bde\\b", "").isEmpty();
+    }
+
+    private static LocalTime hora(String horas, String minutos, String sufijo) {
+        int h = Integer.parseInt(horas);
+        int m = minutos != null ? Integer.parseInt(minutos) : 0;
+        if ("pm".equals(sufijo) && h < 12) {
+            h += 12;
+        } else if ("am".equals(sufijo) && h == 12) {
+            h = 0;
+        }
+        if (h > 23 || m > 59) {
+            return null;
+        }
+        return LocalTime.of(h, m);
+    }
+}
@@ -1,33 +1,92 @@
 package com.andrey.sistema_citas.service;
 
+import com.andrey.sistema_citas.dto.DisponibilidadSemanalDTO;
+import com.andrey.sistema_citas.dto.ExcepcionDisponibilidadDTO;
+import com.andrey.sistema_citas.dto.HorarioProfesionalDTO;
 import com.andrey.sistema_citas.dto.ProfesionalCreateDTO;
 import com.andrey.sistema_citas.dto.ProfesionalResponseDTO;
 import com.andrey.sistema_citas.dto.ProfesionalUpdateDTO;
+import com.andrey.sistema_citas.entity.DisponibilidadSemanal;
+import com.andrey.sistema_citas.entity.ExcepcionDisponibilidad;
 import com.andrey.sistema_citas.entity.Profesional;
 import com.andrey.sistema_citas.entity.Role;
 import com.andrey.sistema_citas.entity.Usuario;
+import com.andrey.sistema_citas.exception.BusinessRuleException;
 import com.andrey.sistema_citas.exception.DuplicateResourceException;
 import com.andrey.sistema_citas.exception.ResourceNotFoundException;
 import com.andrey.sistema_citas.mapper.ProfesionalMapper;
+import com.andrey.sistema_citas.repository.DisponibilidadSemanalRepository;
+import com.andrey.sistema_citas.repository.ExcepcionDisponibilidadRepository;
 import com.andrey.sistema_citas.repository.ProfesionalRepository;
 import com.andrey.sistema_citas.repository.UsuarioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
+/**
+ * Profesionales y sus horarios. Los horarios compilados se guardan en memoria por instancia junto con la
+ * versión de horario (profesional.version_horario) con la que se leyeron: cada cambio de horario incrementa
+ * la versión en la misma transacción y, al confirmarse, deja en su lugar una marca con la versión nueva, así
+ * que una carga que leyó el horario anterior nunca puede sobrescribirla. Las demás instancias comparan cada
+ * {@code agenda.horarios.sincronizacion} (10 segundos por defecto) sus versiones con las de la base de datos,
+ * de modo que un horario cambiado en otra instancia se sirve viejo como mucho durante ese intervalo.
+ */
 @Service
 @Transactional
 public class ProfesionalService {
 
+    private static final Logger log = LoggerFactory.getLogger(ProfesionalService.class);
+
     private final ProfesionalRepository profesionalRepository;
     private final UsuarioRepository usuarioRepository;
+    private final DisponibilidadSemanalRepository disponibilidadSemanalRepository;
+    private final ExcepcionDisponibilidadRepository excepcionDisponibilidadRepository;
+
+    // Horario de los profesionales que aún no tienen tramos semanales
+    private final HorarioProfesional jornadaPorDefecto;
+
+    // Horarios compilados por profesional con la versión de horario con la que se cargaron
+    private final Map<Long, Entrada> horarios = new ConcurrentHashMap<>();
+
+    // Horario compilado y su versión; sin horario es una marca que obliga a recargar desde esa versión
+    record Entrada(long version, HorarioProfesional horario) {
+
+        static Entrada marca(long version) {
+            return new Entrada(version, null);
+        }
+    }
 
     public ProfesionalService(ProfesionalRepository profesionalRepository,
-                              UsuarioRepository usuarioRepository) {
+                              UsuarioRepository usuarioRepository,
+                              DisponibilidadSemanalRepository disponibilidadSemanalRepository,
+                              ExcepcionDisponibilidadRepository excepcionDisponibilidadRepository,
+                              @Value("${agenda.jornada.inicio:08:00}") LocalTime inicioJornada,
+                              @Value("${agenda.jornada.fin:18:00}") LocalTime finJornada,
+                              @Value("${agenda.jornada.dias:MONDAY,TUESDAY,WEDNESDAY,THURSDAY,FRIDAY}") Set<DayOfWeek> diasLaborables) {
         this.profesionalRepository = profesionalRepository;
         this.usuarioRepository = usuarioRepository;
+        this.disponibilidadSemanalRepository = disponibilidadSemanalRepository;
+        this.excepcionDisponibilidadRepository = excepcionDisponibilidadRepository;
+        this.jornadaPorDefecto = HorarioProfesional.jornadaFija(inicioJornada, finJornada, diasLaborables);
     }
 
     public ProfesionalResponseDTO crearProfesional(ProfesionalCreateDTO dto) {
@@ -68,6 +127,8 @@ public class ProfesionalService {
         }
 
         profesionalRepository.deleteById(id);
+        // La marca impide que una carga en curso vuelva a guardar el horario; la sincronización la quita
+        SincronizacionTransaccion.despuesDelCommit(() -> invalidar(id, Long.MAX_VALUE));
     }
 
     public List<ProfesionalResponseDTO> obtenerTodosLosProfesionales() {
@@ -96,6 +157,194 @@ public class ProfesionalService {
         return ProfesionalMapper.toResponse(profesional);
     }
 
+    public HorarioProfesionalDTO obtenerHorario(Long id) {
+        if (!profesionalRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Profesional no encontrado con id: " + id);
+        }
+
+        List<DisponibilidadSemanalDTO> semanal = disponibilidadSemanalRepository.findByProfesionalId(id)
+                .stream()
+                .map(tramo -> new DisponibilidadSemanalDTO(tramo.getDiaSemana(), tramo.getHoraInicio(), tramo.getHoraFin()))
+                .collect(Collectors.toList());
+        List<ExcepcionDisponibilidadDTO> excepciones = excepcionDisponibilidadRepository.findByProfesionalIdDesde(id, LocalDate.now())
+                .stream()
+                .map(e -> new ExcepcionDisponibilidadDTO(e.getFecha(), e.getHoraInicio(), e.getHoraFin(), e.isDisponible()))
+                .collect(Collectors.toList());
+
+        return new HorarioProfesionalDTO(id, semanal, excepciones);
+    }
+
+    /**
+     * Reemplaza el horario semanal y las excepciones del profesional por los recibidos.
+     */
+    public HorarioProfesionalDTO actualizarHorario(Long id, HorarioProfesionalDTO dto) {
+        Profesional profesional = profesionalRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Profesional no encontrado con id: " + id));
+
+        List<ExcepcionDisponibilidadDTO> excepciones = dto.getExcepciones() != null ? dto.getExcepciones() : List.of();
+        reemplazarHorario(profesional, dto.getSemanal(), excepciones);
+        profesionalRepository.save(profesional);
+
+        return obtenerHorario(id);
+    }
+
+    /**
+     * Horario compilado del profesional para cálculos de disponibilidad. Se construye una vez y se
+     * sirve desde memoria hasta que cambie; sin tramos semanales se usa la jornada configurada.
+     */
+    public HorarioProfesional obtenerHorarioCompilado(Long id) {
+        Entrada entrada = horarios.get(id);
+        if (entrada != null && entrada.horario() != null) {
+            return entrada.horario();
+        }
+
+        // La versión se lee antes que los tramos: si cambian entre medias, la entrada queda por detrás de la marca
+        long version = profesionalRepository.findVersionHorario(id).orElse(0L);
+        List<DisponibilidadSemanal> tramos = disponibilidadSemanalRepository.findByProfesionalId(id);
+        HorarioProfesional horario = tramos.isEmpty()
+                ? jornadaPorDefecto
+                : HorarioProfesional.compilar(tramos, excepcionDisponibilidadRepository.findByProfesionalIdDesde(id, LocalDate.now()));
+        guardarEnCache(id, version, horario);
+        return horario;
+    }
+
+    /**
+     * Horarios compilados de varios profesionales. Los que no están en caché se cargan con dos consultas en total.
+     */
+    public Map<Long, HorarioProfesional> obtenerHorariosCompilados(Collection<Long> ids) {
+        Map<Long, HorarioProfesional> resultado = new HashMap<>();
+        List<Long> pendientes = new ArrayList<>();
+        for (Long id : ids) {
+            Entrada entrada = horarios.get(id);
+            if (entrada != null && entrada.horario() != null) {
+                resultado.put(id, entrada.horario());
+            } else {
+                pendientes.add(id);
+            }
+        }
+        if (pendientes.isEmpty()) {
+            return resultado;
+        }
+
+        Map<Long, Long> versiones = profesionalRepository.findVersionesHorarioByIdIn(pendientes)
+                .stream()
+                .collect(Collectors.toMap(fila -> (Long) fila[0], fila -> (Long) fila[1]));
+        Map<Long, List<DisponibilidadSemanal>> tramos = disponibilidadSemanalRepository.findByProfesionalIdIn(pendientes)
+                .stream()
+                .collect(Collectors.groupingBy(tramo -> tramo.getProfesional().getId()));
+        Map<Long, List<ExcepcionDisponibilidad>> excepciones = excepcionDisponibilidadRepository
+                .findByProfesionalIdInDesde(pendientes, LocalDate.now())
+                .stream()
+                .collect(Collectors.groupingBy(excepcion -> excepcion.getProfesional().getId()));
+
+        for (Long id : pendientes) {
+            List<DisponibilidadSemanal> tramosProfesional = tramos.getOrDefault(id, List.of());
+            HorarioProfesional horario = tramosProfesional.isEmpty()
+                    ? jornadaPorDefecto
+                    : HorarioProfesional.compilar(tramosProfesional, excepciones.getOrDefault(id, List.of()));
+            guardarEnCache(id, versiones.getOrDefault(id, 0L), horario);
+            resultado.put(id, horario);
+        }
+        return resultado;
+    }
+
+    /**
+     * Descarta los horarios en memoria que otra instancia ha cambiado o borrado desde que se cargaron.
+     */
+    @Scheduled(fixedDelayString = "${agenda.horarios.sincronizacion:PT10S}")
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public void sincronizarHorarios() {
+        if (horarios.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> versiones = new HashMap<>();
+        for (Object[] fila : profesionalRepository.findVersionesHorario()) {
+            versiones.put((Long) fila[0], (Long) fila[1]);
+        }
+        versiones.forEach((id, version) -> horarios.computeIfPresent(id, (clave, actual) ->
+                actual.version() < version ? Entrada.marca(version) : actual));
+        horarios.keySet().retainAll(versiones.keySet());
+    }
+
+    /**
+     * Convierte a horario semanal el texto libre de horarioDisponible de los profesionales que aún no lo tienen.
+     * Los textos que no se pueden interpretar se dejan como están y se registran para revisarlos a mano.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrarHorariosTexto() {
+        List<Profesional> pendientes = profesionalRepository.findConHorarioSinMigrar();
+        int migrados = 0;
+
+        for (Profesional profesional : pendientes) {
+            Optional<List<DisponibilidadSemanalDTO>> tramos = ParserHorarioTexto.parsear(profesional.getHorarioDisponible());
+            if (tramos.isEmpty()) {
+                log.warn("No se pudo interpretar el horario del profesional {}: '{}'",
+                        profesional.getId(), profesional.getHorarioDisponible());
+                continue;
+            }
+            reemplazarHorario(profesional, tramos.get(), List.of());
+            migrados++;
+        }
+
+        if (!pendientes.isEmpty()) {
+            log.info("Horarios migrados a formato semanal: {} de {}", migrados, pendientes.size());
+        }
+    }
+
+    private void reemplazarHorario(Profesional profesional, List<DisponibilidadSemanalDTO> semanal,
+                                   List<ExcepcionDisponibilidadDTO> excepciones) {
+        for (DisponibilidadSemanalDTO tramo : semanal) {
+            validarRango(tramo.getHoraInicio(), tramo.getHoraFin());
+        }
+        for (ExcepcionDisponibilidadDTO excepcion : excepciones) {
+            if (excepcion.getHoraInicio() == null && excepcion.getHoraFin() == null) {
+                if (excepcion.isDisponible()) {
+                    throw new BusinessRuleException("Una excepción de disponibilidad extra debe indicar el rango de horas");
+                }
+            } else {
+                validarRango(excepcion.getHoraInicio(), excepcion.getHoraFin());
+            }
+        }
+
+        // orphanRemoval borra los tramos anteriores al hacer flush
+        profesional.getDisponibilidadSemanal().clear();
+        for (DisponibilidadSemanalDTO tramo : semanal) {
+            profesional.getDisponibilidadSemanal().add(new DisponibilidadSemanal(
+                    profesional, tramo.getDiaSemana(), tramo.getHoraInicio(), tramo.getHoraFin()));
+        }
+        profesional.getExcepcionesDisponibilidad().clear();
+        for (ExcepcionDisponibilidadDTO excepcion : excepciones) {
+            profesional.getExcepcionesDisponibilidad().add(new ExcepcionDisponibilidad(
+                    profesional, excepcion.getFecha(), excepcion.getHoraInicio(), excepcion.getHoraFin(), excepcion.isDisponible()));
+        }
+
+        Long id = profesional.getId();
+        profesionalRepository.incrementarVersionHorario(id);
+        long version = profesionalRepository.findVersionHorario(id).orElseThrow();
+        SincronizacionTransaccion.despuesDelCommit(() -> invalidar(id, version));
+    }
+
+    // Guarda el horario salvo que la caché ya tenga una versión más reciente (o la marca de un cambio posterior)
+    private void guardarEnCache(Long id, long version, HorarioProfesional horario) {
+        horarios.compute(id, (clave, actual) ->
+                actual == null || actual.version() < version
+                        || (actual.version() == version && actual.horario() == null)
+                        ? new Entrada(version, horario)
+                        : actual);
+    }
+
+    // Deja la marca de la versión nueva aunque no haya entrada, para que una carga más lenta no guarde la anterior
+    private void invalidar(Long id, long version) {
+        horarios.compute(id, (clave, actual) ->
+                actual == null || actual.version() < version ? Entrada.marca(version) : actual);
+    }
+
+    private static void validarRango(LocalTime inicio, LocalTime fin) {
+        if (inicio == null || fin == null || !inicio.isBefore(fin)) {
+            throw new BusinessRuleException("La hora de inicio debe ser anterior a la hora de fin");
+        }
+    }
+
     // --- Métodos de disponibilidad comentados ---
     // Estos métodos dependen de consultas en el repositorio que comparan un String con LocalDateTime,
     // lo cual no es fiable. La lógica de disponibilidad debe manejarse en el servicio parseando el string.
@@ -0,0 +1,168 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.entity.Cita;
+import com.andrey.sistema_citas.entity.ReservaFranja;
+import com.andrey.sistema_citas.entity.ReservaFranjaUsuario;
+import com.andrey.sistema_citas.exception.BusinessRuleException;
+import com.andrey.sistema_citas.repository.CitaRepository;
+import com.andrey.sistema_citas.repository.ReservaFranjaRepository;
+import com.andrey.sistema_citas.repository.ReservaFranjaUsuarioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reserva en base de datos las franjas de agenda que ocupa cada cita activa, tanto del profesional
+ * (reserva_franja) como del usuario (reserva_franja_usuario).
+ * Es la garantía de no solapamiento entre varias instancias de la aplicación: el índice en memoria
+ * y los bloqueos solo ven las reservas hechas en la propia instancia.
+ */
+@Service
+@Transactional
+public class ReservaFranjaService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservaFranjaService.class);
+
+    static final String PROFESIONAL_OCUPADO = "El profesional no está disponible en ese horario";
+    static final String USUARIO_OCUPADO = "Ya tienes una cita programada en ese horario";
+
+    private final ReservaFranjaRepository reservaFranjaRepository;
+    private final ReservaFranjaUsuarioRepository reservaFranjaUsuarioRepository;
+    private final CitaRepository citaRepository;
+
+    public ReservaFranjaService(ReservaFranjaRepository reservaFranjaRepository,
+                                ReservaFranjaUsuarioRepository reservaFranjaUsuarioRepository,
+                                CitaRepository citaRepository) {
+        this.reservaFranjaRepository = reservaFranjaRepository;
+        this.reservaFranjaUsuarioRepository = reservaFranjaUsuarioRepository;
+        this.citaRepository = citaRepository;
+    }
+
+    /**
+     * Reserva las franjas de [inicio, fin) para el profesional y para el usuario. Las inserciones se envían
+     * juntas al hacer flush; si alguna franja ya está reservada, la restricción de clave primaria las rechaza.
+     */
+    public void reservar(Long profesionalId, Long usuarioId, Long citaId, LocalDateTime inicio, LocalDateTime fin) {
+        List<LocalDateTime> franjas = ReservaFranja.franjasEntre(inicio, fin);
+        insertar(reservaFranjaRepository, franjas.stream()
+                .map(franja -> new ReservaFranja(profesionalId, franja, citaId))
+                .toList(), PROFESIONAL_OCUPADO);
+        insertar(reservaFranjaUsuarioRepository, franjas.stream()
+                .map(franja -> new ReservaFranjaUsuario(usuarioId, franja, citaId))
+                .toList(), USUARIO_OCUPADO);
+    }
+
+    /**
+     * Reserva las franjas de varias citas ya guardadas en un flush por tabla, de modo que las inserciones
+     * viajan agrupadas en lotes JDBC. Si alguna franja está ocupada se rechazan todas.
+     */
+    public void reservar(Collection<Cita> citas) {
+        insertar(reservaFranjaRepository, citas.stream()
+                .flatMap(cita -> ReservaFranja.franjasEntre(cita.getFechaHora(), cita.getFechaFin())
+                        .stream()
+                        .map(franja -> new ReservaFranja(cita.getProfesional().getId(), franja, cita.getId())))
+                .toList(), PROFESIONAL_OCUPADO);
+        insertar(reservaFranjaUsuarioRepository, citas.stream()
+                .flatMap(cita -> ReservaFranja.franjasEntre(cita.getFechaHora(), cita.getFechaFin())
+                        .stream()
+                        .map(franja -> new ReservaFranjaUsuario(cita.getUsuario().getId(), franja, cita.getId())))
+                .toList(), USUARIO_OCUPADO);
+    }
+
+    /**
+     * Reserva las franjas de [inicio, fin) a nombre de una retención de horario, con la misma
+     * garantía frente a otras instancias que las reservas de citas.
+     */
+    public void retener(Long profesionalId, Long usuarioId, String retencionId, LocalDateTime inicio, LocalDateTime fin) {
+        List<LocalDateTime> franjas = ReservaFranja.franjasEntre(inicio, fin);
+        insertar(reservaFranjaRepository, franjas.stream()
+                .map(franja -> new ReservaFranja(profesionalId, franja, retencionId))
+                .toList(), PROFESIONAL_OCUPADO);
+        insertar(reservaFranjaUsuarioRepository, franjas.stream()
+                .map(franja -> new ReservaFranjaUsuario(usuarioId, franja, retencionId))
+                .toList(), USUARIO_OCUPADO);
+    }
+
+    /**
+     * Asigna a la cita las franjas del profesional retenidas. Si no están todas (la retención venció
+     * o se liberó entretanto), se rechaza la confirmación. Las del usuario se vuelven a insertar a nombre
+     * de la cita, lo que cubre también las retenciones creadas antes de existir reserva_franja_usuario.
+     */
+    public void convertirRetencion(String retencionId, Long usuarioId, Long citaId, LocalDateTime inicio, LocalDateTime fin) {
+        List<LocalDateTime> franjas = ReservaFranja.franjasEntre(inicio, fin);
+        if (reservaFranjaRepository.asignarRetencionACita(retencionId, citaId) != franjas.size()) {
+            throw new BusinessRuleException("La retención del horario ya no es válida");
+        }
+        reservaFranjaUsuarioRepository.deleteByRetencionId(retencionId);
+        reservaFranjaUsuarioRepository.flush();
+        insertar(reservaFranjaUsuarioRepository, franjas.stream()
+                .map(franja -> new ReservaFranjaUsuario(usuarioId, franja, citaId))
+                .toList(), USUARIO_OCUPADO);
+    }
+
+    public void liberarRetencion(String retencionId) {
+        reservaFranjaRepository.deleteByRetencionId(retencionId);
+        reservaFranjaUsuarioRepository.deleteByRetencionId(retencionId);
+    }
+
+    private static <T> void insertar(JpaRepository<T, ?> repositorio, List<T> reservas, String ocupado) {
+        try {
+            repositorio.saveAll(reservas);
+            repositorio.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw new BusinessRuleException(ocupado, e);
+        }
+    }
+
+    public void liberar(Long citaId) {
+        reservaFranjaRepository.deleteByCitaId(citaId);
+        reservaFranjaUsuarioRepository.deleteByCitaId(citaId);
+    }
+
+    public void liberar(Collection<Long> citaIds) {
+        if (!citaIds.isEmpty()) {
+            reservaFranjaRepository.deleteByCitaIdIn(citaIds);
+            reservaFranjaUsuarioRepository.deleteByCitaIdIn(citaIds);
+        }
+    }
+
+    /**
+     * Reserva las franjas de las citas activas creadas antes de existir las tablas de reservas.
+     * Si dos citas antiguas ya se solapaban, la franja queda para la primera y se registra un aviso.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(2)
+    public void completarReservasPendientes() {
+        LocalDateTime ahora = LocalDateTime.now();
+
+        for (Object[] fila : citaRepository.findIntervalosActivosSinReservas(IndiceAgenda.ESTADOS_ACTIVOS, ahora)) {
+            Long citaId = (Long) fila[0];
+            Long profesionalId = (Long) fila[1];
+            for (LocalDateTime franja : ReservaFranja.franjasEntre((LocalDateTime) fila[2], (LocalDateTime) fila[3])) {
+                if (reservaFranjaRepository.insertIgnorandoDuplicados(profesionalId, franja, citaId) == 0) {
+                    log.warn("La cita {} se solapa con otra cita del profesional {} en la franja {}", citaId, profesionalId, franja);
+                }
+            }
+        }
+
+        for (Object[] fila : citaRepository.findIntervalosActivosSinReservasUsuario(IndiceAgenda.ESTADOS_ACTIVOS, ahora)) {
+            Long citaId = (Long) fila[0];
+            Long usuarioId = (Long) fila[1];
+            for (LocalDateTime franja : ReservaFranja.franjasEntre((LocalDateTime) fila[2], (LocalDateTime) fila[3])) {
+                if (reservaFranjaUsuarioRepository.insertIgnorandoDuplicados(usuarioId, franja, citaId) == 0) {
+                    log.warn("La cita {} se solapa con otra cita del usuario {} en la franja {}", citaId, usuarioId, franja);
+                }
+            }
+        }
+    }
+}
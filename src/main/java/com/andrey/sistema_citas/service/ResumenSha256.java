@@ -0,0 +1,27 @@
+package com.andrey.sistema_citas.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 en hexadecimal. Lo usan las claves de idempotencia, la caché de tokens verificados de JwtUtil
+ * y los tokens de refresco, que solo se guardan resumidos.
+ */
+public final class ResumenSha256 {
+
+    private ResumenSha256() {}
+
+    public static String de(byte[] datos) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(datos));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    public static String de(String texto) {
+        return de(texto.getBytes(StandardCharsets.UTF_8));
+    }
+}
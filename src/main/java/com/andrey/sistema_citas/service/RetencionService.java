@@ -0,0 +1,239 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.CitaCreateDTO;
+import com.andrey.sistema_citas.dto.CitaResponseDTO;
+import com.andrey.sistema_citas.dto.RetencionDTO;
+import com.andrey.sistema_citas.entity.RetencionFranja;
+import com.andrey.sistema_citas.exception.BusinessRuleException;
+import com.andrey.sistema_citas.exception.ResourceNotFoundException;
+import com.andrey.sistema_citas.repository.CitaRepository;
+import com.andrey.sistema_citas.repository.DatosValidacionCita;
+import com.andrey.sistema_citas.repository.RetencionFranjaRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Retenciones de horario: mientras el paciente confirma la cita, el horario elegido queda reservado
+ * a su nombre durante unos minutos y cuenta como conflicto para el resto de reservas.
+ * El vencimiento lo dispara una rueda temporizadora en memoria, sin consultar periódicamente la base de datos;
+ * la rueda solo entrega cada vencimiento a un pool propio ({@code retencion.hilos}), que es el que abre la
+ * transacción, para que una base de datos lenta no retrase el resto de ticks. Al arrancar se vuelven a
+ * programar las retenciones guardadas.
+ */
+@Service
+@Transactional
+public class RetencionService {
+
+    private static final Logger log = LoggerFactory.getLogger(RetencionService.class);
+
+    // Ticks de un segundo y 512 ranuras: una vuelta dura más que cualquier retención habitual
+    private static final Duration RESOLUCION_RUEDA = Duration.ofSeconds(1);
+    private static final int RANURAS_RUEDA = 512;
+
+    private final RetencionFranjaRepository retencionFranjaRepository;
+    private final CitaRepository citaRepository;
+    private final CitaService citaService;
+    private final ReservaFranjaService reservaFranjaService;
+    private final IndiceAgenda indiceAgenda;
+    private final BloqueosAgenda bloqueosAgenda;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration duracion;
+
+    private final RuedaTemporizadora rueda = new RuedaTemporizadora(RESOLUCION_RUEDA, RANURAS_RUEDA, "retenciones-agenda");
+    private final Map<String, RuedaTemporizadora.Temporizador> vencimientos = new ConcurrentHashMap<>();
+
+    // Libera las retenciones vencidas; la cola no tiene límite para no perder ningún vencimiento
+    private final ExecutorService liberaciones;
+
+    public RetencionService(RetencionFranjaRepository retencionFranjaRepository,
+                            CitaRepository citaRepository,
+                            CitaService citaService,
+                            ReservaFranjaService reservaFranjaService,
+                            IndiceAgenda indiceAgenda,
+                            BloqueosAgenda bloqueosAgenda,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${retencion.duracion:PT5M}") Duration duracion,
+                            @Value("${retencion.hilos:2}") int hilos) {
+        this.retencionFranjaRepository = retencionFranjaRepository;
+        this.citaRepository = citaRepository;
+        this.citaService = citaService;
+        this.reservaFranjaService = reservaFranjaService;
+        this.indiceAgenda = indiceAgenda;
+        this.bloqueosAgenda = bloqueosAgenda;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.duracion = duracion;
+
+        AtomicInteger contador = new AtomicInteger();
+        this.liberaciones = Executors.newFixedThreadPool(hilos, tarea -> {
+            Thread hilo = new Thread(tarea, "retenciones-liberacion-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Retiene el horario pedido con las mismas comprobaciones que al agendar una cita.
+     */
+    public RetencionDTO retener(CitaCreateDTO dto) {
+        Long usuarioId = dto.getUsuarioId();
+        Long profesionalId = dto.getProfesionalId();
+
+        DatosValidacionCita datos = citaRepository.findDatosValidacion(usuarioId, dto.getServicioId(), profesionalId);
+        CitaService.validarReferencias(datos, dto);
+
+        LocalDateTime inicio = dto.getFechaHora();
+        LocalDateTime fin = inicio.plusMinutes(
+                ServicioService.duracionEnMinutos(datos.getServicioDuracionMinutos(), datos.getServicioDuracion()));
+        LocalDateTime expira = LocalDateTime.now().plus(duracion);
+
+        String id = UUID.randomUUID().toString();
+        long clave = IndiceAgenda.claveRetencion(id);
+        RetencionFranja retencion = new RetencionFranja(id, profesionalId, usuarioId, dto.getServicioId(), inicio, fin, expira);
+
+        bloqueosAgenda.ejecutar(profesionalId, usuarioId, () -> {
+            citaService.verificarDisponibilidad(profesionalId, usuarioId, inicio, fin, null);
+            retencionFranjaRepository.save(retencion);
+            reservaFranjaService.retener(profesionalId, usuarioId, id, inicio, fin);
+            indiceAgenda.registrarEnCurso(clave, profesionalId, usuarioId, inicio, fin);
+            return retencion;
+        });
+        SincronizacionTransaccion.alRevertir(() -> indiceAgenda.eliminar(clave));
+        SincronizacionTransaccion.despuesDelCommit(() -> programarVencimiento(id, expira));
+
+        return toDTO(retencion);
+    }
+
+    public RetencionDTO obtenerRetencion(String id) {
+        return toDTO(buscarVigente(id));
+    }
+
+    /**
+     * Convierte la retención en una cita PENDIENTE en el mismo horario.
+     */
+    public CitaResponseDTO confirmar(String id) {
+        RetencionFranja retencion = buscarVigente(id);
+
+        CitaCreateDTO dto = new CitaCreateDTO();
+        dto.setUsuarioId(retencion.getUsuarioId());
+        dto.setServicioId(retencion.getServicioId());
+        dto.setProfesionalId(retencion.getProfesionalId());
+        dto.setFechaHora(retencion.getFechaHora());
+
+        CitaResponseDTO cita = citaService.agendarCitaRetenida(dto, id);
+        retencionFranjaRepository.eliminar(id);
+        SincronizacionTransaccion.despuesDelCommit(() -> olvidar(id));
+        return cita;
+    }
+
+    public void liberar(String id) {
+        if (!retencionFranjaRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Retención no encontrada con ID: " + id);
+        }
+        reservaFranjaService.liberarRetencion(id);
+        retencionFranjaRepository.eliminar(id);
+        SincronizacionTransaccion.despuesDelCommit(() -> olvidar(id));
+    }
+
+    /**
+     * Vuelve a registrar en el índice y en la rueda las retenciones guardadas y libera las que vencieron
+     * mientras la aplicación estaba detenida. Se ejecuta después de precargar el índice de agenda.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(4)
+    public void restaurarRetenciones() {
+        List<RetencionFranja> retenciones = retencionFranjaRepository.findAll();
+        LocalDateTime ahora = LocalDateTime.now();
+
+        for (RetencionFranja retencion : retenciones) {
+            if (retencion.getExpira().isAfter(ahora)) {
+                indiceAgenda.registrar(IndiceAgenda.claveRetencion(retencion.getId()), retencion.getProfesionalId(),
+                        retencion.getUsuarioId(), retencion.getFechaHora(), retencion.getFechaFin());
+                programarVencimiento(retencion.getId(), retencion.getExpira());
+            } else {
+                reservaFranjaService.liberarRetencion(retencion.getId());
+                retencionFranjaRepository.eliminar(retencion.getId());
+            }
+        }
+    }
+
+    @PreDestroy
+    void detener() {
+        rueda.detener();
+        liberaciones.shutdownNow();
+    }
+
+    private RetencionFranja buscarVigente(String id) {
+        RetencionFranja retencion = retencionFranjaRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Retención no encontrada con ID: " + id));
+        if (!retencion.getExpira().isAfter(LocalDateTime.now())) {
+            throw new BusinessRuleException("La retención del horario ha vencido");
+        }
+        return retencion;
+    }
+
+    private void programarVencimiento(String id, LocalDateTime expira) {
+        Duration retraso = Duration.between(LocalDateTime.now(), expira);
+        vencimientos.put(id, rueda.programar(retraso, () -> entregarVencimiento(id)));
+    }
+
+    // Se ejecuta en el hilo de la rueda: solo entrega el vencimiento al pool
+    private void entregarVencimiento(String id) {
+        try {
+            liberaciones.execute(() -> vencer(id));
+        } catch (RejectedExecutionException e) {
+            // Solo ocurre al detener la aplicación; restaurarRetenciones la libera en el siguiente arranque
+            log.debug("Vencimiento de la retención {} descartado al detener la aplicación", id);
+        }
+    }
+
+    /**
+     * Se ejecuta en el pool de liberaciones. Si la retención ya se confirmó o liberó, los borrados no afectan a ninguna fila.
+     */
+    private void vencer(String id) {
+        vencimientos.remove(id);
+        try {
+            transactionTemplate.executeWithoutResult(estado -> {
+                reservaFranjaService.liberarRetencion(id);
+                retencionFranjaRepository.eliminar(id);
+            });
+            indiceAgenda.eliminar(IndiceAgenda.claveRetencion(id));
+        } catch (RuntimeException e) {
+            // Se vuelve a intentar en el siguiente tick; mientras tanto las franjas siguen retenidas
+            log.warn("No se pudo liberar la retención vencida {}: {}", id, e.getMessage());
+            vencimientos.put(id, rueda.programar(RESOLUCION_RUEDA, () -> entregarVencimiento(id)));
+        }
+    }
+
+    private void olvidar(String id) {
+        RuedaTemporizadora.Temporizador temporizador = vencimientos.remove(id);
+        if (temporizador != null) {
+            temporizador.cancelar();
+        }
+        indiceAgenda.eliminar(IndiceAgenda.claveRetencion(id));
+    }
+
+    private static RetencionDTO toDTO(RetencionFranja retencion) {
+        return new RetencionDTO(retencion.getId(), retencion.getUsuarioId(), retencion.getServicioId(),
+                retencion.getProfesionalId(), retencion.getFechaHora(), retencion.getFechaFin(), retencion.getExpira());
+    }
+}
@@ -0,0 +1,113 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.entity.TokenRevocado;
+import com.andrey.sistema_citas.repository.TokenRefrescoRepository;
+import com.andrey.sistema_citas.repository.TokenRevocadoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Tokens de acceso revocados antes de vencer. JwtAuthenticationFilter los comprueba en cada petición contra
+ * un filtro de Bloom en memoria, sin consultar la base de datos; solo los "puede que esté" (revocados de
+ * verdad o algún falso positivo) se confirman en la tabla token_revocado. Cada instancia lee periódicamente
+ * las filas nuevas de la tabla por revocado_en, con un margen para tolerar desfases de reloj entre instancias,
+ * y cada hora reconstruye el filtro solo con los tokens que aún no han vencido.
+ */
+@Service
+@Transactional
+public class RevocacionTokensService {
+
+    private static final Logger log = LoggerFactory.getLogger(RevocacionTokensService.class);
+
+    static final double PROBABILIDAD_FALSO_POSITIVO = 0.01;
+
+    private final TokenRevocadoRepository tokenRevocadoRepository;
+    private final TokenRefrescoRepository tokenRefrescoRepository;
+    private final int capacidad;
+    private final Duration margen;
+
+    private volatile FiltroBloom filtro;
+
+    // Solo lo modifican sincronizar y reconstruir, que no se ejecutan a la vez
+    private volatile LocalDateTime ultimaLectura;
+
+    public RevocacionTokensService(TokenRevocadoRepository tokenRevocadoRepository,
+                                   TokenRefrescoRepository tokenRefrescoRepository,
+                                   @Value("${jwt.revocacion.capacidad:100000}") int capacidad,
+                                   @Value("${jwt.revocacion.margen:PT1M}") Duration margen) {
+        this.tokenRevocadoRepository = tokenRevocadoRepository;
+        this.tokenRefrescoRepository = tokenRefrescoRepository;
+        this.capacidad = capacidad;
+        this.margen = margen;
+        this.filtro = new FiltroBloom(capacidad, PROBABILIDAD_FALSO_POSITIVO);
+        this.ultimaLectura = LocalDateTime.now();
+    }
+
+    public void revocar(String jti, Instant expira) {
+        LocalDateTime ahora = LocalDateTime.now();
+        tokenRevocadoRepository.save(new TokenRevocado(jti, LocalDateTime.ofInstant(expira, ZoneId.systemDefault()), ahora));
+        // Un falso positivo no hace daño, así que se añade antes del commit; las demás instancias lo leerán de la tabla
+        filtro.agregar(jti);
+    }
+
+    /**
+     * Los tokens sin jti (emitidos antes de existir la revocación) no se pueden revocar y siempre pasan.
+     * No abre transacción: si el filtro descarta el token no se pide conexión al pool, y solo los aciertos
+     * del filtro hacen la consulta (con la transacción de solo lectura del propio repositorio).
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public boolean estaRevocado(String jti) {
+        if (jti == null || !filtro.puedeContener(jti)) {
+            return false;
+        }
+        return tokenRevocadoRepository.existsById(jti);
+    }
+
+    /**
+     * Añade al filtro las revocaciones registradas por cualquier instancia desde la última lectura.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocacion.sincronizacion:PT5S}")
+    public synchronized void sincronizar() {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<String> nuevos = tokenRevocadoRepository.findJtiRevocadosDesde(ultimaLectura.minus(margen), ahora);
+        FiltroBloom actual = filtro;
+        nuevos.forEach(actual::agregar);
+        ultimaLectura = ahora;
+    }
+
+    /**
+     * Borra los tokens vencidos y rehace el filtro con los revocados vigentes, ya que un filtro de Bloom no
+     * permite quitar elementos. Se ejecuta al arrancar, después del resto de cargas iniciales.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(6)
+    @Scheduled(cron = "${jwt.revocacion.reconstruccion:0 0 * * * *}")
+    public synchronized void reconstruir() {
+        LocalDateTime ahora = LocalDateTime.now();
+        int revocadosVencidos = tokenRevocadoRepository.deleteExpirados(ahora);
+        int refrescoVencidos = tokenRefrescoRepository.deleteExpirados(ahora);
+
+        List<String> vigentes = tokenRevocadoRepository.findJtiVigentes(ahora);
+        FiltroBloom nuevo = new FiltroBloom(Math.max(capacidad, vigentes.size() * 2), PROBABILIDAD_FALSO_POSITIVO);
+        vigentes.forEach(nuevo::agregar);
+        filtro = nuevo;
+        ultimaLectura = ahora;
+
+        log.info("Filtro de tokens revocados reconstruido con {} tokens ({} revocaciones y {} tokens de refresco vencidos eliminados)",
+                vigentes.size(), revocadosVencidos, refrescoVencidos);
+    }
+}
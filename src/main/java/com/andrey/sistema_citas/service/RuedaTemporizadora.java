@@ -0,0 +1,119 @@
+package com.andrey.sistema_citas.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rueda temporizadora con hash (hashed timing wheel): un arreglo circular de ranuras que un único hilo
+ * recorre a razón de una por tick. Cada tarea se guarda en la ranura de su vencimiento junto con las vueltas
+ * completas que faltan, de modo que programar y cancelar cuestan O(1) y cada tick solo revisa una ranura.
+ * La precisión es la de un tick; las tareas se ejecutan en el hilo de la rueda y deben ser breves.
+ */
+final class RuedaTemporizadora {
+
+    private static final Logger log = LoggerFactory.getLogger(RuedaTemporizadora.class);
+
+    private final long nanosPorTick;
+    private final int mascara;
+    private final List<List<Temporizador>> ranuras;
+    private final long origen = System.nanoTime();
+
+    // Las tareas nuevas llegan desde cualquier hilo; el hilo de la rueda las reparte en su ranura en el siguiente tick
+    private final Queue<Temporizador> pendientes = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService reloj;
+
+    // Solo lo usa el hilo de la rueda
+    private long tick = 0;
+
+    RuedaTemporizadora(Duration resolucion, int numeroRanuras, String nombreHilo) {
+        if (Integer.bitCount(numeroRanuras) != 1) {
+            throw new IllegalArgumentException("El número de ranuras debe ser una potencia de dos");
+        }
+        this.nanosPorTick = resolucion.toNanos();
+        this.mascara = numeroRanuras - 1;
+        this.ranuras = new ArrayList<>(numeroRanuras);
+        for (int i = 0; i < numeroRanuras; i++) {
+            ranuras.add(new ArrayList<>());
+        }
+        this.reloj = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, nombreHilo);
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        reloj.scheduleAtFixedRate(this::avanzar, nanosPorTick, nanosPorTick, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Programa la tarea para que se ejecute cuando pase el retraso indicado (redondeado al tick siguiente).
+     */
+    Temporizador programar(Duration retraso, Runnable tarea) {
+        long vencimiento = System.nanoTime() - origen + Math.max(retraso.toNanos(), 0);
+        Temporizador temporizador = new Temporizador(vencimiento, tarea);
+        pendientes.add(temporizador);
+        return temporizador;
+    }
+
+    void detener() {
+        reloj.shutdownNow();
+    }
+
+    private void avanzar() {
+        Temporizador nuevo;
+        while ((nuevo = pendientes.poll()) != null) {
+            if (!nuevo.cancelado) {
+                long tickObjetivo = Math.max((nuevo.vencimiento + nanosPorTick - 1) / nanosPorTick, tick);
+                nuevo.vueltas = (tickObjetivo - tick) / ranuras.size();
+                ranuras.get((int) (tickObjetivo & mascara)).add(nuevo);
+            }
+        }
+
+        Iterator<Temporizador> it = ranuras.get((int) (tick & mascara)).iterator();
+        while (it.hasNext()) {
+            Temporizador temporizador = it.next();
+            if (temporizador.cancelado) {
+                it.remove();
+            } else if (temporizador.vueltas > 0) {
+                temporizador.vueltas--;
+            } else {
+                it.remove();
+                try {
+                    temporizador.tarea.run();
+                } catch (RuntimeException e) {
+                    // Una tarea que falla no debe detener la rueda
+                    log.error("Error al ejecutar una tarea de la rueda temporizadora", e);
+                }
+            }
+        }
+        tick++;
+    }
+
+    static final class Temporizador {
+
+        private final long vencimiento;
+        private final Runnable tarea;
+        private long vueltas;
+        private volatile boolean cancelado;
+
+        private Temporizador(long vencimiento, Runnable tarea) {
+            this.vencimiento = vencimiento;
+            this.tarea = tarea;
+        }
+
+        /**
+         * La tarea deja de ejecutarse; la ranura la descarta la próxima vez que el hilo de la rueda pase por ella.
+         */
+        void cancelar() {
+            cancelado = true;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.CitaCreateDTO;
+import com.andrey.sistema_citas.dto.CitaResponseDTO;
+import com.andrey.sistema_citas.dto.SerieCitaCreateDTO;
+import com.andrey.sistema_citas.dto.SerieCitaResultadoDTO;
+import com.andrey.sistema_citas.entity.Cita;
+import com.andrey.sistema_citas.entity.EstadoCita;
+import com.andrey.sistema_citas.entity.PoliticaSerie;
+import com.andrey.sistema_citas.entity.SerieCita;
+import com.andrey.sistema_citas.exception.BusinessRuleException;
+import com.andrey.sistema_citas.exception.ResourceNotFoundException;
+import com.andrey.sistema_citas.mapper.CitaMapper;
+import com.andrey.sistema_citas.repository.CitaRepository;
+import com.andrey.sistema_citas.repository.DatosValidacionCita;
+import com.andrey.sistema_citas.repository.ProfesionalRepository;
+import com.andrey.sistema_citas.repository.SerieCitaRepository;
+import com.andrey.sistema_citas.repository.ServicioRepository;
+import com.andrey.sistema_citas.repository.UsuarioRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Series de citas recurrentes. En lugar de validar y reservar cada sesión por separado, se leen de una vez
+ * las citas del profesional y del usuario en todo el rango de la serie (una consulta por participante),
+ * se deciden las fechas libres en memoria y se insertan todas las sesiones y sus franjas en lotes.
+ */
+@Service
+@Transactional
+public class SerieCitaService {
+
+    // Con OMITIR_Y_EXTENDER, fechas que se prueban como mucho después de la última sesión pedida
+    static final int FECHAS_EXTRA_MAXIMAS = 26;
+
+    private final SerieCitaRepository serieCitaRepository;
+    private final CitaRepository citaRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final ServicioRepository servicioRepository;
+    private final ProfesionalRepository profesionalRepository;
+    private final IndiceAgenda indiceAgenda;
+    private final BloqueosAgenda bloqueosAgenda;
+    private final ReservaFranjaService reservaFranjaService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public SerieCitaService(SerieCitaRepository serieCitaRepository,
+                            CitaRepository citaRepository,
+                            UsuarioRepository usuarioRepository,
+                            ServicioRepository servicioRepository,
+                            ProfesionalRepository profesionalRepository,
+                            IndiceAgenda indiceAgenda,
+                            BloqueosAgenda bloqueosAgenda,
+                            ReservaFranjaService reservaFranjaService,
+                            ApplicationEventPublisher eventPublisher) {
+        this.serieCitaRepository = serieCitaRepository;
+        this.citaRepository = citaRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.servicioRepository = servicioRepository;
+        this.profesionalRepository = profesionalRepository;
+        this.indiceAgenda = indiceAgenda;
+        this.bloqueosAgenda = bloqueosAgenda;
+        this.reservaFranjaService = reservaFranjaService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public SerieCitaResultadoDTO agendarSerie(SerieCitaCreateDTO dto) {
+        Long usuarioId = dto.getUsuarioId();
+        Long servicioId = dto.getServicioId();
+        Long profesionalId = dto.getProfesionalId();
+        int sesiones = dto.getSesiones();
+        int intervaloSemanas = dto.getIntervaloSemanas() != null ? dto.getIntervaloSemanas() : 1;
+        PoliticaSerie politica = dto.getPolitica() != null ? dto.getPolitica() : PoliticaSerie.TODO_O_NADA;
+
+        CitaCreateDTO primera = new CitaCreateDTO();
+        primera.setUsuarioId(usuarioId);
+        primera.setServicioId(servicioId);
+        primera.setProfesionalId(profesionalId);
+        primera.setFechaHora(dto.getFechaHora());
+
+        DatosValidacionCita datos = citaRepository.findDatosValidacion(usuarioId, servicioId, profesionalId);
+        CitaService.validarReferencias(datos, primera);
+        Duration duracion = Duration.ofMinutes(
+                ServicioService.duracionEnMinutos(datos.getServicioDuracionMinutos(), datos.getServicioDuracion()));
+
+        // Con OMITIR_Y_EXTENDER se prueban fechas extra para reponer las ocupadas; las que no se repongan se informan
+        int candidatas = politica == PoliticaSerie.OMITIR_Y_EXTENDER ? sesiones + FECHAS_EXTRA_MAXIMAS : sesiones;
+        List<LocalDateTime> fechas = Stream.iterate(dto.getFechaHora(), fecha -> fecha.plusWeeks(intervaloSemanas))
+                .limit(candidatas)
+                .toList();
+
+        SerieCita serie = new SerieCita(
+                usuarioRepository.getReferenceById(usuarioId),
+                profesionalRepository.getReferenceById(profesionalId),
+                servicioRepository.getReferenceById(servicioId),
+                intervaloSemanas, sesiones, politica, LocalDateTime.now());
+
+        List<LocalDateTime> omitidas = new ArrayList<>();
+        List<Cita> nuevas = bloqueosAgenda.ejecutar(profesionalId, usuarioId, () -> {
+            List<IndiceAgenda.Ocupacion> ocupadas = ocupaciones(profesionalId, usuarioId,
+                    fechas.get(0), fechas.get(fechas.size() - 1).plus(duracion), Set.of());
+
+            List<LocalDateTime> libres = new ArrayList<>();
+            for (LocalDateTime fecha : fechas) {
+                if (libres.size() == sesiones) {
+                    break;
+                }
+                if (solapa(ocupadas, fecha, fecha.plus(duracion))) {
+                    omitidas.add(fecha);
+                } else {
+                    libres.add(fecha);
+                }
+            }
+
+            if (politica == PoliticaSerie.TODO_O_NADA && !omitidas.isEmpty()) {
+                throw new BusinessRuleException("La serie no se agendó: hay conflictos en " + omitidas.size()
+                        + " fecha(s), la primera el " + omitidas.get(0));
+            }
+            if (libres.isEmpty()) {
+                throw new BusinessRuleException("Ninguna fecha de la serie está disponible");
+            }
+
+            serieCitaRepository.save(serie);
+            List<Cita> citas = new ArrayList<>();
+            for (LocalDateTime fecha : libres) {
+                Cita cita = new Cita(fecha, EstadoCita.PENDIENTE,
+                        usuarioRepository.getReferenceById(usuarioId),
+                        servicioRepository.getReferenceById(servicioId),
+                        profesionalRepository.getReferenceById(profesionalId));
+                cita.setFechaFin(fecha.plus(duracion));
+                cita.setSerie(serie);
+                citas.add(cita);
+            }
+
+            // Los INSERT de las sesiones y de sus franjas viajan en lotes JDBC
+            citaRepository.saveAll(citas);
+            reservaFranjaService.reservar(citas);
+            registrarEnIndice(citas, profesionalId, usuarioId);
+            return citas;
+        });
+
+        List<CitaResponseDTO> respuesta = nuevas.stream()
+                .map(cita -> new CitaResponseDTO(
+                        cita.getId(), cita.getFechaHora(), cita.getEstado(),
+                        datos.getUsuarioId(), datos.getUsuarioNombre(),
+                        datos.getServicioId(), datos.getServicioNombre(), datos.getServicioDuracion(), datos.getServicioPrecio(),
+                        datos.getProfesionalId(), datos.getProfesionalNombre(), datos.getProfesionalEspecialidad()))
+                .collect(Collectors.toList());
+        return new SerieCitaResultadoDTO(serie.getId(), politica, respuesta, omitidas, sesiones - respuesta.size());
+    }
+
+    @Transactional(readOnly = true)
+    public SerieCitaResultadoDTO obtenerSerie(Long serieId) {
+        SerieCita serie = buscarSerie(serieId);
+        List<CitaResponseDTO> citas = citaRepository.findBySerieId(serieId)
+                .stream()
+                .map(CitaMapper::toResponse)
+                .collect(Collectors.toList());
+        return new SerieCitaResultadoDTO(serieId, serie.getPolitica(), citas, List.of());
+    }
+
+    /**
+     * Cancela las sesiones de la serie que aún no han empezado. Las ya realizadas no se tocan.
+     */
+    public SerieCitaResultadoDTO cancelarSerie(Long serieId) {
+        SerieCita serie = buscarSerie(serieId);
+        List<Cita> pendientes = citaRepository.findActivasDeSerieDesde(serieId, IndiceAgenda.ESTADOS_ACTIVOS, LocalDateTime.now());
+
+        for (Cita cita : pendientes) {
+            cita.setEstado(EstadoCita.CANCELADA);
+            eventPublisher.publishEvent(new CitaCanceladaEvent(cita.getId(), cita.getProfesional().getId(),
+                    cita.getServicio().getId(), cita.getFechaHora(), cita.getFechaFin()));
+        }
+        List<Long> ids = pendientes.stream().map(Cita::getId).toList();
+        reservaFranjaService.liberar(ids);
+        SincronizacionTransaccion.despuesDelCommit(() -> ids.forEach(indiceAgenda::eliminar));
+
+        return new SerieCitaResultadoDTO(serieId, serie.getPolitica(),
+                pendientes.stream().map(CitaMapper::toResponse).collect(Collectors.toList()), List.of());
+    }
+
+    /**
+     * Mueve las sesiones pendientes de la serie: la próxima pasa a nuevaFechaHora y las siguientes se desplazan
+     * lo mismo. Es todo o nada; si alguna nueva fecha choca con otra cita, no se mueve ninguna.
+     */
+    public SerieCitaResultadoDTO reprogramarSerie(Long serieId, LocalDateTime nuevaFechaHora) {
+        CitaService.validarInicioEnFranja(nuevaFechaHora);
+        SerieCita serie = buscarSerie(serieId);
+        List<Cita> pendientes = citaRepository.findActivasDeSerieDesde(serieId, IndiceAgenda.ESTADOS_ACTIVOS, LocalDateTime.now());
+        if (pendientes.isEmpty()) {
+            throw new BusinessRuleException("La serie no tiene sesiones pendientes");
+        }
+
+        Long profesionalId = serie.getProfesional().getId();
+        Long usuarioId = serie.getUsuario().getId();
+        Duration desplazamiento = Duration.between(pendientes.get(0).getFechaHora(), nuevaFechaHora);
+        List<Long> ids = pendientes.stream().map(Cita::getId).toList();
+        List<Intervalo> anteriores = pendientes.stream()
+                .map(cita -> new Intervalo(cita.getId(), cita.getFechaHora(), cita.getFechaFin()))
+                .toList();
+
+        bloqueosAgenda.ejecutar(profesionalId, usuarioId, () -> {
+            LocalDateTime primera = pendientes.get(0).getFechaHora().plus(desplazamiento);
+            LocalDateTime ultima = pendientes.get(pendientes.size() - 1).getFechaFin().plus(desplazamiento);
+            // Las propias sesiones se van a mover, así que no cuentan como conflicto
+            List<IndiceAgenda.Ocupacion> ocupadas = ocupaciones(profesionalId, usuarioId, primera, ultima, ids);
+
+            for (Cita cita : pendientes) {
+                LocalDateTime inicio = cita.getFechaHora().plus(desplazamiento);
+                LocalDateTime fin = cita.getFechaFin().plus(desplazamiento);
+                if (solapa(ocupadas, inicio, fin)) {
+                    throw new BusinessRuleException("La serie no se reprogramó: el horario del " + inicio + " no está disponible");
+                }
+                cita.setFechaHora(inicio);
+                cita.setFechaFin(fin);
+            }
+
+            reservaFranjaService.liberar(ids);
+            reservaFranjaService.reservar(pendientes);
+            registrarEnIndice(pendientes, profesionalId, usuarioId);
+            return pendientes;
+        });
+        SincronizacionTransaccion.alRevertir(() -> anteriores.forEach(intervalo ->
+                indiceAgenda.registrar(intervalo.citaId(), profesionalId, usuarioId, intervalo.inicio(), intervalo.fin())));
+
+        return new SerieCitaResultadoDTO(serieId, serie.getPolitica(),
+                pendientes.stream().map(CitaMapper::toResponse).collect(Collectors.toList()), List.of());
+    }
+
+    private SerieCita buscarSerie(Long serieId) {
+        return serieCitaRepository.findById(serieId)
+                .orElseThrow(() -> new ResourceNotFoundException("Serie de citas no encontrada con ID: " + serieId));
+    }
+
+    /**
+     * Citas activas del profesional y del usuario que se cruzan con [inicio, fin), ordenadas por inicio.
+     * Se leen de la base de datos, con una consulta por participante para todo el rango: el índice de agenda
+     * solo ve los cambios de esta instancia, y un falso ocupado omitiría fechas libres de la serie. Se añaden
+     * las reservas de esta instancia aún sin confirmar, que la base de datos todavía no ve.
+     */
+    private List<IndiceAgenda.Ocupacion> ocupaciones(Long profesionalId, Long usuarioId,
+                                                     LocalDateTime inicio, LocalDateTime fin, Collection<Long> excluidas) {
+        LocalDateTime desde = inicio.minus(CitaService.DURACION_MAXIMA);
+        Stream<IndiceAgenda.Ocupacion> confirmadas = Stream.concat(
+                        citaRepository.findOcupacionesProfesional(profesionalId, desde, inicio, fin, IndiceAgenda.ESTADOS_ACTIVOS).stream(),
+                        citaRepository.findOcupacionesUsuario(usuarioId, desde, inicio, fin, IndiceAgenda.ESTADOS_ACTIVOS).stream())
+                .filter(fila -> !excluidas.contains((Long) fila[0]))
+                .map(fila -> new IndiceAgenda.Ocupacion((LocalDateTime) fila[1], (LocalDateTime) fila[2]));
+        return Stream.concat(confirmadas,
+                        indiceAgenda.ocupacionesEnCurso(profesionalId, usuarioId, inicio, fin, excluidas).stream())
+                .sorted(Comparator.comparing(IndiceAgenda.Ocupacion::inicio))
+                .toList();
+    }
+
+    private static boolean solapa(List<IndiceAgenda.Ocupacion> ocupadas, LocalDateTime inicio, LocalDateTime fin) {
+        for (IndiceAgenda.Ocupacion ocupacion : ocupadas) {
+            if (!ocupacion.inicio().isBefore(fin)) {
+                return false;
+            }
+            if (ocupacion.fin().isAfter(inicio)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Se registra antes de soltar el bloqueo, como en CitaService; si la transacción se revierte, el registro se deshace.
+     */
+    private void registrarEnIndice(List<Cita> citas, Long profesionalId, Long usuarioId) {
+        for (Cita cita : citas) {
+            indiceAgenda.registrarEnCurso(cita.getId(), profesionalId, usuarioId, cita.getFechaHora(), cita.getFechaFin());
+        }
+        List<Long> ids = citas.stream().map(Cita::getId).toList();
+        SincronizacionTransaccion.alRevertir(() -> ids.forEach(indiceAgenda::eliminar));
+    }
+
+    private record Intervalo(Long citaId, LocalDateTime inicio, LocalDateTime fin) {
+    }
+}
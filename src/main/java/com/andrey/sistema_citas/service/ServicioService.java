@@ -6,11 +6,17 @@ import com.andrey.sistema_citas.dto.ServicioResponseDTO;
 import com.andrey.sistema_citas.entity.Servicio;
 import com.andrey.sistema_citas.entity.Profesional;
 import com.andrey.sistema_citas.entity.Usuario;
+import com.andrey.sistema_citas.exception.BusinessRuleException;
 import com.andrey.sistema_citas.exception.ResourceNotFoundException;
 import com.andrey.sistema_citas.mapper.ServicioMapper;
 import com.andrey.sistema_citas.repository.ServicioRepository;
 import com.andrey.sistema_citas.repository.ProfesionalRepository;
 import com.andrey.sistema_citas.repository.UsuarioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
 import org.springframework.data.domain.Page;
 import com.andrey.sistema_citas.exception.DuplicateResourceException;
 import org.springframework.data.domain.Pageable;
@@ -18,12 +24,24 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class ServicioService {
 
+    private static final Logger log = LoggerFactory.getLogger(ServicioService.class);
+
+    // Duración asumida para servicios antiguos cuyo texto no se puede interpretar
+    private static final int DURACION_POR_DEFECTO = 60;
+
+    // "50 minutos", "1 hora", "1 hora y 30 minutos", "1h30", "1,5 horas" o solo el número de minutos
+    private static final Pattern FORMATO_DURACION = Pattern.compile(
+            "^(?:(\\d+(?:[.,]\\d+)?)\\s*(?:h|hr|hrs|hora|horas)\\.?)?\\s*(?:y\\s*)?(?:(\\d+)\\s*(?:m|min|mins|minuto|minutos)?\\.?)?$");
+
     private final ServicioRepository servicioRepository;
     private final ProfesionalRepository profesionalRepository;
     private final UsuarioRepository usuarioRepository;
@@ -42,6 +60,7 @@ public class ServicioService {
         });
 
         Servicio servicio = ServicioMapper.toEntity(dto);
+        servicio.setDuracionMinutos(parsearDuracion(dto.getDuracion()));
         
         // Si se proporciona un profesionalId, asignar el profesional al servicio
         if (dto.getProfesionalId() != null) {
@@ -62,6 +81,9 @@ public class ServicioService {
                 .orElseThrow(() -> new ResourceNotFoundException("Servicio no encontrado con id: " + id));
 
         ServicioMapper.updateEntityFromDto(dto, existente);
+        if (dto.getDuracion() != null) {
+            existente.setDuracionMinutos(parsearDuracion(dto.getDuracion()));
+        }
         Servicio actualizado = servicioRepository.save(existente);
         return ServicioMapper.toResponse(actualizado);
     }
@@ -99,7 +121,17 @@ public class ServicioService {
     }
 
     public List<ServicioResponseDTO> buscarServiciosPorDuracion(String duracion) {
-        return servicioRepository.findByDuracion(duracion)
+        return servicioRepository.findByDuracionMinutos(parsearDuracion(duracion))
+                .stream()
+                .map(ServicioMapper::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    public List<ServicioResponseDTO> buscarServiciosPorRangoDeDuracion(Integer minimo, Integer maximo) {
+        if (minimo > maximo) {
+            throw new BusinessRuleException("La duración mínima no puede ser mayor que la máxima");
+        }
+        return servicioRepository.findByDuracionMinutosBetween(minimo, maximo)
                 .stream()
                 .map(ServicioMapper::toResponse)
                 .collect(Collectors.toList());
@@ -126,6 +158,59 @@ public class ServicioService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Calcula duracion_minutos para los servicios creados antes de existir la columna.
+     * Se ejecuta al arrancar, antes que cualquier otra tarea que calcule horarios de citas.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    public void completarDuracionMinutos() {
+        for (Servicio servicio : servicioRepository.findByDuracionMinutosIsNull()) {
+            servicio.setDuracionMinutos(duracionEnMinutos(null, servicio.getDuracion()));
+        }
+    }
+
+    /**
+     * Convierte el texto de duración de un servicio a minutos. Rechaza los textos que no entiende
+     * y las duraciones nulas o mayores que la duración máxima de una cita.
+     */
+    public static int parsearDuracion(String duracion) {
+        if (duracion == null) {
+            throw new BusinessRuleException("La duración es obligatoria");
+        }
+        String normalizada = duracion.trim().toLowerCase(Locale.ROOT).replace("ó", "o");
+        Matcher matcher = FORMATO_DURACION.matcher(normalizada);
+        if (normalizada.isEmpty() || !matcher.matches()) {
+            throw new BusinessRuleException("Duración no válida: '" + duracion + "'. Use, por ejemplo, '50 minutos' o '1 hora'");
+        }
+
+        double horas = matcher.group(1) != null ? Double.parseDouble(matcher.group(1).replace(',', '.')) : 0;
+        int minutos = matcher.group(2) != null ? Integer.parseInt(matcher.group(2)) : 0;
+        double total = horas * 60 + minutos;
+
+        if (total <= 0 || total > CitaService.DURACION_MAXIMA.toMinutes() || total != Math.floor(total)) {
+            throw new BusinessRuleException("La duración debe ser un número entero de minutos entre 1 y "
+                    + CitaService.DURACION_MAXIMA.toMinutes());
+        }
+        return (int) total;
+    }
+
+    /**
+     * Duración en minutos para la agenda. Usa la columna normalizada; solo si aún no se ha calculado
+     * (servicios antiguos durante el arranque) interpreta el texto, con 60 minutos si no se entiende.
+     */
+    static int duracionEnMinutos(Integer duracionMinutos, String duracion) {
+        if (duracionMinutos != null) {
+            return duracionMinutos;
+        }
+        try {
+            return parsearDuracion(duracion);
+        } catch (BusinessRuleException e) {
+            log.warn("Duración de servicio no reconocida '{}', se asumen {} minutos", duracion, DURACION_POR_DEFECTO);
+            return DURACION_POR_DEFECTO;
+        }
+    }
+
     public Long obtenerProfesionalIdPorEmail(String email) {
         return usuarioRepository.findByEmail(email)
                 .flatMap(usuario -> profesionalRepository.findByUsuarioId(usuario.getId()))
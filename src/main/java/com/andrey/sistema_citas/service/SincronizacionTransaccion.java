@@ -0,0 +1,63 @@
+package com.andrey.sistema_citas.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Acciones ligadas al resultado de la transacción actual. Los servicios las usan para mantener al día
+ * el estado en memoria (índice de agenda, caché de horarios, rueda de retenciones) solo con lo que
+ * realmente se confirmó en la base de datos.
+ */
+final class SincronizacionTransaccion {
+
+    private SincronizacionTransaccion() {}
+
+    /**
+     * Ejecuta la acción cuando se confirme la transacción actual, o en el acto si no hay ninguna.
+     */
+    static void despuesDelCommit(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
+    }
+
+    /**
+     * Ejecuta la acción si la transacción actual se revierte. Sin transacción no hay nada que deshacer.
+     */
+    static void alRevertir(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    accion.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Ejecuta la acción cuando termine la transacción actual, se confirme o se revierta, o en el acto si no hay ninguna.
+     */
+    static void alTerminar(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                accion.run();
+            }
+        });
+    }
+}
@@ -1,5 +1,6 @@
 package com.andrey.sistema_citas.service;
 
+import com.andrey.sistema_citas.dto.PaginaCursorDTO;
 import com.andrey.sistema_citas.dto.UsuarioCreateDTO;
 import com.andrey.sistema_citas.dto.UsuarioUpdateDTO;
 import com.andrey.sistema_citas.dto.UsuarioResponseDTO;
@@ -8,7 +9,6 @@ import com.andrey.sistema_citas.exception.ResourceNotFoundException;
 import com.andrey.sistema_citas.mapper.UsuarioMapper;
 import com.andrey.sistema_citas.repository.UsuarioRepository;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -19,12 +19,12 @@ import java.util.stream.Collectors;
 public class UsuarioService {
 
     private final UsuarioRepository usuarioRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final CifradoContrasenas cifradoContrasenas;
 
     public UsuarioService(UsuarioRepository usuarioRepository,
-                          PasswordEncoder passwordEncoder) {
+                          CifradoContrasenas cifradoContrasenas) {
         this.usuarioRepository = usuarioRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.cifradoContrasenas = cifradoContrasenas;
     }
 
     public List<UsuarioResponseDTO> obtenerTodosLosUsuarios() {
@@ -34,17 +34,30 @@ public class UsuarioService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Páginas de usuarios ordenadas por id; el cursor es el siguienteCursor de la página anterior, o null para la primera.
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<UsuarioResponseDTO> obtenerPaginaUsuarios(String cursor, Integer tamano) {
+        List<UsuarioResponseDTO> usuarios = usuarioRepository.findPaginaDespuesDe(
+                        CursorPagina.decodificarId(cursor), CursorPagina.limite(tamano))
+                .stream()
+                .map(UsuarioMapper::toResponseDTO)
+                .collect(Collectors.toList());
+        return CursorPagina.pagina(usuarios, tamano, usuario -> usuario.getId().toString());
+    }
+
     public UsuarioResponseDTO obtenerUsuarioPorId(Long id) {
         Usuario usuario = usuarioRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con id: " + id));
         return UsuarioMapper.toResponseDTO(usuario);
     }
 
-    @Transactional
+    // Sin @Transactional: el cifrado no debe retener una conexión; save abre su propia transacción
     public UsuarioResponseDTO crearUsuario(UsuarioCreateDTO dto) {
         Usuario usuario = UsuarioMapper.toEntity(dto);
 
-        String hashed = passwordEncoder.encode(usuario.getPassword());
+        String hashed = cifradoContrasenas.codificar(usuario.getPassword());
         usuario.setPassword(hashed);
 
         Usuario guardado = usuarioRepository.save(usuario);
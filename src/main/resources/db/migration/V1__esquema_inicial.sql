@@ -0,0 +1,179 @@
+-- Esquema completo de la aplicación. Hasta esta versión el esquema lo mantenía Hibernate (ddl-auto=update),
+-- así que todo el script es idempotente: en una base de datos nueva crea las tablas y en una existente
+-- (con spring.flyway.baseline-on-migrate) solo añade lo que falte. Los tipos coinciden con los que genera
+-- Hibernate para que ddl-auto=validate acepte ambas.
+
+CREATE TABLE IF NOT EXISTS id_generador (
+    entidad VARCHAR(255) NOT NULL,
+    siguiente_valor BIGINT,
+    PRIMARY KEY (entidad)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS usuario (
+    id BIGINT NOT NULL,
+    nombre VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    telefono VARCHAR(255),
+    fecha_registro DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_usuario_email UNIQUE (email)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS usuario_roles (
+    usuario_id BIGINT NOT NULL,
+    role ENUM('USER','PROFESSIONAL','ADMIN') NOT NULL,
+    PRIMARY KEY (usuario_id, role),
+    CONSTRAINT fk_usuario_roles_usuario FOREIGN KEY (usuario_id) REFERENCES usuario (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS profesional (
+    id BIGINT NOT NULL,
+    especialidad VARCHAR(255),
+    horario_disponible VARCHAR(500),
+    usuario_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_profesional_usuario UNIQUE (usuario_id),
+    CONSTRAINT fk_profesional_usuario FOREIGN KEY (usuario_id) REFERENCES usuario (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS servicio (
+    id BIGINT NOT NULL,
+    nombre VARCHAR(255) NOT NULL,
+    descripcion TEXT,
+    duracion VARCHAR(50),
+    duracion_minutos INTEGER,
+    precio DOUBLE,
+    profesional_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_servicio_nombre UNIQUE (nombre),
+    CONSTRAINT fk_servicio_profesional FOREIGN KEY (profesional_id) REFERENCES profesional (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS serie_cita (
+    id BIGINT NOT NULL,
+    usuario_id BIGINT NOT NULL,
+    profesional_id BIGINT NOT NULL,
+    servicio_id BIGINT NOT NULL,
+    intervalo_semanas INTEGER NOT NULL,
+    sesiones INTEGER NOT NULL,
+    politica ENUM('TODO_O_NADA','ACEPTAR_PARCIAL','OMITIR_Y_EXTENDER') NOT NULL,
+    fecha_creacion DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_serie_cita_usuario FOREIGN KEY (usuario_id) REFERENCES usuario (id),
+    CONSTRAINT fk_serie_cita_profesional FOREIGN KEY (profesional_id) REFERENCES profesional (id),
+    CONSTRAINT fk_serie_cita_servicio FOREIGN KEY (servicio_id) REFERENCES servicio (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS cita (
+    id BIGINT NOT NULL,
+    fecha_hora DATETIME(6) NOT NULL,
+    fecha_fin DATETIME(6),
+    estado ENUM('PENDIENTE','CONFIRMADA','CANCELADA','COMPLETADA') NOT NULL,
+    usuario_id BIGINT NOT NULL,
+    servicio_id BIGINT NOT NULL,
+    profesional_id BIGINT NOT NULL,
+    serie_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_cita_usuario FOREIGN KEY (usuario_id) REFERENCES usuario (id),
+    CONSTRAINT fk_cita_servicio FOREIGN KEY (servicio_id) REFERENCES servicio (id),
+    CONSTRAINT fk_cita_profesional FOREIGN KEY (profesional_id) REFERENCES profesional (id),
+    CONSTRAINT fk_cita_serie FOREIGN KEY (serie_id) REFERENCES serie_cita (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS reserva_franja (
+    profesional_id BIGINT NOT NULL,
+    inicio_franja DATETIME(6) NOT NULL,
+    cita_id BIGINT,
+    retencion_id VARCHAR(36),
+    PRIMARY KEY (profesional_id, inicio_franja)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS retencion_franja (
+    id VARCHAR(36) NOT NULL,
+    profesional_id BIGINT NOT NULL,
+    usuario_id BIGINT NOT NULL,
+    servicio_id BIGINT NOT NULL,
+    fecha_hora DATETIME(6) NOT NULL,
+    fecha_fin DATETIME(6) NOT NULL,
+    expira DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS respuesta_idempotente (
+    clave VARCHAR(64) NOT NULL,
+    huella VARCHAR(64) NOT NULL,
+    estado INTEGER NOT NULL,
+    tipo_contenido VARCHAR(255),
+    cuerpo LONGBLOB,
+    expira DATETIME(6) NOT NULL,
+    PRIMARY KEY (clave)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS lista_espera (
+    id BIGINT NOT NULL,
+    usuario_id BIGINT NOT NULL,
+    profesional_id BIGINT NOT NULL,
+    servicio_id BIGINT NOT NULL,
+    desde DATETIME(6) NOT NULL,
+    hasta DATETIME(6) NOT NULL,
+    prioridad INTEGER NOT NULL,
+    estado ENUM('ESPERANDO','ASIGNADA','CANCELADA','VENCIDA') NOT NULL,
+    fecha_registro DATETIME(6) NOT NULL,
+    cita_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_lista_espera_usuario FOREIGN KEY (usuario_id) REFERENCES usuario (id),
+    CONSTRAINT fk_lista_espera_profesional FOREIGN KEY (profesional_id) REFERENCES profesional (id),
+    CONSTRAINT fk_lista_espera_servicio FOREIGN KEY (servicio_id) REFERENCES servicio (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS disponibilidad_semanal (
+    id BIGINT NOT NULL,
+    profesional_id BIGINT NOT NULL,
+    dia_semana ENUM('MONDAY','TUESDAY','WEDNESDAY','THURSDAY','FRIDAY','SATURDAY','SUNDAY') NOT NULL,
+    hora_inicio TIME NOT NULL,
+    hora_fin TIME NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_disponibilidad_semanal_profesional FOREIGN KEY (profesional_id) REFERENCES profesional (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS excepcion_disponibilidad (
+    id BIGINT NOT NULL,
+    profesional_id BIGINT NOT NULL,
+    fecha DATE NOT NULL,
+    hora_inicio TIME,
+    hora_fin TIME,
+    disponible BIT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_excepcion_disponibilidad_profesional FOREIGN KEY (profesional_id) REFERENCES profesional (id)
+) ENGINE=InnoDB;
+
+-- Columnas que Hibernate añadió a tablas ya existentes en versiones anteriores.
+-- MySQL no admite ADD COLUMN IF NOT EXISTS, así que se comprueba en information_schema.
+DELIMITER //
+CREATE PROCEDURE agregar_columna_si_falta(IN tabla VARCHAR(64), IN columna VARCHAR(64), IN definicion VARCHAR(255))
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = DATABASE() AND table_name = tabla AND column_name = columna) THEN
+        SET @sentencia = CONCAT('ALTER TABLE ', tabla, ' ADD COLUMN ', columna, ' ', definicion);
+        PREPARE sentencia FROM @sentencia;
+        EXECUTE sentencia;
+        DEALLOCATE PREPARE sentencia;
+    END IF;
+END //
+DELIMITER ;
+
+CALL agregar_columna_si_falta('cita', 'fecha_fin', 'DATETIME(6)');
+CALL agregar_columna_si_falta('cita', 'serie_id', 'BIGINT');
+CALL agregar_columna_si_falta('servicio', 'duracion_minutos', 'INTEGER');
+CALL agregar_columna_si_falta('reserva_franja', 'retencion_id', 'VARCHAR(36)');
+
+DROP PROCEDURE agregar_columna_si_falta;
+
+-- Generador de ids por tabla en bloques de 50 (allocationSize de los @TableGenerator). Cada fila guarda el
+-- extremo superior del siguiente bloque, así que se siembra con MAX(id) + 50 para no chocar con los ids
+-- creados con AUTO_INCREMENT. INSERT IGNORE: si la fila ya existe, el generador está en uso y no se toca.
+INSERT IGNORE INTO id_generador (entidad, siguiente_valor) SELECT 'usuario', COALESCE(MAX(id), 0) + 50 FROM usuario;
+INSERT IGNORE INTO id_generador (entidad, siguiente_valor) SELECT 'servicio', COALESCE(MAX(id), 0) + 50 FROM servicio;
+INSERT IGNORE INTO id_generador (entidad, siguiente_valor) SELECT 'profesional', COALESCE(MAX(id), 0) + 50 FROM profesional;
+INSERT IGNORE INTO id_generador (entidad, siguiente_valor) SELECT 'cita', COALESCE(MAX(id), 0) + 50 FROM cita;
@@ -0,0 +1,65 @@
+-- Índices elegidos a partir de las consultas de los repositorios. Cada uno indica a qué consultas sirve.
+-- crear_indice es idempotente: crea el índice si falta y lo redefine si existe con otras columnas
+-- (en un solo ALTER, para que las claves foráneas que dependan de él sigan cubiertas).
+DELIMITER //
+CREATE PROCEDURE crear_indice(IN tabla VARCHAR(64), IN nombre VARCHAR(64), IN columnas VARCHAR(255))
+BEGIN
+    DECLARE actuales VARCHAR(255);
+    SELECT GROUP_CONCAT(column_name ORDER BY seq_in_index SEPARATOR ',') INTO actuales
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = tabla AND index_name = nombre;
+
+    IF actuales IS NULL THEN
+        SET @sentencia = CONCAT('ALTER TABLE ', tabla, ' ADD INDEX ', nombre, ' (', columnas, ')');
+    ELSEIF actuales <> REPLACE(columnas, ' ', '') THEN
+        SET @sentencia = CONCAT('ALTER TABLE ', tabla, ' DROP INDEX ', nombre, ', ADD INDEX ', nombre, ' (', columnas, ')');
+    ELSE
+        SET @sentencia = NULL;
+    END IF;
+
+    IF @sentencia IS NOT NULL THEN
+        PREPARE sentencia FROM @sentencia;
+        EXECUTE sentencia;
+        DEALLOCATE PREPARE sentencia;
+    END IF;
+END //
+DELIMITER ;
+
+-- cita: solapamientos al agendar (existsConflicto*, findIntervalos*, findOcupaciones*) y próxima cita del profesional
+CALL crear_indice('cita', 'idx_cita_profesional_horario', 'profesional_id, fecha_hora, fecha_fin, estado');
+CALL crear_indice('cita', 'idx_cita_usuario_horario', 'usuario_id, fecha_hora, fecha_fin, estado');
+-- cita: listados, paginación por cursor y búsqueda en orden (fecha_hora, id); los criterios restantes
+-- van al final para evaluarse en el índice sin leer la fila
+CALL crear_indice('cita', 'idx_cita_fecha_hora', 'fecha_hora, id');
+CALL crear_indice('cita', 'idx_cita_usuario_fecha_hora', 'usuario_id, fecha_hora, id, estado, profesional_id, servicio_id');
+CALL crear_indice('cita', 'idx_cita_profesional_fecha_hora', 'profesional_id, fecha_hora, id, estado, servicio_id, usuario_id');
+CALL crear_indice('cita', 'idx_cita_servicio_fecha_hora', 'servicio_id, fecha_hora, id, estado, profesional_id, usuario_id');
+CALL crear_indice('cita', 'idx_cita_estado_fecha_hora', 'estado, fecha_hora, id');
+-- cita: citas que siguen activas (precarga del índice de agenda y de reservas) y citas sin fecha de fin
+CALL crear_indice('cita', 'idx_cita_fecha_fin_estado', 'fecha_fin, estado');
+-- cita: sesiones de una serie en orden
+CALL crear_indice('cita', 'idx_cita_serie', 'serie_id, fecha_hora');
+
+-- usuario: findByTelefono y findUsuariosRegistradosDespuesDe (email ya tiene su índice único)
+CALL crear_indice('usuario', 'idx_usuario_telefono', 'telefono');
+CALL crear_indice('usuario', 'idx_usuario_fecha_registro', 'fecha_registro');
+
+-- servicio: búsquedas y orden por precio, búsquedas por duración y servicios de un profesional
+CALL crear_indice('servicio', 'idx_servicio_precio', 'precio');
+CALL crear_indice('servicio', 'idx_servicio_duracion_minutos', 'duracion_minutos');
+CALL crear_indice('servicio', 'idx_servicio_profesional', 'profesional_id');
+
+-- profesional: recuento por especialidad (usuario_id ya tiene su índice único)
+CALL crear_indice('profesional', 'idx_profesional_especialidad', 'especialidad');
+
+-- Resto de tablas
+CALL crear_indice('reserva_franja', 'idx_reserva_franja_cita', 'cita_id');
+CALL crear_indice('reserva_franja', 'idx_reserva_franja_retencion', 'retencion_id');
+CALL crear_indice('retencion_franja', 'idx_retencion_franja_expira', 'expira');
+CALL crear_indice('respuesta_idempotente', 'idx_respuesta_idempotente_expira', 'expira');
+CALL crear_indice('lista_espera', 'idx_lista_espera_profesional_servicio', 'profesional_id, servicio_id, estado');
+CALL crear_indice('lista_espera', 'idx_lista_espera_usuario', 'usuario_id');
+CALL crear_indice('disponibilidad_semanal', 'idx_disponibilidad_semanal_profesional', 'profesional_id, dia_semana');
+CALL crear_indice('excepcion_disponibilidad', 'idx_excepcion_disponibilidad_profesional', 'profesional_id, fecha');
+
+DROP PROCEDURE crear_indice;
@@ -0,0 +1,26 @@
+-- Sesiones con tokens de acceso cortos: tokens de refresco (guardados como SHA-256) y la lista de tokens de
+-- acceso revocados antes de vencer. token_revocado es además el registro de cambios que cada instancia lee
+-- por revocado_en para mantener al día su filtro de Bloom en memoria.
+
+CREATE TABLE token_refresco (
+    hash VARCHAR(64) NOT NULL,
+    usuario_id BIGINT NOT NULL,
+    expira DATETIME(6) NOT NULL,
+    revocado BIT NOT NULL,
+    creado DATETIME(6) NOT NULL,
+    PRIMARY KEY (hash),
+    CONSTRAINT fk_token_refresco_usuario FOREIGN KEY (usuario_id) REFERENCES usuario (id) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_token_refresco_usuario ON token_refresco (usuario_id, revocado);
+CREATE INDEX idx_token_refresco_expira ON token_refresco (expira);
+
+CREATE TABLE token_revocado (
+    jti VARCHAR(36) NOT NULL,
+    expira DATETIME(6) NOT NULL,
+    revocado_en DATETIME(6) NOT NULL,
+    PRIMARY KEY (jti)
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_token_revocado_revocado_en ON token_revocado (revocado_en);
+CREATE INDEX idx_token_revocado_expira ON token_revocado (expira);
@@ -0,0 +1,7 @@
+-- La petición original reclama su clave de idempotencia insertando una fila pendiente antes de ejecutarse;
+-- la clave primaria impide que un reintento en otra instancia la reclame a la vez. La huella y la respuesta
+-- se completan al terminar.
+
+ALTER TABLE respuesta_idempotente
+    ADD COLUMN pendiente BIT NOT NULL DEFAULT 0,
+    MODIFY huella VARCHAR(64) NULL;
@@ -0,0 +1,14 @@
+-- Franjas ocupadas por cada usuario, con la misma clave única que reserva_franja tiene para los profesionales:
+-- el índice de agenda en memoria solo ve las reservas de su instancia, así que es esta tabla la que impide que
+-- un usuario tenga dos citas a la vez. Las citas existentes se completan al arrancar (ReservaFranjaService).
+
+CREATE TABLE reserva_franja_usuario (
+    usuario_id BIGINT NOT NULL,
+    inicio_franja DATETIME(6) NOT NULL,
+    cita_id BIGINT,
+    retencion_id VARCHAR(36),
+    PRIMARY KEY (usuario_id, inicio_franja)
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_reserva_franja_usuario_cita ON reserva_franja_usuario (cita_id);
+CREATE INDEX idx_reserva_franja_usuario_retencion ON reserva_franja_usuario (retencion_id);
@@ -0,0 +1,4 @@
+-- Versión del horario de cada profesional. Cada cambio de tramos o excepciones la incrementa, y cada instancia
+-- la compara periódicamente con la de sus horarios compilados en memoria para descartar los que quedaron viejos.
+
+ALTER TABLE profesional ADD COLUMN version_horario BIGINT NOT NULL DEFAULT 0;
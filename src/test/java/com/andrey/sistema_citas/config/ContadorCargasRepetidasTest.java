@@ -0,0 +1,67 @@
+package com.andrey.sistema_citas.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Solo cuenta como repetida la segunda carga de la misma entidad dentro de una misma petición.
+ */
+class ContadorCargasRepetidasTest {
+
+	private final SimpleMeterRegistry registro = new SimpleMeterRegistry();
+	private final ContadorCargasRepetidas contador =
+			new ContadorCargasRepetidas(mock(EntityManagerFactory.class), registro);
+
+	@AfterEach
+	void limpiar() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	void cuentaLasCargasRepetidasPorPeticion() {
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+		contador.onPostLoad(carga("com.andrey.sistema_citas.entity.Cita", 1L));
+		contador.onPostLoad(carga("com.andrey.sistema_citas.entity.Cita", 2L));
+		contador.onPostLoad(carga("com.andrey.sistema_citas.entity.Cita", 1L));
+
+		assertThat(repetidas("Cita")).isEqualTo(1.0);
+
+		// Una petición nueva empieza de cero
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+		contador.onPostLoad(carga("com.andrey.sistema_citas.entity.Cita", 1L));
+
+		assertThat(repetidas("Cita")).isEqualTo(1.0);
+	}
+
+	@Test
+	void fueraDeUnaPeticionNoCuenta() {
+		contador.onPostLoad(carga("com.andrey.sistema_citas.entity.Cita", 1L));
+		contador.onPostLoad(carga("com.andrey.sistema_citas.entity.Cita", 1L));
+
+		assertThat(registro.find(ContadorCargasRepetidas.METRICA).counter()).isNull();
+	}
+
+	private double repetidas(String entidad) {
+		return registro.get(ContadorCargasRepetidas.METRICA).tag("entidad", entidad).counter().count();
+	}
+
+	private static PostLoadEvent carga(String entidad, Long id) {
+		EntityPersister persister = mock(EntityPersister.class);
+		when(persister.getEntityName()).thenReturn(entidad);
+		PostLoadEvent evento = mock(PostLoadEvent.class);
+		when(evento.getPersister()).thenReturn(persister);
+		when(evento.getId()).thenReturn(id);
+		return evento;
+	}
+}
@@ -0,0 +1,69 @@
+package com.andrey.sistema_citas.config;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Cada token se verifica una sola vez: las repeticiones devuelven los datos guardados, y ni los tokens
+ * alterados ni los vencidos llegan a la caché.
+ */
+class JwtUtilTest {
+
+	private static final String SECRETO = "a3F8k9L2mN5pQ7rT0vW3xZ6bD1eG4hJ7lM0nP3sU6wY9zA2cF5iK8oR1tV4yX7";
+
+	@Test
+	void tokenRepetidoSaleDeLaCache() {
+		JwtUtil jwtUtil = new JwtUtil(SECRETO, 60_000L, 10);
+		String token = jwtUtil.generateToken("ana@test.com", Set.of("CLIENTE"), 7L, null);
+
+		TokenVerificado primero = jwtUtil.verificar(token);
+
+		assertThat(primero.email()).isEqualTo("ana@test.com");
+		assertThat(primero.roles()).containsExactly("CLIENTE");
+		assertThat(primero.usuarioId()).isEqualTo(7L);
+		assertThat(primero.profesionalId()).isNull();
+		assertThat(primero.jti()).isNotBlank();
+		assertThat(jwtUtil.verificar(token)).isSameAs(primero);
+	}
+
+	@Test
+	void conLaCacheLlenaLosTokensNuevosSeVerificanSinGuardarse() {
+		JwtUtil jwtUtil = new JwtUtil(SECRETO, 60_000L, 1);
+		String primero = jwtUtil.generateToken("ana@test.com", Set.of("CLIENTE"), 7L, null);
+		String segundo = jwtUtil.generateToken("luis@test.com", Set.of("CLIENTE"), 8L, null);
+		TokenVerificado enCache = jwtUtil.verificar(primero);
+
+		TokenVerificado sinGuardar = jwtUtil.verificar(segundo);
+
+		assertThat(sinGuardar.email()).isEqualTo("luis@test.com");
+		assertThat(jwtUtil.verificar(segundo)).isNotSameAs(sinGuardar);
+		assertThat(jwtUtil.verificar(primero)).isSameAs(enCache);
+	}
+
+	@Test
+	void tokenAlteradoSeRechaza() {
+		JwtUtil jwtUtil = new JwtUtil(SECRETO, 60_000L, 10);
+		String token = jwtUtil.generateToken("ana@test.com", Set.of("CLIENTE"), 7L, null);
+		String alterado = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+		assertThatThrownBy(() -> jwtUtil.verificar(alterado)).isInstanceOf(JwtException.class);
+		assertThat(jwtUtil.verificar(token).email()).isEqualTo("ana@test.com");
+	}
+
+	@Test
+	void tokenVencidoSeRechazaAunqueEstuvieraEnCache() throws Exception {
+		JwtUtil jwtUtil = new JwtUtil(SECRETO, 1_000L, 10);
+		String token = jwtUtil.generateToken("ana@test.com", Set.of("CLIENTE"), 7L, null);
+		jwtUtil.verificar(token);
+
+		Thread.sleep(1_100);
+
+		assertThatThrownBy(() -> jwtUtil.verificar(token)).isInstanceOf(ExpiredJwtException.class);
+	}
+}
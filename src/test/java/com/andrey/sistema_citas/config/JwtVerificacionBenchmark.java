@@ -0,0 +1,96 @@
+package com.andrey.sistema_citas.config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Coste por petición de comprobar el token en JwtAuthenticationFilter:
+ * <ul>
+ *   <li>{@code antes}: el filtro anterior, con cuatro parseos completos (extractEmail, los dos de validateToken
+ *   y el de los roles) y la clave de firma reconstruida en cada uno.</li>
+ *   <li>{@code despuesSinCache}: una sola verificación con la clave y el parser ya construidos (caché de capacidad 0,
+ *   el caso de un token que se ve por primera vez).</li>
+ *   <li>{@code despues}: el token repetido, que sale de la caché de JwtUtil sin comprobar la firma.</li>
+ * </ul>
+ * Se ejecuta con {@code ./mvnw test-compile} y después
+ * {@code java -cp target/test-classes:target/classes:$(./mvnw -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) org.openjdk.jmh.Main JwtVerificacionBenchmark},
+ * o con el main de esta clase desde el IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificacionBenchmark {
+
+	private static final String SECRETO = "a3F8k9L2mN5pQ7rT0vW3xZ6bD1eG4hJ7lM0nP3sU6wY9zA2cF5iK8oR1tV4yX7";
+	private static final String EMAIL = "usuario@test.com";
+
+	private JwtUtil jwtUtil;
+	private JwtUtil jwtUtilSinCache;
+	private String token;
+
+	@Setup
+	public void preparar() {
+		jwtUtil = new JwtUtil(SECRETO, 900_000L, 10_000);
+		jwtUtilSinCache = new JwtUtil(SECRETO, 900_000L, 0);
+		token = jwtUtil.generateToken(EMAIL, Set.of("USER"), 1L, null);
+	}
+
+	@Benchmark
+	public List<?> antes() {
+		String email = extraerClaim(token, Claims::getSubject);
+		// validateToken: extractEmail e isTokenExpired, dos parseos más
+		if (!extraerClaim(token, Claims::getSubject).equals(email)
+				|| extraerClaim(token, Claims::getExpiration).before(new Date())) {
+			throw new IllegalStateException("Token no válido");
+		}
+		return extraerClaim(token, claims -> claims.get("roles", List.class));
+	}
+
+	@Benchmark
+	public TokenVerificado despuesSinCache() {
+		return jwtUtilSinCache.verificar(token);
+	}
+
+	@Benchmark
+	public TokenVerificado despues() {
+		return jwtUtil.verificar(token);
+	}
+
+	// Equivalente a JwtUtil.extractClaim antes de construir la clave y el parser una sola vez
+	private static <T> T extraerClaim(String token, Function<Claims, T> resolver) {
+		Claims claims = Jwts.parser()
+				.verifyWith(Keys.hmacShaKeyFor(SECRETO.getBytes(StandardCharsets.UTF_8)))
+				.build()
+				.parseSignedClaims(token)
+				.getPayload();
+		return resolver.apply(claims);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(JwtVerificacionBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,116 @@
+package com.andrey.sistema_citas.config;
+
+import com.andrey.sistema_citas.service.RevocacionTokensService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Sin un token válido la cadena de seguridad responde 401, que es lo que el cliente usa para refrescar la sesión;
+ * el 403 queda para usuarios autenticados sin el rol necesario.
+ */
+@SpringJUnitWebConfig(classes = {SecurityConfigDev.class, SecurityConfigDevTest.Configuracion.class})
+@ActiveProfiles("dev")
+class SecurityConfigDevTest {
+
+	private static final String SECRETO = "a3F8k9L2mN5pQ7rT0vW3xZ6bD1eG4hJ7lM0nP3sU6wY9zA2cF5iK8oR1tV4yX7";
+
+	@Autowired
+	private WebApplicationContext contexto;
+
+	@Autowired
+	private RevocacionTokensService revocacionTokensService;
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(contexto).apply(springSecurity()).build();
+		when(revocacionTokensService.estaRevocado(any())).thenReturn(false);
+	}
+
+	@Test
+	void tokenVencidoRecibe401() throws Exception {
+		String vencido = new JwtUtil(SECRETO, -1_000L, 10).generateToken("ana@test.com", Set.of("USER"), 7L, null);
+
+		mockMvc.perform(get("/api/citas/prueba").header("Authorization", "Bearer " + vencido))
+				.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void tokenRevocadoRecibe401() throws Exception {
+		String token = new JwtUtil(SECRETO, 60_000L, 10).generateToken("ana@test.com", Set.of("USER"), 7L, null);
+		when(revocacionTokensService.estaRevocado(any())).thenReturn(true);
+
+		mockMvc.perform(get("/api/citas/prueba").header("Authorization", "Bearer " + token))
+				.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void sinTokenRecibe401() throws Exception {
+		mockMvc.perform(get("/api/citas/prueba")).andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void tokenValidoPasaYSinRolRecibe403() throws Exception {
+		String token = new JwtUtil(SECRETO, 60_000L, 10).generateToken("ana@test.com", Set.of("USER"), 7L, null);
+
+		mockMvc.perform(get("/api/citas/prueba").header("Authorization", "Bearer " + token))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/api/profesionales/prueba").header("Authorization", "Bearer " + token))
+				.andExpect(status().isForbidden());
+	}
+
+	@Configuration
+	@EnableWebMvc
+	static class Configuracion {
+
+		@Bean
+		JwtUtil jwtUtil() {
+			return new JwtUtil(SECRETO, 60_000L, 10);
+		}
+
+		@Bean
+		RevocacionTokensService revocacionTokensService() {
+			return mock(RevocacionTokensService.class);
+		}
+
+		@Bean
+		JwtAuthenticationFilter jwtAuthenticationFilter(JwtUtil jwtUtil, RevocacionTokensService revocacionTokensService) {
+			return new JwtAuthenticationFilter(jwtUtil, revocacionTokensService);
+		}
+
+		@Bean
+		PruebaController pruebaController() {
+			return new PruebaController();
+		}
+	}
+
+	@RestController
+	static class PruebaController {
+
+		@GetMapping({"/api/citas/prueba", "/api/profesionales/prueba"})
+		String prueba() {
+			return "ok";
+		}
+	}
+}
@@ -0,0 +1,182 @@
+package com.andrey.sistema_citas.repository;
+
+import com.andrey.sistema_citas.entity.Cita;
+import com.andrey.sistema_citas.entity.EstadoCita;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rendimiento de una inserción masiva de citas antes y después del generador de ids por tabla (id_generador).
+ * <ul>
+ *   <li>Antes: con IDENTITY, Hibernate ejecuta cada INSERT en el acto para leer el id que asigna la base de datos,
+ *   sin lotes. Se reproduce esa secuencia (un INSERT con RETURN_GENERATED_KEYS por cita) sobre una copia de la
+ *   tabla cita con AUTO_INCREMENT, porque el mapeo de Cita ya no usa IDENTITY.</li>
+ *   <li>Después: CitaRepository.saveAll con el mapeo real, que toma los ids en bloques de 50 y envía los INSERT
+ *   en lotes de hibernate.jdbc.batch_size.</li>
+ * </ul>
+ * El lado "antes" no paga el coste de Hibernate, así que la mejora medida es una cota inferior. Usa la misma
+ * base de datos dedicada que CitaRepositoryExplainTest (EXPLAIN_DB_URL, EXPLAIN_DB_USERNAME y EXPLAIN_DB_PASSWORD);
+ * sin EXPLAIN_DB_URL no se ejecuta. Las citas por segundo de cada lado se escriben en el log.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=${EXPLAIN_DB_URL}",
+		"spring.datasource.username=${EXPLAIN_DB_USERNAME:root}",
+		"spring.datasource.password=${EXPLAIN_DB_PASSWORD:}",
+		"spring.flyway.clean-disabled=false",
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@EnabledIfEnvironmentVariable(named = "EXPLAIN_DB_URL", matches = ".+")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CitaInsercionMasivaTest {
+
+	private static final Logger log = LoggerFactory.getLogger(CitaInsercionMasivaTest.class);
+
+	private static final int CALENTAMIENTO = 500;
+	private static final int CITAS = 5_000;
+
+	private final LocalDateTime inicio = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+
+	@Autowired
+	private CitaRepository citaRepository;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Autowired
+	private ServicioRepository servicioRepository;
+
+	@Autowired
+	private ProfesionalRepository profesionalRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private TransactionTemplate transactionTemplate;
+
+	@BeforeAll
+	void poblar() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		jdbcTemplate.update("INSERT INTO usuario (id, nombre, email, password, telefono, fecha_registro) VALUES (1, 'Usuario', 'usuario@test.com', 'clave', '6001', ?)",
+				Timestamp.valueOf(inicio.minusYears(1)));
+		jdbcTemplate.update("INSERT INTO profesional (id, especialidad, usuario_id) VALUES (1, 'Psicología', 1)");
+		jdbcTemplate.update("INSERT INTO servicio (id, nombre, duracion, duracion_minutos, precio) VALUES (1, 'Terapia', '50 minutos', 50, 50000)");
+
+		// Copia de cita con el id asignado por la base de datos, como la tenían las versiones con IDENTITY
+		jdbcTemplate.execute("CREATE TABLE cita_identidad LIKE cita");
+		jdbcTemplate.execute("ALTER TABLE cita_identidad MODIFY id BIGINT NOT NULL AUTO_INCREMENT");
+	}
+
+	@AfterAll
+	void limpiar() {
+		jdbcTemplate.execute("DROP TABLE IF EXISTS cita_identidad");
+	}
+
+	@Test
+	void elGeneradorPorTablaAgrupaLosInsertYSuperaAIdentity() {
+		insertarConIdentity(CALENTAMIENTO);
+		insertarConSaveAll(CALENTAMIENTO);
+		Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		estadisticas.clear();
+
+		long antes = insertarConIdentity(CITAS);
+		long despues = insertarConSaveAll(CITAS);
+
+		log.info("Inserción de {} citas: IDENTITY {} citas/s, id_generador con saveAll {} citas/s",
+				CITAS, porSegundo(antes), porSegundo(despues));
+		assertThat(estadisticas.getEntityInsertCount()).isEqualTo(CITAS);
+		// Un lote de batch_size (20) por sentencia más dos sentencias del generador cada 50 ids, lejos de una por cita
+		assertThat(estadisticas.getPrepareStatementCount()).as("sentencias preparadas").isLessThan(CITAS / 5);
+		assertThat(despues).as("nanosegundos con saveAll frente a IDENTITY (%d)", antes).isLessThan(antes);
+	}
+
+	/**
+	 * Lo que enviaba Hibernate con IDENTITY: un INSERT por cita, ejecutado al momento para leer el id generado.
+	 */
+	private long insertarConIdentity(int cantidad) {
+		long comienzo = System.nanoTime();
+		transactionTemplate.executeWithoutResult(estado -> jdbcTemplate.execute((ConnectionCallback<Void>) conexion -> {
+			try (PreparedStatement insert = conexion.prepareStatement(
+					"INSERT INTO cita_identidad (fecha_hora, fecha_fin, estado, usuario_id, servicio_id, profesional_id) " +
+					"VALUES (?, ?, 'PENDIENTE', 1, 1, 1)", Statement.RETURN_GENERATED_KEYS)) {
+				for (int i = 0; i < cantidad; i++) {
+					LocalDateTime fechaHora = inicio.plusHours(i);
+					insert.setTimestamp(1, Timestamp.valueOf(fechaHora));
+					insert.setTimestamp(2, Timestamp.valueOf(fechaHora.plusMinutes(50)));
+					insert.executeUpdate();
+					try (ResultSet claves = insert.getGeneratedKeys()) {
+						claves.next();
+					}
+				}
+			}
+			return null;
+		}));
+		return System.nanoTime() - comienzo;
+	}
+
+	private long insertarConSaveAll(int cantidad) {
+		long comienzo = System.nanoTime();
+		transactionTemplate.executeWithoutResult(estado -> {
+			List<Cita> citas = new ArrayList<>(cantidad);
+			for (int i = 0; i < cantidad; i++) {
+				Cita cita = new Cita(inicio.plusHours(i), EstadoCita.PENDIENTE, usuarioRepository.getReferenceById(1L),
+						servicioRepository.getReferenceById(1L), profesionalRepository.getReferenceById(1L));
+				cita.setFechaFin(cita.getFechaHora().plusMinutes(50));
+				citas.add(cita);
+			}
+			citaRepository.saveAll(citas);
+		});
+		return System.nanoTime() - comienzo;
+	}
+
+	private static long porSegundo(long nanos) {
+		return CITAS * 1_000_000_000L / Math.max(nanos, 1);
+	}
+
+	@TestConfiguration
+	static class Configuracion {
+
+		// Base de datos dedicada: se vacía y se vuelve a migrar en cada ejecución
+		@Bean
+		FlywayMigrationStrategy limpiarYMigrar() {
+			return flyway -> {
+				flyway.clean();
+				flyway.migrate();
+			};
+		}
+	}
+}
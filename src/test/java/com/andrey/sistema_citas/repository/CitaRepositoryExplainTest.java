@@ -0,0 +1,305 @@
+package com.andrey.sistema_citas.repository;
+
+import com.andrey.sistema_citas.entity.Cita;
+import com.andrey.sistema_citas.entity.EstadoCita;
+import com.andrey.sistema_citas.entity.Profesional;
+import com.andrey.sistema_citas.entity.Servicio;
+import com.andrey.sistema_citas.entity.Usuario;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ejecuta cada consulta de CitaRepository contra el esquema creado por las migraciones y comprueba con EXPLAIN
+ * que ninguna recorre una tabla completa. Necesita una base de datos MySQL dedicada (se vacía al empezar):
+ * EXPLAIN_DB_URL, EXPLAIN_DB_USERNAME y EXPLAIN_DB_PASSWORD. Sin EXPLAIN_DB_URL no se ejecuta.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=${EXPLAIN_DB_URL}",
+		"spring.datasource.username=${EXPLAIN_DB_USERNAME:root}",
+		"spring.datasource.password=${EXPLAIN_DB_PASSWORD:}",
+		"spring.flyway.clean-disabled=false",
+		"spring.jpa.show-sql=false"
+})
+@EnabledIfEnvironmentVariable(named = "EXPLAIN_DB_URL", matches = ".+")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CitaRepositoryExplainTest {
+
+	private static final int USUARIOS = 500;
+	private static final int PROFESIONALES = 50;
+	private static final int SERVICIOS = 50;
+	private static final int SERIES = 20;
+	private static final int CITAS = 10_000;
+
+	private static final long USUARIO = 7L;
+	private static final long PROFESIONAL = 3L;
+	private static final long SERVICIO = 2L;
+	private static final long SERIE = 4L;
+	private static final List<EstadoCita> ACTIVAS = List.of(EstadoCita.PENDIENTE, EstadoCita.CONFIRMADA);
+
+	// Consultas que por definición leen todas las filas de cita
+	private static final Set<String> RECORREN_TODO = Set.of("findRespuestas", "countCitasByEstado");
+
+	private static final List<String> sentencias = new CopyOnWriteArrayList<>();
+	private static volatile boolean capturando;
+
+	private final LocalDateTime ahora = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+	private final LocalDateTime inicioDatos = ahora.minusYears(3);
+
+	@Autowired
+	private CitaRepository citaRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@BeforeAll
+	void poblar() {
+		for (long id = 1; id <= USUARIOS; id++) {
+			jdbcTemplate.update("INSERT INTO usuario (id, nombre, email, password, telefono, fecha_registro) VALUES (?, ?, ?, ?, ?, ?)",
+					id, "Usuario " + id, "usuario" + id + "@test.com", "clave", "600" + id, Timestamp.valueOf(inicioDatos.plusDays(id)));
+			jdbcTemplate.update("INSERT INTO usuario_roles (usuario_id, role) VALUES (?, 'USER')", id);
+		}
+		for (long id = 1; id <= PROFESIONALES; id++) {
+			jdbcTemplate.update("INSERT INTO profesional (id, especialidad, usuario_id) VALUES (?, ?, ?)",
+					id, "Especialidad " + (id % 5), USUARIOS - PROFESIONALES + id);
+		}
+		for (long id = 1; id <= SERVICIOS; id++) {
+			jdbcTemplate.update("INSERT INTO servicio (id, nombre, duracion, duracion_minutos, precio) VALUES (?, ?, '50 minutos', 50, ?)",
+					id, "Servicio " + id, 30000.0 + id * 1000);
+		}
+		for (long id = 1; id <= SERIES; id++) {
+			jdbcTemplate.update("INSERT INTO serie_cita (id, usuario_id, profesional_id, servicio_id, intervalo_semanas, sesiones, politica, fecha_creacion) " +
+					"VALUES (?, ?, ?, ?, 1, 12, 'ACEPTAR_PARCIAL', ?)", id, id, id, id, Timestamp.valueOf(inicioDatos));
+		}
+
+		// Tres años de historial y tres meses por delante; la mayoría de las citas ya están completadas
+		long minutosEntreCitas = ChronoUnit.MINUTES.between(inicioDatos, ahora.plusMonths(3)) / CITAS;
+		List<Object[]> citas = new ArrayList<>();
+		List<Object[]> reservas = new ArrayList<>();
+		List<Object[]> reservasUsuario = new ArrayList<>();
+		for (int i = 1; i <= CITAS; i++) {
+			LocalDateTime inicio = inicioDatos.plusMinutes(i * minutosEntreCitas);
+			int reparto = i % 100;
+			String estado = reparto < 85 ? "COMPLETADA" : reparto < 93 ? "CANCELADA" : reparto < 97 ? "PENDIENTE" : "CONFIRMADA";
+			citas.add(new Object[] {i, Timestamp.valueOf(inicio), i % 500 == 0 ? null : Timestamp.valueOf(inicio.plusMinutes(50)),
+					estado, i % USUARIOS + 1, i % SERVICIOS + 1, i % PROFESIONALES + 1, i % 50 == 0 ? i / 50 % SERIES + 1 : null});
+			if (i % 10 == 0) {
+				reservas.add(new Object[] {i % PROFESIONALES + 1, Timestamp.valueOf(inicio), i});
+				reservasUsuario.add(new Object[] {i % USUARIOS + 1, Timestamp.valueOf(inicio), i});
+			}
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO cita (id, fecha_hora, fecha_fin, estado, usuario_id, servicio_id, profesional_id, serie_id) " +
+				"VALUES (?, ?, ?, ?, ?, ?, ?, ?)", citas);
+		jdbcTemplate.batchUpdate("INSERT INTO reserva_franja (profesional_id, inicio_franja, cita_id) VALUES (?, ?, ?)", reservas);
+		jdbcTemplate.batchUpdate("INSERT INTO reserva_franja_usuario (usuario_id, inicio_franja, cita_id) VALUES (?, ?, ?)", reservasUsuario);
+		jdbcTemplate.execute("ANALYZE TABLE cita, usuario, usuario_roles, profesional, servicio, serie_cita, reserva_franja, reserva_franja_usuario");
+	}
+
+	@Test
+	void ningunaConsultaRecorreUnaTablaCompleta() throws Exception {
+		Map<String, Supplier<Object[]>> argumentos = argumentos();
+		List<Method> consultas = Stream.concat(
+						Arrays.stream(CitaRepository.class.getDeclaredMethods()),
+						Arrays.stream(CitaBusquedaRepository.class.getDeclaredMethods()))
+				.filter(metodo -> !metodo.isDefault() && !metodo.isSynthetic() && !Modifier.isStatic(metodo.getModifiers()))
+				.toList();
+
+		assertThat(argumentos.keySet())
+				.as("Cada consulta de CitaRepository necesita argumentos en este test")
+				.containsAll(consultas.stream().map(Method::getName).collect(Collectors.toSet()));
+
+		List<String> recorridos = new ArrayList<>();
+		for (Method consulta : consultas) {
+			for (String sql : ejecutar(consulta, argumentos.get(consulta.getName()))) {
+				List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql);
+				for (int i = 0; i < plan.size(); i++) {
+					String tabla = (String) plan.get(i).get("table");
+					String tipo = (String) plan.get(i).get("type");
+					if (tabla == null || tabla.startsWith("<")) {
+						continue;
+					}
+					// En las consultas que leen todo, la primera tabla del plan se recorre entera por definición
+					boolean admitido = i == 0 && RECORREN_TODO.contains(consulta.getName());
+					if (!admitido && ("ALL".equals(tipo) || "index".equals(tipo))) {
+						recorridos.add(consulta.getName() + ": " + tabla + " (" + tipo + ")\n  " + sql);
+					}
+				}
+			}
+		}
+
+		assertThat(recorridos).as("Consultas que recorren una tabla completa").isEmpty();
+	}
+
+	private Map<String, Supplier<Object[]>> argumentos() {
+		LocalDateTime semana = ahora.plusDays(7);
+		Map<String, Supplier<Object[]>> argumentos = new HashMap<>();
+		argumentos.put("findByUsuario", () -> new Object[] {entityManager.getReference(Usuario.class, USUARIO)});
+		argumentos.put("findByProfesional", () -> new Object[] {entityManager.getReference(Profesional.class, PROFESIONAL)});
+		argumentos.put("findByServicio", () -> new Object[] {entityManager.getReference(Servicio.class, SERVICIO)});
+		argumentos.put("findByEstado", () -> new Object[] {EstadoCita.PENDIENTE});
+		argumentos.put("findByFechaHora", () -> new Object[] {ahora});
+		argumentos.put("findByFechaHoraBetween", () -> new Object[] {ahora, semana});
+		argumentos.put("findByFechaHoraAfter", () -> new Object[] {ahora.plusDays(30)});
+		argumentos.put("findByFechaHoraBefore", () -> new Object[] {inicioDatos.plusDays(30)});
+		argumentos.put("findCitasByUsuarioAndEstado", () -> new Object[] {USUARIO, EstadoCita.PENDIENTE});
+		argumentos.put("findCitasByProfesionalAndEstado", () -> new Object[] {PROFESIONAL, EstadoCita.PENDIENTE});
+		argumentos.put("findCitasCompletasEnRango", () -> new Object[] {ahora, semana});
+		argumentos.put("countCitasByEstado", () -> new Object[0]);
+		argumentos.put("findProximaCitaByProfesional", () -> new Object[] {PROFESIONAL, ahora});
+		argumentos.put("findByUsuarioId", () -> new Object[] {USUARIO});
+		argumentos.put("findByProfesionalId", () -> new Object[] {PROFESIONAL});
+		argumentos.put("findRespuestaById", () -> new Object[] {100L});
+		argumentos.put("findRespuestas", () -> new Object[0]);
+		argumentos.put("findRespuestasByUsuarioId", () -> new Object[] {USUARIO});
+		argumentos.put("findRespuestasByProfesionalId", () -> new Object[] {PROFESIONAL});
+		argumentos.put("findRespuestasByEstado", () -> new Object[] {EstadoCita.PENDIENTE});
+		argumentos.put("findRespuestasEnRango", () -> new Object[] {ahora, semana});
+		argumentos.put("streamRespuestasEnRango", () -> new Object[] {ahora, semana});
+		argumentos.put("findPaginaDespuesDe", () -> new Object[] {ahora, 0L, Limit.of(21)});
+		argumentos.put("findPaginaByUsuarioIdDespuesDe", () -> new Object[] {USUARIO, inicioDatos, 0L, Limit.of(21)});
+		argumentos.put("findPaginaByProfesionalIdDespuesDe", () -> new Object[] {PROFESIONAL, inicioDatos, 0L, Limit.of(21)});
+		argumentos.put("findPaginaByEstadoDespuesDe", () -> new Object[] {EstadoCita.PENDIENTE, inicioDatos, 0L, Limit.of(21)});
+		argumentos.put("buscarRespuestas", () -> new Object[] {busqueda(), Limit.of(21)});
+		argumentos.put("findDatosValidacion", () -> new Object[] {USUARIO, SERVICIO, PROFESIONAL});
+		argumentos.put("findIntervalosActivosDesde", () -> new Object[] {ACTIVAS, ahora});
+		argumentos.put("findIntervalosActivosSinReservas", () -> new Object[] {ACTIVAS, ahora});
+		argumentos.put("findIntervalosActivosSinReservasUsuario", () -> new Object[] {ACTIVAS, ahora});
+		argumentos.put("findIntervalosProfesional", () -> new Object[] {PROFESIONAL, ahora.minusDays(1), ahora, semana, ACTIVAS});
+		argumentos.put("findIntervalosProfesionales", () -> new Object[] {List.of(PROFESIONAL, PROFESIONAL + 1), ahora.minusDays(1), ahora, semana, ACTIVAS});
+		argumentos.put("findOcupacionesProfesional", () -> new Object[] {PROFESIONAL, ahora.minusDays(1), ahora, semana, ACTIVAS});
+		argumentos.put("findOcupacionesUsuario", () -> new Object[] {USUARIO, ahora.minusDays(1), ahora, semana, ACTIVAS});
+		argumentos.put("findBySerieId", () -> new Object[] {SERIE});
+		argumentos.put("findActivasDeSerieDesde", () -> new Object[] {SERIE, ACTIVAS, inicioDatos});
+		argumentos.put("findSinFechaFin", () -> new Object[0]);
+		argumentos.put("findConRelacionesById", () -> new Object[] {100L});
+		argumentos.put("existsByIdAndUsuarioId", () -> new Object[] {100L, USUARIO});
+		argumentos.put("existsSolapeProfesional", () -> new Object[] {PROFESIONAL, ahora.minusDays(1), ahora, ahora.plusHours(1), ACTIVAS, null});
+		argumentos.put("existsSolapeUsuario", () -> new Object[] {USUARIO, ahora.minusDays(1), ahora, ahora.plusHours(1), ACTIVAS, null});
+		argumentos.put("findCitasProximas", () -> new Object[] {ahora, ahora.plusDays(1)});
+		return argumentos;
+	}
+
+	private Specification<Cita> busqueda() {
+		return CitaEspecificaciones.deProfesional(PROFESIONAL)
+				.and(CitaEspecificaciones.enEstado(EstadoCita.CONFIRMADA))
+				.and(CitaEspecificaciones.despuesDe(ahora, 0L));
+	}
+
+	/**
+	 * Invoca la consulta y devuelve los SELECT que llegaron a la base de datos, con sus parámetros ya sustituidos.
+	 */
+	private List<String> ejecutar(Method consulta, Supplier<Object[]> argumentos) {
+		return transactionTemplate.execute(estado -> {
+			sentencias.clear();
+			capturando = true;
+			try {
+				Object resultado = consulta.invoke(citaRepository, argumentos.get());
+				if (resultado instanceof Stream<?> filas) {
+					try (filas) {
+						filas.forEach(fila -> {});
+					}
+				}
+			} catch (IllegalAccessException | InvocationTargetException e) {
+				throw new IllegalStateException("No se pudo ejecutar " + consulta.getName(), e);
+			} finally {
+				capturando = false;
+			}
+			return sentencias.stream()
+					.filter(sql -> sql.regionMatches(true, 0, "select", 0, 6))
+					.toList();
+		});
+	}
+
+	@TestConfiguration
+	static class Configuracion {
+
+		// Base de datos dedicada: se vacía y se vuelve a migrar en cada ejecución
+		@Bean
+		FlywayMigrationStrategy limpiarYMigrar() {
+			return flyway -> {
+				flyway.clean();
+				flyway.migrate();
+			};
+		}
+
+		@Bean
+		static BeanPostProcessor capturarSentencias() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String nombre) {
+					return bean instanceof DataSource dataSource ? envolver(DataSource.class, dataSource) : bean;
+				}
+			};
+		}
+	}
+
+	/**
+	 * Envuelve DataSource, Connection y PreparedStatement para guardar el SQL de cada consulta ejecutada
+	 * mientras capturando está activo.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> T envolver(Class<T> tipo, T destino) {
+		return (T) Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[] {tipo}, (proxy, metodo, args) -> {
+			if (capturando && destino instanceof PreparedStatement sentencia && metodo.getName().startsWith("execute")) {
+				// El toString() de la sentencia del driver es "<clase>@<hash>: <SQL con parámetros>"
+				String texto = sentencia.unwrap(PreparedStatement.class).toString();
+				sentencias.add(texto.substring(texto.indexOf(": ") + 2).strip());
+			}
+			Object resultado;
+			try {
+				resultado = metodo.invoke(destino, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+			Class<?> devuelto = metodo.getReturnType();
+			if (resultado != null && (devuelto == Connection.class || devuelto == PreparedStatement.class
+					|| devuelto == CallableStatement.class)) {
+				return envolver((Class<Object>) devuelto, resultado);
+			}
+			return resultado;
+		});
+	}
+}
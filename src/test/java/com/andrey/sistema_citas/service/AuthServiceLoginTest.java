@@ -0,0 +1,74 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.config.JwtUtil;
+import com.andrey.sistema_citas.dto.LoginRequest;
+import com.andrey.sistema_citas.entity.Usuario;
+import com.andrey.sistema_citas.repository.ProfesionalRepository;
+import com.andrey.sistema_citas.repository.TokenRefrescoRepository;
+import com.andrey.sistema_citas.repository.UsuarioRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Al iniciar sesión con un hash de factor de trabajo menor, el hash nuevo se calcula en el pool de cifrado
+ * y el UPDATE se hace en otro hilo, sin ocupar ni el pool ni el hilo de la petición.
+ */
+class AuthServiceLoginTest {
+
+	private static final String SECRETO = "a3F8k9L2mN5pQ7rT0vW3xZ6bD1eG4hJ7lM0nP3sU6wY9zA2cF5iK8oR1tV4yX7";
+
+	private AuthService authService;
+
+	@AfterEach
+	void tearDown() {
+		authService.detener();
+	}
+
+	@Test
+	void elHashRehechoSeGuardaFueraDelPoolDeCifrado() throws InterruptedException {
+		Usuario usuario = new Usuario("Usuario", "usuario@test.com", "hash-antiguo", null);
+		usuario.setId(7L);
+
+		UsuarioRepository usuarioRepository = mock(UsuarioRepository.class);
+		when(usuarioRepository.findByEmail("usuario@test.com")).thenReturn(Optional.of(usuario));
+		AtomicReference<String> hiloGuardado = new AtomicReference<>();
+		CountDownLatch guardado = new CountDownLatch(1);
+		when(usuarioRepository.actualizarPassword(7L, "hash-nuevo")).thenAnswer(invocacion -> {
+			hiloGuardado.set(Thread.currentThread().getName());
+			guardado.countDown();
+			return 1;
+		});
+
+		CifradoContrasenas cifradoContrasenas = mock(CifradoContrasenas.class);
+		when(cifradoContrasenas.verificar("clave", "hash-antiguo")).thenReturn(true);
+		when(cifradoContrasenas.necesitaRehacer("hash-antiguo")).thenReturn(true);
+		// Ya completado: con thenAccept el UPDATE se haría en el hilo que inicia sesión
+		when(cifradoContrasenas.codificarEnSegundoPlano("clave")).thenReturn(CompletableFuture.completedFuture("hash-nuevo"));
+
+		ProfesionalRepository profesionalRepository = mock(ProfesionalRepository.class);
+		when(profesionalRepository.findIdByUsuarioId(anyLong())).thenReturn(Optional.empty());
+		authService = new AuthService(usuarioRepository, profesionalRepository, mock(TokenRefrescoRepository.class),
+				mock(RevocacionTokensService.class), cifradoContrasenas, new JwtUtil(SECRETO, 900_000L, 10),
+				Duration.ofDays(14));
+
+		LoginRequest request = new LoginRequest();
+		request.setEmail("usuario@test.com");
+		request.setPassword("clave");
+		authService.login(request);
+
+		assertThat(guardado.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(hiloGuardado.get()).isEqualTo("contrasenas-guardado");
+	}
+}
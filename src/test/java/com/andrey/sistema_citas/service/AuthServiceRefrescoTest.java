@@ -0,0 +1,111 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.config.JwtUtil;
+import com.andrey.sistema_citas.config.UsuarioAutenticado;
+import com.andrey.sistema_citas.dto.LoginResponse;
+import com.andrey.sistema_citas.entity.Role;
+import com.andrey.sistema_citas.entity.TokenRefresco;
+import com.andrey.sistema_citas.entity.Usuario;
+import com.andrey.sistema_citas.exception.UnauthorizedException;
+import com.andrey.sistema_citas.repository.ProfesionalRepository;
+import com.andrey.sistema_citas.repository.TokenRefrescoRepository;
+import com.andrey.sistema_citas.repository.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cada token de refresco sirve una sola vez: al usarlo se rota, y presentarlo de nuevo revoca todas las sesiones del usuario.
+ */
+class AuthServiceRefrescoTest {
+
+	private static final String SECRETO = "a3F8k9L2mN5pQ7rT0vW3xZ6bD1eG4hJ7lM0nP3sU6wY9zA2cF5iK8oR1tV4yX7";
+
+	private UsuarioRepository usuarioRepository;
+	private TokenRefrescoRepository tokenRefrescoRepository;
+	private RevocacionTokensService revocacionTokensService;
+	private AuthService authService;
+
+	@BeforeEach
+	void setUp() {
+		usuarioRepository = mock(UsuarioRepository.class);
+		tokenRefrescoRepository = mock(TokenRefrescoRepository.class);
+		revocacionTokensService = mock(RevocacionTokensService.class);
+		ProfesionalRepository profesionalRepository = mock(ProfesionalRepository.class);
+		when(profesionalRepository.findIdByUsuarioId(anyLong())).thenReturn(Optional.empty());
+
+		authService = new AuthService(usuarioRepository, profesionalRepository, tokenRefrescoRepository,
+				revocacionTokensService, mock(CifradoContrasenas.class), new JwtUtil(SECRETO, 900_000L, 10),
+				Duration.ofDays(14));
+	}
+
+	@Test
+	void refrescarRotaElToken() {
+		String hash = hash("viejo");
+		when(tokenRefrescoRepository.findById(hash)).thenReturn(Optional.of(guardado(hash, false)));
+		when(tokenRefrescoRepository.revocar(hash)).thenReturn(1);
+		when(usuarioRepository.findById(7L)).thenReturn(Optional.of(usuario()));
+
+		LoginResponse respuesta = authService.refrescar("viejo");
+
+		assertThat(respuesta.getToken()).isNotBlank();
+		assertThat(respuesta.getRefreshToken()).isNotBlank().isNotEqualTo("viejo");
+		ArgumentCaptor<TokenRefresco> nuevo = ArgumentCaptor.forClass(TokenRefresco.class);
+		verify(tokenRefrescoRepository).save(nuevo.capture());
+		assertThat(nuevo.getValue().getHash()).isEqualTo(hash(respuesta.getRefreshToken()));
+		assertThat(nuevo.getValue().getUsuarioId()).isEqualTo(7L);
+	}
+
+	@Test
+	void reutilizarUnTokenRevocaTodasLasSesiones() {
+		String hash = hash("robado");
+		when(tokenRefrescoRepository.findById(hash)).thenReturn(Optional.of(guardado(hash, true)));
+
+		assertThatThrownBy(() -> authService.refrescar("robado")).isInstanceOf(UnauthorizedException.class);
+
+		verify(tokenRefrescoRepository).revocarDeUsuario(7L);
+		verify(tokenRefrescoRepository, never()).save(any());
+	}
+
+	@Test
+	void cerrarSesionRevocaAmbosTokens() {
+		Instant expira = Instant.now().plusSeconds(600);
+
+		authService.cerrarSesion("actual", new UsuarioAutenticado("ana@test.com", 7L, null, "jti-1", expira));
+
+		verify(tokenRefrescoRepository).revocar(hash("actual"));
+		verify(revocacionTokensService).revocar("jti-1", expira);
+	}
+
+	private static TokenRefresco guardado(String hash, boolean revocado) {
+		TokenRefresco token = new TokenRefresco(hash, 7L, LocalDateTime.now().plusDays(1), LocalDateTime.now());
+		token.setRevocado(revocado);
+		return token;
+	}
+
+	private static Usuario usuario() {
+		Usuario usuario = new Usuario("Ana", "ana@test.com", "clave", null);
+		usuario.setId(7L);
+		usuario.setRoles(Set.of(Role.USER));
+		return usuario;
+	}
+
+	private static String hash(String token) {
+		return ResumenSha256.de(token);
+	}
+}
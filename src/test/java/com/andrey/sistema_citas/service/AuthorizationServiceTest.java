@@ -0,0 +1,92 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.config.UsuarioAutenticado;
+import com.andrey.sistema_citas.repository.CitaRepository;
+import com.andrey.sistema_citas.repository.ListaEsperaRepository;
+import com.andrey.sistema_citas.repository.ProfesionalRepository;
+import com.andrey.sistema_citas.repository.RetencionFranjaRepository;
+import com.andrey.sistema_citas.repository.SerieCitaRepository;
+import com.andrey.sistema_citas.repository.ServicioRepository;
+import com.andrey.sistema_citas.repository.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Con los ids en el principal, cada decisión de autorización cuesta a lo sumo una consulta exists por id;
+ * sin ellos se resuelven por email con una consulta de solo id.
+ */
+class AuthorizationServiceTest {
+
+	private CitaRepository citaRepository;
+	private ServicioRepository servicioRepository;
+	private UsuarioRepository usuarioRepository;
+	private ProfesionalRepository profesionalRepository;
+	private AuthorizationService authz;
+
+	@BeforeEach
+	void setUp() {
+		citaRepository = mock(CitaRepository.class);
+		servicioRepository = mock(ServicioRepository.class);
+		usuarioRepository = mock(UsuarioRepository.class);
+		profesionalRepository = mock(ProfesionalRepository.class);
+		authz = new AuthorizationService(citaRepository, servicioRepository, usuarioRepository, profesionalRepository,
+				mock(RetencionFranjaRepository.class), mock(ListaEsperaRepository.class), mock(SerieCitaRepository.class));
+	}
+
+	@Test
+	void propiedadDeCitaEsUnaSolaConsultaExists() {
+		when(citaRepository.existsByIdAndUsuarioId(10L, 7L)).thenReturn(true);
+		Authentication autenticacion = autenticacion(new UsuarioAutenticado("ana@test.com", 7L, null, null, null), "USER");
+
+		assertThat(authz.puedeModificarCita(10L, autenticacion)).isTrue();
+		assertThat(authz.puedeModificarCita(11L, autenticacion)).isFalse();
+
+		verify(citaRepository).existsByIdAndUsuarioId(10L, 7L);
+		verify(citaRepository).existsByIdAndUsuarioId(11L, 7L);
+		verifyNoMoreInteractions(citaRepository);
+		verifyNoInteractions(usuarioRepository, profesionalRepository);
+	}
+
+	@Test
+	void perfilPropioYProfesionalSeResuelvenSinConsultas() {
+		Authentication autenticacion = autenticacion(new UsuarioAutenticado("pro@test.com", 7L, 3L, null, null), "PROFESSIONAL");
+
+		assertThat(authz.puedeModificarUsuario(7L, autenticacion)).isTrue();
+		assertThat(authz.puedeModificarUsuario(8L, autenticacion)).isFalse();
+		assertThat(authz.obtenerProfesionalIdActual(autenticacion)).isEqualTo(3L);
+
+		verifyNoInteractions(usuarioRepository, profesionalRepository, citaRepository, servicioRepository);
+	}
+
+	@Test
+	void sinIdsEnElTokenSeResuelvePorEmail() {
+		when(usuarioRepository.findIdByEmail("ana@test.com")).thenReturn(Optional.of(7L));
+		when(profesionalRepository.findIdByUsuarioId(7L)).thenReturn(Optional.of(3L));
+		when(servicioRepository.existsByIdAndProfesionalId(5L, 3L)).thenReturn(true);
+		Authentication autenticacion = autenticacion("ana@test.com", "PROFESSIONAL");
+
+		assertThat(authz.puedeModificarServicio(5L, autenticacion)).isTrue();
+
+		verify(usuarioRepository).findIdByEmail("ana@test.com");
+		verify(profesionalRepository).findIdByUsuarioId(7L);
+		verify(servicioRepository).existsByIdAndProfesionalId(5L, 3L);
+		verifyNoMoreInteractions(usuarioRepository, profesionalRepository, servicioRepository);
+	}
+
+	private static Authentication autenticacion(Object principal, String rol) {
+		return new UsernamePasswordAuthenticationToken(principal, null, List.of(new SimpleGrantedAuthority("ROLE_" + rol)));
+	}
+}
@@ -0,0 +1,81 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.exception.ServicioSaturadoException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * El cifrado de contraseñas corre en un pool acotado: con los hilos y la cola llenos se rechaza al instante,
+ * y los hashes con un factor de trabajo antiguo se detectan para rehacerlos.
+ */
+class CifradoContrasenasTest {
+
+	@Test
+	void conElPoolLlenoRechazaSinEsperar() throws Exception {
+		CountDownLatch liberar = new CountDownLatch(1);
+		CountDownLatch ocupado = new CountDownLatch(1);
+		CifradoContrasenas cifrado = new CifradoContrasenas(new Bloqueante(ocupado, liberar), 1, 1, Duration.ofSeconds(5));
+		try {
+			CompletableFuture<String> enCurso = cifrado.codificarEnSegundoPlano("uno");
+			assertThat(ocupado.await(5, TimeUnit.SECONDS)).isTrue();
+			CompletableFuture<String> enCola = cifrado.codificarEnSegundoPlano("dos");
+
+			long inicio = System.nanoTime();
+			assertThatThrownBy(() -> cifrado.codificar("tres")).isInstanceOf(ServicioSaturadoException.class);
+			assertThat(Duration.ofNanos(System.nanoTime() - inicio)).isLessThan(Duration.ofSeconds(1));
+
+			liberar.countDown();
+			assertThat(enCurso.get(5, TimeUnit.SECONDS)).isEqualTo("hash-uno");
+			assertThat(enCola.get(5, TimeUnit.SECONDS)).isEqualTo("hash-dos");
+		} finally {
+			liberar.countDown();
+			cifrado.detener();
+		}
+	}
+
+	@Test
+	void detectaHashesConUnFactorDeTrabajoMenor() {
+		String antiguo = new BCryptPasswordEncoder(4).encode("clave");
+		CifradoContrasenas cifrado = new CifradoContrasenas(new BCryptPasswordEncoder(5), 1, 4, Duration.ofSeconds(5));
+		try {
+			assertThat(cifrado.verificar("clave", antiguo)).isTrue();
+			assertThat(cifrado.necesitaRehacer(antiguo)).isTrue();
+
+			String nuevo = cifrado.codificar("clave");
+			assertThat(cifrado.verificar("clave", nuevo)).isTrue();
+			assertThat(cifrado.necesitaRehacer(nuevo)).isFalse();
+			// Un factor mayor que el configurado no se rebaja
+			assertThat(cifrado.necesitaRehacer(new BCryptPasswordEncoder(6).encode("clave"))).isFalse();
+		} finally {
+			cifrado.detener();
+		}
+	}
+
+	private record Bloqueante(CountDownLatch ocupado, CountDownLatch liberar) implements PasswordEncoder {
+
+		@Override
+		public String encode(CharSequence contrasena) {
+			ocupado.countDown();
+			try {
+				liberar.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return "hash-" + contrasena;
+		}
+
+		@Override
+		public boolean matches(CharSequence contrasena, String hash) {
+			return hash.equals(encode(contrasena));
+		}
+	}
+}
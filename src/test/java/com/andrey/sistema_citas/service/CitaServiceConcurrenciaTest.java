@@ -0,0 +1,307 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.CitaCreateDTO;
+import com.andrey.sistema_citas.entity.Cita;
+import com.andrey.sistema_citas.entity.Profesional;
+import com.andrey.sistema_citas.entity.Servicio;
+import com.andrey.sistema_citas.entity.Usuario;
+import com.andrey.sistema_citas.exception.BusinessRuleException;
+import com.andrey.sistema_citas.repository.CitaRepository;
+import com.andrey.sistema_citas.repository.DatosValidacionCita;
+import com.andrey.sistema_citas.repository.ProfesionalRepository;
+import com.andrey.sistema_citas.repository.ServicioRepository;
+import com.andrey.sistema_citas.repository.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reservas concurrentes sobre CitaService con repositorios simulados: el mismo horario nunca se
+ * reserva dos veces y las reservas de profesionales distintos no se esperan entre sí.
+ * Cada reserva se ejecuta en una transacción simulada que se confirma después de soltar el bloqueo,
+ * como en la aplicación; la base de datos simulada solo ve las citas de transacciones ya confirmadas.
+ */
+class CitaServiceConcurrenciaTest {
+
+	private static final int HILOS = 16;
+
+	private final AtomicLong secuencia = new AtomicLong();
+	private final LocalDateTime horario = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+	private final List<Cita> confirmadas = new CopyOnWriteArrayList<>();
+	private final ThreadLocal<List<Cita>> sinConfirmar = ThreadLocal.withInitial(ArrayList::new);
+
+	private CitaRepository citaRepository;
+	private IndiceAgenda indiceAgenda;
+	private CitaService citaService;
+
+	@BeforeEach
+	void setUp() {
+		citaRepository = mock(CitaRepository.class);
+		UsuarioRepository usuarioRepository = mock(UsuarioRepository.class);
+		ServicioRepository servicioRepository = mock(ServicioRepository.class);
+		ProfesionalRepository profesionalRepository = mock(ProfesionalRepository.class);
+
+		when(citaRepository.findDatosValidacion(anyLong(), anyLong(), anyLong()))
+				.thenAnswer(inv -> datosValidacion(inv.getArgument(0), inv.getArgument(1), inv.getArgument(2)));
+		when(usuarioRepository.getReferenceById(anyLong())).thenAnswer(inv -> usuario(inv.getArgument(0)));
+		when(profesionalRepository.getReferenceById(anyLong())).thenAnswer(inv -> profesional(inv.getArgument(0)));
+		when(servicioRepository.getReferenceById(anyLong())).thenAnswer(inv -> servicio(inv.getArgument(0)));
+		when(citaRepository.findIntervalosActivosDesde(anyList(), any())).thenReturn(List.of());
+		// Como en la base de datos real, las citas de transacciones sin confirmar no cuentan
+		when(citaRepository.existsSolapeProfesional(anyLong(), any(), any(), any(), anyList(), any()))
+				.thenAnswer(inv -> solapaConfirmada(cita -> cita.getProfesional().getId().equals(inv.getArgument(0)),
+						inv.getArgument(2), inv.getArgument(3)));
+		when(citaRepository.existsSolapeUsuario(anyLong(), any(), any(), any(), anyList(), any()))
+				.thenAnswer(inv -> solapaConfirmada(cita -> cita.getUsuario().getId().equals(inv.getArgument(0)),
+						inv.getArgument(2), inv.getArgument(3)));
+
+		indiceAgenda = new IndiceAgenda(citaRepository);
+		indiceAgenda.precargar();
+
+		citaService = new CitaService(citaRepository, usuarioRepository, servicioRepository,
+				profesionalRepository, indiceAgenda, new BloqueosAgenda(), mock(ReservaFranjaService.class), evento -> {});
+	}
+
+	@Test
+	void mismoHorarioMismoProfesionalSoloSeReservaUnaVez() throws Exception {
+		conGuardadoLento();
+
+		List<Callable<Boolean>> reservas = new ArrayList<>();
+		for (long usuarioId = 1; usuarioId <= HILOS; usuarioId++) {
+			long id = usuarioId;
+			reservas.add(() -> intentarReservar(id, 1L));
+		}
+
+		assertThat(exitosas(reservas)).isEqualTo(1);
+	}
+
+	@Test
+	void mismoUsuarioNoPuedeReservarDosProfesionalesALaVez() throws Exception {
+		conGuardadoLento();
+
+		List<Callable<Boolean>> reservas = new ArrayList<>();
+		for (long profesionalId = 1; profesionalId <= HILOS; profesionalId++) {
+			long id = profesionalId;
+			reservas.add(() -> intentarReservar(1L, id));
+		}
+
+		assertThat(exitosas(reservas)).isEqualTo(1);
+	}
+
+	@Test
+	void profesionalesDistintosReservanEnParalelo() throws Exception {
+		// Todos los hilos deben estar dentro de la sección crítica a la vez; con un bloqueo global
+		// la barrera no se completaría y save fallaría por tiempo de espera
+		CyclicBarrier barrera = new CyclicBarrier(HILOS);
+		AtomicBoolean serializado = new AtomicBoolean(false);
+		when(citaRepository.save(any(Cita.class))).thenAnswer(inv -> {
+			try {
+				barrera.await(5, TimeUnit.SECONDS);
+			} catch (Exception e) {
+				serializado.set(true);
+			}
+			return conId(inv.getArgument(0));
+		});
+
+		List<Callable<Boolean>> reservas = new ArrayList<>();
+		for (long id = 1; id <= HILOS; id++) {
+			long profesionalId = id;
+			long usuarioId = 100 + id;
+			reservas.add(() -> intentarReservar(usuarioId, profesionalId));
+		}
+
+		assertThat(exitosas(reservas)).isEqualTo(HILOS);
+		assertThat(serializado).isFalse();
+	}
+
+	@Test
+	void reservaSinConfirmarDeEstaInstanciaSeRechazaSinConsultarLaBaseDeDatos() throws Exception {
+		conGuardadoLento();
+		CountDownLatch reservada = new CountDownLatch(1);
+		CountDownLatch comprobada = new CountDownLatch(1);
+
+		// La primera reserva suelta el bloqueo pero no confirma hasta que la segunda ha comprobado el horario
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Boolean> primera = executor.submit(() -> intentarReservar(1L, 1L, () -> {
+				reservada.countDown();
+				comprobada.await(5, TimeUnit.SECONDS);
+			}));
+			assertThat(reservada.await(5, TimeUnit.SECONDS)).isTrue();
+
+			assertThat(intentarReservar(2L, 1L)).isFalse();
+			comprobada.countDown();
+			assertThat(primera.get(5, TimeUnit.SECONDS)).isTrue();
+		} finally {
+			executor.shutdownNow();
+		}
+		verify(citaRepository, never()).existsSolapeProfesional(anyLong(), any(), any(), any(), anyList(), any());
+	}
+
+	@Test
+	void reservaConfirmadaSeVerificaEnLaBaseDeDatos() {
+		conGuardadoLento();
+
+		assertThat(intentarReservar(1L, 1L)).isTrue();
+		assertThat(intentarReservar(2L, 1L)).isFalse();
+		verify(citaRepository).existsSolapeProfesional(eq(1L), any(), eq(horario), any(), anyList(), isNull());
+	}
+
+	@Test
+	void ocupadoSoloEnElIndiceSeConfirmaEnLaBaseDeDatos() {
+		// Cita cancelada en otra instancia: este índice aún la tiene, pero la base de datos ya no
+		indiceAgenda.registrar(99L, 1L, 2L, horario, horario.plusMinutes(50));
+		conGuardadoLento();
+
+		assertThat(intentarReservar(2L, 1L)).isTrue();
+		verify(citaRepository).existsSolapeProfesional(eq(1L), any(), eq(horario), any(), anyList(), isNull());
+		verify(citaRepository).existsSolapeUsuario(eq(2L), any(), eq(horario), any(), anyList(), isNull());
+	}
+
+	@Test
+	void horarioLibreEnElIndiceNoConsultaLaBaseDeDatos() {
+		conGuardadoLento();
+
+		assertThat(intentarReservar(2L, 1L)).isTrue();
+		verify(citaRepository, never()).existsSolapeProfesional(anyLong(), any(), any(), any(), anyList(), any());
+		verify(citaRepository, never()).existsSolapeUsuario(anyLong(), any(), any(), any(), anyList(), any());
+	}
+
+	private boolean intentarReservar(Long usuarioId, Long profesionalId) {
+		return intentarReservar(usuarioId, profesionalId, () -> Thread.sleep(5));
+	}
+
+	/**
+	 * Agenda la cita en una transacción simulada. antesDelCommit se ejecuta ya fuera del bloqueo,
+	 * con la cita guardada pero aún invisible para el resto.
+	 */
+	private boolean intentarReservar(Long usuarioId, Long profesionalId, Espera antesDelCommit) {
+		CitaCreateDTO dto = new CitaCreateDTO();
+		dto.setUsuarioId(usuarioId);
+		dto.setProfesionalId(profesionalId);
+		dto.setServicioId(1L);
+		dto.setFechaHora(horario);
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			citaService.agendarCita(dto);
+			antesDelCommit.esperar();
+			confirmadas.addAll(sinConfirmar.get());
+			terminar(TransactionSynchronization.STATUS_COMMITTED);
+			return true;
+		} catch (BusinessRuleException e) {
+			terminar(TransactionSynchronization.STATUS_ROLLED_BACK);
+			return false;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			terminar(TransactionSynchronization.STATUS_ROLLED_BACK);
+			return false;
+		} finally {
+			sinConfirmar.remove();
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	private static void terminar(int estado) {
+		for (TransactionSynchronization sincronizacion : TransactionSynchronizationManager.getSynchronizations()) {
+			if (estado == TransactionSynchronization.STATUS_COMMITTED) {
+				sincronizacion.afterCommit();
+			}
+			sincronizacion.afterCompletion(estado);
+		}
+	}
+
+	private boolean solapaConfirmada(Predicate<Cita> participante, LocalDateTime inicio, LocalDateTime fin) {
+		return confirmadas.stream().anyMatch(cita -> participante.test(cita)
+				&& cita.getFechaHora().isBefore(fin) && cita.getFechaFin().isAfter(inicio));
+	}
+
+	private long exitosas(List<Callable<Boolean>> reservas) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(reservas.size());
+		try {
+			long total = 0;
+			for (Future<Boolean> resultado : executor.invokeAll(reservas)) {
+				if (resultado.get()) {
+					total++;
+				}
+			}
+			return total;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void conGuardadoLento() {
+		when(citaRepository.save(any(Cita.class))).thenAnswer(inv -> {
+			Thread.sleep(5);
+			return conId(inv.getArgument(0));
+		});
+	}
+
+	private Cita conId(Cita cita) {
+		cita.setId(secuencia.incrementAndGet());
+		sinConfirmar.get().add(cita);
+		return cita;
+	}
+
+	@FunctionalInterface
+	private interface Espera {
+		void esperar() throws InterruptedException;
+	}
+
+	private static DatosValidacionCita datosValidacion(Long usuarioId, Long servicioId, Long profesionalId) {
+		DatosValidacionCita datos = mock(DatosValidacionCita.class);
+		when(datos.getUsuarioId()).thenReturn(usuarioId);
+		when(datos.getServicioId()).thenReturn(servicioId);
+		when(datos.getProfesionalId()).thenReturn(profesionalId);
+		when(datos.getServicioDuracion()).thenReturn("50 minutos");
+		when(datos.getServicioDuracionMinutos()).thenReturn(50);
+		return datos;
+	}
+
+	private static Usuario usuario(Long id) {
+		Usuario usuario = new Usuario("Usuario " + id, "usuario" + id + "@test.com", "clave", null);
+		usuario.setId(id);
+		return usuario;
+	}
+
+	private static Profesional profesional(Long id) {
+		Profesional profesional = new Profesional("Psicología", null, usuario(1000 + id));
+		profesional.setId(id);
+		return profesional;
+	}
+
+	private static Servicio servicio(Long id) {
+		Servicio servicio = new Servicio("Terapia " + id, null, "50 minutos", 50000.0);
+		servicio.setId(id);
+		return servicio;
+	}
+}
@@ -0,0 +1,159 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.CitaBusquedaDTO;
+import com.andrey.sistema_citas.dto.CitaResponseDTO;
+import com.andrey.sistema_citas.dto.PaginaCursorDTO;
+import com.andrey.sistema_citas.entity.Cita;
+import com.andrey.sistema_citas.entity.EstadoCita;
+import com.andrey.sistema_citas.entity.Profesional;
+import com.andrey.sistema_citas.entity.Servicio;
+import com.andrey.sistema_citas.entity.Usuario;
+import com.andrey.sistema_citas.exception.BusinessRuleException;
+import com.andrey.sistema_citas.exception.ResourceNotFoundException;
+import com.andrey.sistema_citas.repository.CitaRepository;
+import com.andrey.sistema_citas.repository.ProfesionalRepository;
+import com.andrey.sistema_citas.repository.ServicioRepository;
+import com.andrey.sistema_citas.repository.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Las consultas de citas se resuelven con una sola llamada al repositorio que ya devuelve la proyección,
+ * sin cargar entidades ni recorrer sus relaciones al construir la respuesta.
+ */
+class CitaServiceConsultasTest {
+
+	private CitaRepository citaRepository;
+	private UsuarioRepository usuarioRepository;
+	private ServicioRepository servicioRepository;
+	private ProfesionalRepository profesionalRepository;
+	private CitaService citaService;
+
+	@BeforeEach
+	void setUp() {
+		citaRepository = mock(CitaRepository.class);
+		usuarioRepository = mock(UsuarioRepository.class);
+		servicioRepository = mock(ServicioRepository.class);
+		profesionalRepository = mock(ProfesionalRepository.class);
+
+		citaService = new CitaService(citaRepository, usuarioRepository, servicioRepository,
+				profesionalRepository, new IndiceAgenda(citaRepository), new BloqueosAgenda(),
+				mock(ReservaFranjaService.class), evento -> {});
+	}
+
+	@Test
+	void listadosUsanUnaSolaConsultaDeProyeccion() {
+		LocalDateTime inicio = LocalDateTime.now();
+		LocalDateTime fin = inicio.plusDays(7);
+		List<CitaResponseDTO> citas = List.of(respuesta(1L), respuesta(2L));
+		when(citaRepository.findRespuestas()).thenReturn(citas);
+		when(citaRepository.findRespuestasByUsuarioId(1L)).thenReturn(citas);
+		when(citaRepository.findRespuestasByProfesionalId(2L)).thenReturn(citas);
+		when(citaRepository.findRespuestasByEstado(EstadoCita.PENDIENTE)).thenReturn(citas);
+		when(citaRepository.findRespuestasEnRango(inicio, fin)).thenReturn(citas);
+
+		assertThat(citaService.obtenerTodasLasCitas()).isSameAs(citas);
+		assertThat(citaService.obtenerCitasPorUsuario(1L)).isSameAs(citas);
+		assertThat(citaService.obtenerCitasPorProfesional(2L)).isSameAs(citas);
+		assertThat(citaService.obtenerCitasPendientes()).isSameAs(citas);
+		assertThat(citaService.obtenerCitasEnRango(inicio, fin)).isSameAs(citas);
+
+		verify(citaRepository).findRespuestas();
+		verify(citaRepository).findRespuestasByUsuarioId(1L);
+		verify(citaRepository).findRespuestasByProfesionalId(2L);
+		verify(citaRepository).findRespuestasByEstado(EstadoCita.PENDIENTE);
+		verify(citaRepository).findRespuestasEnRango(inicio, fin);
+		verifyNoMoreInteractions(citaRepository);
+		verifyNoInteractions(usuarioRepository, servicioRepository, profesionalRepository);
+	}
+
+	@Test
+	void citaPorIdUsaUnaSolaConsulta() {
+		when(citaRepository.findRespuestaById(1L)).thenReturn(Optional.of(respuesta(1L)));
+
+		assertThat(citaService.obtenerCitaPorId(1L).getId()).isEqualTo(1L);
+		assertThatThrownBy(() -> citaService.obtenerCitaPorId(2L)).isInstanceOf(ResourceNotFoundException.class);
+
+		verify(citaRepository).findRespuestaById(1L);
+		verify(citaRepository).findRespuestaById(2L);
+		verifyNoMoreInteractions(citaRepository);
+	}
+
+	@Test
+	void cancelarCargaLaCitaUnaSolaVezConSusRelaciones() {
+		Cita cita = cita(1L, EstadoCita.CONFIRMADA);
+		when(citaRepository.findConRelacionesById(1L)).thenReturn(Optional.of(cita));
+		when(citaRepository.save(cita)).thenReturn(cita);
+
+		CitaResponseDTO respuesta = citaService.cancelarCita(1L);
+
+		assertThat(respuesta.getEstado()).isEqualTo(EstadoCita.CANCELADA);
+		assertThat(respuesta.getProfesionalNombre()).isEqualTo("Profesional");
+		verify(citaRepository).findConRelacionesById(1L);
+		verify(citaRepository).save(cita);
+		verifyNoMoreInteractions(citaRepository);
+	}
+
+	@Test
+	void busquedaUsaUnaSolaConsultaYPideUnElementoDeMas() {
+		CitaBusquedaDTO filtro = new CitaBusquedaDTO();
+		filtro.setProfesionalId(2L);
+		filtro.setEstado(EstadoCita.CONFIRMADA);
+		when(citaRepository.buscarRespuestas(any(), eq(Limit.of(3))))
+				.thenReturn(List.of(respuesta(1L), respuesta(2L), respuesta(3L)));
+
+		PaginaCursorDTO<CitaResponseDTO> pagina = citaService.buscarCitas(filtro, null, 2);
+
+		assertThat(pagina.getContenido()).extracting(CitaResponseDTO::getId).containsExactly(1L, 2L);
+		assertThat(pagina.isHayMas()).isTrue();
+		verify(citaRepository).buscarRespuestas(any(), eq(Limit.of(3)));
+		verifyNoMoreInteractions(citaRepository);
+	}
+
+	@Test
+	void busquedaRechazaRangosInvertidos() {
+		CitaBusquedaDTO filtro = new CitaBusquedaDTO();
+		filtro.setDesde(LocalDateTime.now());
+		filtro.setHasta(filtro.getDesde().minusDays(1));
+
+		assertThatThrownBy(() -> citaService.buscarCitas(filtro, null, null)).isInstanceOf(BusinessRuleException.class);
+		verifyNoInteractions(citaRepository);
+	}
+
+	private static Cita cita(Long id, EstadoCita estado) {
+		Usuario usuario = new Usuario("Usuario", "usuario@test.com", "clave", null);
+		usuario.setId(1L);
+		Usuario usuarioProfesional = new Usuario("Profesional", "profesional@test.com", "clave", null);
+		usuarioProfesional.setId(2L);
+		Profesional profesional = new Profesional("Psicología", null, usuarioProfesional);
+		profesional.setId(2L);
+		Servicio servicio = new Servicio("Terapia", null, "50 minutos", 50000.0);
+		servicio.setId(1L);
+
+		LocalDateTime inicio = LocalDateTime.now().plusDays(1);
+		Cita cita = new Cita(inicio, estado, usuario, servicio, profesional);
+		cita.setId(id);
+		cita.setFechaFin(inicio.plusMinutes(50));
+		return cita;
+	}
+
+	private static CitaResponseDTO respuesta(Long id) {
+		return new CitaResponseDTO(id, LocalDateTime.now(), EstadoCita.PENDIENTE, 1L, "Usuario", 1L, "Terapia",
+				"50 minutos", 50000.0, 2L, "Profesional", "Psicología");
+	}
+}
@@ -0,0 +1,152 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.CitaBusquedaDTO;
+import com.andrey.sistema_citas.entity.EstadoCita;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cuenta con las estadísticas de Hibernate las sentencias que lanza cada consulta de citas contra el esquema
+ * real: los listados y la búsqueda deben resolverse con una sola sentencia y sin cargar entidades, y cancelar
+ * no debe inicializar relaciones perezosas. Usa la misma base de datos dedicada que CitaRepositoryExplainTest
+ * (EXPLAIN_DB_URL, EXPLAIN_DB_USERNAME y EXPLAIN_DB_PASSWORD); sin EXPLAIN_DB_URL no se ejecuta.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=${EXPLAIN_DB_URL}",
+		"spring.datasource.username=${EXPLAIN_DB_USERNAME:root}",
+		"spring.datasource.password=${EXPLAIN_DB_PASSWORD:}",
+		"spring.flyway.clean-disabled=false",
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@EnabledIfEnvironmentVariable(named = "EXPLAIN_DB_URL", matches = ".+")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CitaServiceSentenciasTest {
+
+	private static final int CITAS = 40;
+	private static final long USUARIO = 1L;
+	private static final long PROFESIONAL = 1L;
+
+	private final LocalDateTime ahora = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+
+	@Autowired
+	private CitaService citaService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics estadisticas;
+
+	@BeforeAll
+	void poblar() {
+		for (long id = 1; id <= 3; id++) {
+			jdbcTemplate.update("INSERT INTO usuario (id, nombre, email, password, telefono, fecha_registro) VALUES (?, ?, ?, ?, ?, ?)",
+					id, "Usuario " + id, "usuario" + id + "@test.com", "clave", "600" + id, Timestamp.valueOf(ahora.minusYears(1)));
+			jdbcTemplate.update("INSERT INTO usuario_roles (usuario_id, role) VALUES (?, 'USER')", id);
+		}
+		jdbcTemplate.update("INSERT INTO profesional (id, especialidad, usuario_id) VALUES (?, 'Psicología', 3)", PROFESIONAL);
+		jdbcTemplate.update("INSERT INTO servicio (id, nombre, duracion, duracion_minutos, precio) VALUES (1, 'Terapia', '50 minutos', 50, 50000)");
+
+		// Citas de dos usuarios con el mismo profesional, una por día desde hace veinte días
+		List<Object[]> citas = new ArrayList<>();
+		for (int i = 1; i <= CITAS; i++) {
+			LocalDateTime inicio = ahora.minusDays(20).plusDays(i);
+			String estado = i % 4 == 0 ? "CONFIRMADA" : "PENDIENTE";
+			citas.add(new Object[] {i, Timestamp.valueOf(inicio), Timestamp.valueOf(inicio.plusMinutes(50)), estado, i % 2 + 1});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO cita (id, fecha_hora, fecha_fin, estado, usuario_id, servicio_id, profesional_id) " +
+				"VALUES (?, ?, ?, ?, ?, 1, 1)", citas);
+	}
+
+	@BeforeEach
+	void setUp() {
+		estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		estadisticas.clear();
+	}
+
+	@Test
+	void listadosLanzanUnaSolaSentenciaSinCargarEntidades() {
+		assertThat(citaService.obtenerTodasLasCitas()).hasSize(CITAS);
+		assertUnaSentenciaSinEntidades();
+
+		assertThat(citaService.obtenerCitasPorUsuario(USUARIO)).isNotEmpty();
+		assertUnaSentenciaSinEntidades();
+
+		assertThat(citaService.obtenerCitasPorProfesional(PROFESIONAL)).hasSize(CITAS);
+		assertUnaSentenciaSinEntidades();
+
+		assertThat(citaService.obtenerCitasPendientes()).isNotEmpty();
+		assertUnaSentenciaSinEntidades();
+
+		assertThat(citaService.obtenerCitasEnRango(ahora.minusDays(7), ahora.plusDays(7))).isNotEmpty();
+		assertUnaSentenciaSinEntidades();
+	}
+
+	@Test
+	void citaPorIdLanzaUnaSolaSentencia() {
+		assertThat(citaService.obtenerCitaPorId(5L).getProfesionalNombre()).isEqualTo("Usuario 3");
+		assertUnaSentenciaSinEntidades();
+	}
+
+	@Test
+	void busquedaLanzaUnaSolaSentencia() {
+		CitaBusquedaDTO filtro = new CitaBusquedaDTO();
+		filtro.setProfesionalId(PROFESIONAL);
+		filtro.setEstado(EstadoCita.CONFIRMADA);
+
+		assertThat(citaService.buscarCitas(filtro, null, 2).getContenido()).hasSize(2);
+		assertUnaSentenciaSinEntidades();
+	}
+
+	@Test
+	void cancelarNoInicializaRelacionesPerezosas() {
+		citaService.cancelarCita(CITAS - 1L);
+
+		// La cita llega con usuario, servicio y profesional en la misma consulta
+		assertThat(estadisticas.getEntityFetchCount()).as("entidades cargadas por separado").isZero();
+		assertThat(estadisticas.getCollectionFetchCount()).as("colecciones cargadas por separado").isZero();
+		assertThat(estadisticas.getEntityUpdateCount()).as("entidades actualizadas").isEqualTo(1);
+	}
+
+	private void assertUnaSentenciaSinEntidades() {
+		assertThat(estadisticas.getPrepareStatementCount()).as("sentencias preparadas").isEqualTo(1);
+		assertThat(estadisticas.getEntityLoadCount()).as("entidades cargadas").isZero();
+		estadisticas.clear();
+	}
+
+	@TestConfiguration
+	static class Configuracion {
+
+		// Base de datos dedicada: se vacía y se vuelve a migrar en cada ejecución
+		@Bean
+		FlywayMigrationStrategy limpiarYMigrar() {
+			return flyway -> {
+				flyway.clean();
+				flyway.migrate();
+			};
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.PaginaCursorDTO;
+import com.andrey.sistema_citas.exception.BusinessRuleException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorPaginaTest {
+
+	@Test
+	void elCursorDeLaPaginaLlevaALaPosicionDeSuUltimoElemento() {
+		LocalDateTime horario = LocalDateTime.of(2030, 5, 10, 9, 30);
+		List<CursorPagina.Cita> resultados = List.of(
+				new CursorPagina.Cita(horario, 7L),
+				new CursorPagina.Cita(horario, 8L),
+				new CursorPagina.Cita(horario.plusHours(1), 3L));
+
+		PaginaCursorDTO<CursorPagina.Cita> pagina = CursorPagina.pagina(resultados, 2,
+				cita -> CursorPagina.posicionCita(cita.fechaHora(), cita.id()));
+
+		assertThat(pagina.getContenido()).hasSize(2);
+		assertThat(CursorPagina.decodificarCita(pagina.getSiguienteCursor()))
+				.isEqualTo(new CursorPagina.Cita(horario, 8L));
+	}
+
+	@Test
+	void laUltimaPaginaNoTieneCursor() {
+		PaginaCursorDTO<Long> pagina = CursorPagina.pagina(List.of(1L, 2L), 2, String::valueOf);
+
+		assertThat(pagina.getSiguienteCursor()).isNull();
+		assertThat(pagina.isHayMas()).isFalse();
+		assertThat(CursorPagina.decodificarCita(null)).isEqualTo(CursorPagina.INICIO_CITAS);
+		assertThat(CursorPagina.decodificarId(null)).isZero();
+	}
+
+	@Test
+	void rechazaCursoresYTamanosNoValidos() {
+		assertThatThrownBy(() -> CursorPagina.decodificarCita("no es base64!"))
+				.isInstanceOf(BusinessRuleException.class);
+		assertThatThrownBy(() -> CursorPagina.decodificarId("YWJj"))
+				.isInstanceOf(BusinessRuleException.class);
+		assertThatThrownBy(() -> CursorPagina.limite(CursorPagina.TAMANO_MAXIMO + 1))
+				.isInstanceOf(BusinessRuleException.class);
+	}
+}
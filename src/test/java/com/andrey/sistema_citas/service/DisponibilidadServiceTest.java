@@ -0,0 +1,157 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.HorarioDisponibleDTO;
+import com.andrey.sistema_citas.entity.Servicio;
+import com.andrey.sistema_citas.repository.CitaRepository;
+import com.andrey.sistema_citas.repository.ProfesionalRepository;
+import com.andrey.sistema_citas.repository.RetencionFranjaRepository;
+import com.andrey.sistema_citas.repository.ServicioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Búsqueda de inicios libres sobre el mapa de franjas del día: los tramos que llegan al final del día o de la
+ * jornada, las duraciones que no caben en la jornada y las citas seguidas, que no deben dejar huecos falsos
+ * ni solaparse con el inicio ofrecido. Las citas y retenciones se leen siempre de los repositorios simulados,
+ * también en la búsqueda de los primeros horarios libres entre varios profesionales.
+ */
+class DisponibilidadServiceTest {
+
+	private static final long PROFESIONAL = 1L;
+
+	// Pasado mañana, para que la hora actual no recorte el día
+	private final LocalDate dia = LocalDate.now().plusDays(2);
+	private final List<Object[]> citas = new ArrayList<>();
+	private final List<Object[]> retenciones = new ArrayList<>();
+
+	private CitaRepository citaRepository;
+	private ServicioRepository servicioRepository;
+	private ProfesionalRepository profesionalRepository;
+	private ProfesionalService profesionalService;
+	private DisponibilidadService disponibilidadService;
+
+	@BeforeEach
+	void setUp() {
+		citaRepository = mock(CitaRepository.class);
+		profesionalService = mock(ProfesionalService.class);
+		servicioRepository = mock(ServicioRepository.class);
+		profesionalRepository = mock(ProfesionalRepository.class);
+		when(citaRepository.findIntervalosProfesional(eq(PROFESIONAL), any(), any(), any(), anyList())).thenReturn(citas);
+		RetencionFranjaRepository retencionFranjaRepository = mock(RetencionFranjaRepository.class);
+		when(retencionFranjaRepository.findIntervalosVigentesProfesional(eq(PROFESIONAL), any(), any(), any()))
+				.thenReturn(retenciones);
+
+		disponibilidadService = new DisponibilidadService(citaRepository, servicioRepository, profesionalRepository,
+				retencionFranjaRepository, profesionalService);
+	}
+
+	@Test
+	void tramoLibreQueLlegaAlFinalDelDia() {
+		// 30 franjas libres hasta la última del día, cruzando el borde entre la cuarta y la quinta palabra
+		MapaFranjasDia mapa = MapaFranjasDia.vacio();
+		mapa.marcar(MapaFranjasDia.FRANJAS_POR_DIA - 30, MapaFranjasDia.FRANJAS_POR_DIA);
+
+		List<Integer> inicios = new ArrayList<>();
+		mapa.inicios(12).paraCada(inicios::add);
+
+		assertThat(inicios).hasSize(30 - 12 + 1);
+		assertThat(inicios.get(0)).isEqualTo(MapaFranjasDia.FRANJAS_POR_DIA - 30);
+		assertThat(inicios.get(inicios.size() - 1)).isEqualTo(MapaFranjasDia.FRANJAS_POR_DIA - 12);
+	}
+
+	@Test
+	void tramoLibreQueLlegaAlFinalDeLaJornada() {
+		jornada(LocalTime.of(20, 0), LocalTime.of(23, 0));
+		reservar(LocalTime.of(20, 0), LocalTime.of(22, 5));
+
+		// Quedan 55 minutos hasta el cierre: entra justo una cita de 55 y ninguna de 60
+		assertThat(inicios(55, 5)).containsExactly(dia.atTime(22, 5));
+		assertThat(inicios(60, 5)).isEmpty();
+	}
+
+	@Test
+	void duracionMayorQueLaJornadaNoOfreceNingunInicio() {
+		jornada(LocalTime.of(8, 0), LocalTime.of(13, 0));
+
+		// 300 minutos son 60 franjas; 330 son 66 y obligan a desplazar más de una palabra
+		assertThat(inicios(300, 5)).containsExactly(dia.atTime(8, 0));
+		assertThat(inicios(301, 5)).isEmpty();
+		assertThat(inicios(330, 5)).isEmpty();
+	}
+
+	@Test
+	void citasSeguidasNoDejanHuecosNiSeSolapan() {
+		jornada(LocalTime.of(9, 0), LocalTime.of(12, 0));
+		reservar(LocalTime.of(10, 0), LocalTime.of(10, 30));
+		reservar(LocalTime.of(10, 30), LocalTime.of(11, 0));
+
+		assertThat(inicios(30, 30)).containsExactly(
+				dia.atTime(9, 0), dia.atTime(9, 30), dia.atTime(11, 0), dia.atTime(11, 30));
+		// Una cita de una hora solo entra antes o después del bloque completo
+		assertThat(inicios(60, 5)).containsExactly(dia.atTime(9, 0), dia.atTime(11, 0));
+	}
+
+	@Test
+	void citaQueAcabaFueraDeLaRejillaOcupaSuUltimaFranja() {
+		jornada(LocalTime.of(9, 0), LocalTime.of(11, 0));
+		reservar(LocalTime.of(9, 0), LocalTime.of(9, 47));
+
+		// La cita de 47 minutos ocupa hasta la franja de las 9:45; la siguiente libre es la de las 9:50
+		assertThat(inicios(30, 5)).first().isEqualTo(dia.atTime(9, 50));
+	}
+
+	@Test
+	void retencionVigenteOcupaSuHorario() {
+		jornada(LocalTime.of(9, 0), LocalTime.of(11, 0));
+		retenciones.add(new Object[] {dia.atTime(9, 0), dia.atTime(10, 0)});
+
+		assertThat(inicios(60, 60)).containsExactly(dia.atTime(10, 0));
+	}
+
+	@Test
+	void primerosDisponiblesUsaLasCitasDeLaBaseDeDatosDeTodosLosProfesionales() {
+		long otro = 2L;
+		LocalDateTime hoy = LocalDate.now().atStartOfDay();
+		when(servicioRepository.findById(1L)).thenReturn(Optional.of(new Servicio("Terapia", null, "60 minutos", 50000.0)));
+		when(profesionalRepository.findAllIds()).thenReturn(List.of(PROFESIONAL, otro));
+		HorarioProfesional todoElDia = HorarioProfesional.jornadaFija(LocalTime.MIN, LocalTime.MAX, List.of(DayOfWeek.values()));
+		when(profesionalService.obtenerHorariosCompilados(anyList())).thenReturn(Map.of(PROFESIONAL, todoElDia, otro, todoElDia));
+		// El primer profesional tiene ocupados los tres días de búsqueda (por ejemplo, desde otra instancia)
+		List<Object[]> ocupadas = new ArrayList<>();
+		ocupadas.add(new Object[] {PROFESIONAL, hoy, hoy.plusDays(3)});
+		when(citaRepository.findIntervalosProfesionales(anyList(), any(), any(), any(), anyList())).thenReturn(ocupadas);
+
+		List<HorarioDisponibleDTO> primeros = disponibilidadService.buscarPrimerosDisponibles(1L, 3, 3, 60);
+
+		assertThat(primeros).hasSize(3).allSatisfy(horario -> assertThat(horario.getProfesionalId()).isEqualTo(otro));
+	}
+
+	private void jornada(LocalTime inicio, LocalTime fin) {
+		when(profesionalService.obtenerHorarioCompilado(PROFESIONAL))
+				.thenReturn(HorarioProfesional.jornadaFija(inicio, fin, List.of(DayOfWeek.values())));
+	}
+
+	private void reservar(LocalTime inicio, LocalTime fin) {
+		citas.add(new Object[] {dia.atTime(inicio), dia.atTime(fin)});
+	}
+
+	private List<LocalDateTime> inicios(int duracionMinutos, int paso) {
+		return disponibilidadService.iniciosDisponibles(PROFESIONAL, duracionMinutos, dia, dia, paso);
+	}
+}
@@ -0,0 +1,64 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.CitaResponseDTO;
+import com.andrey.sistema_citas.entity.EstadoCita;
+import com.andrey.sistema_citas.repository.CitaRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ExportacionCitasServiceTest {
+
+	private final LocalDateTime inicio = LocalDateTime.of(2030, 1, 1, 0, 0);
+	private final LocalDateTime fin = LocalDateTime.of(2030, 12, 31, 23, 59);
+
+	@Test
+	void escribeUnaLineaCsvPorCitaYCierraLaConsulta() throws Exception {
+		AtomicBoolean cerrada = new AtomicBoolean(false);
+		ExportacionCitasService servicio = conCitas(Stream.of(
+				cita(1L, "Ana"), cita(2L, "Pérez, \"Juan\"")).onClose(() -> cerrada.set(true)));
+
+		String csv = exportar(servicio, ExportacionCitasService.Formato.CSV);
+
+		assertThat(csv.split("\n")).hasSize(3);
+		assertThat(csv).contains("\n2,2030-03-01T10:00,PENDIENTE,5,\"Pérez, \"\"Juan\"\"\",");
+		assertThat(cerrada).isTrue();
+	}
+
+	@Test
+	void escribeUnObjetoJsonPorLinea() throws Exception {
+		ExportacionCitasService servicio = conCitas(Stream.of(cita(1L, "Ana"), cita(2L, "Luis")));
+
+		String ndjson = exportar(servicio, ExportacionCitasService.Formato.NDJSON);
+
+		assertThat(ndjson.split("\n")).hasSize(2)
+				.allSatisfy(linea -> assertThat(linea).startsWith("{\"id\":").endsWith("}"));
+	}
+
+	private ExportacionCitasService conCitas(Stream<CitaResponseDTO> citas) {
+		CitaRepository citaRepository = mock(CitaRepository.class);
+		when(citaRepository.streamRespuestasEnRango(inicio, fin)).thenReturn(citas);
+		return new ExportacionCitasService(citaRepository, new ObjectMapper().registerModule(new JavaTimeModule()));
+	}
+
+	private String exportar(ExportacionCitasService servicio, ExportacionCitasService.Formato formato) throws Exception {
+		ByteArrayOutputStream salida = new ByteArrayOutputStream();
+		servicio.exportarEnRango(inicio, fin, formato, salida);
+		return salida.toString(StandardCharsets.UTF_8);
+	}
+
+	private static CitaResponseDTO cita(Long id, String usuarioNombre) {
+		return new CitaResponseDTO(id, LocalDateTime.of(2030, 3, 1, 10, 0), EstadoCita.PENDIENTE, 5L, usuarioNombre,
+				1L, "Terapia", "50 minutos", 50000.0, 2L, "Profesional", "Psicología");
+	}
+}
@@ -0,0 +1,36 @@
+package com.andrey.sistema_citas.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * El filtro nunca olvida un elemento añadido y, a su capacidad, mantiene los falsos positivos cerca de la tasa pedida.
+ */
+class FiltroBloomTest {
+
+	@Test
+	void sinFalsosNegativosYConPocosFalsosPositivos() {
+		FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+		List<String> revocados = new ArrayList<>();
+		for (int i = 0; i < 10_000; i++) {
+			String jti = UUID.randomUUID().toString();
+			revocados.add(jti);
+			filtro.agregar(jti);
+		}
+
+		assertThat(revocados).allMatch(filtro::puedeContener);
+
+		int falsosPositivos = 0;
+		for (int i = 0; i < 100_000; i++) {
+			if (filtro.puedeContener(UUID.randomUUID().toString())) {
+				falsosPositivos++;
+			}
+		}
+		assertThat(falsosPositivos).isLessThan(2_000);
+	}
+}
@@ -0,0 +1,77 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.CitaCreateDTO;
+import com.andrey.sistema_citas.entity.ReservaFranja;
+import com.andrey.sistema_citas.exception.BusinessRuleException;
+import com.andrey.sistema_citas.repository.CitaRepository;
+import com.andrey.sistema_citas.repository.DatosValidacionCita;
+import com.andrey.sistema_citas.repository.ProfesionalRepository;
+import com.andrey.sistema_citas.repository.ServicioRepository;
+import com.andrey.sistema_citas.repository.UsuarioRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Las franjas de reserva solo son exactas si las citas empiezan en el borde de una franja: entonces dos citas
+ * seguidas no comparten ninguna aunque la primera acabe fuera de la rejilla, y las horas fuera de la rejilla
+ * se rechazan al validar.
+ */
+class FranjasReservaTest {
+
+	private final LocalDateTime manana = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+
+	@Test
+	void citasSeguidasNoCompartenFranjaAunqueLaPrimeraAcabeFueraDeLaRejilla() {
+		// Servicio de 47 minutos: la primera acaba a las 10:47 y la siguiente empieza en la franja de las 10:50
+		LocalDateTime inicio = manana.withHour(10);
+		List<LocalDateTime> primera = ReservaFranja.franjasEntre(inicio, inicio.plusMinutes(47));
+		List<LocalDateTime> segunda = ReservaFranja.franjasEntre(inicio.plusMinutes(50), inicio.plusMinutes(97));
+
+		assertThat(primera).hasSize(10).last().isEqualTo(inicio.plusMinutes(45));
+		assertThat(segunda).first().isEqualTo(inicio.plusMinutes(50));
+		assertThat(primera).doesNotContainAnyElementsOf(segunda);
+	}
+
+	@Test
+	void alineadaAFranjaExigeMinutosMultiplosYSinSegundos() {
+		assertThat(ReservaFranja.alineadaAFranja(manana.withMinute(35))).isTrue();
+		assertThat(ReservaFranja.alineadaAFranja(manana.withMinute(52))).isFalse();
+		assertThat(ReservaFranja.alineadaAFranja(manana.withMinute(35).withSecond(10))).isFalse();
+	}
+
+	@Test
+	void agendarRechazaHorasFueraDeLaRejilla() {
+		CitaRepository citaRepository = mock(CitaRepository.class);
+		DatosValidacionCita datos = mock(DatosValidacionCita.class);
+		when(datos.getUsuarioId()).thenReturn(1L);
+		when(datos.getServicioId()).thenReturn(2L);
+		when(datos.getProfesionalId()).thenReturn(3L);
+		when(citaRepository.findDatosValidacion(anyLong(), anyLong(), anyLong())).thenReturn(datos);
+		CitaService citaService = new CitaService(citaRepository, mock(UsuarioRepository.class),
+				mock(ServicioRepository.class), mock(ProfesionalRepository.class), new IndiceAgenda(citaRepository),
+				new BloqueosAgenda(), mock(ReservaFranjaService.class), evento -> {});
+
+		CitaCreateDTO dto = new CitaCreateDTO();
+		dto.setUsuarioId(1L);
+		dto.setServicioId(2L);
+		dto.setProfesionalId(3L);
+		dto.setFechaHora(manana.withHour(10).withMinute(52));
+
+		assertThatThrownBy(() -> citaService.agendarCita(dto))
+				.isInstanceOf(BusinessRuleException.class)
+				.hasMessageContaining("múltiplo de " + ReservaFranja.MINUTOS_FRANJA);
+		verify(citaRepository, never()).save(any());
+	}
+}
@@ -0,0 +1,87 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.entity.RespuestaIdempotente;
+import com.andrey.sistema_citas.repository.RespuestaIdempotenteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * La clave se reclama con la inserción de una fila pendiente: solo la primera petición la ejecuta y los
+ * reintentos, lleguen a la instancia que lleguen, ven la petición en curso o su respuesta guardada.
+ */
+class IdempotenciaServiceTest {
+
+	private RespuestaIdempotenteRepository repositorio;
+	private IdempotenciaService idempotenciaService;
+
+	@BeforeEach
+	void setUp() {
+		repositorio = mock(RespuestaIdempotenteRepository.class);
+		idempotenciaService = new IdempotenciaService(repositorio, Duration.ofHours(24), Duration.ofMinutes(5), 100);
+	}
+
+	@Test
+	void primeraPeticionReclamaLaClave() {
+		assertThat(idempotenciaService.reclamar("clave").estado()).isEqualTo(IdempotenciaService.Reclamo.Estado.RECLAMADA);
+		verify(repositorio).save(any(RespuestaIdempotente.class));
+	}
+
+	@Test
+	void reintentoMientrasLaOriginalSigueEnCurso() {
+		when(repositorio.save(any(RespuestaIdempotente.class))).thenThrow(new DataIntegrityViolationException("duplicada"));
+		when(repositorio.findById("clave"))
+				.thenReturn(Optional.of(RespuestaIdempotente.pendiente("clave", LocalDateTime.now().plusMinutes(5))));
+
+		assertThat(idempotenciaService.reclamar("clave").estado()).isEqualTo(IdempotenciaService.Reclamo.Estado.EN_CURSO);
+		verify(repositorio, never()).reclamarCaducada(any(), any(), any());
+	}
+
+	@Test
+	void reintentoTrasTerminarRecibeLaRespuestaGuardada() {
+		when(repositorio.save(any(RespuestaIdempotente.class))).thenThrow(new DataIntegrityViolationException("duplicada"));
+		when(repositorio.findById("clave")).thenReturn(Optional.of(new RespuestaIdempotente(
+				"clave", "huella", 201, "application/json", new byte[]{1}, LocalDateTime.now().plusHours(1))));
+
+		IdempotenciaService.Reclamo reclamo = idempotenciaService.reclamar("clave");
+
+		assertThat(reclamo.estado()).isEqualTo(IdempotenciaService.Reclamo.Estado.GUARDADA);
+		assertThat(reclamo.respuesta().estado()).isEqualTo(201);
+		assertThat(reclamo.respuesta().huella()).isEqualTo("huella");
+	}
+
+	@Test
+	void respuestaGuardadaEnEstaInstanciaNoConsultaLaTabla() {
+		when(repositorio.completar(eq("clave"), eq("huella"), eq(201), any(), any(), any())).thenReturn(1);
+		idempotenciaService.reclamar("clave");
+		idempotenciaService.guardar("clave", "huella", 201, "application/json", new byte[]{1});
+
+		IdempotenciaService.Reclamo reclamo = idempotenciaService.reclamar("clave");
+
+		assertThat(reclamo.estado()).isEqualTo(IdempotenciaService.Reclamo.Estado.GUARDADA);
+		verify(repositorio, never()).findById(any());
+	}
+
+	@Test
+	void reclamacionCaducadaSoloLaRetomaUnaPeticion() {
+		when(repositorio.save(any(RespuestaIdempotente.class))).thenThrow(new DataIntegrityViolationException("duplicada"));
+		when(repositorio.findById("clave"))
+				.thenReturn(Optional.of(RespuestaIdempotente.pendiente("clave", LocalDateTime.now().minusMinutes(1))));
+		when(repositorio.reclamarCaducada(eq("clave"), any(), any())).thenReturn(1, 0);
+
+		assertThat(idempotenciaService.reclamar("clave").estado()).isEqualTo(IdempotenciaService.Reclamo.Estado.RECLAMADA);
+		assertThat(idempotenciaService.reclamar("clave").estado()).isEqualTo(IdempotenciaService.Reclamo.Estado.EN_CURSO);
+	}
+}
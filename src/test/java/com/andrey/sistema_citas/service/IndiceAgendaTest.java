@@ -0,0 +1,65 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.repository.CitaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * La limpieza periódica del índice quita las citas terminadas y deja las que siguen en curso o por venir;
+ * quitar la cita más larga no deja de detectar los solapamientos con las demás.
+ */
+class IndiceAgendaTest {
+
+	private static final long PROFESIONAL = 1L;
+	private static final long USUARIO = 2L;
+
+	private final LocalDateTime ahora = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+
+	private IndiceAgenda indiceAgenda;
+
+	@BeforeEach
+	void setUp() {
+		CitaRepository citaRepository = mock(CitaRepository.class);
+		when(citaRepository.findIntervalosActivosDesde(anyList(), any())).thenReturn(List.of());
+		indiceAgenda = new IndiceAgenda(citaRepository);
+		indiceAgenda.precargar();
+	}
+
+	@Test
+	void eliminarTerminadasQuitaSoloLasCitasQueYaAcabaron() {
+		indiceAgenda.registrar(1L, PROFESIONAL, USUARIO, ahora.minusHours(3), ahora.minusHours(2));
+		indiceAgenda.registrar(2L, PROFESIONAL, USUARIO, ahora.minusMinutes(30), ahora.plusMinutes(30));
+		indiceAgenda.registrar(3L, PROFESIONAL, USUARIO, ahora.plusDays(1), ahora.plusDays(1).plusHours(1));
+
+		indiceAgenda.eliminarTerminadas();
+
+		assertThat(indiceAgenda.ocupacionesProfesional(PROFESIONAL, ahora.minusDays(1), ahora.plusDays(2)))
+				.extracting(IndiceAgenda.Ocupacion::inicio)
+				.containsExactly(ahora.minusMinutes(30), ahora.plusDays(1));
+		assertThat(indiceAgenda.ocupacionesUsuario(USUARIO, ahora.minusDays(1), ahora.plusDays(2), List.of())).hasSize(2);
+	}
+
+	@Test
+	void quitarLaCitaMasLargaMantieneLosSolapamientosDeLasDemas() {
+		LocalDateTime manana = ahora.plusDays(1);
+		indiceAgenda.registrar(1L, PROFESIONAL, USUARIO, ahora.minusHours(20), ahora.minusHours(1));
+		indiceAgenda.registrar(2L, PROFESIONAL, 3L, manana, manana.plusHours(2));
+
+		indiceAgenda.eliminarTerminadas();
+
+		assertThat(indiceAgenda.solapeProfesional(PROFESIONAL, manana.plusMinutes(90), manana.plusHours(3), null))
+				.isEqualTo(IndiceAgenda.Solape.A_VERIFICAR);
+		assertThat(indiceAgenda.solapeProfesional(PROFESIONAL, manana.plusHours(2), manana.plusHours(3), null))
+				.isEqualTo(IndiceAgenda.Solape.NINGUNO);
+	}
+}
@@ -0,0 +1,101 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.CitaCreateDTO;
+import com.andrey.sistema_citas.dto.CitaResponseDTO;
+import com.andrey.sistema_citas.entity.ListaEspera;
+import com.andrey.sistema_citas.entity.Profesional;
+import com.andrey.sistema_citas.entity.Servicio;
+import com.andrey.sistema_citas.entity.Usuario;
+import com.andrey.sistema_citas.exception.BusinessRuleException;
+import com.andrey.sistema_citas.repository.CitaRepository;
+import com.andrey.sistema_citas.repository.ListaEsperaRepository;
+import com.andrey.sistema_citas.repository.ProfesionalRepository;
+import com.andrey.sistema_citas.repository.ServicioRepository;
+import com.andrey.sistema_citas.repository.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Al liberarse un horario, los candidatos salen de la base de datos en orden de atención (así cuentan las
+ * solicitudes hechas en cualquier instancia) y se salta a los que no pueden recibirlo.
+ */
+class ListaEsperaServiceTest {
+
+	private final LocalDateTime inicio = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+	private final LocalDateTime fin = inicio.plusMinutes(50);
+
+	private ListaEsperaRepository listaEsperaRepository;
+	private CitaService citaService;
+	private ListaEsperaService listaEsperaService;
+
+	@BeforeEach
+	void setUp() {
+		listaEsperaRepository = mock(ListaEsperaRepository.class);
+		citaService = mock(CitaService.class);
+		PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+		CitaRepository citaRepository = mock(CitaRepository.class);
+		listaEsperaService = new ListaEsperaService(listaEsperaRepository, citaRepository,
+				mock(UsuarioRepository.class), mock(ProfesionalRepository.class), mock(ServicioRepository.class),
+				citaService, new IndiceAgenda(citaRepository), transactionManager);
+	}
+
+	@Test
+	void asignaAlPrimerCandidatoLibreEnOrdenDeAtencion() {
+		when(listaEsperaRepository.findCandidatos(eq(2L), eq(3L), eq(inicio), eq(fin), any(), eq(Limit.of(ListaEsperaService.MAXIMO_INTENTOS))))
+				.thenReturn(List.of(10L, 11L));
+		when(listaEsperaRepository.findById(10L)).thenReturn(Optional.of(solicitud(10L, 100L)));
+		when(listaEsperaRepository.findById(11L)).thenReturn(Optional.of(solicitud(11L, 101L)));
+		// El usuario del primer candidato ya tiene otra cita a esa hora
+		when(citaService.agendarCita(argThat(dto -> dto != null && dto.getUsuarioId() == 100L)))
+				.thenThrow(new BusinessRuleException("Ya tienes una cita programada en ese horario"));
+		CitaResponseDTO cita = new CitaResponseDTO();
+		cita.setId(50L);
+		when(citaService.agendarCita(argThat(dto -> dto != null && dto.getUsuarioId() == 101L))).thenReturn(cita);
+		when(listaEsperaRepository.asignar(11L, 50L)).thenReturn(1);
+
+		listaEsperaService.alCancelarCita(new CitaCanceladaEvent(1L, 2L, 3L, inicio, fin));
+
+		verify(listaEsperaRepository, never()).asignar(eq(10L), any());
+		verify(listaEsperaRepository).asignar(11L, 50L);
+	}
+
+	@Test
+	void sinCandidatosNoSeAgenda() {
+		when(listaEsperaRepository.findCandidatos(any(), any(), any(), any(), any(), any())).thenReturn(List.of());
+
+		listaEsperaService.alCancelarCita(new CitaCanceladaEvent(1L, 2L, 3L, inicio, fin));
+
+		verify(citaService, never()).agendarCita(any(CitaCreateDTO.class));
+	}
+
+	private ListaEspera solicitud(Long id, Long usuarioId) {
+		Usuario usuario = new Usuario("Usuario", "usuario" + usuarioId + "@test.com", "clave", null);
+		usuario.setId(usuarioId);
+		Usuario usuarioProfesional = new Usuario("Profesional", "profesional@test.com", "clave", null);
+		Profesional profesional = new Profesional("Psicología", null, usuarioProfesional);
+		profesional.setId(2L);
+		Servicio servicio = new Servicio("Terapia", null, "50 minutos", 50000.0);
+		servicio.setId(3L);
+		ListaEspera solicitud = new ListaEspera(usuario, profesional, servicio, inicio.minusDays(1), inicio.plusDays(1), LocalDateTime.now());
+		solicitud.setId(id);
+		return solicitud;
+	}
+}
@@ -0,0 +1,47 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.DisponibilidadSemanalDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Migración del texto libre de horarioDisponible a tramos semanales.
+ */
+class ParserHorarioTextoTest {
+
+	@Test
+	void interpretaRangosDeDiasYVariosTramos() {
+		assertThat(tramos("Lunes a viernes de 8:00 a 12:00 y de 14:00 a 18:00"))
+				.hasSize(10)
+				.contains("MONDAY 08:00-12:00", "FRIDAY 14:00-18:00");
+	}
+
+	@Test
+	void interpretaListasAbreviadasYSufijosAmPm() {
+		assertThat(tramos("Lun, Mié y Vie 9am-1pm; Sábado 9 a 12"))
+				.containsExactly("MONDAY 09:00-13:00", "WEDNESDAY 09:00-13:00", "FRIDAY 09:00-13:00", "SATURDAY 09:00-12:00");
+		assertThat(tramos("Lunes - Jueves 2-6pm")).contains("MONDAY 14:00-18:00", "THURSDAY 14:00-18:00");
+	}
+
+	@Test
+	void noMigraTextosQueNoEntiende() {
+		assertThat(ParserHorarioTexto.parsear("2025-11-03 10:00:00")).isEmpty();
+		assertThat(ParserHorarioTexto.parsear("Horario flexible")).isEmpty();
+		assertThat(ParserHorarioTexto.parsear("Lunes 8-12, consultar fines de semana")).isEmpty();
+		assertThat(ParserHorarioTexto.parsear("Martes 18-9")).isEmpty();
+	}
+
+	private static List<String> tramos(String texto) {
+		return ParserHorarioTexto.parsear(texto).orElseThrow()
+				.stream()
+				.map(ParserHorarioTextoTest::formato)
+				.toList();
+	}
+
+	private static String formato(DisponibilidadSemanalDTO tramo) {
+		return tramo.getDiaSemana() + " " + tramo.getHoraInicio() + "-" + tramo.getHoraFin();
+	}
+}
@@ -0,0 +1,113 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.HorarioProfesionalDTO;
+import com.andrey.sistema_citas.entity.DisponibilidadSemanal;
+import com.andrey.sistema_citas.entity.Profesional;
+import com.andrey.sistema_citas.repository.DisponibilidadSemanalRepository;
+import com.andrey.sistema_citas.repository.ExcepcionDisponibilidadRepository;
+import com.andrey.sistema_citas.repository.ProfesionalRepository;
+import com.andrey.sistema_citas.repository.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Los horarios compilados en memoria llevan la versión con la que se leyeron: una carga que leyó el horario
+ * anterior no puede pisar un cambio ya confirmado, y los cambios hechos en otra instancia se descartan al
+ * sincronizar las versiones.
+ */
+class ProfesionalServiceHorariosTest {
+
+	private static final Long ID = 5L;
+
+	private final AtomicLong version = new AtomicLong(1);
+
+	private ProfesionalRepository profesionalRepository;
+	private DisponibilidadSemanalRepository disponibilidadSemanalRepository;
+	private ProfesionalService profesionalService;
+	private Profesional profesional;
+
+	@BeforeEach
+	void setUp() {
+		profesionalRepository = mock(ProfesionalRepository.class);
+		disponibilidadSemanalRepository = mock(DisponibilidadSemanalRepository.class);
+		ExcepcionDisponibilidadRepository excepcionRepository = mock(ExcepcionDisponibilidadRepository.class);
+		when(excepcionRepository.findByProfesionalIdDesde(eq(ID), any())).thenReturn(List.of());
+
+		profesional = new Profesional();
+		profesional.setId(ID);
+		when(profesionalRepository.findById(ID)).thenReturn(Optional.of(profesional));
+		when(profesionalRepository.existsById(ID)).thenReturn(true);
+		when(profesionalRepository.findVersionHorario(ID)).thenAnswer(invocacion -> Optional.of(version.get()));
+		when(profesionalRepository.incrementarVersionHorario(ID)).thenAnswer(invocacion -> {
+			version.incrementAndGet();
+			return 1;
+		});
+
+		profesionalService = new ProfesionalService(profesionalRepository, mock(UsuarioRepository.class),
+				disponibilidadSemanalRepository, excepcionRepository, LocalTime.of(8, 0), LocalTime.of(18, 0),
+				Set.of(DayOfWeek.MONDAY));
+	}
+
+	@Test
+	void cargaConVersionAnteriorNoPisaElCambioConfirmado() {
+		List<DisponibilidadSemanal> tramosAnteriores = List.of(
+				new DisponibilidadSemanal(profesional, DayOfWeek.TUESDAY, LocalTime.of(9, 0), LocalTime.of(13, 0)));
+		AtomicBoolean primeraLectura = new AtomicBoolean(true);
+		// Mientras se leen los tramos anteriores se confirma un cambio de horario que los deja vacíos
+		when(disponibilidadSemanalRepository.findByProfesionalId(ID)).thenAnswer(invocacion -> {
+			if (primeraLectura.getAndSet(false)) {
+				profesionalService.actualizarHorario(ID, new HorarioProfesionalDTO(ID, List.of(), List.of()));
+				return tramosAnteriores;
+			}
+			return List.of();
+		});
+
+		HorarioProfesional anterior = profesionalService.obtenerHorarioCompilado(ID);
+		HorarioProfesional actual = profesionalService.obtenerHorarioCompilado(ID);
+
+		assertNotSame(anterior, actual);
+		assertSame(actual, profesionalService.obtenerHorarioCompilado(ID));
+		// Lectura anterior, la de obtenerHorario tras el cambio y la recarga; la última llamada sale de memoria
+		verify(disponibilidadSemanalRepository, times(3)).findByProfesionalId(ID);
+	}
+
+	@Test
+	void sincronizarDescartaHorariosCambiadosEnOtraInstancia() {
+		when(disponibilidadSemanalRepository.findByProfesionalId(ID)).thenReturn(List.of());
+		when(profesionalRepository.findVersionesHorario()).thenAnswer(invocacion -> List.<Object[]>of(new Object[]{ID, version.get()}));
+
+		profesionalService.obtenerHorarioCompilado(ID);
+		profesionalService.sincronizarHorarios();
+		profesionalService.obtenerHorarioCompilado(ID);
+		verify(disponibilidadSemanalRepository, times(1)).findByProfesionalId(ID);
+
+		// Otra instancia cambia el horario
+		version.incrementAndGet();
+		profesionalService.sincronizarHorarios();
+		profesionalService.obtenerHorarioCompilado(ID);
+		verify(disponibilidadSemanalRepository, times(2)).findByProfesionalId(ID);
+
+		// Otra instancia borra el profesional
+		when(profesionalRepository.findVersionesHorario()).thenReturn(List.of());
+		profesionalService.sincronizarHorarios();
+		profesionalService.obtenerHorarioCompilado(ID);
+		verify(disponibilidadSemanalRepository, times(3)).findByProfesionalId(ID);
+	}
+}
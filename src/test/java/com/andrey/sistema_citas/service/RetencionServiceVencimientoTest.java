@@ -0,0 +1,70 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.entity.RetencionFranja;
+import com.andrey.sistema_citas.repository.CitaRepository;
+import com.andrey.sistema_citas.repository.RetencionFranjaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * La rueda temporizadora solo entrega los vencimientos: la transacción que libera la retención se abre en el
+ * pool de liberaciones, nunca en el hilo de la rueda.
+ */
+class RetencionServiceVencimientoTest {
+
+	private static final String ID = UUID.randomUUID().toString();
+
+	private RetencionService retencionService;
+
+	@AfterEach
+	void tearDown() {
+		retencionService.detener();
+	}
+
+	@Test
+	void laRetencionVencidaSeLiberaFueraDelHiloDeLaRueda() throws InterruptedException {
+		RetencionFranjaRepository retencionFranjaRepository = mock(RetencionFranjaRepository.class);
+
+		AtomicReference<String> hiloTransaccion = new AtomicReference<>();
+		CountDownLatch liberada = new CountDownLatch(1);
+		PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any())).thenAnswer(invocacion -> {
+			hiloTransaccion.set(Thread.currentThread().getName());
+			return new SimpleTransactionStatus();
+		});
+		when(retencionFranjaRepository.eliminar(ID)).thenAnswer(invocacion -> {
+			liberada.countDown();
+			return 1;
+		});
+
+		CitaRepository citaRepository = mock(CitaRepository.class);
+		retencionService = new RetencionService(retencionFranjaRepository, citaRepository, mock(CitaService.class),
+				mock(ReservaFranjaService.class), new IndiceAgenda(citaRepository), mock(BloqueosAgenda.class),
+				transactionManager, Duration.ofMinutes(5), 1);
+
+		// Vence un segundo después de restaurarla: la libera la rueda y no la propia restauración
+		LocalDateTime inicio = LocalDateTime.now().plusDays(1);
+		when(retencionFranjaRepository.findAll()).thenReturn(List.of(new RetencionFranja(ID, 2L, 1L, 3L,
+				inicio, inicio.plusMinutes(50), LocalDateTime.now().plusSeconds(1))));
+		retencionService.restaurarRetenciones();
+
+		assertTrue(liberada.await(5, TimeUnit.SECONDS));
+		assertEquals("retenciones-liberacion-1", hiloTransaccion.get());
+	}
+}
@@ -0,0 +1,84 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.repository.TokenRefrescoRepository;
+import com.andrey.sistema_citas.repository.TokenRevocadoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * La comprobación de cada petición no abre transacción ni consulta la base de datos salvo que el filtro
+ * de Bloom diga que el token puede estar revocado.
+ */
+class RevocacionTokensServiceTest {
+
+	private static TokenRevocadoRepository tokenRevocadoRepository;
+	private static PlatformTransactionManager transactionManager;
+
+	private RevocacionTokensService revocacionTokensService;
+
+	@BeforeEach
+	void setUp() {
+		tokenRevocadoRepository = mock(TokenRevocadoRepository.class);
+		transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+		AnnotationConfigApplicationContext contexto = new AnnotationConfigApplicationContext(Configuracion.class);
+		revocacionTokensService = contexto.getBean(RevocacionTokensService.class);
+	}
+
+	@Test
+	void tokenNoRevocadoNoAbreTransaccionNiConsulta() {
+		assertThat(revocacionTokensService.estaRevocado("no-revocado")).isFalse();
+		assertThat(revocacionTokensService.estaRevocado(null)).isFalse();
+
+		verifyNoInteractions(tokenRevocadoRepository);
+		verify(transactionManager, never()).getTransaction(argThat(definicion ->
+				definicion.getPropagationBehavior() != TransactionDefinition.PROPAGATION_SUPPORTS));
+	}
+
+	@Test
+	void aciertoDelFiltroSeConfirmaEnLaTabla() {
+		revocacionTokensService.revocar("revocado", Instant.now().plusSeconds(60));
+		reset(tokenRevocadoRepository);
+		when(tokenRevocadoRepository.existsById("revocado")).thenReturn(true);
+
+		assertThat(revocacionTokensService.estaRevocado("revocado")).isTrue();
+		verify(tokenRevocadoRepository).existsById("revocado");
+	}
+
+	@Configuration
+	@EnableTransactionManagement
+	static class Configuracion {
+
+		@Bean
+		PlatformTransactionManager transactionManager() {
+			return transactionManager;
+		}
+
+		@Bean
+		RevocacionTokensService revocacionTokensService() {
+			return new RevocacionTokensService(tokenRevocadoRepository, mock(TokenRefrescoRepository.class),
+					1_000, Duration.ofMinutes(1));
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package com.andrey.sistema_citas.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vencimientos de la rueda temporizadora con ticks de 10 ms y solo 8 ranuras,
+ * para que los retrasos largos tengan que dar varias vueltas.
+ */
+class RuedaTemporizadoraTest {
+
+	private final RuedaTemporizadora rueda = new RuedaTemporizadora(Duration.ofMillis(10), 8, "rueda-test");
+
+	@AfterEach
+	void tearDown() {
+		rueda.detener();
+	}
+
+	@Test
+	void ejecutaLasTareasDespuesDeSuRetraso() throws Exception {
+		CountDownLatch ejecutadas = new CountDownLatch(2);
+		long inicio = System.nanoTime();
+		long[] transcurrido = new long[2];
+
+		rueda.programar(Duration.ofMillis(30), () -> {
+			transcurrido[0] = System.nanoTime() - inicio;
+			ejecutadas.countDown();
+		});
+		// 250 ms son 25 ticks: tres vueltas completas de la rueda
+		rueda.programar(Duration.ofMillis(250), () -> {
+			transcurrido[1] = System.nanoTime() - inicio;
+			ejecutadas.countDown();
+		});
+
+		assertThat(ejecutadas.await(2, TimeUnit.SECONDS)).isTrue();
+		assertThat(transcurrido[0]).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(30));
+		assertThat(transcurrido[1]).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(250));
+	}
+
+	@Test
+	void lasTareasCanceladasNoSeEjecutan() throws Exception {
+		AtomicBoolean cancelada = new AtomicBoolean(false);
+		CountDownLatch testigo = new CountDownLatch(1);
+
+		rueda.programar(Duration.ofMillis(50), () -> cancelada.set(true)).cancelar();
+		rueda.programar(Duration.ofMillis(100), testigo::countDown);
+
+		assertThat(testigo.await(2, TimeUnit.SECONDS)).isTrue();
+		assertThat(cancelada).isFalse();
+	}
+}
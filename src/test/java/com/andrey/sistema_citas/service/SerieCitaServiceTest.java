@@ -0,0 +1,155 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.CitaResponseDTO;
+import com.andrey.sistema_citas.dto.SerieCitaCreateDTO;
+import com.andrey.sistema_citas.dto.SerieCitaResultadoDTO;
+import com.andrey.sistema_citas.entity.Cita;
+import com.andrey.sistema_citas.entity.PoliticaSerie;
+import com.andrey.sistema_citas.entity.Profesional;
+import com.andrey.sistema_citas.entity.Servicio;
+import com.andrey.sistema_citas.entity.Usuario;
+import com.andrey.sistema_citas.exception.BusinessRuleException;
+import com.andrey.sistema_citas.repository.CitaRepository;
+import com.andrey.sistema_citas.repository.DatosValidacionCita;
+import com.andrey.sistema_citas.repository.ProfesionalRepository;
+import com.andrey.sistema_citas.repository.SerieCitaRepository;
+import com.andrey.sistema_citas.repository.ServicioRepository;
+import com.andrey.sistema_citas.repository.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cada política de serie decide qué hacer con las fechas ocupadas: TODO_O_NADA no agenda nada, ACEPTAR_PARCIAL
+ * agenda las libres y OMITIR_Y_EXTENDER alarga la serie hasta un máximo de fechas extra. Las sesiones que no
+ * se pudieron agendar se informan en la respuesta.
+ */
+class SerieCitaServiceTest {
+
+	private static final long USUARIO = 1L;
+	private static final long SERVICIO = 2L;
+	private static final long PROFESIONAL = 3L;
+
+	private final LocalDateTime primera = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+	private final AtomicLong secuencia = new AtomicLong();
+	private final List<Object[]> ocupadas = new ArrayList<>();
+
+	private CitaRepository citaRepository;
+	private SerieCitaService serieCitaService;
+
+	@BeforeEach
+	void setUp() {
+		citaRepository = mock(CitaRepository.class);
+		UsuarioRepository usuarioRepository = mock(UsuarioRepository.class);
+		ServicioRepository servicioRepository = mock(ServicioRepository.class);
+		ProfesionalRepository profesionalRepository = mock(ProfesionalRepository.class);
+
+		DatosValidacionCita datos = mock(DatosValidacionCita.class);
+		when(datos.getUsuarioId()).thenReturn(USUARIO);
+		when(datos.getServicioId()).thenReturn(SERVICIO);
+		when(datos.getProfesionalId()).thenReturn(PROFESIONAL);
+		when(datos.getServicioDuracion()).thenReturn("50 minutos");
+		when(datos.getServicioDuracionMinutos()).thenReturn(50);
+		when(citaRepository.findDatosValidacion(USUARIO, SERVICIO, PROFESIONAL)).thenReturn(datos);
+		when(citaRepository.findOcupacionesProfesional(eq(PROFESIONAL), any(), any(), any(), anyList())).thenReturn(ocupadas);
+		when(citaRepository.findOcupacionesUsuario(eq(USUARIO), any(), any(), any(), anyList())).thenReturn(List.of());
+		when(citaRepository.saveAll(anyList())).thenAnswer(inv -> {
+			List<Cita> citas = inv.getArgument(0);
+			citas.forEach(cita -> cita.setId(secuencia.incrementAndGet()));
+			return citas;
+		});
+		when(usuarioRepository.getReferenceById(anyLong())).thenReturn(new Usuario("Usuario", "usuario@test.com", "clave", null));
+		when(servicioRepository.getReferenceById(anyLong())).thenReturn(new Servicio("Terapia", null, "50 minutos", 50000.0));
+		when(profesionalRepository.getReferenceById(anyLong())).thenReturn(new Profesional("Psicología", null, null));
+
+		serieCitaService = new SerieCitaService(mock(SerieCitaRepository.class), citaRepository, usuarioRepository,
+				servicioRepository, profesionalRepository, new IndiceAgenda(citaRepository), new BloqueosAgenda(),
+				mock(ReservaFranjaService.class), evento -> {});
+	}
+
+	@Test
+	void todoONadaNoAgendaNadaSiUnaFechaChoca() {
+		ocupar(2);
+
+		assertThatThrownBy(() -> serieCitaService.agendarSerie(serie(4, PoliticaSerie.TODO_O_NADA)))
+				.isInstanceOf(BusinessRuleException.class);
+		verify(citaRepository, never()).saveAll(anyList());
+	}
+
+	@Test
+	void aceptarParcialAgendaLasLibresEInformaLasQueFaltan() {
+		ocupar(2);
+
+		SerieCitaResultadoDTO resultado = serieCitaService.agendarSerie(serie(4, PoliticaSerie.ACEPTAR_PARCIAL));
+
+		assertThat(fechas(resultado)).containsExactly(semana(0), semana(1), semana(3));
+		assertThat(resultado.getOmitidas()).containsExactly(semana(2));
+		assertThat(resultado.getSesionesSinAgendar()).isEqualTo(1);
+	}
+
+	@Test
+	void omitirYExtenderReponeLasFechasOcupadasAlFinal() {
+		ocupar(1);
+		ocupar(2);
+
+		SerieCitaResultadoDTO resultado = serieCitaService.agendarSerie(serie(4, PoliticaSerie.OMITIR_Y_EXTENDER));
+
+		assertThat(fechas(resultado)).containsExactly(semana(0), semana(3), semana(4), semana(5));
+		assertThat(resultado.getOmitidas()).containsExactly(semana(1), semana(2));
+		assertThat(resultado.getSesionesSinAgendar()).isZero();
+	}
+
+	@Test
+	void omitirYExtenderInformaLasSesionesQueNoCabenEnLasFechasExtra() {
+		// Solo la primera fecha y la última extra están libres
+		int ultima = 3 + SerieCitaService.FECHAS_EXTRA_MAXIMAS - 1;
+		for (int semana = 1; semana < ultima; semana++) {
+			ocupar(semana);
+		}
+
+		SerieCitaResultadoDTO resultado = serieCitaService.agendarSerie(serie(3, PoliticaSerie.OMITIR_Y_EXTENDER));
+
+		assertThat(fechas(resultado)).containsExactly(semana(0), semana(ultima));
+		assertThat(resultado.getOmitidas()).hasSize(ultima - 1);
+		assertThat(resultado.getSesionesSinAgendar()).isEqualTo(1);
+	}
+
+	private void ocupar(int semana) {
+		ocupadas.add(new Object[] {100L + semana, semana(semana), semana(semana).plusMinutes(50)});
+	}
+
+	private LocalDateTime semana(int semana) {
+		return primera.plusWeeks(semana);
+	}
+
+	private SerieCitaCreateDTO serie(int sesiones, PoliticaSerie politica) {
+		SerieCitaCreateDTO dto = new SerieCitaCreateDTO();
+		dto.setUsuarioId(USUARIO);
+		dto.setServicioId(SERVICIO);
+		dto.setProfesionalId(PROFESIONAL);
+		dto.setFechaHora(primera);
+		dto.setSesiones(sesiones);
+		dto.setPolitica(politica);
+		return dto;
+	}
+
+	private static List<LocalDateTime> fechas(SerieCitaResultadoDTO resultado) {
+		return resultado.getCitas().stream().map(CitaResponseDTO::getFechaHora).toList();
+	}
+}